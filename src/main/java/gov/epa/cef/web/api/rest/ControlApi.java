@@ -237,10 +237,10 @@ public class ControlApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ControlBulkUploadDto> csvRows = controlService.retrieveControls(programSystemCode, year);
-    	CsvBuilder<ControlBulkUploadDto> csvBuilder = new CsvBuilder<ControlBulkUploadDto>(ControlBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlService.streamControls(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlBulkUploadDto> csvBuilder = new CsvBuilder<ControlBulkUploadDto>(ControlBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -254,10 +254,10 @@ public class ControlApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltControls(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ControlBulkUploadDto> csvRows = controlService.retrieveControls(programSystemCode, year);
-    	CsvBuilder<ControlBulkUploadDto> csvBuilder = new CsvBuilder<ControlBulkUploadDto>(ControlBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlService.streamControls(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlBulkUploadDto> csvBuilder = new CsvBuilder<ControlBulkUploadDto>(ControlBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -276,10 +276,10 @@ public class ControlApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ControlAssignmentBulkUploadDto> csvRows = controlService.retrieveControlAssignments(programSystemCode, year);
-    	CsvBuilder<ControlAssignmentBulkUploadDto> csvBuilder = new CsvBuilder<ControlAssignmentBulkUploadDto>(ControlAssignmentBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlService.streamControlAssignments(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlAssignmentBulkUploadDto> csvBuilder = new CsvBuilder<ControlAssignmentBulkUploadDto>(ControlAssignmentBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -293,10 +293,10 @@ public class ControlApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltControlAssignments(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ControlAssignmentBulkUploadDto> csvRows = controlService.retrieveControlAssignments(programSystemCode, year);
-    	CsvBuilder<ControlAssignmentBulkUploadDto> csvBuilder = new CsvBuilder<ControlAssignmentBulkUploadDto>(ControlAssignmentBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlService.streamControlAssignments(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlAssignmentBulkUploadDto> csvBuilder = new CsvBuilder<ControlAssignmentBulkUploadDto>(ControlAssignmentBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 
     
@@ -315,10 +315,10 @@ public class ControlApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ControlPollutantBulkUploadDto> csvRows = controlService.retrieveControlPollutants(programSystemCode, year);
-    	CsvBuilder<ControlPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPollutantBulkUploadDto>(ControlPollutantBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlService.streamControlPollutants(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPollutantBulkUploadDto>(ControlPollutantBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -332,9 +332,9 @@ public class ControlApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltControlPollutants(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ControlPollutantBulkUploadDto> csvRows = controlService.retrieveControlPollutants(programSystemCode, year);
-    	CsvBuilder<ControlPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPollutantBulkUploadDto>(ControlPollutantBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlService.streamControlPollutants(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPollutantBulkUploadDto>(ControlPollutantBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
@@ -368,10 +368,10 @@ public class ControlPathApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ControlPathBulkUploadDto> csvRows = controlPathService.retrieveControlPaths(programSystemCode, year);
-    	CsvBuilder<ControlPathBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathBulkUploadDto>(ControlPathBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlPathService.streamControlPaths(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlPathBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathBulkUploadDto>(ControlPathBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -386,10 +386,10 @@ public class ControlPathApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltControlPaths(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ControlPathBulkUploadDto> csvRows = controlPathService.retrieveControlPaths(programSystemCode, year);
-    	CsvBuilder<ControlPathBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathBulkUploadDto>(ControlPathBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlPathService.streamControlPaths(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlPathBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathBulkUploadDto>(ControlPathBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -408,10 +408,10 @@ public class ControlPathApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ControlPathPollutantBulkUploadDto> csvRows = controlPathService.retrieveControlPathPollutants(programSystemCode, year);
-    	CsvBuilder<ControlPathPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathPollutantBulkUploadDto>(ControlPathPollutantBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlPathService.streamControlPathPollutants(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlPathPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathPollutantBulkUploadDto>(ControlPathPollutantBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -425,9 +425,9 @@ public class ControlPathApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltControlPathPollutants(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ControlPathPollutantBulkUploadDto> csvRows = controlPathService.retrieveControlPathPollutants(programSystemCode, year);
-    	CsvBuilder<ControlPathPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathPollutantBulkUploadDto>(ControlPathPollutantBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	controlPathService.streamControlPathPollutants(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ControlPathPollutantBulkUploadDto> csvBuilder = new CsvBuilder<ControlPathPollutantBulkUploadDto>(ControlPathPollutantBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
 import gov.epa.cdx.shared.security.ApplicationUser;
 import gov.epa.cef.web.client.soap.VirusScanClient;
+import gov.epa.cef.web.exception.NotExistException;
 import gov.epa.cef.web.exception.ReportAttachmentValidationException;
 import gov.epa.cef.web.exception.VirusScanException;
 import gov.epa.cef.web.repository.EmissionsReportRepository;
@@ -35,9 +36,11 @@ import gov.epa.cef.web.service.dto.EisHeaderDto;
 import gov.epa.cef.web.service.dto.EisTransactionAttachmentDto;
 import gov.epa.cef.web.service.dto.EisSubmissionStatus;
 import gov.epa.cef.web.service.dto.EisTransactionHistoryDto;
+import gov.epa.cef.web.service.dto.EisTransmissionJobDto;
 import gov.epa.cef.web.service.dto.bulkUpload.WorksheetError;
 import gov.epa.cef.web.service.dto.simple.SimpleStringValue;
 import gov.epa.cef.web.service.impl.EisAttachmentServiceImpl;
+import gov.epa.cef.web.service.impl.EisTransmissionJobServiceImpl;
 import gov.epa.cef.web.service.impl.EisTransmissionServiceImpl;
 import gov.epa.cef.web.service.impl.EisXmlServiceImpl;
 import gov.epa.cef.web.util.TempFile;
@@ -81,6 +84,8 @@ public class EisApi {
     
     private final EisTransmissionServiceImpl eisTransmissionService;
 
+    private final EisTransmissionJobServiceImpl eisTransmissionJobService;
+
     private final EisXmlServiceImpl eisXmlService;
 
     private final SecurityService securityService;
@@ -95,6 +100,7 @@ public class EisApi {
     EisApi(SecurityService securityService,
            EisAttachmentServiceImpl attachmentService,
            EisTransmissionServiceImpl eisTransmissionService,
+           EisTransmissionJobServiceImpl eisTransmissionJobService,
            EisXmlServiceImpl eisXmlService,
            VirusScanClient virusScanClient,
            ObjectMapper objectMapper) {
@@ -104,6 +110,7 @@ public class EisApi {
         this.eisXmlService = eisXmlService;
 
         this.eisTransmissionService = eisTransmissionService;
+        this.eisTransmissionJobService = eisTransmissionJobService;
         this.virusScanClient = virusScanClient;
         this.objectMapper = objectMapper;
     }
@@ -133,6 +140,59 @@ public class EisApi {
 
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
+
+    /**
+     * Queue an EIS transaction to be generated and submitted by a background worker, the returned job
+     * is polled for the result
+     *
+     * @param eisHeader
+     * @return
+     */
+    @Validated(EisHeaderDto.EisApiGroup.class)
+    @PostMapping(value = "/transaction/job",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EisTransmissionJobDto> createTransactionJob(@NotNull @RequestBody EisHeaderDto eisHeader) {
+
+        Preconditions.checkArgument(eisHeader.getSubmissionStatus() != null,
+            "SubmissionStatus can not be null.");
+
+        Preconditions.checkArgument(eisHeader.getEmissionsReports().size() > 0,
+            "EmissionsReportIds must contain at lease one ID.");
+
+        this.securityService.facilityEnforcer()
+            .enforceEntities(eisHeader.getEmissionsReports(), EmissionsReportRepository.class);
+
+        ApplicationUser appUser = this.securityService.getCurrentApplicationUser();
+
+        eisHeader.withProgramSystemCode(appUser.getClientId())
+            .withAuthorName(String.format("%s %s", appUser.getFirstName(), appUser.getLastName()))
+            .withOrganizationName(appUser.getOrganization());
+
+        EisTransmissionJobDto result = this.eisTransmissionJobService.submit(eisHeader);
+
+        return new ResponseEntity<>(result, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Retrieve the stage and result of a queued EIS transaction
+     *
+     * @param jobId
+     * @return
+     */
+    @GetMapping(value = "/transaction/job/{jobId}",
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EisTransmissionJobDto> retrieveTransactionJob(@NotNull @PathVariable String jobId) {
+
+        ApplicationUser appUser = this.securityService.getCurrentApplicationUser();
+
+        // jobs are only visible to users of the program system that queued them
+        EisTransmissionJobDto result = this.eisTransmissionJobService.retrieveJob(jobId)
+            .filter(job -> job.getProgramSystemCode().equals(appUser.getClientId()))
+            .orElseThrow(() -> new NotExistException("EisTransmissionJob", jobId));
+
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
     
     @PutMapping(value = "/emissionsReport/{id}/passed",
             consumes = MediaType.APPLICATION_JSON_VALUE,
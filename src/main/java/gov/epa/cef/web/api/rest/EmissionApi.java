@@ -218,10 +218,10 @@ public class EmissionApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<EmissionBulkUploadDto> csvRows = emissionService.retrieveEmissions(programSystemCode, year);
-    	CsvBuilder<EmissionBulkUploadDto> csvBuilder = new CsvBuilder<EmissionBulkUploadDto>(EmissionBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	emissionService.streamEmissions(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionBulkUploadDto> csvBuilder = new CsvBuilder<EmissionBulkUploadDto>(EmissionBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -235,10 +235,10 @@ public class EmissionApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltEmissions(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<EmissionBulkUploadDto> csvRows = emissionService.retrieveEmissions(programSystemCode, year);
-    	CsvBuilder<EmissionBulkUploadDto> csvBuilder = new CsvBuilder<EmissionBulkUploadDto>(EmissionBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	emissionService.streamEmissions(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionBulkUploadDto> csvBuilder = new CsvBuilder<EmissionBulkUploadDto>(EmissionBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -257,10 +257,10 @@ public class EmissionApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<EmissionFormulaVariableBulkUploadDto> csvRows = emissionService.retrieveEmissionFormulaVariables(programSystemCode, year);
-    	CsvBuilder<EmissionFormulaVariableBulkUploadDto> csvBuilder = new CsvBuilder<EmissionFormulaVariableBulkUploadDto>(EmissionFormulaVariableBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	emissionService.streamEmissionFormulaVariables(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionFormulaVariableBulkUploadDto> csvBuilder = new CsvBuilder<EmissionFormulaVariableBulkUploadDto>(EmissionFormulaVariableBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -274,9 +274,9 @@ public class EmissionApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltEmissionFormulaVariables(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<EmissionFormulaVariableBulkUploadDto> csvRows = emissionService.retrieveEmissionFormulaVariables(programSystemCode, year);
-    	CsvBuilder<EmissionFormulaVariableBulkUploadDto> csvBuilder = new CsvBuilder<EmissionFormulaVariableBulkUploadDto>(EmissionFormulaVariableBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	emissionService.streamEmissionFormulaVariables(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionFormulaVariableBulkUploadDto> csvBuilder = new CsvBuilder<EmissionFormulaVariableBulkUploadDto>(EmissionFormulaVariableBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
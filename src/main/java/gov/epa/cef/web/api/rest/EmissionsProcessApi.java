@@ -199,10 +199,10 @@ public class EmissionsProcessApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<EmissionsProcessBulkUploadDto> csvRows = processService.retrieveEmissionsProcesses(programSystemCode, year);
-    	CsvBuilder<EmissionsProcessBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsProcessBulkUploadDto>(EmissionsProcessBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	processService.streamEmissionsProcesses(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionsProcessBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsProcessBulkUploadDto>(EmissionsProcessBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -216,9 +216,9 @@ public class EmissionsProcessApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltEmissionsProcesses(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<EmissionsProcessBulkUploadDto> csvRows = processService.retrieveEmissionsProcesses(programSystemCode, year);
-    	CsvBuilder<EmissionsProcessBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsProcessBulkUploadDto>(EmissionsProcessBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	processService.streamEmissionsProcesses(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionsProcessBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsProcessBulkUploadDto>(EmissionsProcessBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
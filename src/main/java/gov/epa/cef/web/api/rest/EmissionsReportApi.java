@@ -25,22 +25,28 @@ import gov.epa.cef.web.domain.ReportAction;
 import gov.epa.cef.web.exception.ApplicationErrorCode;
 import gov.epa.cef.web.exception.ApplicationException;
 import gov.epa.cef.web.exception.BulkReportValidationException;
+import gov.epa.cef.web.exception.NotExistException;
 import gov.epa.cef.web.exception.VirusScanException;
 import gov.epa.cef.web.repository.EmissionsReportRepository;
 import gov.epa.cef.web.security.AppRole;
 import gov.epa.cef.web.security.SecurityService;
+import gov.epa.cef.web.service.BulkUploadJobService;
 import gov.epa.cef.web.service.BulkUploadService;
 import gov.epa.cef.web.service.EmissionsReportExportService;
 import gov.epa.cef.web.service.EmissionsReportService;
 import gov.epa.cef.web.service.EmissionsReportStatusService;
 import gov.epa.cef.web.service.EmissionsReportValidationService;
 import gov.epa.cef.web.service.FacilitySiteService;
+import gov.epa.cef.web.service.ProgramDataPackageService;
 import gov.epa.cef.web.service.ReportService;
+import gov.epa.cef.web.service.UserService;
 import gov.epa.cef.web.service.dto.EmissionsReportAgencyDataDto;
 import gov.epa.cef.web.service.dto.EmissionsReportDto;
 import gov.epa.cef.web.service.dto.EmissionsReportStarterDto;
 import gov.epa.cef.web.service.dto.EntityRefDto;
 import gov.epa.cef.web.service.dto.FacilitySiteDto;
+import gov.epa.cef.web.service.dto.UserDto;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadJobDto;
 import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
 import gov.epa.cef.web.service.dto.bulkUpload.WorksheetError;
 import gov.epa.cef.web.service.validation.ValidationResult;
@@ -95,10 +101,16 @@ public class EmissionsReportApi {
 
     private final BulkUploadService uploadService;
 
+    private final BulkUploadJobService uploadJobService;
+
     private final VirusScanClient virusScanClient;
 
     private final EmissionsReportValidationService validationService;
 
+    private final ProgramDataPackageService dataPackageService;
+
+    private final UserService userService;
+
     Logger LOGGER = LoggerFactory.getLogger(EmissionsReportApi.class);
 
     @Autowired
@@ -110,7 +122,10 @@ public class EmissionsReportApi {
                        ReportService reportService,
                        EmissionsReportValidationService validationService,
                        BulkUploadService uploadService,
+                       BulkUploadJobService uploadJobService,
                        VirusScanClient virusScanClient,
+                       ProgramDataPackageService dataPackageService,
+                       UserService userService,
                        ObjectMapper objectMapper) {
 
         this.securityService = securityService;
@@ -121,7 +136,10 @@ public class EmissionsReportApi {
         this.reportService = reportService;
         this.validationService = validationService;
         this.uploadService = uploadService;
+        this.uploadJobService = uploadJobService;
         this.virusScanClient = virusScanClient;
+        this.dataPackageService = dataPackageService;
+        this.userService = userService;
 
         this.objectMapper = objectMapper;
     }
@@ -225,6 +243,63 @@ public class EmissionsReportApi {
         return new ResponseEntity<>(result, status);
     }
 
+    /**
+     * Queue a workbook upload to be processed in the background, poll the returned job for its progress
+     *
+     * @param masterFacilityRecordId
+     * @param workbook
+     * @param reportDto
+     * @return
+     */
+    @PostMapping(value = "/facility/{masterFacilityRecordId}/bulkUpload",
+        consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkUploadJobDto> submitBulkUpload(
+        @NotNull @PathVariable Long masterFacilityRecordId,
+        @NotBlank @RequestPart("workbook") MultipartFile workbook,
+        @NotNull @RequestPart("metadata") EmissionsReportStarterDto reportDto) {
+
+        this.securityService.facilityEnforcer().enforceMasterId(masterFacilityRecordId);
+
+        reportDto.setMasterFacilityRecordId(masterFacilityRecordId);
+
+        if (reportDto.getYear() == null) {
+            throw new ApplicationException(ApplicationErrorCode.E_INVALID_ARGUMENT, "Reporting Year must be set.");
+        }
+
+        TempFile tempFile;
+        try {
+
+            tempFile = TempFile.from(workbook.getInputStream(), workbook.getOriginalFilename());
+
+        } catch (IOException e) {
+
+            throw new IllegalStateException(e);
+        }
+
+        // the job owns the temp file from here on
+        BulkUploadJobDto result = this.uploadJobService.submit(reportDto, tempFile);
+
+        return new ResponseEntity<>(result, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Retrieve the stage, progress and errors of a queued workbook upload
+     *
+     * @param jobId
+     * @return
+     */
+    @GetMapping(value = "/bulkUpload/{jobId}")
+    public ResponseEntity<BulkUploadJobDto> retrieveBulkUpload(@NotNull @PathVariable String jobId) {
+
+        BulkUploadJobDto result = this.uploadJobService.retrieveJob(jobId)
+            .orElseThrow(() -> new NotExistException("BulkUploadJob", jobId));
+
+        this.securityService.facilityEnforcer().enforceMasterId(result.getMasterFacilityRecordId());
+
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     /**
      * Creates an Emissions Report from either previous report
      *
@@ -333,6 +408,43 @@ public class EmissionsReportApi {
                 });
     }
 
+    /**
+     * Generate a ZIP file of the CSV exports of every worksheet based on the reviewer's program system code
+     * and the given inventory year
+     *
+     * @param year
+     * @return
+     */
+    @GetMapping(value = "/package/csv/{year}")
+    @RolesAllowed(value = {AppRole.ROLE_REVIEWER})
+    public ResponseEntity<StreamingResponseBody> exportDataPackage(@NotNull @PathVariable Short year) {
+
+        UserDto user = userService.getCurrentUser();
+        String programSystemCode = user.getProgramSystemCode();
+
+        // checked once for the whole package instead of once per worksheet
+        List<Long> facilityIds = facilitySiteService.getFacilityIds(programSystemCode, year);
+        this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
+
+        return createDataPackageResponse(programSystemCode, year);
+    }
+
+    /**
+     * Generate a ZIP file of the CSV exports of every worksheet based on the given program system code
+     * and inventory year
+     *
+     * @param programSystemCode
+     * @param year
+     * @return
+     */
+    @GetMapping(value = "/package/csv/{programSystemCode}/{year}")
+    @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
+    public ResponseEntity<StreamingResponseBody> exportDataPackage(
+        @NotNull @PathVariable String programSystemCode, @NotNull @PathVariable Short year) {
+
+        return createDataPackageResponse(programSystemCode, year);
+    }
+
     /**
      * Reject the specified reports and move back to in progress
      *
@@ -516,6 +628,18 @@ public class EmissionsReportApi {
         return result;
     }
 
+    private ResponseEntity<StreamingResponseBody> createDataPackageResponse(String programSystemCode, Short year) {
+
+        String fileName = String.format("%s_%d_data.zip", programSystemCode, year);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s\"", fileName))
+                .body(outputStream -> {
+                    dataPackageService.writeDataPackage(programSystemCode, year, outputStream);
+                });
+    }
+
     public static class ReviewDTO {
 
         private String comments;
@@ -177,10 +177,10 @@ public class EmissionsUnitApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<EmissionsUnitBulkUploadDto> csvRows = emissionsUnitService.retrieveEmissionsUnits(programSystemCode, year);
-    	CsvBuilder<EmissionsUnitBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsUnitBulkUploadDto>(EmissionsUnitBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	emissionsUnitService.streamEmissionsUnits(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionsUnitBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsUnitBulkUploadDto>(EmissionsUnitBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -194,9 +194,9 @@ public class EmissionsUnitApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltEmissionsUnits(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<EmissionsUnitBulkUploadDto> csvRows = emissionsUnitService.retrieveEmissionsUnits(programSystemCode, year);
-    	CsvBuilder<EmissionsUnitBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsUnitBulkUploadDto>(EmissionsUnitBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	emissionsUnitService.streamEmissionsUnits(programSystemCode, year, csvRows -> {
+    		CsvBuilder<EmissionsUnitBulkUploadDto> csvBuilder = new CsvBuilder<EmissionsUnitBulkUploadDto>(EmissionsUnitBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
@@ -165,10 +165,10 @@ public class FacilitySiteContactApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<FacilitySiteContactBulkUploadDto> csvRows = facilitySiteContactService.retrieveFacilitySiteContacts(programSystemCode, year);
-    	CsvBuilder<FacilitySiteContactBulkUploadDto> csvBuilder = new CsvBuilder<FacilitySiteContactBulkUploadDto>(FacilitySiteContactBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	facilitySiteContactService.streamFacilitySiteContacts(programSystemCode, year, csvRows -> {
+    		CsvBuilder<FacilitySiteContactBulkUploadDto> csvBuilder = new CsvBuilder<FacilitySiteContactBulkUploadDto>(FacilitySiteContactBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -182,9 +182,9 @@ public class FacilitySiteContactApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltFacilityContacts(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<FacilitySiteContactBulkUploadDto> csvRows = facilitySiteContactService.retrieveFacilitySiteContacts(programSystemCode, year);
-    	CsvBuilder<FacilitySiteContactBulkUploadDto> csvBuilder = new CsvBuilder<FacilitySiteContactBulkUploadDto>(FacilitySiteContactBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	facilitySiteContactService.streamFacilitySiteContacts(programSystemCode, year, csvRows -> {
+    		CsvBuilder<FacilitySiteContactBulkUploadDto> csvBuilder = new CsvBuilder<FacilitySiteContactBulkUploadDto>(FacilitySiteContactBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
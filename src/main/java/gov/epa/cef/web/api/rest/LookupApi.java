@@ -16,19 +16,32 @@
 */
 package gov.epa.cef.web.api.rest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import javax.validation.constraints.NotNull;
 
+import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import gov.epa.cef.web.service.LookupBundleService;
+import gov.epa.cef.web.service.LookupSearchService;
 import gov.epa.cef.web.service.LookupService;
 import gov.epa.cef.web.service.dto.AircraftEngineTypeCodeDto;
 import gov.epa.cef.web.service.dto.CalculationMaterialCodeDto;
@@ -39,9 +52,11 @@ import gov.epa.cef.web.service.dto.EnergyConversionFactorDto;
 import gov.epa.cef.web.service.dto.FacilityCategoryCodeDto;
 import gov.epa.cef.web.service.dto.FipsCountyDto;
 import gov.epa.cef.web.service.dto.FipsStateCodeDto;
+import gov.epa.cef.web.service.dto.LookupBundleDto;
 import gov.epa.cef.web.service.dto.PointSourceSccCodeDto;
 import gov.epa.cef.web.service.dto.PollutantDto;
 import gov.epa.cef.web.service.dto.UnitMeasureCodeDto;
+import gov.epa.cef.web.service.impl.LookupBundleServiceImpl.LookupBundleConfig;
 
 @RestController
 @RequestMapping("/api/lookup")
@@ -50,6 +65,92 @@ public class LookupApi {
     @Autowired
     private LookupService lookupService;
 
+    @Autowired
+    private LookupBundleService lookupBundleService;
+
+    @Autowired
+    private LookupBundleConfig lookupBundleConfig;
+
+    @Autowired
+    private LookupSearchService lookupSearchService;
+
+    /**
+     * Retrieve the code tables used by the reporting screens for a reporting year in a single response.
+     * The JSON is built once and sent gzipped with an ETag so unchanged tables are revalidated with a 304.
+     * Years outside of the last lookup-bundle.max-years are rejected with a 422.
+     * @param year
+     * @param acceptEncoding
+     * @return
+     */
+    @GetMapping(value = "/bundle/{year}")
+    public ResponseEntity<byte[]> retrieveLookupBundle(@NotNull @PathVariable Integer year,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        LookupBundleDto bundle = lookupBundleService.retrieveLookupBundle(year);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .cacheControl(CacheControl.maxAge(lookupBundleConfig.getMaxAgeSeconds(), TimeUnit.SECONDS).cachePrivate())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        // the gzipped and plain bodies are different representations so they can't share a strong ETag
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(bundle.getETag() + "-gz")
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(bundle.getGzippedJson());
+        }
+
+        response.eTag(bundle.getETag());
+
+        try (InputStream json = new GZIPInputStream(new ByteArrayInputStream(bundle.getGzippedJson()))) {
+            return response.body(IOUtils.toByteArray(json));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip, either by name or through a wildcard, with a quality above 0
+     * @param acceptEncoding
+     * @return
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double gzip = null;
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if ("gzip".equalsIgnoreCase(name)) {
+                gzip = quality;
+            } else if ("*".equals(name)) {
+                wildcard = quality;
+            }
+        }
+
+        // an explicit gzip entry overrides the wildcard
+        Double quality = gzip != null ? gzip : wildcard;
+        return quality != null && quality > 0;
+    }
+
     /**
      * Retrieve Calculation Material codes
      * @return
@@ -480,6 +581,54 @@ public class LookupApi {
         List<CodeLookupDto> result = lookupService.retrieveCurrentReleasePointTypeCodes(year);
         return new ResponseEntity<List<CodeLookupDto>>(result, HttpStatus.OK);
     }
+
+    /**
+     * Search SCC codes current for a specific year by the start of the words in their code and descriptions
+     * @param year
+     * @param term
+     * @param limit maximum number of results, the configured default when not given
+     * @return
+     */
+    @GetMapping(value = "/search/scc/{year}")
+    @ResponseBody
+    public ResponseEntity<List<PointSourceSccCodeDto>> searchSccCodes(@NotNull @PathVariable Integer year,
+        @RequestParam String term, @RequestParam(defaultValue = "0") int limit) {
+
+        List<PointSourceSccCodeDto> result = lookupSearchService.searchSccCodes(term, year, limit);
+        return new ResponseEntity<List<PointSourceSccCodeDto>>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Search NAICS codes current for a specific year by the start of the words in their code and description
+     * @param year
+     * @param term
+     * @param limit maximum number of results, the configured default when not given
+     * @return
+     */
+    @GetMapping(value = "/search/naicsCode/{year}")
+    @ResponseBody
+    public ResponseEntity<List<CodeLookupDto>> searchNaicsCodes(@NotNull @PathVariable Integer year,
+        @RequestParam String term, @RequestParam(defaultValue = "0") int limit) {
+
+        List<CodeLookupDto> result = lookupSearchService.searchNaicsCodes(term, year, limit);
+        return new ResponseEntity<List<CodeLookupDto>>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Search Pollutants current for a specific year by the start of the words in their code, name and CAS id
+     * @param year
+     * @param term
+     * @param limit maximum number of results, the configured default when not given
+     * @return
+     */
+    @GetMapping(value = "/search/pollutant/{year}")
+    @ResponseBody
+    public ResponseEntity<List<PollutantDto>> searchPollutants(@NotNull @PathVariable Integer year,
+        @RequestParam String term, @RequestParam(defaultValue = "0") int limit) {
+
+        List<PollutantDto> result = lookupSearchService.searchPollutants(term, year, limit);
+        return new ResponseEntity<List<PollutantDto>>(result, HttpStatus.OK);
+    }
     
     @GetMapping(value = "/{searchTerm}")
     @ResponseBody
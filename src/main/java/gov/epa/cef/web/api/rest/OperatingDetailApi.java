@@ -102,10 +102,10 @@ public class OperatingDetailApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<OperatingDetailBulkUploadDto> csvRows = operatingDetailService.retrieveOperatingDetails(programSystemCode, year);
-    	CsvBuilder<OperatingDetailBulkUploadDto> csvBuilder = new CsvBuilder<OperatingDetailBulkUploadDto>(OperatingDetailBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	operatingDetailService.streamOperatingDetails(programSystemCode, year, csvRows -> {
+    		CsvBuilder<OperatingDetailBulkUploadDto> csvBuilder = new CsvBuilder<OperatingDetailBulkUploadDto>(OperatingDetailBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -119,9 +119,9 @@ public class OperatingDetailApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltOperatingDetails(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<OperatingDetailBulkUploadDto> csvRows = operatingDetailService.retrieveOperatingDetails(programSystemCode, year);
-    	CsvBuilder<OperatingDetailBulkUploadDto> csvBuilder = new CsvBuilder<OperatingDetailBulkUploadDto>(OperatingDetailBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	operatingDetailService.streamOperatingDetails(programSystemCode, year, csvRows -> {
+    		CsvBuilder<OperatingDetailBulkUploadDto> csvBuilder = new CsvBuilder<OperatingDetailBulkUploadDto>(OperatingDetailBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
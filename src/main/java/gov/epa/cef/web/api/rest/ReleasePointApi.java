@@ -227,10 +227,10 @@ public class ReleasePointApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ReleasePointBulkUploadDto> csvRows = releasePointService.retrieveReleasePoints(programSystemCode, year);
-    	CsvBuilder<ReleasePointBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointBulkUploadDto>(ReleasePointBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	releasePointService.streamReleasePoints(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ReleasePointBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointBulkUploadDto>(ReleasePointBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -244,10 +244,10 @@ public class ReleasePointApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltReleasePoints(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ReleasePointBulkUploadDto> csvRows = releasePointService.retrieveReleasePoints(programSystemCode, year);
-    	CsvBuilder<ReleasePointBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointBulkUploadDto>(ReleasePointBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	releasePointService.streamReleasePoints(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ReleasePointBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointBulkUploadDto>(ReleasePointBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 
 
@@ -266,10 +266,10 @@ public class ReleasePointApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ReleasePointApptBulkUploadDto> csvRows = releasePointService.retrieveReleasePointAppts(programSystemCode, year);
-    	CsvBuilder<ReleasePointApptBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointApptBulkUploadDto>(ReleasePointApptBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	releasePointService.streamReleasePointAppts(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ReleasePointApptBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointApptBulkUploadDto>(ReleasePointApptBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -283,9 +283,9 @@ public class ReleasePointApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltReleasePointApportionments(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ReleasePointApptBulkUploadDto> csvRows = releasePointService.retrieveReleasePointAppts(programSystemCode, year);
-    	CsvBuilder<ReleasePointApptBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointApptBulkUploadDto>(ReleasePointApptBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	releasePointService.streamReleasePointAppts(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ReleasePointApptBulkUploadDto> csvBuilder = new CsvBuilder<ReleasePointApptBulkUploadDto>(ReleasePointApptBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
@@ -192,10 +192,10 @@ public class ReportingPeriodApi {
         List<Long> facilityIds = facilityService.getFacilityIds(programSystemCode, year);
         this.securityService.facilityEnforcer().enforceFacilitySites(facilityIds);
 
-    	List<ReportingPeriodBulkUploadDto> csvRows = reportingPeriodService.retrieveReportingPeriods(programSystemCode, year);
-    	CsvBuilder<ReportingPeriodBulkUploadDto> csvBuilder = new CsvBuilder<ReportingPeriodBulkUploadDto>(ReportingPeriodBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	reportingPeriodService.streamReportingPeriods(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ReportingPeriodBulkUploadDto> csvBuilder = new CsvBuilder<ReportingPeriodBulkUploadDto>(ReportingPeriodBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
     
 
@@ -209,9 +209,9 @@ public class ReportingPeriodApi {
     @RolesAllowed(value = {AppRole.ROLE_CAERS_ADMIN, AppRole.ROLE_ADMIN})
     public void getSltReportingPeriods(@PathVariable String programSystemCode, @PathVariable Short year, HttpServletResponse response) {
 
-    	List<ReportingPeriodBulkUploadDto> csvRows = reportingPeriodService.retrieveReportingPeriods(programSystemCode, year);
-    	CsvBuilder<ReportingPeriodBulkUploadDto> csvBuilder = new CsvBuilder<ReportingPeriodBulkUploadDto>(ReportingPeriodBulkUploadDto.class, csvRows);
-    	
-    	WebUtils.WriteCsv(response, csvBuilder);
+    	reportingPeriodService.streamReportingPeriods(programSystemCode, year, csvRows -> {
+    		CsvBuilder<ReportingPeriodBulkUploadDto> csvBuilder = new CsvBuilder<ReportingPeriodBulkUploadDto>(ReportingPeriodBulkUploadDto.class, csvRows);
+    		WebUtils.WriteCsv(response, csvBuilder);
+    	});
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.api.rest;
+
+import gov.epa.cef.web.exception.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Turns a full worker pool into a 503 with a Retry-After header for every controller, so the UI can tell
+ * a busy server apart from an error. The body is the usual error response. This also covers exceptions thrown
+ * from a StreamingResponseBody, as long as nothing has been written yet.
+ */
+@ControllerAdvice
+public class ServiceBusyExceptionHandler {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @ExceptionHandler(value = ServiceBusyException.class)
+    public void serviceBusy(ServiceBusyException exception, HttpServletResponse response) throws IOException {
+
+        logger.warn("Request rejected: {}", exception.getMessage());
+
+        // a streamed download is rejected before its first byte but may already have its content type and file name
+        response.reset();
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()));
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getMessage());
+    }
+}
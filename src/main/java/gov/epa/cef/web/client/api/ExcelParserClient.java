@@ -164,6 +164,11 @@ public class ExcelParserClient {
         @NotNull
         private URL baseUrl;
 
+        /**
+         * Parse workbooks in-process instead of calling the excel-json-parser service
+         */
+        private boolean embedded;
+
         public URL getBaseUrl() {
 
             return baseUrl;
@@ -179,5 +184,21 @@ public class ExcelParserClient {
             setBaseUrl(baseUrl);
             return this;
         }
+
+        public boolean isEmbedded() {
+
+            return embedded;
+        }
+
+        public void setEmbedded(boolean embedded) {
+
+            this.embedded = embedded;
+        }
+
+        public ExcelParserClientConfig withEmbedded(final boolean embedded) {
+
+            setEmbedded(embedded);
+            return this;
+        }
     }
 }
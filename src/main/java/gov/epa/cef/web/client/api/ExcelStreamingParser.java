@@ -0,0 +1,309 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.client.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import gov.epa.cef.web.exception.BulkReportValidationException;
+import gov.epa.cef.web.service.dto.bulkUpload.BlankToNullModule;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlAssignmentBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPathBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPathPollutantBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPollutantBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionFormulaVariableBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsProcessBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsUnitBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.FacilityNAICSBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.FacilitySiteBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.FacilitySiteContactBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.OperatingDetailBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReleasePointApptBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReleasePointBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReportingPeriodBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.VersionBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.WorksheetError;
+import gov.epa.cef.web.service.dto.bulkUpload.WorksheetName;
+import gov.epa.cef.web.util.TempFile;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-process replacement for the remote excel-json-parser service. Reads the bulk upload template with the
+ * POI event (SAX) API one row at a time and maps each row straight to its worksheet DTO.
+ */
+@Component
+public class ExcelStreamingParser {
+
+    /**
+     * Zero-based row of the template holding the JSON key for each column
+     */
+    static final int JSON_KEY_ROW = 12;
+
+    /**
+     * Number of instruction and header rows above the first data row
+     */
+    static final int HEADER_ROWS = 23;
+
+    private static final Map<WorksheetName, SheetTarget<?>> SHEETS = new EnumMap<>(WorksheetName.class);
+
+    static {
+        SHEETS.put(WorksheetName.FacilitySite, new SheetTarget<>(FacilitySiteBulkUploadDto.class, EmissionsReportBulkUploadDto::getFacilitySites));
+        SHEETS.put(WorksheetName.EmissionsUnit, new SheetTarget<>(EmissionsUnitBulkUploadDto.class, EmissionsReportBulkUploadDto::getEmissionsUnits));
+        SHEETS.put(WorksheetName.ReleasePoint, new SheetTarget<>(ReleasePointBulkUploadDto.class, EmissionsReportBulkUploadDto::getReleasePoints));
+        SHEETS.put(WorksheetName.EmissionsProcess, new SheetTarget<>(EmissionsProcessBulkUploadDto.class, EmissionsReportBulkUploadDto::getEmissionsProcesses));
+        SHEETS.put(WorksheetName.ReportingPeriod, new SheetTarget<>(ReportingPeriodBulkUploadDto.class, EmissionsReportBulkUploadDto::getReportingPeriods));
+        SHEETS.put(WorksheetName.Emission, new SheetTarget<>(EmissionBulkUploadDto.class, EmissionsReportBulkUploadDto::getEmissions));
+        SHEETS.put(WorksheetName.ReleasePointAppt, new SheetTarget<>(ReleasePointApptBulkUploadDto.class, EmissionsReportBulkUploadDto::getReleasePointAppts));
+        SHEETS.put(WorksheetName.OperatingDetail, new SheetTarget<>(OperatingDetailBulkUploadDto.class, EmissionsReportBulkUploadDto::getOperatingDetails));
+        SHEETS.put(WorksheetName.ControlPath, new SheetTarget<>(ControlPathBulkUploadDto.class, EmissionsReportBulkUploadDto::getControlPaths));
+        SHEETS.put(WorksheetName.Control, new SheetTarget<>(ControlBulkUploadDto.class, EmissionsReportBulkUploadDto::getControls));
+        SHEETS.put(WorksheetName.ControlAssignment, new SheetTarget<>(ControlAssignmentBulkUploadDto.class, EmissionsReportBulkUploadDto::getControlAssignments));
+        SHEETS.put(WorksheetName.ControlPollutant, new SheetTarget<>(ControlPollutantBulkUploadDto.class, EmissionsReportBulkUploadDto::getControlPollutants));
+        SHEETS.put(WorksheetName.ControlPathPollutant, new SheetTarget<>(ControlPathPollutantBulkUploadDto.class, EmissionsReportBulkUploadDto::getControlPathPollutants));
+        SHEETS.put(WorksheetName.FacilitySiteContact, new SheetTarget<>(FacilitySiteContactBulkUploadDto.class, EmissionsReportBulkUploadDto::getFacilityContacts));
+        SHEETS.put(WorksheetName.FacilityNaics, new SheetTarget<>(FacilityNAICSBulkUploadDto.class, EmissionsReportBulkUploadDto::getFacilityNAICS));
+        SHEETS.put(WorksheetName.EmissionFormulaVariable, new SheetTarget<>(EmissionFormulaVariableBulkUploadDto.class, EmissionsReportBulkUploadDto::getEmissionFormulaVariables));
+        SHEETS.put(WorksheetName.Version, new SheetTarget<>(VersionBulkUploadDto.class, EmissionsReportBulkUploadDto::getVersions));
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, WorksheetName> worksheets = new HashMap<>();
+
+    @Autowired
+    ExcelStreamingParser(ObjectMapper objectMapper) {
+
+        this.objectMapper = objectMapper.copy()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true)
+            .registerModule(new BlankToNullModule());
+
+        for (WorksheetName worksheet : WorksheetName.values()) {
+            this.worksheets.put(worksheet.sheetName(), worksheet);
+        }
+    }
+
+    public EmissionsReportBulkUploadDto parseWorkbook(TempFile workbook) {
+
+        EmissionsReportBulkUploadDto result = new EmissionsReportBulkUploadDto();
+
+        Profiler profiler = new Profiler("ExcelStreamingParser");
+        profiler.setLogger(logger);
+
+        try (OPCPackage pkg = OPCPackage.open(workbook.getFile(), PackageAccess.READ)) {
+
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+
+                try (InputStream sheet = sheets.next()) {
+
+                    WorksheetName worksheet = this.worksheets.get(sheets.getSheetName());
+
+                    // lookup and instruction sheets are never read
+                    if (worksheet != null) {
+
+                        profiler.start(worksheet.sheetName());
+
+                        RowHandler<?> rows = new RowHandler<>(worksheet, SHEETS.get(worksheet), result);
+
+                        XMLReader parser = SAXHelper.newXMLReader();
+                        parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, rows, new RawNumberFormatter(), false));
+                        parser.parse(new InputSource(sheet));
+                    }
+                }
+            }
+
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+
+            logger.error("Unable to read workbook.", e);
+
+            throw new BulkReportValidationException(Collections.singletonList(
+                WorksheetError.createSystemError("Unable to read workbook.")));
+
+        } finally {
+
+            profiler.stop().log();
+        }
+
+        return result;
+    }
+
+    /**
+     * Target DTO class and report list for the rows of a worksheet
+     */
+    private static class SheetTarget<T> {
+
+        private final Class<T> dtoClass;
+
+        private final Function<EmissionsReportBulkUploadDto, List<T>> list;
+
+        SheetTarget(Class<T> dtoClass, Function<EmissionsReportBulkUploadDto, List<T>> list) {
+
+            this.dtoClass = dtoClass;
+            this.list = list;
+        }
+    }
+
+    /**
+     * Collects the cells of each data row by JSON key and converts the completed row to its DTO
+     */
+    private class RowHandler<T> implements SheetContentsHandler {
+
+        private final Map<Integer, String> columns = new HashMap<>();
+
+        private final List<T> rows;
+
+        private final SheetTarget<T> target;
+
+        private final WorksheetName worksheet;
+
+        private ObjectNode current;
+
+        RowHandler(WorksheetName worksheet, SheetTarget<T> target, EmissionsReportBulkUploadDto report) {
+
+            this.worksheet = worksheet;
+            this.target = target;
+            this.rows = target.list.apply(report);
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+
+            this.current = rowNum >= HEADER_ROWS ? objectMapper.createObjectNode() : null;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+
+            // formula columns leave blank rows behind, only rows with a value are kept
+            if (this.current != null && this.current.size() > 0) {
+
+                this.current.put("_row", rowNum + 1);
+
+                try {
+
+                    this.rows.add(objectMapper.treeToValue(this.current, this.target.dtoClass));
+
+                } catch (JsonProcessingException e) {
+
+                    String msg = e.getOriginalMessage().replaceAll(
+                        EmissionsReportBulkUploadDto.class.getPackage().getName().concat("."), "");
+
+                    throw new BulkReportValidationException(Collections.singletonList(
+                        new WorksheetError(this.worksheet.sheetName(), rowNum + 1, msg)));
+                }
+            }
+
+            this.current = null;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+
+            if (cellReference == null || formattedValue == null || formattedValue.isEmpty()) {
+                return;
+            }
+
+            CellReference reference = new CellReference(cellReference);
+
+            // the first column only holds row labels
+            if (reference.getCol() == 0) {
+                return;
+            }
+
+            if (reference.getRow() == JSON_KEY_ROW) {
+
+                this.columns.put((int) reference.getCol(), formattedValue.trim());
+
+            } else if (this.current != null) {
+
+                String key = this.columns.get((int) reference.getCol());
+                if (key != null) {
+
+                    if ("TRUE".equals(formattedValue) || "FALSE".equals(formattedValue)) {
+                        this.current.put(key, Boolean.valueOf(formattedValue));
+                    } else {
+                        this.current.put(key, formattedValue);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+
+            // not used
+        }
+    }
+
+    /**
+     * Numbers are passed through as entered rather than in their display format so that precision
+     * hidden by a cell's number format is not lost; dates keep their display format.
+     */
+    static class RawNumberFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                return super.formatRawCellContents(value, formatIndex, formatString);
+            }
+
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
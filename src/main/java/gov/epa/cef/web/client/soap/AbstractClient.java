@@ -24,6 +24,7 @@ import org.apache.cxf.interceptor.LoggingInInterceptor;
 import org.apache.cxf.interceptor.LoggingOutInterceptor;
 import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
 import org.apache.cxf.transport.http.HTTPConduit;
+import org.apache.cxf.transports.http.configuration.ConnectionType;
 import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,8 @@ import org.slf4j.LoggerFactory;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author dfladung
@@ -43,6 +46,8 @@ public abstract class AbstractClient {
     public static final String AUTH_METHOD = "password";
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractClient.class);
 
+    private final Map<ClientKey, Object> clients = new ConcurrentHashMap<>();
+
     protected ApplicationException handleException(Exception e, Logger logger) {
         ApplicationException ae = null;
         if (e instanceof ApplicationException) {
@@ -59,7 +64,19 @@ public abstract class AbstractClient {
         return getClient(address.toString(), service, enableMtom, enableChunking);
     }
 
+    /**
+     * Retrieve a proxy for the service, proxies are created once for each combination of arguments and reused
+     * since building one reads the whole service model. The proxies are safe to share between threads.
+     */
     protected <T> T getClient(String address, Class<T> service, boolean enableMtom, boolean enableChunking) {
+
+        Object result = this.clients.computeIfAbsent(new ClientKey(address, service, enableMtom, enableChunking),
+            key -> createClient(address, service, enableMtom, enableChunking));
+
+        return service.cast(result);
+    }
+
+    private <T> T createClient(String address, Class<T> service, boolean enableMtom, boolean enableChunking) {
         JaxWsProxyFactoryBean factory = new JaxWsProxyFactoryBean();
 
         // set the endpoint
@@ -96,6 +113,8 @@ public abstract class AbstractClient {
         // get a handle to the client for configuration
         Object requester = factory.create();
         Client client = ClientProxy.getClient(requester);
+        // the proxy is shared so anything a caller puts in the request context must stay on its own thread
+        client.setThreadLocalRequestContext(true);
         HTTPConduit http = (HTTPConduit) client.getConduit();
 
         // enable chunking
@@ -105,6 +124,8 @@ public abstract class AbstractClient {
         httpClientPolicy.setConnectionTimeout(CONN_TIMEOUT);
         httpClientPolicy.setReceiveTimeout(READ_TIMEOUT);
         httpClientPolicy.setAutoRedirect(true);
+        // reuse connections between calls on the shared conduit
+        httpClientPolicy.setConnection(ConnectionType.KEEP_ALIVE);
         // set the policy into the http conduit
         http.setClient(httpClientPolicy);
 
@@ -115,6 +136,48 @@ public abstract class AbstractClient {
                 service.getSimpleName(), address, service.getName(),
                 enableMtom, enableMtom, CONN_TIMEOUT, READ_TIMEOUT);
         }
-        return (T) requester;
+        return service.cast(requester);
+    }
+
+    private static class ClientKey {
+
+        private final String address;
+
+        private final Class<?> service;
+
+        private final boolean enableMtom;
+
+        private final boolean enableChunking;
+
+        ClientKey(String address, Class<?> service, boolean enableMtom, boolean enableChunking) {
+
+            this.address = address;
+            this.service = service;
+            this.enableMtom = enableMtom;
+            this.enableChunking = enableChunking;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            ClientKey that = (ClientKey) o;
+            return this.enableMtom == that.enableMtom
+                && this.enableChunking == that.enableChunking
+                && this.address.equals(that.address)
+                && this.service.equals(that.service);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(this.address, this.service, this.enableMtom, this.enableChunking);
+        }
     }
 }
@@ -17,6 +17,8 @@
 package gov.epa.cef.web.config;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizeConfig;
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.instance.HazelcastInstanceFactory;
@@ -32,6 +34,7 @@ import org.springframework.core.env.Environment;
 import org.springframework.util.ResourceUtils;
 
 import java.io.IOException;
+import java.util.Map;
 
 @EnableCaching
 @Configuration
@@ -41,16 +44,21 @@ public class CacheConfig {
 
     private final Environment environment;
 
+    private final CacheSettings cacheSettings;
+
     @Autowired
-    CacheConfig(Environment environment) {
+    CacheConfig(Environment environment, CacheSettings cacheSettings) {
 
         this.environment = environment;
+        this.cacheSettings = cacheSettings;
     }
 
     @Bean
     CacheManager cacheManager() {
 
-        return new HazelcastCacheManager(hazelcastInstance());
+        HazelcastInstance hazelcastInstance = hazelcastInstance();
+
+        return new TwoTierCacheManager(new HazelcastCacheManager(hazelcastInstance), hazelcastInstance, this.cacheSettings);
     }
 
     @Bean(destroyMethod = "shutdown")
@@ -77,6 +85,20 @@ public class CacheConfig {
             throw new IllegalStateException(e);
         }
 
+        for (Map.Entry<String, CacheSettings.CacheSpec> entry : this.cacheSettings.getCaches().entrySet()) {
+
+            CacheSettings.CacheSpec spec = entry.getValue();
+
+            // creates the map config from the default one if the map isn't in the xml
+            MapConfig mapConfig = config.getMapConfig(entry.getKey());
+            if (spec.getMaxSize() != null) {
+                mapConfig.setMaxSizeConfig(new MaxSizeConfig(spec.getMaxSize(), MaxSizeConfig.MaxSizePolicy.PER_NODE));
+            }
+            if (spec.getTtlSeconds() != null) {
+                mapConfig.setTimeToLiveSeconds(spec.getTtlSeconds());
+            }
+        }
+
         HazelcastInstance result =
             HazelcastInstanceFactory.getHazelcastInstance(config.getInstanceName());
         if (result == null) {
@@ -0,0 +1,50 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.config;
+
+import java.io.Serializable;
+
+/**
+ * Message broadcast on the cache invalidation topic when an entry, or a whole cache when the key is null,
+ * changes so every other node drops its local copy.
+ */
+public class CacheInvalidation implements Serializable {
+
+    public static final String Topic = "cef-cache-invalidation";
+
+    private static final long serialVersionUID = 1L;
+
+    private final String cacheName;
+
+    private final Object key;
+
+    public CacheInvalidation(String cacheName, Object key) {
+
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getCacheName() {
+
+        return cacheName;
+    }
+
+    public Object getKey() {
+
+        return key;
+    }
+}
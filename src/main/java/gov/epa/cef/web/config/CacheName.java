@@ -64,6 +64,8 @@ public class CacheName {
 
     public static final String UnitMasterIds = "UnitMasterIds";
 
+    public static final String LookupBundles = "LookupBundles";
+
     public static final String UserProgramFacilities = "UserProgramFacilities";
 
     public static final String UserMasterFacilityIds = "UserMasterFacilityIds";
@@ -94,5 +96,7 @@ public class CacheName {
 
     public static final String ConfigProperties = "ConfigProperties";
 
+    public static final String CersXmlArtifacts = "CersXmlArtifacts";
+
 }
 
@@ -0,0 +1,159 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sizes and time-to-live for the application caches. Every cache has a local copy on each node in front
+ * of the shared Hazelcast map, the local defaults apply to any cache that isn't listed under caches.
+ * Settings for the Hazelcast maps that aren't set here come from the default map in the Hazelcast config.
+ */
+@Component
+@Validated
+@ConfigurationProperties(prefix = "cache")
+public class CacheSettings {
+
+    @Min(0)
+    private int localMaxSize = 1000;
+
+    @Min(1)
+    private long localTtlSeconds = 300;
+
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    /**
+     * Retrieve the settings for a cache, the names are matched ignoring case since they're bound from config keys
+     */
+    public CacheSpec getCache(String name) {
+
+        return this.caches.entrySet().stream()
+            .filter(entry -> entry.getKey().equalsIgnoreCase(name))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElseGet(CacheSpec::new);
+    }
+
+    public int getLocalMaxSize(String name) {
+
+        Integer result = getCache(name).getLocalMaxSize();
+        return result == null ? this.localMaxSize : result;
+    }
+
+    public long getLocalTtlSeconds(String name) {
+
+        Long result = getCache(name).getLocalTtlSeconds();
+        return result == null ? this.localTtlSeconds : result;
+    }
+
+    public int getLocalMaxSize() {
+
+        return localMaxSize;
+    }
+
+    public void setLocalMaxSize(int localMaxSize) {
+
+        this.localMaxSize = localMaxSize;
+    }
+
+    public long getLocalTtlSeconds() {
+
+        return localTtlSeconds;
+    }
+
+    public void setLocalTtlSeconds(long localTtlSeconds) {
+
+        this.localTtlSeconds = localTtlSeconds;
+    }
+
+    public Map<String, CacheSpec> getCaches() {
+
+        return caches;
+    }
+
+    public void setCaches(Map<String, CacheSpec> caches) {
+
+        this.caches.clear();
+        if (caches != null) {
+            this.caches.putAll(caches);
+        }
+    }
+
+    /**
+     * Settings for one cache, anything left unset uses the default. A local max size of 0 turns off the local copy.
+     */
+    public static class CacheSpec {
+
+        @Min(0)
+        private Integer localMaxSize;
+
+        @Min(1)
+        private Long localTtlSeconds;
+
+        @Min(0)
+        private Integer maxSize;
+
+        @Min(0)
+        private Integer ttlSeconds;
+
+        public Integer getLocalMaxSize() {
+
+            return localMaxSize;
+        }
+
+        public void setLocalMaxSize(Integer localMaxSize) {
+
+            this.localMaxSize = localMaxSize;
+        }
+
+        public Long getLocalTtlSeconds() {
+
+            return localTtlSeconds;
+        }
+
+        public void setLocalTtlSeconds(Long localTtlSeconds) {
+
+            this.localTtlSeconds = localTtlSeconds;
+        }
+
+        public Integer getMaxSize() {
+
+            return maxSize;
+        }
+
+        public void setMaxSize(Integer maxSize) {
+
+            this.maxSize = maxSize;
+        }
+
+        public Integer getTtlSeconds() {
+
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(Integer ttlSeconds) {
+
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+}
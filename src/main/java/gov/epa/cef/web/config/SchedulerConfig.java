@@ -18,6 +18,7 @@ package gov.epa.cef.web.config;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -26,6 +27,8 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
+import gov.epa.cef.web.service.impl.EisTransmissionServiceImpl.EisTransmissionConfig;
+import gov.epa.cef.web.service.task.EisTransactionStatusTask;
 import gov.epa.cef.web.service.task.SccUpdateTask;
 
 @Configuration
@@ -34,11 +37,16 @@ public class SchedulerConfig implements SchedulingConfigurer {
 
     @Autowired
     private CefConfig cefConfig;
+
+    @Autowired
+    private EisTransmissionConfig eisTransmissionConfig;
     
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
         taskRegistrar.setScheduler(taskScheduler());
         taskRegistrar.addCronTask(sccUpdateTask(), this.cefConfig.getSccUpdateTaskCron());
+        taskRegistrar.addFixedDelayTask(eisTransactionStatusTask(),
+            TimeUnit.SECONDS.toMillis(this.eisTransmissionConfig.getStatusPollSeconds()));
     }
 
     @Bean(destroyMethod="shutdown")
@@ -51,4 +59,9 @@ public class SchedulerConfig implements SchedulingConfigurer {
         return new SccUpdateTask();
     }
 
+    @Bean
+    public EisTransactionStatusTask eisTransactionStatusTask() {
+        return new EisTransactionStatusTask();
+    }
+
 }
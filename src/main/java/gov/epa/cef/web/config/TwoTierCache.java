@@ -0,0 +1,194 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.config;
+
+import com.google.common.cache.CacheBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * A cache that keeps recently used entries on the local node in front of the shared cache. Reads are served
+ * from the local copy when possible, writes go to the shared cache and drop the entry from the local copy on
+ * every node. The local copy also expires on its own so a missed invalidation can only leave it stale briefly.
+ */
+class TwoTierCache implements Cache {
+
+    private final Cache remote;
+
+    private final com.google.common.cache.Cache<Object, ValueWrapper> local;
+
+    private final BiConsumer<String, Object> invalidation;
+
+    // bumped before anything is dropped from the local copy so a value read from the shared cache before
+    // the change isn't copied back into it
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param remote the shared cache
+     * @param localMaxSize
+     * @param localTtlSeconds
+     * @param invalidation notifies the other nodes that a key changed, a null key means the cache was cleared
+     */
+    TwoTierCache(Cache remote, long localMaxSize, long localTtlSeconds, BiConsumer<String, Object> invalidation) {
+
+        this.remote = remote;
+        this.invalidation = invalidation;
+
+        this.local = CacheBuilder.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtlSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    @Override
+    public String getName() {
+
+        return this.remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+
+        return this.remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+
+        ValueWrapper result = this.local.getIfPresent(key);
+        if (result == null) {
+
+            long readGeneration = this.generation.get();
+
+            result = this.remote.get(key);
+            if (result != null) {
+                putLocal(key, result.get(), readGeneration);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+
+        ValueWrapper result = get(key);
+        Object value = result == null ? null : result.get();
+
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(String.format("Cached value is not of required type [%s]: %s", type.getName(), value));
+        }
+
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+
+        ValueWrapper result = this.local.getIfPresent(key);
+        if (result != null) {
+            return (T) result.get();
+        }
+
+        long readGeneration = this.generation.get();
+
+        T value = this.remote.get(key, valueLoader);
+        putLocal(key, value, readGeneration);
+
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+
+        this.remote.put(key, value);
+        this.generation.incrementAndGet();
+        this.local.put(key, new SimpleValueWrapper(value));
+
+        this.invalidation.accept(getName(), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+
+        ValueWrapper result = this.remote.putIfAbsent(key, value);
+        invalidateLocal(key);
+
+        if (result == null) {
+            this.invalidation.accept(getName(), key);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void evict(Object key) {
+
+        this.remote.evict(key);
+        invalidateLocal(key);
+
+        this.invalidation.accept(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+
+        this.remote.clear();
+        invalidateLocal(null);
+
+        this.invalidation.accept(getName(), null);
+    }
+
+    /**
+     * Drop an entry another node changed from the local copy, a null key drops everything
+     */
+    void invalidateLocal(Object key) {
+
+        this.generation.incrementAndGet();
+
+        if (key == null) {
+            this.local.invalidateAll();
+        } else {
+            this.local.invalidate(key);
+        }
+    }
+
+    /**
+     * Copy a value read from the shared cache into the local copy. If anything was invalidated since the read
+     * the value may be stale, so it's dropped again, an invalidation that comes after the check removes it itself.
+     */
+    private void putLocal(Object key, Object value, long readGeneration) {
+
+        this.local.put(key, new SimpleValueWrapper(value));
+
+        if (this.generation.get() != readGeneration) {
+            this.local.invalidate(key);
+        }
+    }
+
+    long localSize() {
+
+        return this.local.size();
+    }
+}
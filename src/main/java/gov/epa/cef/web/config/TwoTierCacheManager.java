@@ -0,0 +1,98 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.config;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager that puts a local cache on each node in front of the Hazelcast caches so frequent lookups
+ * don't pay for a serialized round trip. Changes are broadcast on a Hazelcast topic so every node drops
+ * its local copy of the entry. Caches configured with a local max size of 0 are used directly.
+ */
+class TwoTierCacheManager implements CacheManager {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final CacheManager remote;
+
+    private final CacheSettings settings;
+
+    private final ITopic<CacheInvalidation> topic;
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    TwoTierCacheManager(CacheManager remote, HazelcastInstance hazelcastInstance, CacheSettings settings) {
+
+        this.remote = remote;
+        this.settings = settings;
+
+        this.topic = hazelcastInstance.getTopic(CacheInvalidation.Topic);
+        this.topic.addMessageListener(this::onInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+
+        return this.caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+
+        return this.remote.getCacheNames();
+    }
+
+    private Cache createCache(String name) {
+
+        Cache result = this.remote.getCache(name);
+
+        int localMaxSize = this.settings.getLocalMaxSize(name);
+        if (result != null && localMaxSize > 0) {
+            result = new TwoTierCache(result, localMaxSize, this.settings.getLocalTtlSeconds(name),
+                (cacheName, key) -> this.topic.publish(new CacheInvalidation(cacheName, key)));
+        }
+
+        return result;
+    }
+
+    private void onInvalidation(Message<CacheInvalidation> message) {
+
+        // this node has already updated its own copy
+        if (message.getPublishingMember() != null && message.getPublishingMember().localMember()) {
+            return;
+        }
+
+        CacheInvalidation invalidation = message.getMessageObject();
+
+        Cache cache = this.caches.get(invalidation.getCacheName());
+        if (cache instanceof TwoTierCache) {
+
+            logger.debug("Invalidating {} in local cache {}", invalidation.getKey(), invalidation.getCacheName());
+            ((TwoTierCache) cache).invalidateLocal(invalidation.getKey());
+        }
+    }
+}
@@ -30,11 +30,11 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 
 @Entity
 @Table(name = "control")
-public class Control extends BaseAuditEntity {
+public class Control extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
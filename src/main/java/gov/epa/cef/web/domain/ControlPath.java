@@ -16,7 +16,7 @@
 */
 package gov.epa.cef.web.domain;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -33,7 +33,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "control_path")
-public class ControlPath extends BaseAuditEntity {
+public class ControlPath extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
@@ -25,11 +25,11 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 
 @Entity
 @Table(name = "control_pollutant")
-public class ControlPollutant extends BaseAuditEntity {
+public class ControlPollutant extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
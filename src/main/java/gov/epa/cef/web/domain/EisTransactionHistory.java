@@ -16,6 +16,8 @@
 */
 package gov.epa.cef.web.domain;
 
+import java.util.Date;
+
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -50,6 +52,18 @@ public class EisTransactionHistory extends BaseAuditEntity {
     @Column(name = "submitter_name", nullable = false)
     private String submitterName;
 
+    @Column(name = "node_status")
+    private String nodeStatus;
+
+    @Column(name = "node_status_detail")
+    private String nodeStatusDetail;
+
+    @Column(name = "status_check_count", nullable = false)
+    private int statusCheckCount;
+
+    @Column(name = "next_status_check")
+    private Date nextStatusCheck;
+
     @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "transactionHistory")
     private EisTransactionAttachment attachment;
 
@@ -85,6 +99,38 @@ public class EisTransactionHistory extends BaseAuditEntity {
         this.submitterName = submitterName;
     }
 
+    public String getNodeStatus() {
+        return nodeStatus;
+    }
+
+    public void setNodeStatus(String nodeStatus) {
+        this.nodeStatus = nodeStatus;
+    }
+
+    public String getNodeStatusDetail() {
+        return nodeStatusDetail;
+    }
+
+    public void setNodeStatusDetail(String nodeStatusDetail) {
+        this.nodeStatusDetail = nodeStatusDetail;
+    }
+
+    public int getStatusCheckCount() {
+        return statusCheckCount;
+    }
+
+    public void setStatusCheckCount(int statusCheckCount) {
+        this.statusCheckCount = statusCheckCount;
+    }
+
+    public Date getNextStatusCheck() {
+        return nextStatusCheck;
+    }
+
+    public void setNextStatusCheck(Date nextStatusCheck) {
+        this.nextStatusCheck = nextStatusCheck;
+    }
+
     public EisTransactionAttachment getAttachment() {
         return attachment;
     }
@@ -29,14 +29,14 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 
 /**
  * Emission entity. @author MyEclipse Persistence Tools
  */
 @Entity
 @Table(name = "emission")
-public class Emission extends BaseAuditEntity {
+public class Emission extends BaseReportEntity {
     
     private static final long serialVersionUID = 1L;
 
@@ -27,7 +27,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 import gov.epa.cef.web.util.ConstantUtils;
 
 /**
@@ -35,7 +35,7 @@ import gov.epa.cef.web.util.ConstantUtils;
  */
 @Entity
 @Table(name = "emissions_process")
-public class EmissionsProcess extends BaseAuditEntity {
+public class EmissionsProcess extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
@@ -16,7 +16,7 @@
 */
 package gov.epa.cef.web.domain;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 import gov.epa.cef.web.service.dto.EisSubmissionStatus;
 
 import javax.persistence.CascadeType;
@@ -38,7 +38,7 @@ import java.util.List;
  */
 @Entity
 @Table(name = "emissions_report", schema = "public")
-public class EmissionsReport extends BaseAuditEntity {
+public class EmissionsReport extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
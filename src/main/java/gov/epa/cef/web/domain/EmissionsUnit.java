@@ -16,7 +16,7 @@
 */
 package gov.epa.cef.web.domain;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 import gov.epa.cef.web.util.ConstantUtils;
 
 import javax.persistence.CascadeType;
@@ -37,7 +37,7 @@ import java.util.List;
  */
 @Entity
 @Table(name = "emissions_unit")
-public class EmissionsUnit extends BaseAuditEntity {
+public class EmissionsUnit extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
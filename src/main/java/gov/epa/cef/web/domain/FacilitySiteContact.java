@@ -23,11 +23,11 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 
 @Entity
 @Table(name = "facility_site_contact")
-public class FacilitySiteContact extends BaseAuditEntity {
+public class FacilitySiteContact extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
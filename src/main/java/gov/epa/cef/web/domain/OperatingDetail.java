@@ -25,7 +25,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 
 /**
  * OperatingDetail entity. @author MyEclipse Persistence Tools
@@ -33,7 +33,7 @@ import gov.epa.cef.web.domain.common.BaseAuditEntity;
 @Entity
 @Table(name = "operating_detail")
 
-public class OperatingDetail extends BaseAuditEntity {
+public class OperatingDetail extends BaseReportEntity {
     
     private static final long serialVersionUID = 1L;
 
@@ -29,7 +29,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
-import gov.epa.cef.web.domain.common.BaseAuditEntity;
+import gov.epa.cef.web.domain.common.BaseReportEntity;
 
 /**
  * ReleasePoint entity. @author MyEclipse Persistence Tools
@@ -37,7 +37,7 @@ import gov.epa.cef.web.domain.common.BaseAuditEntity;
 @Entity
 @Table(name = "release_point")
 
-public class ReleasePoint extends BaseAuditEntity {
+public class ReleasePoint extends BaseReportEntity {
 
     private static final long serialVersionUID = 1L;
 
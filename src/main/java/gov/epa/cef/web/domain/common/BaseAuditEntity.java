@@ -16,68 +16,28 @@
 */
 package gov.epa.cef.web.domain.common;
 
-import java.util.Date;
-
-import javax.persistence.Column;
-import javax.persistence.EntityListeners;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
-
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import javax.xml.bind.annotation.XmlElement;
 
 @MappedSuperclass
-@EntityListeners(AuditingEntityListener.class)
-public abstract class BaseAuditEntity extends BaseEntity {
-
-    @CreatedBy
-    @Column(name = "created_by", nullable = false)
-    protected String createdBy;
-
-    @CreatedDate
-    @Column(name = "created_date", nullable = false, length = 29)
-    protected Date createdDate;
-
-    @LastModifiedBy
-    @Column(name = "last_modified_by", nullable = false)
-    protected String lastModifiedBy;
-
-    @LastModifiedDate
-    @Column(name = "last_modified_date", nullable = false, length = 29)
-    protected Date lastModifiedDate;
-
-    public String getCreatedBy() {
-        return createdBy;
-    }
+public abstract class BaseAuditEntity extends AuditableEntity {
 
-    public void setCreatedBy(String createdBy) {
-        this.createdBy = createdBy;
-    }
-
-    public Date getCreatedDate() {
-        return createdDate;
-    }
-
-    public void setCreatedDate(Date createdDate) {
-        this.createdDate = createdDate;
-    }
-
-    public String getLastModifiedBy() {
-        return lastModifiedBy;
-    }
+    private static final long serialVersionUID = 1L;
 
-    public void setLastModifiedBy(String lastModifiedBy) {
-        this.lastModifiedBy = lastModifiedBy;
-    }
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @XmlElement(name = "id")
+    protected Long id;
 
-    public Date getLastModifiedDate() {
-        return lastModifiedDate;
+    public Long getId() {
+        return id;
     }
 
-    public void setLastModifiedDate(Date lastModifiedDate) {
-        this.lastModifiedDate = lastModifiedDate;
+    public void setId(Long id) {
+        this.id = id;
     }
 
 }
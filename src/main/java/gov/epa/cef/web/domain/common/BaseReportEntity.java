@@ -0,0 +1,55 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.domain.common;
+
+import gov.epa.cef.web.hibernate.TableSequenceGenerator;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+import javax.xml.bind.annotation.XmlElement;
+
+/**
+ * Base for the entities of an emissions report tree. Ids are allocated in blocks from the table's own
+ * sequence instead of by the insert so that Hibernate can batch the inserts when a report is saved.
+ */
+@MappedSuperclass
+public abstract class BaseReportEntity extends AuditableEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(generator = "report_sequence")
+    @GenericGenerator(name = "report_sequence", strategy = "gov.epa.cef.web.hibernate.TableSequenceGenerator",
+        parameters = {
+            @Parameter(name = TableSequenceGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = TableSequenceGenerator.OPT_PARAM, value = "pooled-lo")
+        })
+    @XmlElement(name = "id")
+    protected Long id;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+}
@@ -34,7 +34,7 @@ public enum ApplicationErrorCode {
     E_MESSAGING, E_REMOTE_SERVICE_ERROR, E_VERIFICATION, E_INELIGIBLE, E_SECURITY, E_VALIDATION,
     E_INVALID_PERMISSION, E_PERMISSION_ALREADY_EXISTS, E_INVALID_REQUEST, E_INVALID_REQUEST_STATUS, E_REQUEST_ALREADY_EXISTS,
 
-    E_AUTHENTICATION, E_AUTHORIZATION, E_PERSISTENCE, E_NOT_FOUND, E_ENCRYPTION,
+    E_AUTHENTICATION, E_AUTHORIZATION, E_PERSISTENCE, E_NOT_FOUND, E_ENCRYPTION, E_SERVICE_BUSY,
     
     // Calculation
     E_CALC_MISSING_VARIABLE
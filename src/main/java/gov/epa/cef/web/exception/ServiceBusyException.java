@@ -0,0 +1,42 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a bounded worker pool or queue is full. This is expected back pressure rather than a fault,
+ * clients get a 503 with a Retry-After header, see ServiceBusyExceptionHandler.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends ApplicationException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long RetryAfterSeconds = 60;
+
+    public ServiceBusyException(String message) {
+
+        super(ApplicationErrorCode.E_SERVICE_BUSY, message);
+    }
+
+    public long getRetryAfterSeconds() {
+
+        return RetryAfterSeconds;
+    }
+}
@@ -38,8 +38,12 @@ public interface AircraftEngineTypeCodeRepository extends CrudRepository<Aircraf
     @Query("select aec from AircraftEngineTypeCode aec where aec.lastInventoryYear = null or aec.lastInventoryYear >= :year")
     List<AircraftEngineTypeCode> findAllCurrent(int year, Sort sort);
 
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true")})
     List<AircraftEngineTypeCode> findByScc(String scc, Sort sort);
 
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true")})
     @Query("select aec from AircraftEngineTypeCode aec where aec.scc = :scc and (aec.lastInventoryYear = null or aec.lastInventoryYear >= :year)")
     List<AircraftEngineTypeCode> findCurrentByScc(int year, String scc, Sort sort);
 }
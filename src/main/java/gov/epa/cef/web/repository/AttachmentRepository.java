@@ -16,6 +16,7 @@
 */
 package gov.epa.cef.web.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +40,9 @@ public interface AttachmentRepository extends CrudRepository<Attachment, Long>,
 
    @Query("select mfr.id from Attachment ra join ra.emissionsReport r join r.masterFacilityRecord mfr where ra.id = :id")
    Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
+
+   @Query("select ra.id as id, mfr.id as masterFacilityRecordId from Attachment ra join ra.emissionsReport r join r.masterFacilityRecord mfr where ra.id in :ids")
+   List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
    
    @Query("select a from Attachment a join a.communication c where c.id = :communicationId")
    Optional<Attachment> findByCommunication(@Param("communicationId") Long communicationId);
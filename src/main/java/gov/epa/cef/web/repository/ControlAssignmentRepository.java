@@ -16,11 +16,15 @@
 */
 package gov.epa.cef.web.repository;
  
+import java.util.Collection;
 import java.util.List; 
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
@@ -55,14 +59,21 @@ public interface ControlAssignmentRepository extends CrudRepository<ControlAssig
     @Cacheable(value = CacheName.ControlAssignmentsMasterIds)
     @Query("select mfr.id from ControlAssignment ca join ca.controlPath cp join cp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where ca.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
+
+    @Query("select ca.id as id, mfr.id as masterFacilityRecordId from ControlAssignment ca join ca.controlPath cp join cp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where ca.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
     
     /**
-     * Retrieve a list of all control assignments for a specific program system code and emissions reporting year
+     * Stream all control assignments for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select ca from ControlAssignment ca join ca.control c join c.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<ControlAssignment> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<ControlAssignment> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
     
 }
@@ -16,11 +16,15 @@
 */
 package gov.epa.cef.web.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
@@ -40,6 +44,9 @@ public interface ControlPathPollutantRepository extends CrudRepository<ControlPa
    @Cacheable(value = CacheName.ControlPathPollutantMasterIds)
    @Query("select mfr.id from ControlPathPollutant cpp join cpp.controlPath cp join cp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where cpp.id = :id")
    Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
+
+   @Query("select cpp.id as id, mfr.id as masterFacilityRecordId from ControlPathPollutant cpp join cpp.controlPath cp join cp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where cpp.id in :ids")
+   List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
    
    /**
     * Retrieve Emissions Report id for a Control Path Pollutant
@@ -51,11 +58,15 @@ public interface ControlPathPollutantRepository extends CrudRepository<ControlPa
    Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
    
    /**
-    * Retrieve a list of all control path pollutants for a specific program system code and emissions reporting year
+    * Stream all control path pollutants for a specific program system code and emissions reporting year, the rows are read from a
+    * database cursor so the stream has to be read inside a transaction
     * @param psc Program System Code
     * @param emissionsReportYear
     * @return
     */
+   @QueryHints({
+       @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+       @QueryHint(name = "org.hibernate.readOnly", value = "true")})
    @Query("select cpp from ControlPathPollutant cpp join cpp.controlPath cp join cp.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-   List<ControlPathPollutant> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+   Stream<ControlPathPollutant> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
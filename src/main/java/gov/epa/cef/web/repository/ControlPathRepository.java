@@ -22,11 +22,15 @@ import gov.epa.cef.web.domain.ReportingPeriod;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface ControlPathRepository extends CrudRepository<ControlPath, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -76,6 +80,9 @@ public interface ControlPathRepository extends CrudRepository<ControlPath, Long>
     @Query("select mfr.id from ControlPath cp join cp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where cp.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select cp.id as id, mfr.id as masterFacilityRecordId from ControlPath cp join cp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where cp.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for a Control Path
      * @param id
@@ -93,11 +100,15 @@ public interface ControlPathRepository extends CrudRepository<ControlPath, Long>
     List<ControlPath> findByFacilitySiteIdOrderByPathId(Long facilitySiteId);
     
     /**
-     * Retrieve a list of all control paths for a specific program system code and emissions reporting year
+     * Stream all control paths for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select cp from ControlPath cp join cp.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<ControlPath> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<ControlPath> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
@@ -22,11 +22,15 @@ import gov.epa.cef.web.domain.ControlPollutant;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface ControlPollutantRepository extends CrudRepository<ControlPollutant, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -40,6 +44,9 @@ public interface ControlPollutantRepository extends CrudRepository<ControlPollut
    @Cacheable(value = CacheName.ControlPollutantMasterIds)
    @Query("select mfr.id from ControlPollutant cp join cp.control c join c.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where cp.id = :id")
    Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
+
+   @Query("select cp.id as id, mfr.id as masterFacilityRecordId from ControlPollutant cp join cp.control c join c.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where cp.id in :ids")
+   List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
    
    /**
     * Retrieve Emissions Report id for a Control Pollutant
@@ -51,12 +58,16 @@ public interface ControlPollutantRepository extends CrudRepository<ControlPollut
    Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
    
    /**
-    * Retrieve a list of all control pollutants for a specific program system code and emissions reporting year
+    * Stream all control pollutants for a specific program system code and emissions reporting year, the rows are read from a
+    * database cursor so the stream has to be read inside a transaction
     * @param psc Program System Code
     * @param emissionsReportYear
     * @return
     */
+   @QueryHints({
+       @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+       @QueryHint(name = "org.hibernate.readOnly", value = "true")})
    @Query("select cp from ControlPollutant cp join cp.control c join c.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-   List<ControlPollutant> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+   Stream<ControlPollutant> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
 
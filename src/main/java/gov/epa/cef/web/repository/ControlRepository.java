@@ -22,11 +22,15 @@ import gov.epa.cef.web.domain.ReportingPeriod;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface ControlRepository extends CrudRepository<Control, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -60,6 +64,9 @@ public interface ControlRepository extends CrudRepository<Control, Long>, Progra
     @Query("select mfr.id from Control c join c.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where c.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select c.id as id, mfr.id as masterFacilityRecordId from Control c join c.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where c.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for a Control
      * @param id
@@ -70,11 +77,15 @@ public interface ControlRepository extends CrudRepository<Control, Long>, Progra
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all controls for a specific program system code and emissions reporting year
+     * Stream all controls for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select c from Control c join c.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<Control> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<Control> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
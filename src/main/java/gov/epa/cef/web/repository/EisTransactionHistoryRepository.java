@@ -19,6 +19,7 @@ package gov.epa.cef.web.repository;
 import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
@@ -33,4 +34,13 @@ public interface EisTransactionHistoryRepository extends CrudRepository<EisTrans
 
     @Query("select h from EisTransactionHistory h where h.programSystemCode.code = :programSystemCode and h.createdDate > :date")
     List<EisTransactionHistory> findByProgramSystemCodeBeforeDate(String programSystemCode, Date date);
+
+    /**
+     * Retrieve the transactions whose node status is due to be checked, oldest first
+     * @param date
+     * @param pageable
+     * @return
+     */
+    @Query("select h from EisTransactionHistory h where h.nextStatusCheck <= :date order by h.nextStatusCheck")
+    List<EisTransactionHistory> findDueForStatusCheck(Date date, Pageable pageable);
 }
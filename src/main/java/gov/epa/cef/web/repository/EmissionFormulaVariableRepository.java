@@ -16,9 +16,11 @@
 */
 package gov.epa.cef.web.repository;
 
-import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import gov.epa.cef.web.domain.EmissionFormulaVariable;
@@ -26,12 +28,16 @@ import gov.epa.cef.web.domain.EmissionFormulaVariable;
 public interface EmissionFormulaVariableRepository extends CrudRepository<EmissionFormulaVariable, String> {
 	   
 	   /**
-	    * Retrieve a list of all emission formula variables for a specific program system code and emissions reporting year
+	    * Stream all emission formula variables for a specific program system code and emissions reporting year, the rows are read from a
+	    * database cursor so the stream has to be read inside a transaction
 	    * @param psc Program System Code
 	    * @param emissionsReportYear
 	    * @return
 	    */
+	   @QueryHints({
+	       @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+	       @QueryHint(name = "org.hibernate.readOnly", value = "true")})
 	   @Query("select efv from EmissionFormulaVariable efv join efv.emission e join e.reportingPeriod rp join rp.emissionsProcess ep join ep.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-	   List<EmissionFormulaVariable> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+	   Stream<EmissionFormulaVariable> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 
 }
@@ -19,6 +19,7 @@ package gov.epa.cef.web.repository;
 import gov.epa.cef.web.config.CacheName;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import gov.epa.cef.web.domain.Emission;
@@ -26,8 +27,11 @@ import gov.epa.cef.web.domain.ReportingPeriod;
 
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface EmissionRepository extends CrudRepository<Emission, Long>, ProgramIdRetriever, ReportIdRetriever {
 	
@@ -74,6 +78,11 @@ public interface EmissionRepository extends CrudRepository<Emission, Long>, Prog
             + "join fs.emissionsReport r join r.masterFacilityRecord mfr where e.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select e.id as id, mfr.id as masterFacilityRecordId "
+            + "from Emission e join e.reportingPeriod rp join rp.emissionsProcess p join p.emissionsUnit eu join eu.facilitySite fs "
+            + "join fs.emissionsReport r join r.masterFacilityRecord mfr where e.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
     * Retrieve Emissions Report id for an Emission
     * @param id
@@ -84,11 +93,15 @@ public interface EmissionRepository extends CrudRepository<Emission, Long>, Prog
    Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
    
    /**
-    * Retrieve a list of all emissions for a specific program system code and emissions reporting year
+    * Stream all emissions for a specific program system code and emissions reporting year, the rows are read from a
+    * database cursor so the stream has to be read inside a transaction
     * @param psc Program System Code
     * @param emissionsReportYear
     * @return
     */
+   @QueryHints({
+       @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+       @QueryHint(name = "org.hibernate.readOnly", value = "true")})
    @Query("select e from Emission e join e.reportingPeriod rp join rp.emissionsProcess ep join ep.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-   List<Emission> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+   Stream<Emission> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
@@ -22,11 +22,15 @@ import gov.epa.cef.web.domain.EmissionsUnit;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface EmissionsProcessRepository extends CrudRepository<EmissionsProcess, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -59,10 +63,35 @@ public interface EmissionsProcessRepository extends CrudRepository<EmissionsProc
     List<EmissionsProcess> retrieveByParentFacilityYear(@Param("parentIdentifier") String parentIdentifier,
     															  @Param("mfrId") Long mfrId, @Param("year") Short year);
 
+    /**
+     * Find all Emissions Processes, with their parent Emissions Unit, for the specified master facility record id and year
+     * @param mfrId
+     * @param year
+     * @return
+     */
+    @Query("select ep from EmissionsProcess ep join fetch ep.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr "
+            + "where mfr.id = :mfrId and r.year = :year")
+    List<EmissionsProcess> retrieveByFacilityYear(@Param("mfrId") Long mfrId, @Param("year") Short year);
+
+    /**
+     * Retrieve the Emissions Processes, with their Emissions Unit, of the units with the specified operating status in a report,
+     * the entities are read-only so changes to them are not flushed
+     * @param reportId
+     * @param statusCode operating status code of the units
+     * @return
+     */
+    @QueryHints({@QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select ep from EmissionsProcess ep join fetch ep.emissionsUnit eu join eu.facilitySite fs "
+            + "where fs.emissionsReport.id = :reportId and eu.operatingStatusCode.code = :statusCode order by eu.id, ep.id")
+    List<EmissionsProcess> retrieveByReportIdAndUnitStatus(@Param("reportId") Long reportId, @Param("statusCode") String statusCode);
+
     @Cacheable(value = CacheName.ProcessMasterIds)
     @Query("select mfr.id from EmissionsProcess p join p.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where p.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select p.id as id, mfr.id as masterFacilityRecordId from EmissionsProcess p join p.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where p.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for an Emissions Process
      * @param id
@@ -73,11 +102,15 @@ public interface EmissionsProcessRepository extends CrudRepository<EmissionsProc
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all emissions processes for a specific program system code and emissions reporting year
+     * Stream all emissions processes for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select ep from EmissionsProcess ep join ep.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<EmissionsProcess> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<EmissionsProcess> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
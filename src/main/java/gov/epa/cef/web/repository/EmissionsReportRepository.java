@@ -21,9 +21,11 @@ import gov.epa.cef.web.domain.EmissionsReport;
 import gov.epa.cef.web.domain.common.BaseLookupEntity;
 import gov.epa.cef.web.service.dto.EisDataCriteria;
 import gov.epa.cef.web.service.dto.EisDataStatsDto;
+import gov.epa.cef.web.service.dto.EisSubmissionStatus;
 import net.exchangenetwork.wsdl.register.program_facility._1.ProgramFacility;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -31,6 +33,7 @@ import org.springframework.data.repository.query.Param;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -105,6 +108,9 @@ public interface EmissionsReportRepository extends CrudRepository<EmissionsRepor
     @Query("select distinct r.year from EmissionsReport r where r.programSystemCode.code = :programSystemCode and r.status = gov.epa.cef.web.domain.ReportStatus.APPROVED order by r.year desc")
     Collection<Integer> findEisDataYears(@Param("programSystemCode") String programSystemCode);
 
+    @Query("select distinct r.year from EmissionsReport r where r.id in :ids")
+    List<Short> findDistinctYears(@Param("ids") Collection<Long> reportIds);
+
     @Query("select distinct r.programSystemCode FROM EmissionsReport r")
     List<BaseLookupEntity> findDistinctProgramSystems();
 
@@ -114,4 +120,26 @@ public interface EmissionsReportRepository extends CrudRepository<EmissionsRepor
     @Cacheable(value = CacheName.ReportMasterIds)
     @Query("select mfr.id from EmissionsReport r join r.masterFacilityRecord mfr where r.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
+
+    @Query("select r.id as id, mfr.id as masterFacilityRecordId from EmissionsReport r join r.masterFacilityRecord mfr where r.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Record an EIS transaction on the specified reports in one statement, the persistence context is cleared
+     * afterwards so reports loaded before the update are read again. Bulk updates skip JPA auditing so the
+     * last modified columns are set here, the last modified user is kept when there is no current user.
+     * @param ids
+     * @param transactionId
+     * @param submissionStatus
+     * @param modifiedBy
+     * @param modifiedDate
+     * @return the number of reports updated
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update EmissionsReport r set r.eisLastTransactionId = :transactionId, r.eisLastSubmissionStatus = :submissionStatus, "
+            + "r.eisPassed = false, r.lastModifiedBy = coalesce(:modifiedBy, r.lastModifiedBy), r.lastModifiedDate = :modifiedDate "
+            + "where r.id in :ids")
+    int updateEisTransaction(@Param("ids") Collection<Long> ids, @Param("transactionId") String transactionId,
+                             @Param("submissionStatus") EisSubmissionStatus submissionStatus,
+                             @Param("modifiedBy") String modifiedBy, @Param("modifiedDate") Date modifiedDate);
 }
@@ -20,11 +20,15 @@ import gov.epa.cef.web.config.CacheName;
 import gov.epa.cef.web.domain.EmissionsUnit;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface EmissionsUnitRepository extends CrudRepository<EmissionsUnit, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -58,6 +62,9 @@ public interface EmissionsUnitRepository extends CrudRepository<EmissionsUnit, L
     @Query("select mfr.id from EmissionsUnit eu join eu.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where eu.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select eu.id as id, mfr.id as masterFacilityRecordId from EmissionsUnit eu join eu.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where eu.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for an Emissions Unit 
      * @param id
@@ -68,11 +75,15 @@ public interface EmissionsUnitRepository extends CrudRepository<EmissionsUnit, L
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all emissions units for a specific program system code and emissions reporting year
+     * Stream all emissions units for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select eu from EmissionsUnit eu join eu.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<EmissionsUnit> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<EmissionsUnit> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
@@ -16,12 +16,16 @@
 */
 package gov.epa.cef.web.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
@@ -49,6 +53,9 @@ public interface FacilityNAICSXrefRepository extends CrudRepository<FacilityNAIC
     @Query("select mfr.id from FacilityNAICSXref fn join fn.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where fn.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select fn.id as id, mfr.id as masterFacilityRecordId from FacilityNAICSXref fn join fn.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where fn.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for a Facility NAICS Xref
      * 
@@ -60,12 +67,16 @@ public interface FacilityNAICSXrefRepository extends CrudRepository<FacilityNAIC
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all facility NAICS codes for a specific program system code and emissions reporting year
+     * Stream all facility NAICS codes for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select fnx from FacilityNAICSXref fnx join fnx.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<FacilityNAICSXref> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<FacilityNAICSXref> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 
 }
@@ -22,11 +22,15 @@ import gov.epa.cef.web.domain.ControlAssignment;
 import gov.epa.cef.web.domain.FacilitySiteContact;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface FacilitySiteContactRepository extends CrudRepository<FacilitySiteContact, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -49,6 +53,9 @@ public interface FacilitySiteContactRepository extends CrudRepository<FacilitySi
     @Query("select mfr.id from FacilitySiteContact c join c.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where c.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select c.id as id, mfr.id as masterFacilityRecordId from FacilitySiteContact c join c.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where c.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for a Facility Site Contact
      * @param id
@@ -59,11 +66,15 @@ public interface FacilitySiteContactRepository extends CrudRepository<FacilitySi
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all facility site contacts for a specific program system code and emissions reporting year
+     * Stream all facility site contacts for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select fsc from FacilitySiteContact fsc join fsc.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<FacilitySiteContact> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<FacilitySiteContact> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
@@ -20,11 +20,15 @@ import gov.epa.cef.web.config.CacheName;
 import gov.epa.cef.web.domain.FacilitySite;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface FacilitySiteRepository extends CrudRepository<FacilitySite, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -46,6 +50,9 @@ public interface FacilitySiteRepository extends CrudRepository<FacilitySite, Lon
     @Query("select mfr.id from FacilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where fs.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select fs.id as id, mfr.id as masterFacilityRecordId from FacilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where fs.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for a Facility Site
      * @param id
@@ -56,13 +63,17 @@ public interface FacilitySiteRepository extends CrudRepository<FacilitySite, Lon
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all facilities for a specific program system code and emissions reporting year
+     * Stream all facilities for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select fs from FacilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<FacilitySite> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<FacilitySite> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
     
     /**
      * Retrieve a list of all facility site ids for a specific program system code and emissions reporting year
@@ -16,6 +16,7 @@
 */
 package gov.epa.cef.web.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,4 +48,7 @@ public interface MasterFacilityNAICSXrefRepository extends CrudRepository<Master
     @Cacheable(value = CacheName.MasterFacilityNAICSMasterIds)
     @Query("select mfr.id from MasterFacilityNAICSXref mfn join mfn.masterFacilityRecord mfr where mfn.id = :masterFacilityId")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("masterFacilityId") Long masterFacilityId);
+
+    @Query("select mfn.id as id, mfr.id as masterFacilityRecordId from MasterFacilityNAICSXref mfn join mfn.masterFacilityRecord mfr where mfn.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
 }
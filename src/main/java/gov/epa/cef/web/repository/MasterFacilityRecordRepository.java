@@ -25,6 +25,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -66,4 +67,7 @@ public interface MasterFacilityRecordRepository extends JpaRepository<MasterFaci
     @Query("select mfr.id from MasterFacilityRecord mfr where mfr.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select mfr.id as id, mfr.id as masterFacilityRecordId from MasterFacilityRecord mfr where mfr.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
 }
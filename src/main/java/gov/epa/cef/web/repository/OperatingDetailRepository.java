@@ -19,6 +19,7 @@ package gov.epa.cef.web.repository;
 import gov.epa.cef.web.config.CacheName;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import gov.epa.cef.web.domain.OperatingDetail;
@@ -26,8 +27,11 @@ import gov.epa.cef.web.domain.ReportingPeriod;
 
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface OperatingDetailRepository extends CrudRepository<OperatingDetail, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -37,6 +41,11 @@ public interface OperatingDetailRepository extends CrudRepository<OperatingDetai
             + "join fs.emissionsReport r join r.masterFacilityRecord mfr where od.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select od.id as id, mfr.id as masterFacilityRecordId "
+            + "from OperatingDetail od join od.reportingPeriod rp join rp.emissionsProcess p join p.emissionsUnit eu join eu.facilitySite fs "
+            + "join fs.emissionsReport r join r.masterFacilityRecord mfr where od.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for an Operating Detail
      * @param id
@@ -47,11 +56,15 @@ public interface OperatingDetailRepository extends CrudRepository<OperatingDetai
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all operating details for a specific program system code and emissions reporting year
+     * Stream all operating details for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select od from OperatingDetail od join od.reportingPeriod rp join rp.emissionsProcess ep join ep.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<OperatingDetail> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<OperatingDetail> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 }
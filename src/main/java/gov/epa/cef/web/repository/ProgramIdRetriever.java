@@ -16,9 +16,26 @@
 */
 package gov.epa.cef.web.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProgramIdRetriever {
 
     Optional<Long> retrieveMasterFacilityRecordIdById(Long id);
+
+    /**
+     * Retrieve the master facility record id for each of the entities in a single query,
+     * ids that don't exist are left out of the result
+     * @param ids
+     * @return
+     */
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(Collection<Long> ids);
+
+    interface MasterFacilityRecordId {
+
+        Long getId();
+
+        Long getMasterFacilityRecordId();
+    }
 }
@@ -16,11 +16,15 @@
 */
 package gov.epa.cef.web.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import java.util.Optional; 
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
@@ -41,6 +45,9 @@ public interface ReleasePointApptRepository extends CrudRepository<ReleasePointA
     @Query("select mfr.id from ReleasePointAppt rpa join rpa.releasePoint rp join rp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where rpa.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select rpa.id as id, mfr.id as masterFacilityRecordId from ReleasePointAppt rpa join rpa.releasePoint rp join rp.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where rpa.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for a Release Point Appt
      * @param id
@@ -51,12 +58,16 @@ public interface ReleasePointApptRepository extends CrudRepository<ReleasePointA
     Optional<Long> retrieveEmissionsReportById(@Param("id") Long id);
     
     /**
-     * Retrieve a list of all release point apportionment records for a specific program system code and emissions reporting year
+     * Stream all release point apportionment records for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select rpa from ReleasePointAppt rpa join rpa.releasePoint rp join rp.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<ReleasePointAppt> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<ReleasePointAppt> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
 
 }
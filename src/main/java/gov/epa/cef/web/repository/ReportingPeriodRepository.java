@@ -21,11 +21,15 @@ import gov.epa.cef.web.domain.EmissionsUnit;
 import gov.epa.cef.web.domain.ReportingPeriod;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 public interface ReportingPeriodRepository extends CrudRepository<ReportingPeriod, Long>, ProgramIdRetriever, ReportIdRetriever {
 
@@ -65,6 +69,9 @@ public interface ReportingPeriodRepository extends CrudRepository<ReportingPerio
     @Query("select mfr.id from ReportingPeriod rp join rp.emissionsProcess p join p.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where rp.id = :id")
     Optional<Long> retrieveMasterFacilityRecordIdById(@Param("id") Long id);
 
+    @Query("select rp.id as id, mfr.id as masterFacilityRecordId from ReportingPeriod rp join rp.emissionsProcess p join p.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport r join r.masterFacilityRecord mfr where rp.id in :ids")
+    List<MasterFacilityRecordId> retrieveMasterFacilityRecordIdsByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * Retrieve Emissions Report id for a Reporting Period
      * @param id
@@ -76,11 +83,29 @@ public interface ReportingPeriodRepository extends CrudRepository<ReportingPerio
     
     
     /**
-     * Retrieve a list of all reporting periods for a specific program system code and emissions reporting year
+     * Stream all reporting periods for a specific program system code and emissions reporting year, the rows are read from a
+     * database cursor so the stream has to be read inside a transaction
      * @param psc Program System Code
      * @param emissionsReportYear
      * @return
      */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")})
     @Query("select rp from ReportingPeriod rp join rp.emissionsProcess ep join ep.emissionsUnit eu join eu.facilitySite fs join fs.emissionsReport er where er.programSystemCode.code = :psc and er.year = :emissionsReportYear")
-    List<ReportingPeriod> findByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+    Stream<ReportingPeriod> streamByPscAndEmissionsReportYear(String psc, Short emissionsReportYear);
+
+    /**
+     * Retrieve the Reporting Periods, with their Emissions Process and Emissions Unit, that belong in a point emissions
+     * submission for a report. Only periods with emissions under an operating process of an operating unit are returned,
+     * the entities are read-only so changes to them are not flushed
+     * @param reportId
+     * @param statusCode operating status code of the units and processes
+     * @return
+     */
+    @QueryHints({@QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select rp from ReportingPeriod rp join fetch rp.emissionsProcess ep join fetch ep.emissionsUnit eu join eu.facilitySite fs "
+            + "where fs.emissionsReport.id = :reportId and eu.operatingStatusCode.code = :statusCode and ep.operatingStatusCode.code = :statusCode "
+            + "and exists (select e.id from Emission e where e.reportingPeriod = rp) order by eu.id, ep.id, rp.id")
+    List<ReportingPeriod> retrievePointEmissionsByReportId(@Param("reportId") Long reportId, @Param("statusCode") String statusCode);
 }
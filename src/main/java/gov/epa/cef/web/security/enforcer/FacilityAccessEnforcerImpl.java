@@ -17,6 +17,8 @@
 package gov.epa.cef.web.security.enforcer;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import gov.epa.cef.web.exception.FacilityAccessException;
 import gov.epa.cef.web.exception.NotExistException;
 import gov.epa.cef.web.repository.FacilitySiteRepository;
@@ -24,11 +26,19 @@ import gov.epa.cef.web.repository.ProgramIdRetriever;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class FacilityAccessEnforcerImpl implements FacilityAccessEnforcer {
 
-    private final Collection<Long> authorizedMasterIds;
+    // keeps each IN list well under the database's bind parameter limit
+    private static final int BatchSize = 1000;
+
+    private final Set<Long> authorizedMasterIds;
 
     private final ProgramIdRepoLocator repoLocator;
 
@@ -36,25 +46,38 @@ public class FacilityAccessEnforcerImpl implements FacilityAccessEnforcer {
                                       Collection<Long> authorizedMasterIds) {
 
         this.repoLocator = repoLocator;
-        this.authorizedMasterIds = authorizedMasterIds;
+        this.authorizedMasterIds = ImmutableSet.copyOf(authorizedMasterIds);
     }
 
     @Override
     public <T extends ProgramIdRetriever> void enforceEntities(Collection<Long> ids, Class<T> repoClazz) {
 
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() == 1) {
+
+            // a single id uses the cached lookup
+            enforceEntity(distinctIds.iterator().next(), repoClazz);
+            return;
+        }
+
+        Preconditions.checkArgument(!distinctIds.contains(null), "IDs for %s repository can not be null.", repoClazz.getSimpleName());
+
         ProgramIdRetriever repo = repoLocator.getProgramIdRepository(repoClazz);
 
-        enforceMasterIds(ids.stream()
-            .map(id -> {
+        Map<Long, Long> masterIds = new HashMap<>();
+        for (List<Long> batch : Iterables.partition(distinctIds, BatchSize)) {
 
-                return repo.retrieveMasterFacilityRecordIdById(id)
-                    .orElseThrow(() -> {
+            repo.retrieveMasterFacilityRecordIdsByIds(batch)
+                .forEach(result -> masterIds.put(result.getId(), result.getMasterFacilityRecordId()));
+        }
 
-                        String entity = repoClazz.getSimpleName().replace("Repository", "");
-                        return new NotExistException(entity, id);
-                    });
-            })
-            .collect(Collectors.toList()));
+        for (Long id : distinctIds) {
+            if (!masterIds.containsKey(id)) {
+                throw new NotExistException(entityName(repoClazz), id);
+            }
+        }
+
+        enforceMasterIds(masterIds.values());
     }
 
     @Override
@@ -62,7 +85,10 @@ public class FacilityAccessEnforcerImpl implements FacilityAccessEnforcer {
 
     	Preconditions.checkArgument(id != null,"ID for %s repository can not be null.", repoClazz.getSimpleName());
 
-        enforceEntities(Collections.singletonList(id), repoClazz);
+        ProgramIdRetriever repo = repoLocator.getProgramIdRepository(repoClazz);
+
+        enforceMasterId(repo.retrieveMasterFacilityRecordIdById(id)
+            .orElseThrow(() -> new NotExistException(entityName(repoClazz), id)));
     }
 
     @Override
@@ -86,13 +112,14 @@ public class FacilityAccessEnforcerImpl implements FacilityAccessEnforcer {
     @Override
     public Collection<Long> getAuthorizedMasterIds() {
 
-        return Collections.unmodifiableCollection(this.authorizedMasterIds);
+        return this.authorizedMasterIds;
     }
 
     @Override
     public void enforceMasterIds(Collection<Long> ids) {
 
         Collection<String> unauthorized = ids.stream()
+            .distinct()
             .filter(p -> this.authorizedMasterIds.contains(p) == false)
             .map(p -> p.toString())
             .collect(Collectors.toList());
@@ -102,4 +129,9 @@ public class FacilityAccessEnforcerImpl implements FacilityAccessEnforcer {
             throw new FacilityAccessException(unauthorized);
         }
     }
+
+    private static String entityName(Class<?> repoClazz) {
+
+        return repoClazz.getSimpleName().replace("Repository", "");
+    }
 }
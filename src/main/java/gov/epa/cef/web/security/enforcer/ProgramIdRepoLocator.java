@@ -20,11 +20,16 @@ import gov.epa.cef.web.repository.ProgramIdRetriever;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 public class ProgramIdRepoLocator {
 
     private final ApplicationContext applicationContext;
 
+    private final Map<Class<?>, ProgramIdRetriever> repositories = new ConcurrentHashMap<>();
+
     public ProgramIdRepoLocator(ApplicationContext applicationContext) {
 
         this.applicationContext = applicationContext;
@@ -32,6 +37,6 @@ public class ProgramIdRepoLocator {
 
     public <T extends ProgramIdRetriever> ProgramIdRetriever getProgramIdRepository(Class<T> clazz) {
 
-        return this.applicationContext.getBean(clazz);
+        return this.repositories.computeIfAbsent(clazz, key -> this.applicationContext.getBean(clazz));
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service;
+
+import gov.epa.cef.web.service.dto.EmissionsReportStarterDto;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadJobDto;
+import gov.epa.cef.web.util.TempFile;
+
+import java.util.Optional;
+
+public interface BulkUploadJobService {
+
+    /**
+     * Queue a workbook to be scanned, parsed, validated and saved by a background worker.
+     * The job takes ownership of the workbook and deletes it when finished.
+     *
+     * @param metadata
+     * @param workbook
+     * @return the queued job
+     */
+    BulkUploadJobDto submit(EmissionsReportStarterDto metadata, TempFile workbook);
+
+    /**
+     * Retrieve the status of a job, finished jobs are kept for a limited time
+     *
+     * @param jobId
+     * @return
+     */
+    Optional<BulkUploadJobDto> retrieveJob(String jobId);
+}
@@ -19,9 +19,11 @@ package gov.epa.cef.web.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import gov.epa.cef.web.service.dto.EmissionsReportDto;
 import gov.epa.cef.web.service.dto.EmissionsReportStarterDto;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadStage;
 import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
 import gov.epa.cef.web.util.TempFile;
 
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public interface BulkUploadService {
@@ -48,4 +50,15 @@ public interface BulkUploadService {
      * @return
      */
     EmissionsReportDto saveBulkWorkbook(EmissionsReportStarterDto metadata, TempFile workbook);
+
+    /**
+     * Upload, Parse and Save the emissions report to the database, reporting each stage of the pipeline as it starts.
+     *
+     * @param metadata
+     * @param workbook
+     * @param progress
+     * @return
+     */
+    EmissionsReportDto saveBulkWorkbook(EmissionsReportStarterDto metadata, TempFile workbook,
+                                        Consumer<BulkUploadStage> progress);
 }
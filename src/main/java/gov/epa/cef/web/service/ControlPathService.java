@@ -15,6 +15,8 @@
  * not, see <https://www.gnu.org/licenses/>.
 */
 package gov.epa.cef.web.service;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import java.util.List; 
 
@@ -150,18 +152,18 @@ public interface ControlPathService {
     ControlAssignmentDto updateAssignment(ControlAssignmentDto dto);
 
     /**
-     * Retrieve a list of control paths for the given program system code and emissions report year
+     * Stream the control paths for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ControlPathBulkUploadDto> retrieveControlPaths(String programSystemCode, Short emissionsReportYear);
+    void streamControlPaths(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlPathBulkUploadDto>> consumer);
 
     /**
-     * Retrieve a list of control path pollutants for the given program system code and emissions report year
+     * Stream the control path pollutants for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ControlPathPollutantBulkUploadDto> retrieveControlPathPollutants(String programSystemCode, Short emissionsReportYear);
+    void streamControlPathPollutants(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlPathPollutantBulkUploadDto>> consumer);
 }
\ No newline at end of file
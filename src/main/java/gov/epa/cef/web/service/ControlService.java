@@ -15,6 +15,8 @@
  * not, see <https://www.gnu.org/licenses/>.
 */
 package gov.epa.cef.web.service;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import java.util.List; 
 
@@ -97,26 +99,26 @@ public interface ControlService {
     void deleteControlPollutant(Long controlPollutantId);
 
     /**
-     * Retrieve a list of controls for the given program system code and emissions report year
+     * Stream the controls for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ControlBulkUploadDto> retrieveControls(String programSystemCode, Short emissionsReportYear);
+    void streamControls(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlBulkUploadDto>> consumer);
 
     /**
-     * Retrieve a list of control assignments for the given program system code and emissions report year
+     * Stream the control assignments for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ControlAssignmentBulkUploadDto> retrieveControlAssignments(String programSystemCode, Short emissionsReportYear);
+    void streamControlAssignments(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlAssignmentBulkUploadDto>> consumer);
 
     /**
-     * Retrieve a list of control pollutants for the given program system code and emissions report year
+     * Stream the control pollutants for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ControlPollutantBulkUploadDto> retrieveControlPollutants(String programSystemCode, Short emissionsReportYear);
+    void streamControlPollutants(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlPollutantBulkUploadDto>> consumer);
 }
\ No newline at end of file
@@ -17,6 +17,8 @@
 package gov.epa.cef.web.service;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import gov.epa.cef.web.domain.Emission;
 import gov.epa.cef.web.domain.EmissionsProcess;
@@ -118,20 +120,20 @@ public interface EmissionService {
     public EmissionsByFacilityAndCASDto findEmissionsByTrifidAndCAS(String trifid, String pollutantCasId);
 
     /**
-     * Retrieve a list of emissions for the given program system code and emissions report year
+     * Stream the emissions for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<EmissionBulkUploadDto> retrieveEmissions(String programSystemCode, Short emissionsReportYear);
+    void streamEmissions(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionBulkUploadDto>> consumer);
 
     /**
-     * Retrieve a list of emission formula variables for the given program system code and emissions report year
+     * Stream the emission formula variables for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<EmissionFormulaVariableBulkUploadDto> retrieveEmissionFormulaVariables(String programSystemCode, Short emissionsReportYear);
+    void streamEmissionFormulaVariables(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionFormulaVariableBulkUploadDto>> consumer);
     
     /**
      * Update emission factor description where possible
@@ -21,6 +21,8 @@ import gov.epa.cef.web.service.dto.EmissionsProcessSaveDto;
 import gov.epa.cef.web.service.dto.bulkUpload.EmissionsProcessBulkUploadDto;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface EmissionsProcessService {
 
@@ -73,10 +75,10 @@ public interface EmissionsProcessService {
     void delete(Long id);
 
     /**
-     * Retrieve a list of emissions processes for the given program system code and emissions report year
+     * Stream the emissions processes for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<EmissionsProcessBulkUploadDto> retrieveEmissionsProcesses(String programSystemCode, Short emissionsReportYear);
+    void streamEmissionsProcesses(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionsProcessBulkUploadDto>> consumer);
 }
@@ -20,6 +20,8 @@ import gov.epa.cef.web.service.dto.EmissionsUnitDto;
 import gov.epa.cef.web.service.dto.bulkUpload.EmissionsUnitBulkUploadDto;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface EmissionsUnitService {
 
@@ -65,10 +67,10 @@ public interface EmissionsUnitService {
     EmissionsUnitDto update(EmissionsUnitDto dto);
 
     /**
-     * Retrieve a list of emissions units for the given program system code and emissions report year
+     * Stream the emissions units for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<EmissionsUnitBulkUploadDto> retrieveEmissionsUnits(String programSystemCode, Short emissionsReportYear);
+    void streamEmissionsUnits(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionsUnitBulkUploadDto>> consumer);
 }
@@ -17,6 +17,8 @@
 package gov.epa.cef.web.service;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import gov.epa.cef.web.service.dto.FacilitySiteContactDto;
 import gov.epa.cef.web.service.dto.bulkUpload.FacilitySiteContactBulkUploadDto;
@@ -60,11 +62,11 @@ public interface FacilitySiteContactService {
 	List<FacilitySiteContactDto> retrieveInventoryContactsForFacility(Long facilitySiteId);
 
     /**
-     * Retrieve a list of facility contacts for the given program system code and emissions report year
+     * Stream the facility contacts for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
 
-	List<FacilitySiteContactBulkUploadDto> retrieveFacilitySiteContacts(String programSystemCode, Short emissionsReportYear);
+	void streamFacilitySiteContacts(String programSystemCode, Short emissionsReportYear, Consumer<Stream<FacilitySiteContactBulkUploadDto>> consumer);
 }
\ No newline at end of file
@@ -17,6 +17,8 @@
 package gov.epa.cef.web.service;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import gov.epa.cef.web.domain.FacilitySite;
 import gov.epa.cef.web.service.dto.FacilityNAICSDto;
@@ -91,19 +93,19 @@ public interface FacilitySiteService {
 
 
     /**
-     * Retrieve a list of facilities for the given program system code and emissions report year
+     * Stream the facilities for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<FacilitySiteBulkUploadDto> retrieveFacilities(String programSystemCode, Short emissionsReportYear);
+    void streamFacilities(String programSystemCode, Short emissionsReportYear, Consumer<Stream<FacilitySiteBulkUploadDto>> consumer);
 
 
     /**
-     * Retrieve a list of facility NAICS codes for the given program system code and emissions report year
+     * Stream the facility NAICS codes for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<FacilityNAICSBulkUploadDto> retrieveFacilityNaics(String programSystemCode, Short emissionsReportYear);
+    void streamFacilityNaics(String programSystemCode, Short emissionsReportYear, Consumer<Stream<FacilityNAICSBulkUploadDto>> consumer);
 }
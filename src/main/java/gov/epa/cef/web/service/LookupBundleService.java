@@ -0,0 +1,36 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service;
+
+import gov.epa.cef.web.service.dto.LookupBundleDto;
+
+public interface LookupBundleService {
+
+    /**
+     * Retrieve the code tables used by the reporting screens for a reporting year as one gzipped JSON document,
+     * the document is built once and reused until the reference data changes. Only the lookup-bundle.max-years
+     * years up to the current year are available, other years are rejected with an AppValidationException.
+     * @param year
+     * @return
+     */
+    LookupBundleDto retrieveLookupBundle(int year);
+
+    /**
+     * Drop the bundles built on every node so they are rebuilt from the current reference data
+     */
+    void invalidate();
+}
@@ -0,0 +1,58 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service;
+
+import java.util.List;
+
+import gov.epa.cef.web.service.dto.CodeLookupDto;
+import gov.epa.cef.web.service.dto.PointSourceSccCodeDto;
+import gov.epa.cef.web.service.dto.PollutantDto;
+
+public interface LookupSearchService {
+
+    /**
+     * Search the SCC codes current for a year by the start of the words in their code and descriptions
+     * @param term
+     * @param year
+     * @param limit
+     * @return
+     */
+    List<PointSourceSccCodeDto> searchSccCodes(String term, int year, int limit);
+
+    /**
+     * Search the six digit NAICS codes current for a year by the start of the words in their code and description
+     * @param term
+     * @param year
+     * @param limit
+     * @return
+     */
+    List<CodeLookupDto> searchNaicsCodes(String term, int year, int limit);
+
+    /**
+     * Search the pollutants current for a year by the start of the words in their code, name and CAS id
+     * @param term
+     * @param year
+     * @param limit
+     * @return
+     */
+    List<PollutantDto> searchPollutants(String term, int year, int limit);
+
+    /**
+     * Rebuild the search indexes from the reference tables, searches use the old indexes until the new ones are ready
+     */
+    void rebuild();
+}
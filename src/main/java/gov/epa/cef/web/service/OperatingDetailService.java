@@ -17,6 +17,8 @@
 package gov.epa.cef.web.service;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import gov.epa.cef.web.service.dto.OperatingDetailDto;
 import gov.epa.cef.web.service.dto.bulkUpload.OperatingDetailBulkUploadDto;
@@ -31,11 +33,11 @@ public interface OperatingDetailService {
     OperatingDetailDto update(OperatingDetailDto dto);
 
     /**
-     * Retrieve a list of operating details for the given program system code and emissions report year
+     * Stream the operating details for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<OperatingDetailBulkUploadDto> retrieveOperatingDetails(String programSystemCode, Short emissionsReportYear);
+    void streamOperatingDetails(String programSystemCode, Short emissionsReportYear, Consumer<Stream<OperatingDetailBulkUploadDto>> consumer);
 
 }
\ No newline at end of file
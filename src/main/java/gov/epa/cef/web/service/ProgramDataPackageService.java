@@ -0,0 +1,33 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service;
+
+import java.io.OutputStream;
+
+public interface ProgramDataPackageService {
+
+    /**
+     * Write a ZIP file containing the CSV export of every worksheet for a program system and inventory year.
+     * The worksheets are generated concurrently and each is added to the ZIP file as it is ready.
+     * Callers are responsible for enforcing access to the program system's facilities beforehand.
+     *
+     * @param programSystemCode
+     * @param emissionsReportYear
+     * @param outputStream
+     */
+    void writeDataPackage(String programSystemCode, Short emissionsReportYear, OutputStream outputStream);
+}
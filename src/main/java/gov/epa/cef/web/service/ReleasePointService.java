@@ -22,6 +22,8 @@ import gov.epa.cef.web.service.dto.bulkUpload.ReleasePointApptBulkUploadDto;
 import gov.epa.cef.web.service.dto.bulkUpload.ReleasePointBulkUploadDto;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface ReleasePointService {
 	
@@ -87,18 +89,18 @@ public interface ReleasePointService {
     ReleasePointApptDto updateAppt(ReleasePointApptDto dto);
 
     /**
-     * Retrieve a list of release points for the given program system code and emissions report year
+     * Stream the release points for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ReleasePointBulkUploadDto> retrieveReleasePoints(String programSystemCode, Short emissionsReportYear);
+    void streamReleasePoints(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ReleasePointBulkUploadDto>> consumer);
 
     /**
-     * Retrieve a list of release point apportionments for the given program system code and emissions report year
+     * Stream the release point apportionments for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ReleasePointApptBulkUploadDto> retrieveReleasePointAppts(String programSystemCode, Short emissionsReportYear);
+    void streamReleasePointAppts(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ReleasePointApptBulkUploadDto>> consumer);
 }
@@ -17,6 +17,8 @@
 package gov.epa.cef.web.service;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import gov.epa.cef.web.service.dto.EmissionBulkEntryHolderDto;
 import gov.epa.cef.web.service.dto.ReportingPeriodBulkEntryDto;
@@ -70,10 +72,10 @@ public interface ReportingPeriodService {
     public List<EmissionBulkEntryHolderDto> bulkUpdate(Long facilitySiteId, List<ReportingPeriodBulkEntryDto> dtos);
 
     /**
-     * Retrieve a list of reporting periods for the given program system code and emissions report year
+     * Stream the reporting periods for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
+     * @param consumer receives the rows, which are read from a database cursor while it runs
      */
-    List<ReportingPeriodBulkUploadDto>retrieveReportingPeriods(String programSystemCode, Short emissionsReportYear);
+    void streamReportingPeriods(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ReportingPeriodBulkUploadDto>> consumer);
 }
\ No newline at end of file
@@ -16,7 +16,11 @@
 */
 package gov.epa.cef.web.service.dto;
 
-public class EisDataCriteria {
+import java.io.Serializable;
+
+public class EisDataCriteria implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String programSystemCode;
 
@@ -16,12 +16,15 @@
 */
 package gov.epa.cef.web.service.dto;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 
-public class EisDataListDto implements Consumer<EisDataReportDto> {
+public class EisDataListDto implements Consumer<EisDataReportDto>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final EisDataCriteria criteria;
 
@@ -19,9 +19,12 @@ package gov.epa.cef.web.service.dto;
 import gov.epa.cef.web.domain.EmissionsReport;
 import gov.epa.cef.web.domain.FacilitySite;
 
+import java.io.Serializable;
 import java.util.function.Function;
 
-public class EisDataReportDto {
+public class EisDataReportDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String agencyFacilityId;
 
@@ -29,6 +29,8 @@ public class EisTransactionHistoryDto implements Serializable {
     private EisSubmissionStatus eisSubmissionStatus;
     private String transactionId;
     private String submitterName;
+    private String nodeStatus;
+    private String nodeStatusDetail;
     private EisTransactionAttachmentDto attachment;
 
     public Long getId() {
@@ -79,6 +81,22 @@ public class EisTransactionHistoryDto implements Serializable {
         this.submitterName = submitterName;
     }
 
+    public String getNodeStatus() {
+        return nodeStatus;
+    }
+
+    public void setNodeStatus(String nodeStatus) {
+        this.nodeStatus = nodeStatus;
+    }
+
+    public String getNodeStatusDetail() {
+        return nodeStatusDetail;
+    }
+
+    public void setNodeStatusDetail(String nodeStatusDetail) {
+        this.nodeStatusDetail = nodeStatusDetail;
+    }
+
     public EisTransactionAttachmentDto getAttachment() {
         return attachment;
     }
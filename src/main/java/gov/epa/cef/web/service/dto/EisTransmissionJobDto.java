@@ -0,0 +1,128 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Status of a queued EIS transmission. The worker updates the stage while clients poll for it,
+ * so the mutable fields are volatile.
+ */
+public class EisTransmissionJobDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String jobId;
+
+    private final String programSystemCode;
+
+    private final EisSubmissionStatus submissionStatus;
+
+    private final List<Long> emissionsReports;
+
+    private final Instant submittedAt;
+
+    private volatile EisTransmissionStage stage = EisTransmissionStage.Queued;
+
+    private volatile Instant finishedAt;
+
+    private volatile String errorMessage;
+
+    private volatile EisDataListDto result;
+
+    public EisTransmissionJobDto(String jobId, EisHeaderDto eisHeader) {
+
+        this.jobId = jobId;
+        this.programSystemCode = eisHeader.getProgramSystemCode();
+        this.submissionStatus = eisHeader.getSubmissionStatus();
+        this.emissionsReports = Collections.unmodifiableList(new ArrayList<>(eisHeader.getEmissionsReports()));
+        this.submittedAt = Instant.now();
+    }
+
+    public String getJobId() {
+
+        return jobId;
+    }
+
+    public String getProgramSystemCode() {
+
+        return programSystemCode;
+    }
+
+    public EisSubmissionStatus getSubmissionStatus() {
+
+        return submissionStatus;
+    }
+
+    public List<Long> getEmissionsReports() {
+
+        return emissionsReports;
+    }
+
+    public Instant getSubmittedAt() {
+
+        return submittedAt;
+    }
+
+    public EisTransmissionStage getStage() {
+
+        return stage;
+    }
+
+    public void setStage(EisTransmissionStage stage) {
+
+        this.stage = stage;
+    }
+
+    public boolean isFailed() {
+
+        return stage == EisTransmissionStage.Failed;
+    }
+
+    public Instant getFinishedAt() {
+
+        return finishedAt;
+    }
+
+    public String getErrorMessage() {
+
+        return errorMessage;
+    }
+
+    public EisDataListDto getResult() {
+
+        return result;
+    }
+
+    public void complete(EisDataListDto result) {
+
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.stage = EisTransmissionStage.Complete;
+    }
+
+    public void fail(String errorMessage) {
+
+        this.errorMessage = errorMessage;
+        this.finishedAt = Instant.now();
+        this.stage = EisTransmissionStage.Failed;
+    }
+}
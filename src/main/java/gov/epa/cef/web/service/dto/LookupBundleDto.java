@@ -0,0 +1,51 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.dto;
+
+/**
+ * Code tables for a reporting year serialized to gzipped JSON, the ETag is a hash of the uncompressed JSON.
+ */
+public class LookupBundleDto {
+
+    private final int year;
+
+    private final String eTag;
+
+    private final byte[] gzippedJson;
+
+    public LookupBundleDto(int year, String eTag, byte[] gzippedJson) {
+
+        this.year = year;
+        this.eTag = eTag;
+        this.gzippedJson = gzippedJson;
+    }
+
+    public int getYear() {
+
+        return year;
+    }
+
+    public String getETag() {
+
+        return eTag;
+    }
+
+    public byte[] getGzippedJson() {
+
+        return gzippedJson;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.dto.bulkUpload;
+
+import gov.epa.cef.web.service.dto.EmissionsReportDto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Status of an asynchronous bulk upload. The worker updates the stage as the upload moves through the
+ * pipeline while clients poll for it, so the mutable fields are volatile.
+ */
+public class BulkUploadJobDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String jobId;
+
+    private final Long masterFacilityRecordId;
+
+    private final String fileName;
+
+    private final Instant submittedAt;
+
+    private volatile BulkUploadStage stage = BulkUploadStage.Queued;
+
+    private volatile Instant finishedAt;
+
+    private volatile List<WorksheetError> errors = Collections.emptyList();
+
+    private volatile EmissionsReportDto report;
+
+    public BulkUploadJobDto(String jobId, Long masterFacilityRecordId, String fileName) {
+
+        this.jobId = jobId;
+        this.masterFacilityRecordId = masterFacilityRecordId;
+        this.fileName = fileName;
+        this.submittedAt = Instant.now();
+    }
+
+    public String getJobId() {
+
+        return jobId;
+    }
+
+    public Long getMasterFacilityRecordId() {
+
+        return masterFacilityRecordId;
+    }
+
+    public String getFileName() {
+
+        return fileName;
+    }
+
+    public Instant getSubmittedAt() {
+
+        return submittedAt;
+    }
+
+    public BulkUploadStage getStage() {
+
+        return stage;
+    }
+
+    public void setStage(BulkUploadStage stage) {
+
+        this.stage = stage;
+    }
+
+    public int getPercentComplete() {
+
+        return stage.percentComplete();
+    }
+
+    public boolean isFailed() {
+
+        return stage == BulkUploadStage.Failed;
+    }
+
+    public Instant getFinishedAt() {
+
+        return finishedAt;
+    }
+
+    public List<WorksheetError> getErrors() {
+
+        return errors;
+    }
+
+    public EmissionsReportDto getReport() {
+
+        return report;
+    }
+
+    public void complete(EmissionsReportDto report) {
+
+        this.report = report;
+        this.finishedAt = Instant.now();
+        this.stage = BulkUploadStage.Complete;
+    }
+
+    public void fail(Collection<WorksheetError> errors) {
+
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+        this.finishedAt = Instant.now();
+        this.stage = BulkUploadStage.Failed;
+    }
+}
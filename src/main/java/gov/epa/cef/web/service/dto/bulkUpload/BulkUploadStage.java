@@ -0,0 +1,48 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.dto.bulkUpload;
+
+/**
+ * Stages of the bulk upload pipeline in the order they are run, with the percent complete at the start of each
+ */
+public enum BulkUploadStage {
+    Queued(0),
+    Scanning(5),
+    Parsing(15),
+    Validating(40),
+    Mapping(55),
+    Saving(75),
+    Complete(100),
+    Failed(100);
+
+    private final int percentComplete;
+
+    BulkUploadStage(int percentComplete) {
+
+        this.percentComplete = percentComplete;
+    }
+
+    public int percentComplete() {
+
+        return this.percentComplete;
+    }
+
+    public boolean isFinished() {
+
+        return this == Complete || this == Failed;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import gov.epa.cef.web.domain.FipsCounty;
+
+/**
+ * Immutable snapshot of the code tables used while mapping a bulk upload. Each table is loaded once
+ * when the snapshot is built so that resolving a code for a row does not go back to the database.
+ */
+class BulkUploadCodeTables {
+
+    private final Map<Class<?>, Map<Object, Object>> tables;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private BulkUploadCodeTables(Map<Class<?>, Map<Object, Object>> tables) {
+
+        this.tables = tables;
+    }
+
+    static Builder builder() {
+
+        return new Builder();
+    }
+
+    /**
+     * Resolve a code to its lookup entity, returns null if the code is null or not in the table
+     */
+    <T> T resolve(Class<T> type, Object code) {
+
+        if (code == null) {
+            return null;
+        }
+
+        Map<Object, Object> table = this.tables.get(type);
+        if (table == null) {
+            throw new IllegalStateException(String.format("Code table %s was not loaded.", type.getSimpleName()));
+        }
+
+        Object result = table.get(code);
+        if (result == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+
+        return type.cast(result);
+    }
+
+    /**
+     * Resolve a county by its state FIPS code and county code
+     */
+    FipsCounty resolveCounty(String stateCode, String countyCode) {
+
+        return resolve(FipsCounty.class, countyKey(stateCode, countyCode));
+    }
+
+    long getHitCount() {
+
+        return this.hits.get();
+    }
+
+    long getMissCount() {
+
+        return this.misses.get();
+    }
+
+    private static String countyKey(String stateCode, String countyCode) {
+
+        return stateCode == null || countyCode == null ? null : stateCode.concat(":").concat(countyCode);
+    }
+
+    static class Builder {
+
+        private final Map<Class<?>, Map<Object, Object>> tables = new HashMap<>();
+
+        /**
+         * Add a code table keyed by the given function, the first row wins if a key is repeated
+         */
+        <T> Builder table(Class<T> type, Iterable<T> rows, Function<T, ?> key) {
+
+            Map<Object, Object> table = new HashMap<>();
+            for (T row : rows) {
+                Object code = key.apply(row);
+                if (code != null) {
+                    table.putIfAbsent(code, row);
+                }
+            }
+
+            this.tables.put(type, Collections.unmodifiableMap(table));
+
+            return this;
+        }
+
+        Builder counties(Iterable<FipsCounty> rows) {
+
+            return table(FipsCounty.class, rows,
+                county -> county.getFipsStateCode() == null ? null
+                    : countyKey(county.getFipsStateCode().getCode(), county.getCountyCode()));
+        }
+
+        BulkUploadCodeTables build() {
+
+            return new BulkUploadCodeTables(Collections.unmodifiableMap(new HashMap<>(this.tables)));
+        }
+    }
+}
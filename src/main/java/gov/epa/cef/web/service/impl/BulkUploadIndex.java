@@ -0,0 +1,140 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import gov.epa.cef.web.service.dto.bulkUpload.ControlBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPathBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPathPollutantBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPollutantBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionFormulaVariableBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsProcessBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsUnitBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.OperatingDetailBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReportingPeriodBulkUploadDto;
+
+/**
+ * One-pass index over the worksheets of an uploaded workbook which groups child rows by their parent id
+ * so the report graph can be assembled without re-scanning every child list for every parent row.
+ * Rows keep their worksheet order within each group and rows with a null parent id are not indexed.
+ */
+class BulkUploadIndex {
+
+    private final Map<Long, List<EmissionsUnitBulkUploadDto>> unitsByFacility;
+    private final Map<Long, List<EmissionsProcessBulkUploadDto>> processesByUnit;
+    private final Map<Long, List<ReportingPeriodBulkUploadDto>> periodsByProcess;
+    private final Map<Long, List<OperatingDetailBulkUploadDto>> detailsByPeriod;
+    private final Map<Long, List<EmissionBulkUploadDto>> emissionsByPeriod;
+    private final Map<Long, List<EmissionFormulaVariableBulkUploadDto>> variablesByEmission;
+    private final Map<Long, List<ControlPathBulkUploadDto>> controlPathsByFacility;
+    private final Map<Long, List<ControlPathPollutantBulkUploadDto>> pathPollutantsByPath;
+    private final Map<Long, List<ControlBulkUploadDto>> controlsByFacility;
+    private final Map<Long, List<ControlPollutantBulkUploadDto>> controlPollutantsByControl;
+
+    BulkUploadIndex(EmissionsReportBulkUploadDto report) {
+
+        this.unitsByFacility = group(report.getEmissionsUnits(), EmissionsUnitBulkUploadDto::getFacilitySiteId);
+        this.processesByUnit = group(report.getEmissionsProcesses(), EmissionsProcessBulkUploadDto::getEmissionsUnitId);
+        this.periodsByProcess = group(report.getReportingPeriods(), ReportingPeriodBulkUploadDto::getEmissionsProcessId);
+        this.detailsByPeriod = group(report.getOperatingDetails(), OperatingDetailBulkUploadDto::getReportingPeriodId);
+        this.emissionsByPeriod = group(report.getEmissions(), EmissionBulkUploadDto::getReportingPeriodId);
+        this.variablesByEmission = group(report.getEmissionFormulaVariables(), EmissionFormulaVariableBulkUploadDto::getEmissionId);
+        this.controlPathsByFacility = group(report.getControlPaths(), ControlPathBulkUploadDto::getFacilitySiteId);
+        this.pathPollutantsByPath = group(report.getControlPathPollutants(), ControlPathPollutantBulkUploadDto::getControlPathId);
+        this.controlsByFacility = group(report.getControls(), ControlBulkUploadDto::getFacilitySiteId);
+        this.controlPollutantsByControl = group(report.getControlPollutants(), ControlPollutantBulkUploadDto::getControlId);
+    }
+
+    List<EmissionsUnitBulkUploadDto> emissionsUnits(Long facilitySiteId) {
+
+        return lookup(this.unitsByFacility, facilitySiteId);
+    }
+
+    List<EmissionsProcessBulkUploadDto> emissionsProcesses(Long emissionsUnitId) {
+
+        return lookup(this.processesByUnit, emissionsUnitId);
+    }
+
+    List<ReportingPeriodBulkUploadDto> reportingPeriods(Long emissionsProcessId) {
+
+        return lookup(this.periodsByProcess, emissionsProcessId);
+    }
+
+    List<OperatingDetailBulkUploadDto> operatingDetails(Long reportingPeriodId) {
+
+        return lookup(this.detailsByPeriod, reportingPeriodId);
+    }
+
+    List<EmissionBulkUploadDto> emissions(Long reportingPeriodId) {
+
+        return lookup(this.emissionsByPeriod, reportingPeriodId);
+    }
+
+    List<EmissionFormulaVariableBulkUploadDto> emissionFormulaVariables(Long emissionId) {
+
+        return lookup(this.variablesByEmission, emissionId);
+    }
+
+    List<ControlPathBulkUploadDto> controlPaths(Long facilitySiteId) {
+
+        return lookup(this.controlPathsByFacility, facilitySiteId);
+    }
+
+    List<ControlPathPollutantBulkUploadDto> controlPathPollutants(Long controlPathId) {
+
+        return lookup(this.pathPollutantsByPath, controlPathId);
+    }
+
+    List<ControlBulkUploadDto> controls(Long facilitySiteId) {
+
+        return lookup(this.controlsByFacility, facilitySiteId);
+    }
+
+    List<ControlPollutantBulkUploadDto> controlPollutants(Long controlId) {
+
+        return lookup(this.controlPollutantsByControl, controlId);
+    }
+
+    private static <T> Map<Long, List<T>> group(List<T> rows, Function<T, Long> parentId) {
+
+        Map<Long, List<T>> result = new HashMap<>();
+
+        for (T row : rows) {
+            Long key = parentId.apply(row);
+            if (key != null) {
+                result.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        return result;
+    }
+
+    private static <T> List<T> lookup(Map<Long, List<T>> index, Long parentId) {
+
+        List<T> result = parentId == null ? null : index.get(parentId);
+
+        return result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import gov.epa.cef.web.client.soap.VirusScanClient;
+import gov.epa.cef.web.exception.BulkReportValidationException;
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.exception.VirusScanException;
+import gov.epa.cef.web.service.BulkUploadJobService;
+import gov.epa.cef.web.service.BulkUploadService;
+import gov.epa.cef.web.service.dto.EmissionsReportDto;
+import gov.epa.cef.web.service.dto.EmissionsReportStarterDto;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadJobDto;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadStage;
+import gov.epa.cef.web.service.dto.bulkUpload.WorksheetError;
+import gov.epa.cef.web.util.TempFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bulk uploads on a bounded worker pool. Jobs are kept in a Hazelcast map so a progress poll routed to
+ * any node in the cluster finds them.
+ */
+@Service
+public class BulkUploadJobServiceImpl implements BulkUploadJobService, DisposableBean {
+
+    static final String JobMap = "BulkUploadJobs";
+
+    /**
+     * Unfinished jobs expire after a day in case the node running them stops before they finish
+     */
+    private static final long UnfinishedJobTtlMinutes = TimeUnit.DAYS.toMinutes(1);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final BulkUploadJobConfig config;
+
+    private final ExecutorService executor;
+
+    private final IMap<String, BulkUploadJobDto> jobs;
+
+    private final BulkUploadService uploadService;
+
+    private final VirusScanClient virusScanClient;
+
+    @Autowired
+    BulkUploadJobServiceImpl(BulkUploadJobConfig config,
+                             BulkUploadService uploadService,
+                             VirusScanClient virusScanClient,
+                             HazelcastInstance hazelcastInstance) {
+
+        this.config = config;
+        this.uploadService = uploadService;
+        this.virusScanClient = virusScanClient;
+        this.jobs = hazelcastInstance.getMap(JobMap);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(),
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+            runnable -> new Thread(runnable, "bulk-upload-" + threadCount.incrementAndGet()));
+
+        // the worker runs as the user who submitted the upload
+        this.executor = new DelegatingSecurityContextExecutorService(workers);
+    }
+
+    @Override
+    public BulkUploadJobDto submit(EmissionsReportStarterDto metadata, TempFile workbook) {
+
+        BulkUploadJobDto job = new BulkUploadJobDto(UUID.randomUUID().toString(),
+            metadata.getMasterFacilityRecordId(), workbook.getFileName());
+
+        store(job);
+
+        try {
+
+            this.executor.execute(() -> run(job, metadata, workbook));
+
+        } catch (RejectedExecutionException e) {
+
+            this.jobs.delete(job.getJobId());
+            workbook.close();
+
+            throw new ServiceBusyException(
+                "Too many workbooks are being uploaded right now, please try again in a few minutes.");
+        }
+
+        logger.info("Bulk upload job {} queued for {}", job.getJobId(), job.getFileName());
+
+        return job;
+    }
+
+    @Override
+    public Optional<BulkUploadJobDto> retrieveJob(String jobId) {
+
+        return Optional.ofNullable(this.jobs.get(jobId));
+    }
+
+    @Override
+    public void destroy() {
+
+        this.executor.shutdownNow();
+    }
+
+    private void run(BulkUploadJobDto job, EmissionsReportStarterDto metadata, TempFile workbook) {
+
+        try (TempFile tempFile = workbook) {
+
+            updateStage(job, BulkUploadStage.Scanning);
+            this.virusScanClient.scanFile(tempFile);
+
+            EmissionsReportDto report = this.uploadService.saveBulkWorkbook(metadata, tempFile,
+                stage -> updateStage(job, stage));
+
+            job.complete(report);
+
+        } catch (BulkReportValidationException e) {
+
+            job.fail(e.getErrors());
+
+        } catch (VirusScanException e) {
+
+            String msg = String.format("The uploaded file, '%s', is suspected of containing a threat " +
+                    "such as a virus or malware and was deleted. The scanner responded with: '%s'.",
+                job.getFileName(), e.getMessage());
+
+            job.fail(Collections.singletonList(WorksheetError.createSystemError(msg)));
+
+        } catch (RuntimeException e) {
+
+            logger.error("Bulk upload job {} failed", job.getJobId(), e);
+
+            // exceptions like a NullPointerException have no message of their own
+            String msg = e.getMessage() != null
+                ? e.getMessage()
+                : String.format("An unexpected error occurred (%s).", e.getClass().getSimpleName());
+
+            job.fail(Collections.singletonList(WorksheetError.createSystemError(msg)));
+        }
+
+        store(job);
+
+        logger.info("Bulk upload job {} finished {}", job.getJobId(), job.getStage());
+    }
+
+    private void updateStage(BulkUploadJobDto job, BulkUploadStage stage) {
+
+        job.setStage(stage);
+        store(job);
+    }
+
+    /**
+     * The map holds a copy of the job so it's stored again after every change, finished jobs expire
+     * once the retention period is over
+     */
+    private void store(BulkUploadJobDto job) {
+
+        long ttlMinutes = job.getStage().isFinished() ? this.config.getRetentionMinutes() : UnfinishedJobTtlMinutes;
+
+        this.jobs.set(job.getJobId(), job, ttlMinutes, TimeUnit.MINUTES);
+    }
+
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "bulk-upload")
+    public static class BulkUploadJobConfig {
+
+        @Min(1)
+        private int workers = 2;
+
+        @Min(1)
+        private int queueCapacity = 20;
+
+        @Min(1)
+        private long retentionMinutes = 60;
+
+        public int getWorkers() {
+
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getRetentionMinutes() {
+
+            return retentionMinutes;
+        }
+
+        public void setRetentionMinutes(long retentionMinutes) {
+
+            this.retentionMinutes = retentionMinutes;
+        }
+    }
+}
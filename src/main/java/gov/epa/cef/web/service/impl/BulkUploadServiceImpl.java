@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -46,30 +47,51 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import gov.epa.cef.web.client.api.ExcelParserClient;
 import gov.epa.cef.web.client.api.ExcelParserResponse;
+import gov.epa.cef.web.client.api.ExcelStreamingParser;
 import gov.epa.cef.web.config.SLTBaseConfig;
+import gov.epa.cef.web.domain.AircraftEngineTypeCode;
+import gov.epa.cef.web.domain.CalculationMaterialCode;
+import gov.epa.cef.web.domain.CalculationMethodCode;
+import gov.epa.cef.web.domain.CalculationParameterTypeCode;
+import gov.epa.cef.web.domain.ContactTypeCode;
 import gov.epa.cef.web.domain.Control;
 import gov.epa.cef.web.domain.ControlAssignment;
+import gov.epa.cef.web.domain.ControlMeasureCode;
 import gov.epa.cef.web.domain.ControlPath;
 import gov.epa.cef.web.domain.ControlPathPollutant;
 import gov.epa.cef.web.domain.ControlPollutant;
 import gov.epa.cef.web.domain.Emission;
 import gov.epa.cef.web.domain.EmissionFactor;
 import gov.epa.cef.web.domain.EmissionFormulaVariable;
+import gov.epa.cef.web.domain.EmissionFormulaVariableCode;
+import gov.epa.cef.web.domain.EmissionsOperatingTypeCode;
 import gov.epa.cef.web.domain.EmissionsProcess;
 import gov.epa.cef.web.domain.EmissionsReport;
 import gov.epa.cef.web.domain.EmissionsUnit;
+import gov.epa.cef.web.domain.FacilityCategoryCode;
 import gov.epa.cef.web.domain.FacilityNAICSXref;
 import gov.epa.cef.web.domain.FacilitySite;
 import gov.epa.cef.web.domain.FacilitySiteContact;
+import gov.epa.cef.web.domain.FacilitySourceTypeCode;
+import gov.epa.cef.web.domain.FipsStateCode;
 import gov.epa.cef.web.domain.MasterFacilityNAICSXref;
 import gov.epa.cef.web.domain.MasterFacilityRecord;
+import gov.epa.cef.web.domain.NaicsCode;
 import gov.epa.cef.web.domain.NaicsCodeType;
 import gov.epa.cef.web.domain.OperatingDetail;
+import gov.epa.cef.web.domain.OperatingStatusCode;
+import gov.epa.cef.web.domain.Pollutant;
+import gov.epa.cef.web.domain.ProgramSystemCode;
 import gov.epa.cef.web.domain.ReleasePoint;
 import gov.epa.cef.web.domain.ReleasePointAppt;
+import gov.epa.cef.web.domain.ReleasePointTypeCode;
 import gov.epa.cef.web.domain.ReportAction;
 import gov.epa.cef.web.domain.ReportStatus;
 import gov.epa.cef.web.domain.ReportingPeriod;
+import gov.epa.cef.web.domain.ReportingPeriodCode;
+import gov.epa.cef.web.domain.TribalCode;
+import gov.epa.cef.web.domain.UnitMeasureCode;
+import gov.epa.cef.web.domain.UnitTypeCode;
 import gov.epa.cef.web.domain.ValidationStatus;
 import gov.epa.cef.web.exception.BulkReportValidationException;
 import gov.epa.cef.web.exception.CalculationException;
@@ -110,6 +132,7 @@ import gov.epa.cef.web.service.dto.EisSubmissionStatus;
 import gov.epa.cef.web.service.dto.EmissionsReportDto;
 import gov.epa.cef.web.service.dto.EmissionsReportStarterDto;
 import gov.epa.cef.web.service.dto.bulkUpload.BlankToNullModule;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadStage;
 import gov.epa.cef.web.service.dto.bulkUpload.ControlAssignmentBulkUploadDto;
 import gov.epa.cef.web.service.dto.bulkUpload.ControlBulkUploadDto;
 import gov.epa.cef.web.service.dto.bulkUpload.ControlPathBulkUploadDto;
@@ -177,6 +200,12 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     @Autowired
     private ExcelParserClient excelParserClient;
 
+    @Autowired
+    private ExcelParserClient.ExcelParserClientConfig excelParserConfig;
+
+    @Autowired
+    private ExcelStreamingParser excelStreamingParser;
+
     @Autowired
     private FacilityCategoryCodeRepository facilityCategoryRepo;
 
@@ -264,7 +293,17 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     @Override
     public EmissionsReportDto saveBulkEmissionsReport(EmissionsReportBulkUploadDto bulkEmissionsReport) {
 
+        return saveBulkEmissionsReport(bulkEmissionsReport, stage -> {});
+    }
+
+    private EmissionsReportDto saveBulkEmissionsReport(EmissionsReportBulkUploadDto bulkEmissionsReport,
+                                                       Consumer<BulkUploadStage> progress) {
+
+        progress.accept(BulkUploadStage.Mapping);
+
         EmissionsReport emissionsReport = toEmissionsReport().apply(bulkEmissionsReport);
+
+        progress.accept(BulkUploadStage.Saving);
         
         // if a previous report already exists, then update that existing report with the data from this uploaded file
         // and reset the validation, report, and CROMERR status for the report
@@ -312,46 +351,59 @@ public class BulkUploadServiceImpl implements BulkUploadService {
 
     public EmissionsReportDto saveBulkWorkbook(EmissionsReportStarterDto metadata, TempFile workbook) {
 
-        EmissionsReportDto result = null;
+        return saveBulkWorkbook(metadata, workbook, stage -> {});
+    }
 
-        ExcelParserResponse response = this.excelParserClient.parseWorkbook(workbook);
+    public EmissionsReportDto saveBulkWorkbook(EmissionsReportStarterDto metadata, TempFile workbook,
+                                               Consumer<BulkUploadStage> progress) {
 
-        if (response.getResponseCode() == HttpURLConnection.HTTP_OK) {
+        progress.accept(BulkUploadStage.Parsing);
 
-            logger.info("ExcelJsonParser Result {}", response.getJson());
+        EmissionsReportBulkUploadDto bulkEmissionsReport;
 
-            EmissionsReportBulkUploadDto bulkEmissionsReport = parseWorkbookJson(response, metadata);
+        if (this.excelParserConfig.isEmbedded()) {
 
-            this.validator.validate(bulkEmissionsReport);
+            bulkEmissionsReport = applyMetadata(this.excelStreamingParser.parseWorkbook(workbook), metadata);
 
-            try {
+        } else {
 
-                result = saveBulkEmissionsReport(bulkEmissionsReport);
+            ExcelParserResponse response = this.excelParserClient.parseWorkbook(workbook);
 
-            } catch (Exception e) {
+            if (response.getResponseCode() != HttpURLConnection.HTTP_OK) {
 
-                String msg = e.getMessage()
-                    .replaceAll(EmissionsReportBulkUploadDto.class.getPackage().getName().concat("."), "")
-                    .replaceAll(EmissionsReport.class.getPackage().getName().concat("."), "");
+                List<WorksheetError> errors = new ArrayList<>();
+                errors.add(WorksheetError.createSystemError("Unable to read workbook."));
+                if (response.getJson() != null && response.getJson().hasNonNull("message")) {
 
-                WorksheetError violation = WorksheetError.createSystemError(msg);
+                    errors.add(WorksheetError.createSystemError(response.getJson().path("message").asText()));
+                }
 
-                throw new BulkReportValidationException(Collections.singletonList(violation));
+                throw new BulkReportValidationException(errors);
             }
 
-        } else {
+            logger.info("ExcelJsonParser Result {}", response.getJson());
 
-            List<WorksheetError> errors = new ArrayList<>();
-            errors.add(WorksheetError.createSystemError("Unable to read workbook."));
-            if (response.getJson() != null && response.getJson().hasNonNull("message")) {
+            bulkEmissionsReport = parseWorkbookJson(response, metadata);
+        }
 
-                errors.add(WorksheetError.createSystemError(response.getJson().path("message").asText()));
-            }
+        progress.accept(BulkUploadStage.Validating);
 
-            throw new BulkReportValidationException(errors);
-        }
+        this.validator.validate(bulkEmissionsReport);
 
-        return result;
+        try {
+
+            return saveBulkEmissionsReport(bulkEmissionsReport, progress);
+
+        } catch (Exception e) {
+
+            String msg = e.getMessage()
+                .replaceAll(EmissionsReportBulkUploadDto.class.getPackage().getName().concat("."), "")
+                .replaceAll(EmissionsReport.class.getPackage().getName().concat("."), "");
+
+            WorksheetError violation = WorksheetError.createSystemError(msg);
+
+            throw new BulkReportValidationException(Collections.singletonList(violation));
+        }
     }
 
     protected Function<EmissionsReportBulkUploadDto, EmissionsReport> toEmissionsReport() {
@@ -361,11 +413,17 @@ public class BulkUploadServiceImpl implements BulkUploadService {
             Collection<String> warnings = new ArrayList<>();
 
             EmissionsReport emissionsReport = mapEmissionsReport(bulkEmissionsReport);
+
+            // group the child worksheets by parent id once instead of filtering them for every parent row
+            BulkUploadIndex index = new BulkUploadIndex(bulkEmissionsReport);
+
+            // resolve codes from an in-memory copy of the lookup tables instead of querying them for every row
+            BulkUploadCodeTables codes = loadCodeTables();
             
             SLTBaseConfig sltConfig = sltConfigHelper.getCurrentSLTConfig(bulkEmissionsReport.getProgramSystemCode());
             
             for (FacilitySiteBulkUploadDto bulkFacility : bulkEmissionsReport.getFacilitySites()) {
-                FacilitySite facility = mapFacility(bulkFacility);
+                FacilitySite facility = mapFacility(bulkFacility, codes);
                 
                 facility.setName(emissionsReport.getMasterFacilityRecord().getName());
                 facility.setFacilitySourceTypeCode(emissionsReport.getMasterFacilityRecord().getFacilitySourceTypeCode());
@@ -388,7 +446,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
 
                 // Map Facility Contacts
                 for (FacilitySiteContactBulkUploadDto bulkFacilityContact : bulkEmissionsReport.getFacilityContacts()) {
-                    FacilitySiteContact facilityContact = mapFacilityContact(bulkFacilityContact);
+                    FacilitySiteContact facilityContact = mapFacilityContact(bulkFacilityContact, codes);
 
                     if (bulkFacility.getId().equals(bulkFacilityContact.getFacilitySiteId())) {
                         facilityContact.setFacilitySite(facility);
@@ -400,7 +458,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
                 if (Boolean.FALSE.equals(sltConfig.getFacilityNaicsEnabled())) {
 	                for (FacilityNAICSBulkUploadDto bulkFacilityNAICS : bulkEmissionsReport.getFacilityNAICS()) {
 	                	FacilityNAICSXref facilityNAICS;
-	                    facilityNAICS = mapFacilityNAICS(bulkFacilityNAICS);
+	                    facilityNAICS = mapFacilityNAICS(bulkFacilityNAICS, codes);
 	                    if (bulkFacility.getId().equals(bulkFacilityNAICS.getFacilitySiteId())) {
 	                        facilityNAICS.setFacilitySite(facility);
 	                        facility.getFacilityNAICS().add(facilityNAICS);
@@ -422,22 +480,17 @@ public class BulkUploadServiceImpl implements BulkUploadService {
                         .collect(Collectors.toList());
         
                 Short previousReportYr = (!erList.isEmpty()) ? erList.get(erList.size()-1).getYear() : -1;
-                
-                List<ReleasePoint> previousRps = releasePointRepo.retrieveByFacilityYear(
-                        emissionsReport.getMasterFacilityRecord().getId(), 
-                        previousReportYr);
+
+                // load the previous year components once for the facility, matched below by identifier
+                PreviousYearInventory previous = loadPreviousYear(emissionsReport.getMasterFacilityRecord().getId(), previousReportYr);
 
                 // Map Release Points
                 for (ReleasePointBulkUploadDto bulkRp : bulkEmissionsReport.getReleasePoints()) {
-                    ReleasePoint releasePoint = mapReleasePoint(bulkRp);
-                    
-                    for (ReleasePoint previousRp : previousRps) {
-                    	if (releasePoint.getReleasePointIdentifier().equals(previousRp.getReleasePointIdentifier())) {
-                    		
-                			releasePoint.setPreviousYearOperatingStatusCode(previousRp.getOperatingStatusCode());
-                    		previousRps.remove(previousRp);
-                    		break;
-                    	}
+                    ReleasePoint releasePoint = mapReleasePoint(bulkRp, codes);
+
+                    ReleasePoint previousRp = previous.claimReleasePoint(releasePoint.getReleasePointIdentifier());
+                    if (previousRp != null) {
+                        releasePoint.setPreviousYearOperatingStatusCode(previousRp.getOperatingStatusCode());
                     }
                     
                     if (bulkFacility.getId().equals(bulkRp.getFacilitySiteId())) {
@@ -447,7 +500,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
                     }
                 }
                 
-                for (ReleasePoint previousRp : previousRps) {
+                for (ReleasePoint previousRp : previous.unclaimedReleasePoints()) {
                 	if (!previousRp.getOperatingStatusCode().getCode().equals("PS")) {
 	            		ReleasePoint rpToAdd = new ReleasePoint(facility, previousRp);
 	            		// id is nulled to stop hibernate from getting mad
@@ -458,131 +511,104 @@ public class BulkUploadServiceImpl implements BulkUploadService {
                 	}
                 }
 
-                List<EmissionsUnit> previousEus = emissionsUnitRepo.retrieveByFacilityYear(
-                        emissionsReport.getMasterFacilityRecord().getId(), 
-                        previousReportYr);
-                
                 // Map Emissions Units
-                for (EmissionsUnitBulkUploadDto bulkEmissionsUnit : bulkEmissionsReport.getEmissionsUnits()) {
+                for (EmissionsUnitBulkUploadDto bulkEmissionsUnit : index.emissionsUnits(bulkFacility.getId())) {
+                    EmissionsUnit emissionsUnit = mapEmissionsUnit(bulkEmissionsUnit, codes);
+                    emissionsUnit.setFacilitySite(facility);
 
-                    if (bulkFacility.getId().equals(bulkEmissionsUnit.getFacilitySiteId())) {
+                    EmissionsUnit previousEu = previous.claimEmissionsUnit(emissionsUnit.getUnitIdentifier());
+                    if (previousEu != null) {
+                        emissionsUnit.setPreviousYearOperatingStatusCode(previousEu.getOperatingStatusCode());
+                    }
 
-                        EmissionsUnit emissionsUnit = mapEmissionsUnit(bulkEmissionsUnit);
-                        emissionsUnit.setFacilitySite(facility);
-                        
-                        for (EmissionsUnit previousEu : previousEus) {
-                        	if (emissionsUnit.getUnitIdentifier().equals(previousEu.getUnitIdentifier())) {
-                        		
-                        		emissionsUnit.setPreviousYearOperatingStatusCode(previousEu.getOperatingStatusCode());
-                        		previousEus.remove(previousEu);
-                        		break;
-                        	}
-                        }
+                    // Map Emissions Processes
+                    List<EmissionsProcess> processes = index.emissionsProcesses(bulkEmissionsUnit.getId()).stream()
+                        .map(bulkProcess -> {
+                            EmissionsProcess process = mapEmissionsProcess(bulkProcess, codes);
 
-                        // Map Emissions Processes
-                        List<EmissionsProcess> previousProcs = emissionsProcessRepo.retrieveByParentFacilityYear(
-                        		emissionsUnit.getUnitIdentifier(),
-                                emissionsReport.getMasterFacilityRecord().getId(), 
-                                previousReportYr);
-                        
-                        List<EmissionsProcess> processes = bulkEmissionsReport.getEmissionsProcesses().stream()
-                            .filter(p -> bulkEmissionsUnit.getId().equals(p.getEmissionsUnitId()))
-                            .map(bulkProcess -> {
-                                EmissionsProcess process = mapEmissionsProcess(bulkProcess);
-                                
-                                for (EmissionsProcess previousProc : previousProcs) {
-                                	if (process.getEmissionsProcessIdentifier().equals(previousProc.getEmissionsProcessIdentifier())) {
-                                		
-                                		process.setPreviousYearOperatingStatusCode(previousProc.getOperatingStatusCode());
-                                		previousProcs.remove(previousProc);
-                                		break;
-                                	}
-                                }
-
-                                // Map Reporting Periods
-                                List<ReportingPeriod> periods = bulkEmissionsReport.getReportingPeriods().stream()
-                                    .filter(rp -> bulkProcess.getId().equals(rp.getEmissionsProcessId()))
-                                    .map(bulkPeriod -> {
-                                        ReportingPeriod period = mapReportingPeriod(bulkPeriod);
-
-                                        // Map Operating Details, should only be 1
-                                        List<OperatingDetail> details = bulkEmissionsReport.getOperatingDetails().stream()
-                                            .filter(od -> bulkPeriod.getId().equals(od.getReportingPeriodId()))
-                                            .map(bulkDetail -> {
-                                                OperatingDetail detail = mapOperatingDetail(bulkDetail);
-                                                detail.setReportingPeriod(period);
-
-                                                return detail;
-                                            }).collect(Collectors.toList());
-
-                                        // Map Emissions
-                                        List<Emission> emissions = bulkEmissionsReport.getEmissions().stream()
-                                            .filter(e -> bulkPeriod.getId().equals(e.getReportingPeriodId()))
-                                            .map(bulkEmission -> {
-                                                Emission emission = mapEmission(bulkEmission);
-
-                                                List<EmissionFormulaVariable> variables = bulkEmissionsReport.getEmissionFormulaVariables().stream()
-                                                    .filter(efv -> bulkEmission.getId().equals(efv.getEmissionId()))
-                                                    .map(bulkVariable -> {
-                                                        EmissionFormulaVariable variable = mapEmissionFormulaVariable(bulkVariable);
-                                                        variable.setEmission(emission);
-
-                                                        return variable;
-                                                    }).collect(Collectors.toList());
-
-                                                emission.setReportingPeriod(period);
-                                                emission.setVariables(variables);
-
-                                                if (Boolean.TRUE.equals(emission.getFormulaIndicator()) && !emission.getVariables().isEmpty()) {
-                                                    try {
-                                                        emission.setEmissionsFactor(CalculationUtils.calculateEmissionFormula(emission.getEmissionsFactorFormula(), emission.getVariables()));
-                                                    } catch (CalculationException e) {
-                                                        // TODO: handle exception
-                                                    }
-                                                }
-                                                
-                                                // looks wonky because the lambda function above expects emissions to be effectively final
-                                                emission.setEmissionsFactorText(emissionService.updateEmissionsFactorDescription(emission, process).getEmissionsFactorText());
+                            EmissionsProcess previousProc = previous.claimEmissionsProcess(
+                                emissionsUnit.getUnitIdentifier(), process.getEmissionsProcessIdentifier());
+                            if (previousProc != null) {
+                                process.setPreviousYearOperatingStatusCode(previousProc.getOperatingStatusCode());
+                            }
 
-                                                return emission;
-                                            }).collect(Collectors.toList());
+                            // Map Reporting Periods
+                            List<ReportingPeriod> periods = index.reportingPeriods(bulkProcess.getId()).stream()
+                                .map(bulkPeriod -> {
+                                    ReportingPeriod period = mapReportingPeriod(bulkPeriod, codes);
+
+                                    // Map Operating Details, should only be 1
+                                    List<OperatingDetail> details = index.operatingDetails(bulkPeriod.getId()).stream()
+                                        .map(bulkDetail -> {
+                                            OperatingDetail detail = mapOperatingDetail(bulkDetail);
+                                            detail.setReportingPeriod(period);
+
+                                            return detail;
+                                        }).collect(Collectors.toList());
+
+                                    // Map Emissions
+                                    List<Emission> emissions = index.emissions(bulkPeriod.getId()).stream()
+                                        .map(bulkEmission -> {
+                                            Emission emission = mapEmission(bulkEmission, codes);
+
+                                            List<EmissionFormulaVariable> variables = index.emissionFormulaVariables(bulkEmission.getId()).stream()
+                                                .map(bulkVariable -> {
+                                                    EmissionFormulaVariable variable = mapEmissionFormulaVariable(bulkVariable, codes);
+                                                    variable.setEmission(emission);
+
+                                                    return variable;
+                                                }).collect(Collectors.toList());
+
+                                            emission.setReportingPeriod(period);
+                                            emission.setVariables(variables);
+
+                                            if (Boolean.TRUE.equals(emission.getFormulaIndicator()) && !emission.getVariables().isEmpty()) {
+                                                try {
+                                                    emission.setEmissionsFactor(CalculationUtils.calculateEmissionFormula(emission.getEmissionsFactorFormula(), emission.getVariables()));
+                                                } catch (CalculationException e) {
+                                                    // TODO: handle exception
+                                                }
+                                            }
+                                            
+                                            // looks wonky because the lambda function above expects emissions to be effectively final
+                                            emission.setEmissionsFactorText(emissionService.updateEmissionsFactorDescription(emission, process).getEmissionsFactorText());
 
-                                        period.setEmissionsProcess(process);
-                                        period.setEmissions(emissions);
-                                        period.setOperatingDetails(details);
+                                            return emission;
+                                        }).collect(Collectors.toList());
 
-                                        return period;
-                                    }).collect(Collectors.toList());
+                                    period.setEmissionsProcess(process);
+                                    period.setEmissions(emissions);
+                                    period.setOperatingDetails(details);
 
-                                process.setEmissionsUnit(emissionsUnit);
-                                process.setReportingPeriods(periods);
+                                    return period;
+                                }).collect(Collectors.toList());
 
-                                processMap.put(bulkProcess.getId(), process);
+                            process.setEmissionsUnit(emissionsUnit);
+                            process.setReportingPeriods(periods);
 
-                                return process;
-                            }).collect(Collectors.toList());
-                        
-                        for (EmissionsProcess previousProc : previousProcs) {
-                        	if (!previousProc.getOperatingStatusCode().getCode().equals("PS")) {
-	                        	EmissionsProcess procToAdd = mapToNewProcess(previousProc);
-	                        	// update to the current emissions unit
-	                        	procToAdd.setEmissionsUnit(emissionsUnit);
-	                        	procToAdd.clearId();
-	                        	procToAdd.setReleasePointAppts(null);
-	                        	
-	                            processes.add(procToAdd);
-                        	}
-                        }
+                            processMap.put(bulkProcess.getId(), process);
 
-                        emissionsUnit.setEmissionsProcesses(processes);
+                            return process;
+                        }).collect(Collectors.toList());
+                    
+                    for (EmissionsProcess previousProc : previous.takeUnclaimedEmissionsProcesses(emissionsUnit.getUnitIdentifier())) {
+                    	if (!previousProc.getOperatingStatusCode().getCode().equals("PS")) {
+	                    	EmissionsProcess procToAdd = mapToNewProcess(previousProc);
+	                    	// update to the current emissions unit
+	                    	procToAdd.setEmissionsUnit(emissionsUnit);
+	                    	procToAdd.clearId();
+	                    	procToAdd.setReleasePointAppts(null);
+	                    	
+	                        processes.add(procToAdd);
+                    	}
+                    }
 
-                        facility.getEmissionsUnits().add(emissionsUnit);
+                    emissionsUnit.setEmissionsProcesses(processes);
 
-                    }
-                    
+                    facility.getEmissionsUnits().add(emissionsUnit);
                 }
                 
-                for (EmissionsUnit previousEu : previousEus) {
+                for (EmissionsUnit previousEu : previous.unclaimedEmissionsUnits()) {
                 	if (!previousEu.getOperatingStatusCode().getCode().equals("PS")) {
 	                	EmissionsUnit euToAdd = new EmissionsUnit(facility, previousEu);
 	                    // id is nulled to stop hibernate from getting mad
@@ -600,18 +626,16 @@ public class BulkUploadServiceImpl implements BulkUploadService {
                 }
 
                 // Map Control Paths
-                List<ControlPath> controlPaths = bulkEmissionsReport.getControlPaths().stream()
-                    .filter(c -> bulkFacility.getId().equals(c.getFacilitySiteId()))
+                List<ControlPath> controlPaths = index.controlPaths(bulkFacility.getId()).stream()
                     .map(bulkControlPath -> {
                         ControlPath path = mapControlPath(bulkControlPath);
                         path.setFacilitySite(facility);
                         
                         // Map Control Path Pollutants
-                        List<ControlPathPollutant> controlPathPollutants = bulkEmissionsReport.getControlPathPollutants().stream()
-                            .filter(cp -> bulkControlPath.getId().equals(cp.getControlPathId()))
+                        List<ControlPathPollutant> controlPathPollutants = index.controlPathPollutants(bulkControlPath.getId()).stream()
                             .map(bulkControlPathPollutant -> {
                             	
-                                ControlPathPollutant controlPathPollutant = mapControlPathPollutant(bulkControlPathPollutant);
+                                ControlPathPollutant controlPathPollutant = mapControlPathPollutant(bulkControlPathPollutant, codes);
                                 controlPathPollutant.setControlPath(path);
 
                                 return controlPathPollutant;
@@ -627,30 +651,20 @@ public class BulkUploadServiceImpl implements BulkUploadService {
                 facility.setControlPaths(controlPaths);
 
                 // Map Controls
-                List<Control> previousControls = controlRepo.retrieveByFacilityYear(
-                        emissionsReport.getMasterFacilityRecord().getId(), 
-                        previousReportYr);
-                
-                List<Control> controls = bulkEmissionsReport.getControls().stream()
-                    .filter(c -> bulkFacility.getId().equals(c.getFacilitySiteId()))
+                List<Control> controls = index.controls(bulkFacility.getId()).stream()
                     .map(bulkControl -> {
-                        Control control = mapControl(bulkControl);
+                        Control control = mapControl(bulkControl, codes);
                         control.setFacilitySite(facility);
-                        
-                        for (Control previousControl : previousControls) {
-                            if (control.getIdentifier().equals(previousControl.getIdentifier())) {
-                                
-                            	control.setPreviousYearOperatingStatusCode(previousControl.getOperatingStatusCode());
-                            	previousControls.remove(previousControl);
-                                break;
-                            }
+
+                        Control previousControl = previous.claimControl(control.getIdentifier());
+                        if (previousControl != null) {
+                            control.setPreviousYearOperatingStatusCode(previousControl.getOperatingStatusCode());
                         }
 
                         // Map Control Pollutants
-                        List<ControlPollutant> controlPollutants = bulkEmissionsReport.getControlPollutants().stream()
-                            .filter(c -> bulkControl.getId().equals(c.getControlId()))
+                        List<ControlPollutant> controlPollutants = index.controlPollutants(bulkControl.getId()).stream()
                             .map(bulkControlPollutant -> {
-                                ControlPollutant controlPollutant = mapControlPollutant(bulkControlPollutant);
+                                ControlPollutant controlPollutant = mapControlPollutant(bulkControlPollutant, codes);
                                 controlPollutant.setControl(control);
 
                                 return controlPollutant;
@@ -663,7 +677,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
                         return control;
                     }).collect(Collectors.toList());
                 
-                for (Control previousControl : previousControls) {
+                for (Control previousControl : previous.unclaimedControls()) {
                 	if (!previousControl.getOperatingStatusCode().getCode().equals("PS")) {
                 		
 	                	Control controlToAdd = new Control(facility, previousControl);
@@ -742,6 +756,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
             }
 
             logger.debug("Warnings {}", warnings);
+            logger.info("Bulk upload code lookups: {} resolved, {} not found", codes.getHitCount(), codes.getMissCount());
 
             return emissionsReport;
         };
@@ -766,21 +781,51 @@ public class BulkUploadServiceImpl implements BulkUploadService {
         }
     }
 
+    /**
+     * Load the code tables referenced by the bulk upload worksheets
+     */
+    private BulkUploadCodeTables loadCodeTables() {
+
+        return BulkUploadCodeTables.builder()
+            .table(AircraftEngineTypeCode.class, aircraftEngineRepo.findAll(), AircraftEngineTypeCode::getCode)
+            .table(CalculationMaterialCode.class, calcMaterialCodeRepo.findAll(), CalculationMaterialCode::getCode)
+            .table(CalculationMethodCode.class, calcMethodCodeRepo.findAll(), CalculationMethodCode::getCode)
+            .table(CalculationParameterTypeCode.class, calcParamTypeCodeRepo.findAll(), CalculationParameterTypeCode::getCode)
+            .table(ContactTypeCode.class, contactTypeRepo.findAll(), ContactTypeCode::getCode)
+            .table(ControlMeasureCode.class, controlMeasureCodeRepo.findAll(), ControlMeasureCode::getCode)
+            .table(EmissionFormulaVariableCode.class, emissionFormulaVariableCodeRepo.findAll(), EmissionFormulaVariableCode::getCode)
+            .table(EmissionsOperatingTypeCode.class, emissionsOperatingTypeCodeRepo.findAll(), EmissionsOperatingTypeCode::getCode)
+            .table(FacilityCategoryCode.class, facilityCategoryRepo.findAll(), FacilityCategoryCode::getCode)
+            .table(FacilitySourceTypeCode.class, facilitySourceTypeRepo.findAll(), FacilitySourceTypeCode::getCode)
+            .table(FipsStateCode.class, stateCodeRepo.findAll(), FipsStateCode::getUspsCode)
+            .table(NaicsCode.class, naicsCodeRepo.findAll(), NaicsCode::getCode)
+            .table(OperatingStatusCode.class, operatingStatusRepo.findAll(), OperatingStatusCode::getCode)
+            .table(Pollutant.class, pollutantRepo.findAll(), Pollutant::getPollutantCode)
+            .table(ProgramSystemCode.class, programSystemCodeRepo.findAll(), ProgramSystemCode::getCode)
+            .table(ReleasePointTypeCode.class, releasePointTypeRepo.findAll(), ReleasePointTypeCode::getCode)
+            .table(ReportingPeriodCode.class, reportingPeriodCodeRepo.findAll(), ReportingPeriodCode::getCode)
+            .table(TribalCode.class, tribalCodeRepo.findAll(), TribalCode::getCode)
+            .table(UnitMeasureCode.class, unitMeasureCodeRepo.findAll(), UnitMeasureCode::getCode)
+            .table(UnitTypeCode.class, unitTypeRepo.findAll(), UnitTypeCode::getCode)
+            .counties(countyRepo.findAll())
+            .build();
+    }
+
     /**
      * Map an ControlBulkUploadDto to an Control domain model
      */
-    private Control mapControl(ControlBulkUploadDto dto) {
+    private Control mapControl(ControlBulkUploadDto dto, BulkUploadCodeTables codes) {
 
         Control result = uploadMapper.controlFromDto(dto);
 
         if (dto.getOperatingStatusCode() != null) {
-            result.setOperatingStatusCode(operatingStatusRepo.findById(dto.getOperatingStatusCode()).orElse(null));
+            result.setOperatingStatusCode(codes.resolve(OperatingStatusCode.class, dto.getOperatingStatusCode()));
         }
         if (dto.getStatusYear() != null) {
         	result.setStatusYear(toShort(dto.getStatusYear()));
         }
         if (dto.getControlMeasureCode() != null) {
-            result.setControlMeasureCode(controlMeasureCodeRepo.findById(dto.getControlMeasureCode()).orElse(null));
+            result.setControlMeasureCode(codes.resolve(ControlMeasureCode.class, dto.getControlMeasureCode()));
         }
         // Percent capture has been removed for control device per CEF-984.
         if (dto.getPercentCapture() != null) {
@@ -813,12 +858,12 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an ControlPollutantBulkUploadDto to an ControlPollutant domain model
      */
-    private ControlPollutant mapControlPollutant(ControlPollutantBulkUploadDto dto) {
+    private ControlPollutant mapControlPollutant(ControlPollutantBulkUploadDto dto, BulkUploadCodeTables codes) {
 
         ControlPollutant result = uploadMapper.controlPollutantFromDto(dto);
 
         if (dto.getPollutantCode() != null) {
-            result.setPollutant(pollutantRepo.findById(dto.getPollutantCode()).orElse(null));
+            result.setPollutant(codes.resolve(Pollutant.class, dto.getPollutantCode()));
         }
 
         return result;
@@ -827,12 +872,12 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an ControlPathPollutantBulkUploadDto to an ControlPathPollutant domain model
      */
-    private ControlPathPollutant mapControlPathPollutant(ControlPathPollutantBulkUploadDto dto) {
+    private ControlPathPollutant mapControlPathPollutant(ControlPathPollutantBulkUploadDto dto, BulkUploadCodeTables codes) {
 
     	ControlPathPollutant result = uploadMapper.controlPathPollutantFromDto(dto);
 
         if (dto.getPollutantCode() != null) {
-            result.setPollutant(pollutantRepo.findById(dto.getPollutantCode()).orElse(null));
+            result.setPollutant(codes.resolve(Pollutant.class, dto.getPollutantCode()));
         }
 
         return result;
@@ -841,26 +886,26 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an OperatingDetailBulkUploadDto to an OperatingDetail domain model
      */
-    private Emission mapEmission(EmissionBulkUploadDto dto) {
+    private Emission mapEmission(EmissionBulkUploadDto dto, BulkUploadCodeTables codes) {
 
         Emission result = uploadMapper.emissionsFromDto(dto);
 
         result.setFormulaIndicator(Strings.emptyToNull(dto.getEmissionsFactorFormula()) != null);
 
         if (dto.getEmissionsCalcMethodCode() != null) {
-            result.setEmissionsCalcMethodCode(calcMethodCodeRepo.findById(dto.getEmissionsCalcMethodCode()).orElse(null));
+            result.setEmissionsCalcMethodCode(codes.resolve(CalculationMethodCode.class, dto.getEmissionsCalcMethodCode()));
         }
         if (dto.getEmissionsUomCode() != null) {
-            result.setEmissionsUomCode(unitMeasureCodeRepo.findById(dto.getEmissionsUomCode()).orElse(null));
+            result.setEmissionsUomCode(codes.resolve(UnitMeasureCode.class, dto.getEmissionsUomCode()));
         }
         if (dto.getEmissionsNumeratorUom() != null) {
-            result.setEmissionsNumeratorUom(unitMeasureCodeRepo.findById(dto.getEmissionsNumeratorUom()).orElse(null));
+            result.setEmissionsNumeratorUom(codes.resolve(UnitMeasureCode.class, dto.getEmissionsNumeratorUom()));
         }
         if (dto.getEmissionsDenominatorUom() != null) {
-            result.setEmissionsDenominatorUom(unitMeasureCodeRepo.findById(dto.getEmissionsDenominatorUom()).orElse(null));
+            result.setEmissionsDenominatorUom(codes.resolve(UnitMeasureCode.class, dto.getEmissionsDenominatorUom()));
         }
         if (dto.getPollutantCode() != null) {
-            result.setPollutant(pollutantRepo.findById(dto.getPollutantCode()).orElse(null));
+            result.setPollutant(codes.resolve(Pollutant.class, dto.getPollutantCode()));
         }
 
         if (result.getEmissionsUomCode() != null && result.getTotalEmissions() != null) {
@@ -872,13 +917,13 @@ public class BulkUploadServiceImpl implements BulkUploadService {
         return result;
     }
 
-    private EmissionFormulaVariable mapEmissionFormulaVariable(EmissionFormulaVariableBulkUploadDto dto) {
+    private EmissionFormulaVariable mapEmissionFormulaVariable(EmissionFormulaVariableBulkUploadDto dto, BulkUploadCodeTables codes) {
 
         EmissionFormulaVariable result = new EmissionFormulaVariable();
         result.setValue(toBigDecimal(dto.getValue()));
 
         if (dto.getEmissionFormulaVariableCode() != null) {
-            result.setVariableCode(emissionFormulaVariableCodeRepo.findById(dto.getEmissionFormulaVariableCode()).orElse(null));
+            result.setVariableCode(codes.resolve(EmissionFormulaVariableCode.class, dto.getEmissionFormulaVariableCode()));
         }
 
         return result;
@@ -887,16 +932,16 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an EmissionsProcessBulkUploadDto to an EmissionsProcess domain model
      */
-    private EmissionsProcess mapEmissionsProcess(EmissionsProcessBulkUploadDto dto) {
+    private EmissionsProcess mapEmissionsProcess(EmissionsProcessBulkUploadDto dto, BulkUploadCodeTables codes) {
 
         EmissionsProcess result = uploadMapper.emissionsProcessFromDto(dto);
 
         if (dto.getAircraftEngineTypeCode() != null) {
-            result.setAircraftEngineTypeCode(aircraftEngineRepo.findById(dto.getAircraftEngineTypeCode()).orElse(null));
+            result.setAircraftEngineTypeCode(codes.resolve(AircraftEngineTypeCode.class, dto.getAircraftEngineTypeCode()));
         }
 
         if (dto.getOperatingStatusCode() != null) {
-            result.setOperatingStatusCode(operatingStatusRepo.findById(dto.getOperatingStatusCode()).orElse(null));
+            result.setOperatingStatusCode(codes.resolve(OperatingStatusCode.class, dto.getOperatingStatusCode()));
         }
 
         return result;
@@ -976,7 +1021,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an EmissionsUnitBulkUploadDto to an EmissionsUnit domain model
      */
-    private EmissionsUnit mapEmissionsUnit(EmissionsUnitBulkUploadDto bulkEmissionsUnit) {
+    private EmissionsUnit mapEmissionsUnit(EmissionsUnitBulkUploadDto bulkEmissionsUnit, BulkUploadCodeTables codes) {
 
         EmissionsUnit emissionsUnit = new EmissionsUnit();
 
@@ -987,13 +1032,13 @@ public class BulkUploadServiceImpl implements BulkUploadService {
         emissionsUnit.setComments(bulkEmissionsUnit.getComments());
 
         if (bulkEmissionsUnit.getTypeCode() != null) {
-            emissionsUnit.setUnitTypeCode(unitTypeRepo.findById(bulkEmissionsUnit.getTypeCode()).orElse(null));
+            emissionsUnit.setUnitTypeCode(codes.resolve(UnitTypeCode.class, bulkEmissionsUnit.getTypeCode()));
         }
         if (bulkEmissionsUnit.getOperatingStatusCodeDescription() != null) {
-            emissionsUnit.setOperatingStatusCode(operatingStatusRepo.findById(bulkEmissionsUnit.getOperatingStatusCodeDescription()).orElse(null));
+            emissionsUnit.setOperatingStatusCode(codes.resolve(OperatingStatusCode.class, bulkEmissionsUnit.getOperatingStatusCodeDescription()));
         }
         if (bulkEmissionsUnit.getUnitOfMeasureCode() != null) {
-            emissionsUnit.setUnitOfMeasureCode(unitMeasureCodeRepo.findById(bulkEmissionsUnit.getUnitOfMeasureCode()).orElse(null));
+            emissionsUnit.setUnitOfMeasureCode(codes.resolve(UnitMeasureCode.class, bulkEmissionsUnit.getUnitOfMeasureCode()));
         }
 
         return emissionsUnit;
@@ -1002,7 +1047,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map a FacilitySiteBulkUploadDto to a FacilitySite domain model
      */
-    private FacilitySite mapFacility(FacilitySiteBulkUploadDto bulkFacility) {
+    private FacilitySite mapFacility(FacilitySiteBulkUploadDto bulkFacility, BulkUploadCodeTables codes) {
 
         FacilitySite facility = new FacilitySite();
 
@@ -1022,29 +1067,29 @@ public class BulkUploadServiceImpl implements BulkUploadService {
         facility.setComments(bulkFacility.getComments());
 
         if (bulkFacility.getFacilityCategoryCode() != null) {
-            facility.setFacilityCategoryCode(facilityCategoryRepo.findById(bulkFacility.getFacilityCategoryCode()).orElse(null));
+            facility.setFacilityCategoryCode(codes.resolve(FacilityCategoryCode.class, bulkFacility.getFacilityCategoryCode()));
         }
         if (bulkFacility.getFacilitySourceTypeCode() != null) {
-            facility.setFacilitySourceTypeCode(facilitySourceTypeRepo.findById(bulkFacility.getFacilitySourceTypeCode()).orElse(null));
+            facility.setFacilitySourceTypeCode(codes.resolve(FacilitySourceTypeCode.class, bulkFacility.getFacilitySourceTypeCode()));
         }
         if (bulkFacility.getOperatingStatusCode() != null) {
-            facility.setOperatingStatusCode(operatingStatusRepo.findById(bulkFacility.getOperatingStatusCode()).orElse(null));
+            facility.setOperatingStatusCode(codes.resolve(OperatingStatusCode.class, bulkFacility.getOperatingStatusCode()));
         }
         if (bulkFacility.getProgramSystemCode() != null) {
-            facility.setProgramSystemCode(programSystemCodeRepo.findById(bulkFacility.getProgramSystemCode()).orElse(null));
+            facility.setProgramSystemCode(codes.resolve(ProgramSystemCode.class, bulkFacility.getProgramSystemCode()));
         }
         if (bulkFacility.getTribalCode() != null) {
-            facility.setTribalCode(tribalCodeRepo.findById(bulkFacility.getTribalCode()).orElse(null));
+            facility.setTribalCode(codes.resolve(TribalCode.class, bulkFacility.getTribalCode()));
         }
 
         if (bulkFacility.getStateCode() != null) {
-            facility.setStateCode((stateCodeRepo.findByUspsCode(bulkFacility.getStateCode().toUpperCase())).orElse(null));
+            facility.setStateCode(codes.resolve(FipsStateCode.class, bulkFacility.getStateCode().toUpperCase()));
             if (facility.getStateCode() != null && Strings.emptyToNull(bulkFacility.getCountyCode()) != null) {
-                facility.setCountyCode(countyRepo.findByFipsStateCodeCodeAndCountyCode(facility.getStateCode().getCode(), bulkFacility.getCountyCode()).orElse(null));
+                facility.setCountyCode(codes.resolveCounty(facility.getStateCode().getCode(), bulkFacility.getCountyCode()));
             }
         }
         if (bulkFacility.getMailingStateCode() != null) {
-            facility.setMailingStateCode((stateCodeRepo.findByUspsCode(bulkFacility.getMailingStateCode().toUpperCase())).orElse(null));
+            facility.setMailingStateCode(codes.resolve(FipsStateCode.class, bulkFacility.getMailingStateCode().toUpperCase()));
         }
 
         return facility;
@@ -1053,7 +1098,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an FacilitySiteContactBulkUploadDto to an FacilitySiteContact domain model
      */
-    private FacilitySiteContact mapFacilityContact(FacilitySiteContactBulkUploadDto bulkFacilityContact) {
+    private FacilitySiteContact mapFacilityContact(FacilitySiteContactBulkUploadDto bulkFacilityContact, BulkUploadCodeTables codes) {
 
         FacilitySiteContact facilityContact = new FacilitySiteContact();
 
@@ -1073,16 +1118,16 @@ public class BulkUploadServiceImpl implements BulkUploadService {
         facilityContact.setMailingCountryCode(bulkFacilityContact.getMailingCountryCode());
 
         if (bulkFacilityContact.getType() != null) {
-            facilityContact.setType((contactTypeRepo.findById(bulkFacilityContact.getType())).orElse(null));
+            facilityContact.setType(codes.resolve(ContactTypeCode.class, bulkFacilityContact.getType()));
         }
         if (bulkFacilityContact.getStateCode() != null) {
-            facilityContact.setStateCode((stateCodeRepo.findByUspsCode(bulkFacilityContact.getStateCode().toUpperCase())).orElse(null));
+            facilityContact.setStateCode(codes.resolve(FipsStateCode.class, bulkFacilityContact.getStateCode().toUpperCase()));
             if (facilityContact.getStateCode() != null && Strings.emptyToNull(bulkFacilityContact.getCountyCode()) != null) {
-                facilityContact.setCountyCode(countyRepo.findByFipsStateCodeCodeAndCountyCode(facilityContact.getStateCode().getCode(), bulkFacilityContact.getCountyCode()).orElse(null));
+                facilityContact.setCountyCode(codes.resolveCounty(facilityContact.getStateCode().getCode(), bulkFacilityContact.getCountyCode()));
             }
         }
         if (bulkFacilityContact.getMailingStateCode() != null) {
-            facilityContact.setMailingStateCode((stateCodeRepo.findByUspsCode(bulkFacilityContact.getMailingStateCode().toUpperCase())).orElse(null));
+            facilityContact.setMailingStateCode(codes.resolve(FipsStateCode.class, bulkFacilityContact.getMailingStateCode().toUpperCase()));
         }
 
         return facilityContact;
@@ -1091,7 +1136,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an FacilityNAICSBulkUploadDto to an FacilityNAICS domain model
      */
-    private FacilityNAICSXref mapFacilityNAICS(FacilityNAICSBulkUploadDto bulkFacilityNAICS) {
+    private FacilityNAICSXref mapFacilityNAICS(FacilityNAICSBulkUploadDto bulkFacilityNAICS, BulkUploadCodeTables codes) {
 
         FacilityNAICSXref facilityNAICS = new FacilityNAICSXref();
 
@@ -1108,7 +1153,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
 
         Integer naics = toInt(bulkFacilityNAICS.getCode());
         if (naics != null) {
-            facilityNAICS.setNaicsCode((naicsCodeRepo.findById(naics)).orElse(null));
+            facilityNAICS.setNaicsCode(codes.resolve(NaicsCode.class, naics));
         }
 
         return facilityNAICS;
@@ -1141,7 +1186,7 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map a ReleasePointBulkUploadDto to a ReleasePoint domain model
      */
-    private ReleasePoint mapReleasePoint(ReleasePointBulkUploadDto bulkReleasePoint) {
+    private ReleasePoint mapReleasePoint(ReleasePointBulkUploadDto bulkReleasePoint, BulkUploadCodeTables codes) {
 
         ReleasePoint releasePoint = new ReleasePoint();
 
@@ -1167,40 +1212,40 @@ public class BulkUploadServiceImpl implements BulkUploadService {
         releasePoint.setFenceLineDistance(toLong(bulkReleasePoint.getFenceLineDistance()));
 
         if (bulkReleasePoint.getOperatingStatusCode() != null) {
-            releasePoint.setOperatingStatusCode(operatingStatusRepo.findById(bulkReleasePoint.getOperatingStatusCode()).orElse(null));
+            releasePoint.setOperatingStatusCode(codes.resolve(OperatingStatusCode.class, bulkReleasePoint.getOperatingStatusCode()));
         }
         if (bulkReleasePoint.getTypeCode() != null) {
-            releasePoint.setTypeCode(releasePointTypeRepo.findById(bulkReleasePoint.getTypeCode()).orElse(null));
+            releasePoint.setTypeCode(codes.resolve(ReleasePointTypeCode.class, bulkReleasePoint.getTypeCode()));
         }
         if (bulkReleasePoint.getStackHeightUomCode() != null) {
-            releasePoint.setStackHeightUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getStackHeightUomCode()).orElse(null));
+            releasePoint.setStackHeightUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getStackHeightUomCode()));
         }
         if (bulkReleasePoint.getStackDiameterUomCode() != null) {
-            releasePoint.setStackDiameterUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getStackDiameterUomCode()).orElse(null));
+            releasePoint.setStackDiameterUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getStackDiameterUomCode()));
         }
         if (bulkReleasePoint.getStackWidthUomCode() != null) {
-            releasePoint.setStackWidthUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getStackWidthUomCode()).orElse(null));
+            releasePoint.setStackWidthUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getStackWidthUomCode()));
         }
         if (bulkReleasePoint.getStackLengthUomCode() != null) {
-            releasePoint.setStackLengthUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getStackLengthUomCode()).orElse(null));
+            releasePoint.setStackLengthUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getStackLengthUomCode()));
         }
         if (bulkReleasePoint.getExitGasVelocityUomCode() != null) {
-            releasePoint.setExitGasVelocityUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getExitGasVelocityUomCode()).orElse(null));
+            releasePoint.setExitGasVelocityUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getExitGasVelocityUomCode()));
         }
         if (bulkReleasePoint.getExitGasFlowUomCode() != null) {
-            releasePoint.setExitGasFlowUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getExitGasFlowUomCode()).orElse(null));
+            releasePoint.setExitGasFlowUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getExitGasFlowUomCode()));
         }
         if (bulkReleasePoint.getFenceLineUomCode() != null) {
-            releasePoint.setFenceLineUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getFenceLineUomCode()).orElse(null));
+            releasePoint.setFenceLineUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getFenceLineUomCode()));
         }
         if (bulkReleasePoint.getFugitiveHeightUomCode() != null) {
-            releasePoint.setFugitiveHeightUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getFugitiveHeightUomCode()).orElse(null));
+            releasePoint.setFugitiveHeightUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getFugitiveHeightUomCode()));
         }
         if (bulkReleasePoint.getFugitiveWidthUomCode() != null) {
-            releasePoint.setFugitiveWidthUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getFugitiveWidthUomCode()).orElse(null));
+            releasePoint.setFugitiveWidthUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getFugitiveWidthUomCode()));
         }
         if (bulkReleasePoint.getFugitiveLengthUomCode() != null) {
-            releasePoint.setFugitiveLengthUomCode(unitMeasureCodeRepo.findById(bulkReleasePoint.getFugitiveLengthUomCode()).orElse(null));
+            releasePoint.setFugitiveLengthUomCode(codes.resolve(UnitMeasureCode.class, bulkReleasePoint.getFugitiveLengthUomCode()));
         }
 
         return releasePoint;
@@ -1219,56 +1264,71 @@ public class BulkUploadServiceImpl implements BulkUploadService {
     /**
      * Map an ReportingPeriodBulkUploadDto to an ReportingPeriod domain model
      */
-    private ReportingPeriod mapReportingPeriod(ReportingPeriodBulkUploadDto dto) {
+    private ReportingPeriod mapReportingPeriod(ReportingPeriodBulkUploadDto dto, BulkUploadCodeTables codes) {
 
         ReportingPeriod result = uploadMapper.reportingPeriodFromDto(dto);
 
         if (dto.getCalculationMaterialCode() != null) {
-            result.setCalculationMaterialCode(calcMaterialCodeRepo.findById(dto.getCalculationMaterialCode()).orElse(null));
+            result.setCalculationMaterialCode(codes.resolve(CalculationMaterialCode.class, dto.getCalculationMaterialCode()));
         }
         if (dto.getCalculationParameterTypeCode() != null) {
-            result.setCalculationParameterTypeCode(calcParamTypeCodeRepo.findById(dto.getCalculationParameterTypeCode()).orElse(null));
+            result.setCalculationParameterTypeCode(codes.resolve(CalculationParameterTypeCode.class, dto.getCalculationParameterTypeCode()));
         }
         if (dto.getCalculationParameterUom() != null) {
-            result.setCalculationParameterUom(unitMeasureCodeRepo.findById(dto.getCalculationParameterUom()).orElse(null));
+            result.setCalculationParameterUom(codes.resolve(UnitMeasureCode.class, dto.getCalculationParameterUom()));
         }
         if (dto.getEmissionsOperatingTypeCode() != null) {
-            result.setEmissionsOperatingTypeCode(emissionsOperatingTypeCodeRepo.findById(dto.getEmissionsOperatingTypeCode()).orElse(null));
+            result.setEmissionsOperatingTypeCode(codes.resolve(EmissionsOperatingTypeCode.class, dto.getEmissionsOperatingTypeCode()));
         }
         if (dto.getReportingPeriodTypeCode() != null) {
-            result.setReportingPeriodTypeCode(reportingPeriodCodeRepo.findById(dto.getReportingPeriodTypeCode()).orElse(null));
+            result.setReportingPeriodTypeCode(codes.resolve(ReportingPeriodCode.class, dto.getReportingPeriodTypeCode()));
         }
         if (dto.getFuelUseMaterialCode() != null) {
-            result.setFuelUseMaterialCode(calcMaterialCodeRepo.findById(dto.getFuelUseMaterialCode()).orElse(null));
+            result.setFuelUseMaterialCode(codes.resolve(CalculationMaterialCode.class, dto.getFuelUseMaterialCode()));
         }
         if (dto.getFuelUseUom() != null) {
-            result.setFuelUseUom(unitMeasureCodeRepo.findById(dto.getFuelUseUom()).orElse(null));
+            result.setFuelUseUom(codes.resolve(UnitMeasureCode.class, dto.getFuelUseUom()));
         }
         if (dto.getHeatContentUom() != null) {
-            result.setHeatContentUom(unitMeasureCodeRepo.findById(dto.getHeatContentUom()).orElse(null));
+            result.setHeatContentUom(codes.resolve(UnitMeasureCode.class, dto.getHeatContentUom()));
         }
 
         return result;
     }
 
+    /**
+     * Load the release points, units, processes, and controls of a facility's previous year report,
+     * one query each regardless of the size of the facility
+     */
+    private PreviousYearInventory loadPreviousYear(Long masterFacilityRecordId, Short year) {
+
+        return new PreviousYearInventory(
+            this.releasePointRepo.retrieveByFacilityYear(masterFacilityRecordId, year),
+            this.emissionsUnitRepo.retrieveByFacilityYear(masterFacilityRecordId, year),
+            this.emissionsProcessRepo.retrieveByFacilityYear(masterFacilityRecordId, year),
+            this.controlRepo.retrieveByFacilityYear(masterFacilityRecordId, year));
+    }
+
     private EmissionsReportBulkUploadDto parseWorkbookJson(ExcelParserResponse response,
                                                            EmissionsReportStarterDto metadata) {
 
-       return parseJsonNode(true).andThen(result -> {
+       return parseJsonNode(true).andThen(result -> applyMetadata(result, metadata)).apply(response.getJson());
+    }
 
-           result.setProgramSystemCode(metadata.getProgramSystemCode());
-           result.setMasterFacilityRecordId(metadata.getMasterFacilityRecordId());
-           result.setEisProgramId(metadata.getEisProgramId());
-           result.setFrsFacilityId(metadata.getFrsFacilityId());
-           result.setAltSiteIdentifier(metadata.getStateFacilityId());
-           result.setYear(metadata.getYear());
-           result.setStatus(ReportStatus.IN_PROGRESS.name());
-           result.setValidationStatus(ValidationStatus.UNVALIDATED.name());
-           result.setEisLastSubmissionStatus(EisSubmissionStatus.NotStarted.name());
+    private EmissionsReportBulkUploadDto applyMetadata(EmissionsReportBulkUploadDto result,
+                                                       EmissionsReportStarterDto metadata) {
 
-           return result;
+        result.setProgramSystemCode(metadata.getProgramSystemCode());
+        result.setMasterFacilityRecordId(metadata.getMasterFacilityRecordId());
+        result.setEisProgramId(metadata.getEisProgramId());
+        result.setFrsFacilityId(metadata.getFrsFacilityId());
+        result.setAltSiteIdentifier(metadata.getStateFacilityId());
+        result.setYear(metadata.getYear());
+        result.setStatus(ReportStatus.IN_PROGRESS.name());
+        result.setValidationStatus(ValidationStatus.UNVALIDATED.name());
+        result.setEisLastSubmissionStatus(EisSubmissionStatus.NotStarted.name());
 
-       }).apply(response.getJson());
+        return result;
     }
 
     private BigDecimal toBigDecimal(String strval) {
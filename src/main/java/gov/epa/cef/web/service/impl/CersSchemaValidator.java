@@ -0,0 +1,362 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.exception.AppValidationException;
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.service.impl.EisTransmissionServiceImpl.EisTransmissionConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.io.output.TeeOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates EIS documents against the Exchange Network header and CERS schemas while they're being written.
+ * The schemas are compiled once and shared, each validation gets its own validator which reads the document
+ * from a pipe on a worker thread so the document is only written once and never re-parsed from a file.
+ */
+@Component
+class CersSchemaValidator implements DisposableBean {
+
+    private static final String HeaderSchema = "schema/header/header_v2.0.xsd";
+
+    private static final String CersSchema = "schema/CERS/1/index.xsd";
+
+    private static final String CersV2Schema = "schema/CERS/2/index.xsd";
+
+    // the header imports the signature schema from w3.org, a local stand-in is used instead of fetching it
+    private static final String SignatureNamespace = "http://www.w3.org/2000/09/xmldsig#";
+
+    private static final String SignatureSchema = "schema/xmldsig/xmldsig-core-schema.xsd";
+
+    private static final String MetricName = "cef.eis.validation";
+
+    private static final int PipeSize = 64 * 1024;
+
+    private final Schema cersSchema;
+
+    private final Schema cersV2Schema;
+
+    private final EisTransmissionConfig config;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    CersSchemaValidator(EisTransmissionConfig config, MeterRegistry meterRegistry) {
+
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+
+        this.cersSchema = compile(HeaderSchema, CersSchema);
+        this.cersV2Schema = compile(HeaderSchema, CersV2Schema);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(config.getValidationWorkers(), config.getValidationWorkers(),
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+            runnable -> new Thread(runnable, "eis-validation-" + threadCount.incrementAndGet()));
+    }
+
+    @Override
+    public void destroy() {
+
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Start validating an EIS document, everything written to the validation's output stream is passed on
+     * to the given output stream and validated as it arrives. The output stream isn't closed.
+     *
+     * @param cersV2 whether the payload is CERS v2.0 rather than v1.2
+     * @param outputStream
+     * @return
+     */
+    Validation validate(boolean cersV2, OutputStream outputStream) {
+
+        return new Validation(cersV2 ? this.cersV2Schema : this.cersSchema, cersV2 ? "2.0" : "1.2", outputStream);
+    }
+
+    private static Schema compile(String... locations) {
+
+        try {
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+            DOMImplementationLS domImplementation = (DOMImplementationLS) DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder().getDOMImplementation();
+
+            schemaFactory.setResourceResolver((type, namespace, publicId, systemId, baseUri) -> {
+
+                if (!SignatureNamespace.equals(namespace)) {
+                    return null;
+                }
+
+                LSInput result = domImplementation.createLSInput();
+                result.setSystemId(resource(SignatureSchema).toExternalForm());
+                return result;
+            });
+
+            List<Source> sources = new ArrayList<>();
+            for (String location : locations) {
+                sources.add(new StreamSource(resource(location).toExternalForm()));
+            }
+
+            return schemaFactory.newSchema(sources.toArray(new Source[0]));
+
+        } catch (ParserConfigurationException | SAXException e) {
+
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static URL resource(String location) {
+
+        URL result = CersSchemaValidator.class.getClassLoader().getResource(location);
+        if (result == null) {
+            throw new IllegalStateException(String.format("Schema %s is not on the classpath.", location));
+        }
+
+        return result;
+    }
+
+    /**
+     * A validation in progress, either complete it once the document is written or close it to abandon it
+     */
+    class Validation implements Closeable {
+
+        private final String schemaVersion;
+
+        private final PipedOutputStream pipe;
+
+        private final OutputStream outputStream;
+
+        private final Future<List<String>> result;
+
+        private Validation(Schema schema, String schemaVersion, OutputStream outputStream) {
+
+            this.schemaVersion = schemaVersion;
+
+            PipedInputStream input = new PipedInputStream(PipeSize);
+            try {
+                this.pipe = new PipedOutputStream(input);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            try {
+
+                this.result = executor.submit(() -> validate(schema, input));
+
+            } catch (RejectedExecutionException e) {
+
+                throw new ServiceBusyException(
+                    "Too many EIS submissions are being validated right now, please try again in a few minutes.");
+            }
+
+            this.outputStream = new TeeOutputStream(outputStream, this.pipe);
+        }
+
+        OutputStream getOutputStream() {
+
+            return this.outputStream;
+        }
+
+        /**
+         * Wait for the validator to finish reading the document
+         *
+         * @throws AppValidationException if the document doesn't match the schema
+         */
+        void complete() {
+
+            List<String> errors;
+            try {
+                this.pipe.close();
+                errors = this.result.get();
+            } catch (IOException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+
+            if (!errors.isEmpty()) {
+
+                logger.warn("EIS document failed CERS {} schema validation: {}", this.schemaVersion, errors);
+
+                throw new AppValidationException(String.format("The EIS submission is not valid against the CERS %s schema: %s",
+                    this.schemaVersion, String.join("; ", errors)));
+            }
+        }
+
+        @Override
+        public void close() {
+
+            // unblocks the validator if the document wasn't finished
+            try {
+                this.pipe.close();
+            } catch (IOException e) {
+                logger.debug("Unable to close validation pipe", e);
+            }
+        }
+
+        private List<String> validate(Schema schema, InputStream input) throws IOException {
+
+            ErrorCollector errors = new ErrorCollector(config.getMaxValidationErrors());
+
+            long start = System.nanoTime();
+            try {
+
+                Validator validator = schema.newValidator();
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+                validator.setErrorHandler(errors);
+                // the parser closes its input when it's done but the rest of the pipe still has to be read
+                validator.validate(new StreamSource(new CloseShieldInputStream(input)));
+
+            } catch (SAXException e) {
+
+                // the error handler has already recorded why validation stopped
+                errors.add(e);
+
+            } finally {
+
+                // keep reading so the writer isn't blocked on a full pipe
+                IOUtils.copy(input, NullOutputStream.NULL_OUTPUT_STREAM);
+                input.close();
+
+                Timer.builder(MetricName)
+                    .description("Time spent validating EIS documents against the CERS schema")
+                    .tag("schemaVersion", this.schemaVersion)
+                    .tag("outcome", errors.isEmpty() ? "valid" : "invalid")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            return errors.getMessages();
+        }
+    }
+
+    /**
+     * Collects schema errors so a document's problems can be reported together, stops validation once
+     * the limit is reached or the document isn't well-formed
+     */
+    private static class ErrorCollector implements ErrorHandler {
+
+        private final int maxErrors;
+
+        private final List<String> messages = new ArrayList<>();
+
+        private SAXException last;
+
+        ErrorCollector(int maxErrors) {
+
+            this.maxErrors = maxErrors;
+        }
+
+        @Override
+        public void warning(SAXParseException exception) {
+
+            // warnings don't make the document invalid
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+
+            add(exception);
+
+            if (this.messages.size() >= this.maxErrors) {
+                throw exception;
+            }
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+
+            add(exception);
+
+            throw exception;
+        }
+
+        void add(SAXException exception) {
+
+            // the exception that stopped validation is rethrown by the validator
+            if (exception == this.last) {
+                return;
+            }
+
+            this.last = exception;
+
+            if (exception instanceof SAXParseException) {
+                SAXParseException parseException = (SAXParseException) exception;
+                this.messages.add(String.format("line %d column %d: %s",
+                    parseException.getLineNumber(), parseException.getColumnNumber(), parseException.getMessage()));
+            } else {
+                this.messages.add(exception.getMessage());
+            }
+        }
+
+        boolean isEmpty() {
+
+            return this.messages.isEmpty();
+        }
+
+        List<String> getMessages() {
+
+            return Collections.unmodifiableList(this.messages);
+        }
+    }
+}
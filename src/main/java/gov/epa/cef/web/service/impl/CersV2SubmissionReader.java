@@ -0,0 +1,222 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.domain.EmissionsProcess;
+import gov.epa.cef.web.domain.EmissionsReport;
+import gov.epa.cef.web.domain.EmissionsUnit;
+import gov.epa.cef.web.domain.FacilitySite;
+import gov.epa.cef.web.domain.ReleasePoint;
+import gov.epa.cef.web.domain.ReportingPeriod;
+import gov.epa.cef.web.repository.EmissionsProcessRepository;
+import gov.epa.cef.web.repository.ReportingPeriodRepository;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2DataTypeMapper;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2EmissionsUnitMapper;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2FacilitySiteMapper;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2ReleasePointMapper;
+import gov.epa.cef.web.util.ConstantUtils;
+import net.exchangenetwork.schema.cer._2._0.CERSDataType;
+import net.exchangenetwork.schema.cer._2._0.EmissionsUnitDataType;
+import net.exchangenetwork.schema.cer._2._0.FacilitySiteDataType;
+import net.exchangenetwork.schema.cer._2._0.ProcessDataType;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds the CERS v2.0 document for an EIS submission from read-only queries which only return the rows the
+ * submission's data category needs. The report's entities are read but never modified, so nothing has to be
+ * detached from the persistence context afterwards.
+ */
+@Component
+class CersV2SubmissionReader {
+
+    private final ReportingPeriodRepository periodRepo;
+
+    private final EmissionsProcessRepository processRepo;
+
+    private final CersV2DataTypeMapper cersMapper;
+
+    private final CersV2FacilitySiteMapper facilitySiteMapper;
+
+    private final CersV2EmissionsUnitMapper euMapper;
+
+    private final CersV2ReleasePointMapper rpMapper;
+
+    @Autowired
+    CersV2SubmissionReader(ReportingPeriodRepository periodRepo,
+                           EmissionsProcessRepository processRepo,
+                           CersV2DataTypeMapper cersMapper,
+                           CersV2FacilitySiteMapper facilitySiteMapper,
+                           CersV2EmissionsUnitMapper euMapper,
+                           CersV2ReleasePointMapper rpMapper) {
+
+        this.periodRepo = periodRepo;
+        this.processRepo = processRepo;
+        this.cersMapper = cersMapper;
+        this.facilitySiteMapper = facilitySiteMapper;
+        this.euMapper = euMapper;
+        this.rpMapper = rpMapper;
+    }
+
+    /**
+     * Point emissions submissions only include operating units and processes which have reporting periods
+     * with emissions, release points and controls are left out
+     */
+    CERSDataType readPointEmissions(EmissionsReport report) {
+
+        List<ReportingPeriod> periods =
+            this.periodRepo.retrievePointEmissionsByReportId(report.getId(), ConstantUtils.STATUS_OPERATING);
+
+        Map<Long, List<ReportingPeriod>> periodsByProcess = group(periods, rp -> rp.getEmissionsProcess().getId());
+        Map<Long, List<EmissionsProcess>> processesByUnit =
+            group(first(periodsByProcess.values(), ReportingPeriod::getEmissionsProcess), ep -> ep.getEmissionsUnit().getId());
+        Map<Long, List<EmissionsUnit>> unitsByFacility =
+            group(first(processesByUnit.values(), EmissionsProcess::getEmissionsUnit), eu -> eu.getFacilitySite().getId());
+
+        CERSDataType cers = this.cersMapper.headerFromEmissionsReport(report);
+
+        for (FacilitySite facilitySite : report.getFacilitySites()) {
+
+            FacilitySiteDataType site = this.facilitySiteMapper.facilitySiteWithoutChildren(facilitySite);
+
+            for (EmissionsUnit unit : lookup(unitsByFacility, facilitySite.getId())) {
+
+                EmissionsUnitDataType cersUnit = this.euMapper.unitWithoutProcesses(unit);
+
+                for (EmissionsProcess process : lookup(processesByUnit, unit.getId())) {
+
+                    ProcessDataType cersProcess = this.euMapper.processWithoutChildren(process);
+                    lookup(periodsByProcess, process.getId())
+                        .forEach(rp -> cersProcess.getReportingPeriod().add(this.euMapper.periodFromReportingPeriod(rp)));
+
+                    cersUnit.getUnitEmissionsProcess().add(cersProcess);
+                }
+
+                site.getEmissionsUnit().add(cersUnit);
+            }
+
+            cers.getFacilitySite().add(site);
+        }
+
+        return cers;
+    }
+
+    /**
+     * Facility inventory submissions include every unit, process, and release point without reporting periods,
+     * the ones which are not operating only carry their identifier and status
+     */
+    CERSDataType readFacilityInventory(EmissionsReport report) {
+
+        Map<Long, List<EmissionsProcess>> processesByUnit = group(
+            this.processRepo.retrieveByReportIdAndUnitStatus(report.getId(), ConstantUtils.STATUS_OPERATING),
+            ep -> ep.getEmissionsUnit().getId());
+
+        CERSDataType cers = this.cersMapper.headerFromEmissionsReport(report);
+
+        for (FacilitySite facilitySite : report.getFacilitySites()) {
+
+            FacilitySiteDataType site = this.facilitySiteMapper.facilitySiteWithoutUnits(facilitySite);
+
+            for (EmissionsUnit unit : facilitySite.getEmissionsUnits()) {
+
+                if (!isOperating(unit.getOperatingStatusCode().getCode())) {
+
+                    site.getEmissionsUnit().add(
+                        this.euMapper.fromEmissionsUnit(this.cersMapper.emissionsUnitToNonOperatingEmissionsUnit(unit)));
+                    continue;
+                }
+
+                EmissionsUnitDataType cersUnit = this.euMapper.unitWithoutProcesses(unit);
+
+                for (EmissionsProcess process : lookup(processesByUnit, unit.getId())) {
+
+                    if (isOperating(process.getOperatingStatusCode().getCode())) {
+                        cersUnit.getUnitEmissionsProcess().add(this.euMapper.processWithoutReportingPeriods(process));
+                    } else {
+                        cersUnit.getUnitEmissionsProcess().add(this.euMapper.processFromEmissionsProcess(
+                            this.cersMapper.processToNonOperatingEmissionsProcess(process)));
+                    }
+                }
+
+                site.getEmissionsUnit().add(cersUnit);
+            }
+
+            for (ReleasePoint releasePoint : facilitySite.getReleasePoints()) {
+
+                if (isOperating(releasePoint.getOperatingStatusCode().getCode())) {
+                    site.getReleasePoint().add(this.rpMapper.fromReleasePoint(releasePoint));
+                } else {
+                    site.getReleasePoint().add(this.rpMapper.fromReleasePoint(
+                        this.cersMapper.releasePointToNonOperatingReleasePoint(releasePoint)));
+                }
+            }
+
+            cers.getFacilitySite().add(site);
+        }
+
+        return cers;
+    }
+
+    private static boolean isOperating(String statusCode) {
+
+        return ConstantUtils.STATUS_OPERATING.equals(statusCode);
+    }
+
+    /**
+     * Group rows by their parent id, rows keep their query order within each group
+     */
+    private static <T> Map<Long, List<T>> group(Collection<T> rows, Function<T, Long> parentId) {
+
+        Map<Long, List<T>> result = new LinkedHashMap<>();
+
+        for (T row : rows) {
+            result.computeIfAbsent(parentId.apply(row), k -> new ArrayList<>()).add(row);
+        }
+
+        return result;
+    }
+
+    /**
+     * The parent of each group, every row in a group has the same parent
+     */
+    private static <T, P> List<P> first(Collection<List<T>> groups, Function<T, P> parent) {
+
+        List<P> result = new ArrayList<>();
+
+        for (List<T> group : groups) {
+            result.add(parent.apply(group.get(0)));
+        }
+
+        return result;
+    }
+
+    private static <T> List<T> lookup(Map<Long, List<T>> index, Long parentId) {
+
+        List<T> result = index.get(parentId);
+
+        return result == null ? Collections.emptyList() : result;
+    }
+}
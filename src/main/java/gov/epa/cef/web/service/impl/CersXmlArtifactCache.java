@@ -0,0 +1,150 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.CacheName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Rendered CERS XML documents kept gzipped. Each document is its own entry keyed by the report version it was
+ * rendered from, so a document is never served for a report that has changed since and concurrent renders for
+ * the same report don't overwrite each other. The entries for a report are evicted when it can be edited again.
+ */
+@Component
+class CersXmlArtifactCache {
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    CersXmlArtifactCache(CacheManager cacheManager) {
+
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Write the cached document to the output stream, returns false if there is no document for this report version
+     */
+    boolean copyTo(Long reportId, long version, String key, OutputStream outputStream) throws IOException {
+
+        byte[] gzipped = cache().get(new DocumentKey(reportId, version, key), byte[].class);
+        if (gzipped == null) {
+            return false;
+        }
+
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Store a gzipped document, documents rendered from an older report version are left to expire
+     */
+    void put(Long reportId, long version, String key, byte[] gzipped) {
+
+        cache().put(new DocumentKey(reportId, version, key), gzipped);
+    }
+
+    /**
+     * Drop every document rendered for the report
+     */
+    void evict(Long reportId) {
+
+        Cache cache = cache();
+        if (cache.getNativeCache() instanceof ConcurrentMap) {
+
+            // the map is small, it only holds a couple hundred documents per node
+            ConcurrentMap<?, ?> documents = (ConcurrentMap<?, ?>) cache.getNativeCache();
+            documents.keySet().stream()
+                .filter(documentKey -> documentKey instanceof DocumentKey && reportId.equals(((DocumentKey) documentKey).reportId))
+                .forEach(cache::evict);
+
+        } else {
+
+            cache.clear();
+        }
+    }
+
+    private Cache cache() {
+
+        return this.cacheManager.getCache(CacheName.CersXmlArtifacts);
+    }
+
+    static class DocumentKey implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Long reportId;
+
+        private final long version;
+
+        private final String key;
+
+        DocumentKey(Long reportId, long version, String key) {
+
+            this.reportId = reportId;
+            this.version = version;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            DocumentKey that = (DocumentKey) o;
+            return this.version == that.version
+                && Objects.equals(this.reportId, that.reportId)
+                && Objects.equals(this.key, that.key);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(this.reportId, this.version, this.key);
+        }
+
+        @Override
+        public String toString() {
+
+            return String.join(":", String.valueOf(this.reportId), String.valueOf(this.version), this.key);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import gov.epa.cef.web.domain.EmissionsUnit;
 import gov.epa.cef.web.domain.FacilitySite;
 import gov.epa.cef.web.domain.ReleasePoint;
 import gov.epa.cef.web.domain.ReleasePointAppt;
+import gov.epa.cef.web.domain.ReportStatus;
 import gov.epa.cef.web.exception.ApplicationException;
 import gov.epa.cef.web.exception.NotExistException;
 import gov.epa.cef.web.repository.EmissionsReportRepository;
@@ -47,24 +48,31 @@ import net.exchangenetwork.schema.cer._1._2.FacilitySiteDataType;
 import net.exchangenetwork.schema.cer._1._2.ObjectFactory;
 import net.exchangenetwork.schema.cer._1._2.ProcessDataType;
 
+import org.apache.commons.io.output.TeeOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 
 @Service
@@ -72,6 +80,14 @@ public class CersXmlServiceImpl implements CersXmlService {
 
     private static final Logger logger = LoggerFactory.getLogger(CersXmlServiceImpl.class);
 
+    private static final String CersSchemaVersion = "1.2";
+
+    private static final String CersV2SchemaVersion = "2.0";
+
+    // reports in these statuses can't be edited so their rendered documents can be reused
+    private static final Set<ReportStatus> CacheableStatuses =
+        EnumSet.of(ReportStatus.SUBMITTED, ReportStatus.ADVANCED_QA, ReportStatus.APPROVED);
+
     private final EmissionsReportRepository reportRepo;
 
     private final UserService userService;
@@ -84,6 +100,12 @@ public class CersXmlServiceImpl implements CersXmlService {
     
     private final CersV2DataTypeMapper cersV2Mapper;
 
+    private final CersV2SubmissionReader submissionReader;
+
+    private final CersXmlArtifactCache artifactCache;
+
+    private final JaxbMarshallers marshallers;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -93,7 +115,10 @@ public class CersXmlServiceImpl implements CersXmlService {
 					   CersDataTypeMapper cersMapper,
 					   CersEmissionsUnitMapper euMapper,
 					   CersReleasePointMapper rpMapper,
-					   CersV2DataTypeMapper cersV2Mapper) {
+					   CersV2DataTypeMapper cersV2Mapper,
+					   CersV2SubmissionReader submissionReader,
+					   CersXmlArtifactCache artifactCache,
+					   JaxbMarshallers marshallers) {
 
     	this.userService = userService;
     	this.reportRepo = reportRepo;
@@ -101,98 +126,35 @@ public class CersXmlServiceImpl implements CersXmlService {
     	this.euMapper = euMapper;
     	this.rpMapper = rpMapper;
     	this.cersV2Mapper = cersV2Mapper;
+    	this.submissionReader = submissionReader;
+    	this.artifactCache = artifactCache;
+    	this.marshallers = marshallers;
 	}
 
+    @Transactional(readOnly = true)
     public net.exchangenetwork.schema.cer._2._0.CERSDataType generateCersV2Data(Long reportId, EisSubmissionStatus submissionStatus) {
 
         EmissionsReport source = reportRepo.findById(reportId)
             .orElseThrow(() -> new NotExistException("Emissions Report", reportId));
 
-        if (submissionStatus != null) {
-            if (ConstantUtils.EIS_TRANSMISSION_POINT_EMISSIONS.contentEquals(submissionStatus.dataCategory())) {
-                source.getFacilitySites().forEach(fs -> {
+        net.exchangenetwork.schema.cer._2._0.CERSDataType cers;
+        if (submissionStatus != null
+            && ConstantUtils.EIS_TRANSMISSION_POINT_EMISSIONS.contentEquals(submissionStatus.dataCategory())) {
 
-                    // remove extra data
-                    fs.getReleasePoints().clear();
-                    fs.getControlPaths().clear();
-                    fs.getControls().clear();
-                    // remove non-operating units and units without processes
-                    fs.setEmissionsUnits(fs.getEmissionsUnits().stream()
-                        .peek(eu -> {
-                           
-                            // remove non-operating processes and processes without emissions
-                            eu.setEmissionsProcesses(eu.getEmissionsProcesses().stream()
-                               .peek(ep -> {
-
-                                   // remove extra data and remove reporting periods without emissions
-                                   ep.getReleasePointAppts().clear();
-                                   ep.setReportingPeriods(ep.getReportingPeriods().stream()
-                                           .filter(rp -> !rp.getEmissions().isEmpty())
-                                           .collect(Collectors.toList()));
+            cers = this.submissionReader.readPointEmissions(source);
 
-                               }).filter(ep -> ConstantUtils.STATUS_OPERATING.equals(ep.getOperatingStatusCode().getCode()) && !ep.getReportingPeriods().isEmpty())
-                               .collect(Collectors.toList()));
-                        }).filter(eu -> ConstantUtils.STATUS_OPERATING.equals(eu.getOperatingStatusCode().getCode()) && !eu.getEmissionsProcesses().isEmpty())
-                        .collect(Collectors.toList()));
-                });
-            } else if (ConstantUtils.EIS_TRANSMISSION_FACILITY_INVENTORY.equals(submissionStatus.dataCategory())) {
-                source.getFacilitySites().forEach(fs -> {
+        } else if (submissionStatus != null
+            && ConstantUtils.EIS_TRANSMISSION_FACILITY_INVENTORY.equals(submissionStatus.dataCategory())) {
 
-                    fs.setEmissionsUnits(fs.getEmissionsUnits().stream()
-                        .map(eu -> {
-                            
-                            // remove extra information from units which are not operational
-                            if (!ConstantUtils.STATUS_OPERATING.equals(eu.getOperatingStatusCode().getCode())) {
-                                EmissionsUnit result = this.cersV2Mapper.emissionsUnitToNonOperatingEmissionsUnit(eu);
-                                return result;
-                            } else {
-                            
-                                //first set the Processes for the emissions unit
-                                eu.setEmissionsProcesses(eu.getEmissionsProcesses().stream()
-                                    .map(ep -> {
-                                        
-                                        //remove all reporting periods, operating details, and emissions from the emission process
-                                        //for a FacilityInventory submission
-                                        ep.getReportingPeriods().clear();
-    
-                                        // remove extra information from processes which are not operational
-                                        if (!ConstantUtils.STATUS_OPERATING.equals(ep.getOperatingStatusCode().getCode())) {
-                                            EmissionsProcess result = this.cersV2Mapper.processToNonOperatingEmissionsProcess(ep);
-                                            return result;
-                                        }
-                                        return ep;
-                                    }).collect(Collectors.toList()));
-                                
-                                return eu;
-                            }
-                            
-                        }).collect(Collectors.toList()));
+            cers = this.submissionReader.readFacilityInventory(source);
 
-                    fs.setReleasePoints(fs.getReleasePoints().stream()
-                        .map(rp -> {
+        } else {
 
-                            // remove extra information from release points which are not operational
-                            if (!ConstantUtils.STATUS_OPERATING.equals(rp.getOperatingStatusCode().getCode())) {
-                                ReleasePoint result = this.cersV2Mapper.releasePointToNonOperatingReleasePoint(rp);
-                                return result;
-                            }
-                            return rp;
-                        }).collect(Collectors.toList()));
-
-                });
-            }
+            cers = cersV2Mapper.fromEmissionsReport(source);
         }
 
-        net.exchangenetwork.schema.cer._2._0.CERSDataType cers = cersV2Mapper.fromEmissionsReport(source);
-
         cers.setUserIdentifier(userService.getCurrentUser().getEmail());
 
-        // check if this exists for unit tests
-        if (this.entityManager != null) {
-            // detach entity from session so that the dirty entity won't get picked up by other database calls
-            entityManager.detach(source);
-        }
-
         return cers;
     }
 
@@ -200,6 +162,7 @@ public class CersXmlServiceImpl implements CersXmlService {
      * @see gov.epa.cef.web.service.impl.CersXmlService#generateCersData(java.lang.Long)
      */
     @Override
+    @Transactional(readOnly = true)
     public CERSDataType generateCersData(Long reportId, EisSubmissionStatus submissionStatus) {
 
         EmissionsReport source = reportRepo.findById(reportId)
@@ -301,13 +264,67 @@ public class CersXmlServiceImpl implements CersXmlService {
     @Override
     public void writeCersV2XmlTo(long reportId, OutputStream outputStream, EisSubmissionStatus submissionStatus) {
 
+        writeCachedXmlTo(reportId, CersV2SchemaVersion, submissionStatus, outputStream,
+            xmlStream -> marshalCersV2Xml(reportId, xmlStream, submissionStatus));
+    }
+
+    /* (non-Javadoc)
+     * @see gov.epa.cef.web.service.impl.CersXmlService#retrieveCersXml(java.lang.Long)
+     */
+    @Override
+    public void writeCersXmlTo(long reportId, OutputStream outputStream, EisSubmissionStatus submissionStatus) {
+
+        writeCachedXmlTo(reportId, CersSchemaVersion, submissionStatus, outputStream,
+            xmlStream -> marshalCersXml(reportId, xmlStream, submissionStatus));
+    }
+
+    /**
+     * Serve the document from the artifact cache when the report can't be edited, otherwise render it. A document
+     * rendered for a report that can't be edited is stored as it's written out. The key includes the current user
+     * since the document carries their user identifier.
+     */
+    private void writeCachedXmlTo(long reportId, String schemaVersion, EisSubmissionStatus submissionStatus,
+                                  OutputStream outputStream, Consumer<OutputStream> renderer) {
+
+        EmissionsReport report = reportRepo.findById(reportId)
+            .orElseThrow(() -> new NotExistException("Emissions Report", reportId));
+
+        if (!CacheableStatuses.contains(report.getStatus()) || report.getLastModifiedDate() == null) {
+
+            renderer.accept(outputStream);
+            return;
+        }
+
+        long version = report.getLastModifiedDate().getTime();
+        String key = String.join(":", schemaVersion, String.valueOf(submissionStatus),
+            userService.getCurrentUser().getEmail());
+
+        try {
+            if (this.artifactCache.copyTo(reportId, version, key, outputStream)) {
+                return;
+            }
+
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzipped)) {
+
+                renderer.accept(new TeeOutputStream(outputStream, gzipStream));
+            }
+
+            this.artifactCache.put(reportId, version, key, gzipped.toByteArray());
+
+        } catch (IOException e) {
+
+            throw ApplicationException.asApplicationException(e);
+        }
+    }
+
+    private void marshalCersV2Xml(long reportId, OutputStream outputStream, EisSubmissionStatus submissionStatus) {
+
         net.exchangenetwork.schema.cer._2._0.CERSDataType cers = generateCersV2Data(reportId, submissionStatus);
 
         try {
             net.exchangenetwork.schema.cer._2._0.ObjectFactory objectFactory = new net.exchangenetwork.schema.cer._2._0.ObjectFactory();
-            JAXBContext jaxbContext = JAXBContext.newInstance(net.exchangenetwork.schema.cer._2._0.CERSDataType.class);
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-            jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            Marshaller jaxbMarshaller = this.marshallers.marshaller(net.exchangenetwork.schema.cer._2._0.CERSDataType.class);
 
             jaxbMarshaller.marshal(objectFactory.createCERS(cers), outputStream);
 
@@ -318,19 +335,13 @@ public class CersXmlServiceImpl implements CersXmlService {
         }
     }
 
-	/* (non-Javadoc)
-     * @see gov.epa.cef.web.service.impl.CersXmlService#retrieveCersXml(java.lang.Long)
-     */
-    @Override
-    public void writeCersXmlTo(long reportId, OutputStream outputStream, EisSubmissionStatus submissionStatus) {
+    private void marshalCersXml(long reportId, OutputStream outputStream, EisSubmissionStatus submissionStatus) {
 
     	CERSDataType cers = generateCersData(reportId, submissionStatus);
 
         try {
             ObjectFactory objectFactory = new ObjectFactory();
-            JAXBContext jaxbContext = JAXBContext.newInstance(CERSDataType.class);
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-            jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            Marshaller jaxbMarshaller = this.marshallers.marshaller(CERSDataType.class);
 
             jaxbMarshaller.marshal(objectFactory.createCERS(cers), outputStream);
 
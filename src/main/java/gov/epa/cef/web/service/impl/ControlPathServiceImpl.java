@@ -20,9 +20,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import gov.epa.cef.web.domain.Control;
 import gov.epa.cef.web.domain.ControlAssignment;
@@ -84,6 +87,9 @@ public class ControlPathServiceImpl implements ControlPathService {
     
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
+
+    @Autowired
+    private ExportQueryStreams exportStreams;
       
     @Override
     public ControlPathDto retrieveById(Long id) {
@@ -355,26 +361,30 @@ public class ControlPathServiceImpl implements ControlPathService {
 
 
     /**
-     * Retrieve a list of control paths for the given program system code and emissions report year
+     * Stream the control paths for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */    
-    public List<ControlPathBulkUploadDto> retrieveControlPaths(String programSystemCode, Short emissionsReportYear) {
-    	List<ControlPath> controlPaths = repo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.controlPathToDtoList(controlPaths);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamControlPaths(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlPathBulkUploadDto>> consumer) {
+    	try (Stream<ControlPath> controlPaths = repo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(controlPaths, bulkUploadMapper::controlPathToDto));
+    	}
     }
 
 
     /**
-     * Retrieve a list of control path pollutants for the given program system code and emissions report year
+     * Stream the control path pollutants for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<ControlPathPollutantBulkUploadDto> retrieveControlPathPollutants(String programSystemCode, Short emissionsReportYear) {
-    	List<ControlPathPollutant> controlPathPollutants = pollutantRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.controlPathPollutantToDtoList(controlPathPollutants);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamControlPathPollutants(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlPathPollutantBulkUploadDto>> consumer) {
+    	try (Stream<ControlPathPollutant> controlPathPollutants = pollutantRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(controlPathPollutants, bulkUploadMapper::controlPollutantToDto));
+    	}
     }
 
 }
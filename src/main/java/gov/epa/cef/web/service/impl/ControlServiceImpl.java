@@ -20,9 +20,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import gov.epa.cef.web.domain.Control;
 import gov.epa.cef.web.domain.ControlAssignment;
@@ -74,6 +77,9 @@ public class ControlServiceImpl implements ControlService {
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
 
+    @Autowired
+    private ExportQueryStreams exportStreams;
+
     /**
      * Create a new Control from a DTO object
      */
@@ -303,37 +309,43 @@ public class ControlServiceImpl implements ControlService {
 
 
     /**
-     * Retrieve a list of controls for the given program system code and emissions report year
+     * Stream the controls for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */  
-    public List<ControlBulkUploadDto> retrieveControls(String programSystemCode, Short emissionsReportYear) {
-    	List<Control> controls = repo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.controlToDtoList(controls);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamControls(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlBulkUploadDto>> consumer) {
+    	try (Stream<Control> controls = repo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(controls, bulkUploadMapper::controlToDto));
+    	}
     }
 
 
     /**
-     * Retrieve a list of control assignments for the given program system code and emissions report year
+     * Stream the control assignments for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<ControlAssignmentBulkUploadDto> retrieveControlAssignments(String programSystemCode, Short emissionsReportYear) {
-    	List<ControlAssignment> controlAssignments = assignmentRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.controlAssignmentToDtoList(controlAssignments);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamControlAssignments(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlAssignmentBulkUploadDto>> consumer) {
+    	try (Stream<ControlAssignment> controlAssignments = assignmentRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(controlAssignments, bulkUploadMapper::controlAssignmentToDto));
+    	}
     }
 
 
     /**
-     * Retrieve a list of control pollutants for the given program system code and emissions report year
+     * Stream the control pollutants for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<ControlPollutantBulkUploadDto> retrieveControlPollutants(String programSystemCode, Short emissionsReportYear) {
-    	List<ControlPollutant> controlPollutants = pollutantRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.controlPollutantToDtoList(controlPollutants);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamControlPollutants(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ControlPollutantBulkUploadDto>> consumer) {
+    	try (Stream<ControlPollutant> controlPollutants = pollutantRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(controlPollutants, bulkUploadMapper::controlPollutantToDto));
+    	}
     }
 }
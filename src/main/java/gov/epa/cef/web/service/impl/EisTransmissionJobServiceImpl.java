@@ -0,0 +1,168 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.service.dto.EisDataListDto;
+import gov.epa.cef.web.service.dto.EisHeaderDto;
+import gov.epa.cef.web.service.dto.EisTransmissionJobDto;
+import gov.epa.cef.web.service.dto.EisTransmissionStage;
+import gov.epa.cef.web.service.impl.EisTransmissionServiceImpl.EisTransmissionConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs EIS transmissions on a bounded worker pool so generating and submitting a large batch of reports
+ * doesn't hold the request thread, clients poll for the job until it's finished. Jobs are kept in a
+ * Hazelcast map so a poll routed to any node in the cluster finds them.
+ */
+@Service
+public class EisTransmissionJobServiceImpl implements DisposableBean {
+
+    static final String JobMap = "EisTransmissionJobs";
+
+    /**
+     * Unfinished jobs expire after a day in case the node running them stops before they finish
+     */
+    private static final long UnfinishedJobTtlMinutes = TimeUnit.DAYS.toMinutes(1);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final EisTransmissionConfig config;
+
+    private final ExecutorService executor;
+
+    private final IMap<String, EisTransmissionJobDto> jobs;
+
+    private final EisTransmissionServiceImpl transmissionService;
+
+    @Autowired
+    EisTransmissionJobServiceImpl(EisTransmissionConfig config,
+                                  EisTransmissionServiceImpl transmissionService,
+                                  HazelcastInstance hazelcastInstance) {
+
+        this.config = config;
+        this.transmissionService = transmissionService;
+        this.jobs = hazelcastInstance.getMap(JobMap);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(),
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+            runnable -> new Thread(runnable, "eis-transmission-" + threadCount.incrementAndGet()));
+
+        // the worker runs as the user who queued the transmission
+        this.executor = new DelegatingSecurityContextExecutorService(workers);
+    }
+
+    /**
+     * Queue the reports in the header to be transmitted to EIS by a background worker
+     *
+     * @param eisHeader
+     * @return the queued job
+     */
+    public EisTransmissionJobDto submit(EisHeaderDto eisHeader) {
+
+        EisTransmissionJobDto job = new EisTransmissionJobDto(UUID.randomUUID().toString(), eisHeader);
+
+        store(job);
+
+        try {
+
+            this.executor.execute(() -> run(job, eisHeader));
+
+        } catch (RejectedExecutionException e) {
+
+            this.jobs.delete(job.getJobId());
+
+            throw new ServiceBusyException(
+                "Too many EIS transmissions are queued right now, please try again in a few minutes.");
+        }
+
+        logger.info("EIS transmission job {} queued for {} reports", job.getJobId(), job.getEmissionsReports().size());
+
+        return job;
+    }
+
+    /**
+     * Retrieve the status of a job from any node, finished jobs are kept for a limited time
+     *
+     * @param jobId
+     * @return
+     */
+    public Optional<EisTransmissionJobDto> retrieveJob(String jobId) {
+
+        return Optional.ofNullable(this.jobs.get(jobId));
+    }
+
+    @Override
+    public void destroy() {
+
+        this.executor.shutdownNow();
+    }
+
+    private void run(EisTransmissionJobDto job, EisHeaderDto eisHeader) {
+
+        try {
+
+            job.setStage(EisTransmissionStage.Transmitting);
+            store(job);
+
+            EisDataListDto result = this.transmissionService.submitReports(eisHeader);
+
+            job.complete(result);
+
+        } catch (RuntimeException e) {
+
+            logger.error("EIS transmission job {} failed", job.getJobId(), e);
+
+            // exceptions like a NullPointerException have no message of their own
+            job.fail(e.getMessage() != null
+                ? e.getMessage()
+                : String.format("An unexpected error occurred (%s).", e.getClass().getSimpleName()));
+        }
+
+        store(job);
+
+        logger.info("EIS transmission job {} finished {}", job.getJobId(), job.getStage());
+    }
+
+    /**
+     * The map holds a copy of the job so it's stored again after every change, finished jobs expire
+     * once the retention period is over
+     */
+    private void store(EisTransmissionJobDto job) {
+
+        long ttlMinutes = job.getStage().isFinished() ? this.config.getRetentionMinutes() : UnfinishedJobTtlMinutes;
+
+        this.jobs.set(job.getJobId(), job, ttlMinutes, TimeUnit.MINUTES);
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.collect.Streams;
 
 import gov.epa.cef.web.client.soap.NodeClient;
 import gov.epa.cef.web.client.soap.NodeTransaction;
+import gov.epa.cef.web.config.CefConfig;
 import gov.epa.cef.web.config.NetworkNodeName;
 import gov.epa.cef.web.domain.EisTransactionHistory;
 import gov.epa.cef.web.domain.EmissionsReport;
@@ -38,14 +39,23 @@ import gov.epa.cef.web.service.dto.EisSubmissionStatus;
 import gov.epa.cef.web.service.dto.EisTransactionHistoryDto;
 import gov.epa.cef.web.service.mapper.EisTransactionMapper;
 import gov.epa.cef.web.util.TempFile;
-import net.exchangenetwork.schema.header._2.ExchangeNetworkDocumentType;
+import net.exchangenetwork.schema.node._2.TransactionStatusCode;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
 
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -53,8 +63,10 @@ import java.io.IOException;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -77,8 +89,22 @@ public class EisTransmissionServiceImpl {
 
     private final NodeClient nodeClient;
 
+    private final EisTransmissionConfig config;
+
+    private final CersSchemaValidator schemaValidator;
+
+    private final CefConfig cefConfig;
+
+    private final AuditorAware<String> auditorAware;
+
+    private final TransactionTemplate transactionTemplate;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    // the node won't change the status of these transactions again
+    private static final Set<TransactionStatusCode> FinishedStatuses =
+        EnumSet.of(TransactionStatusCode.COMPLETED, TransactionStatusCode.FAILED, TransactionStatusCode.CANCELLED);
+
     @Autowired
     EisTransmissionServiceImpl(EisXmlServiceImpl xmlService,
                                EmissionsReportRepository reportRepository,
@@ -86,7 +112,12 @@ public class EisTransmissionServiceImpl {
                                EisTransactionAttachmentRepository attachmentRepo,
                                ProgramSystemCodeRepository pscRepo,
                                EisTransactionMapper mapper,
-                               NodeClient nodeClient) {
+                               NodeClient nodeClient,
+                               EisTransmissionConfig config,
+                               CersSchemaValidator schemaValidator,
+                               CefConfig cefConfig,
+                               AuditorAware<String> auditorAware,
+                               PlatformTransactionManager transactionManager) {
 
         this.xmlService = xmlService;
         this.reportRepository = reportRepository;
@@ -95,6 +126,12 @@ public class EisTransmissionServiceImpl {
         this.pscRepo = pscRepo;
         this.mapper = mapper;
         this.nodeClient = nodeClient;
+        this.config = config;
+        this.schemaValidator = schemaValidator;
+        this.cefConfig = cefConfig;
+        this.auditorAware = auditorAware;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
     }
 
     public EisDataListDto retrieveDataList(Set<Long> emissionReports) {
@@ -168,21 +205,55 @@ public class EisTransmissionServiceImpl {
 
         String transactionId = transferXml(eisHeader);
 
-        Streams.stream(this.reportRepository.findAllById(eisHeader.getEmissionsReports()))
-            .peek(report -> {
-
-                report.setEisLastTransactionId(transactionId);
-                report.setEisLastSubmissionStatus(eisHeader.getSubmissionStatus());
-                report.setEisPassed(false);
+        this.reportRepository.updateEisTransaction(eisHeader.getEmissionsReports(), transactionId,
+            eisHeader.getSubmissionStatus(), this.auditorAware.getCurrentAuditor().orElse(null), new Date());
 
-                this.reportRepository.save(report);
-            })
+        Streams.stream(this.reportRepository.findAllById(eisHeader.getEmissionsReports()))
             .map(new EisDataReportDto.FromEntity())
             .forEach(result);
 
         return result;
     }
 
+    /**
+     * Check the node status of the transactions which are due, each check that doesn't find the transaction
+     * finished doubles the wait before the next one until the maximum number of checks is reached
+     *
+     * <p>
+     * Runs outside of a transaction so no connection is held while waiting on the node, each history is saved
+     * in its own short transaction once its status is known.
+     *
+     * @return the number of transactions checked
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int checkTransactionStatuses() {
+
+        Date now = new Date();
+
+        List<EisTransactionHistory> due = this.transactionHistoryRepo.findDueForStatusCheck(now,
+            PageRequest.of(0, this.config.getStatusCheckBatchSize()));
+
+        for (EisTransactionHistory history : due) {
+
+            try {
+
+                NodeTransaction transaction = this.nodeClient.retrieveStatus(NetworkNodeName.eis, history.getTransactionId());
+
+                updateNodeStatus(history, transaction, now);
+
+            } catch (RuntimeException e) {
+
+                logger.warn("Unable to retrieve the status of EIS transaction {}", history.getTransactionId(), e);
+
+                updateNodeStatus(history, null, now);
+            }
+
+            this.transactionTemplate.execute(status -> this.transactionHistoryRepo.save(history));
+        }
+
+        return due.size();
+    }
+
     public EisDataReportDto updateReportComment(long reportId, String comment) {
 
         EmissionsReport report = this.reportRepository.findById(reportId)
@@ -218,9 +289,9 @@ public class EisTransmissionServiceImpl {
             return new NotExistException("ProgramSystemCode", eisHeader.getProgramSystemCode());
         });
 
-        ExchangeNetworkDocumentType xml = this.xmlService.generateEisDocument(eisHeader);
+        try (TempFile tmpFile = TempFile.create("submission", ".zip")) {
 
-        try (TempFile tmpFile = TempFile.create("submission" + xml.getId(), ".zip")) {
+            String documentId;
 
             try (FileOutputStream fos = new FileOutputStream(tmpFile.getFile());
                  ZipOutputStream zos = new ZipOutputStream(fos)) {
@@ -228,7 +299,21 @@ public class EisTransmissionServiceImpl {
                 ZipEntry zipEntry = new ZipEntry("report.xml");
                 zos.putNextEntry(zipEntry);
 
-                this.xmlService.writeEisXmlTo(xml, zos);
+                if (this.config.isSchemaValidation()) {
+
+                    // a document EIS would reject is never sent
+                    try (CersSchemaValidator.Validation validation =
+                             this.schemaValidator.validate(this.cefConfig.getFeatureCersV2Enabled(), zos)) {
+
+                        documentId = this.xmlService.writeEisXmlTo(eisHeader, validation.getOutputStream());
+
+                        validation.complete();
+                    }
+
+                } else {
+
+                    documentId = this.xmlService.writeEisXmlTo(eisHeader, zos);
+                }
 
                 zos.closeEntry();
                 zos.finish();
@@ -241,7 +326,7 @@ public class EisTransmissionServiceImpl {
                 throw new IllegalStateException(e);
             }
 
-            transaction = this.nodeClient.submit(NetworkNodeName.eis, "submission" + xml.getId() + ".zip", tmpFile.getFile());
+            transaction = this.nodeClient.submit(NetworkNodeName.eis, "submission" + documentId + ".zip", tmpFile.getFile());
 
             logger.info(transaction.toString());
 
@@ -251,10 +336,185 @@ public class EisTransmissionServiceImpl {
             history.setTransactionId(transaction.getTransactionId());
             history.setProgramSystemCode(psc);
 
+            updateNodeStatus(history, transaction, new Date());
+
             this.transactionHistoryRepo.save(history);
 
         }
 
         return transaction.getTransactionId();
     }
+
+    /**
+     * Record the node status and schedule the next check, a null transaction means the status couldn't be retrieved
+     */
+    private void updateNodeStatus(EisTransactionHistory history, NodeTransaction transaction, Date now) {
+
+        if (transaction != null && transaction.getStatusCode() != null) {
+            history.setNodeStatus(transaction.getStatusCode().value());
+            history.setNodeStatusDetail(transaction.getStatusDetail());
+        }
+
+        boolean finished = transaction != null && FinishedStatuses.contains(transaction.getStatusCode());
+        if (finished || history.getStatusCheckCount() >= this.config.getMaxStatusChecks()) {
+
+            history.setNextStatusCheck(null);
+
+        } else {
+
+            long delay = Math.min(this.config.getMaxStatusBackoffSeconds(),
+                this.config.getStatusBackoffSeconds() << Math.min(history.getStatusCheckCount(), 20));
+
+            history.setNextStatusCheck(new Date(now.getTime() + TimeUnit.SECONDS.toMillis(delay)));
+            history.setStatusCheckCount(history.getStatusCheckCount() + 1);
+        }
+    }
+
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "eis-transmission")
+    public static class EisTransmissionConfig {
+
+        @Min(1)
+        private int workers = 1;
+
+        @Min(1)
+        private int queueCapacity = 10;
+
+        @Min(1)
+        private long retentionMinutes = 60;
+
+        @Min(1)
+        private long statusPollSeconds = 60;
+
+        @Min(1)
+        private long statusBackoffSeconds = 60;
+
+        @Min(1)
+        private long maxStatusBackoffSeconds = 3600;
+
+        @Min(0)
+        private int maxStatusChecks = 20;
+
+        @Min(1)
+        private int statusCheckBatchSize = 50;
+
+        private boolean schemaValidation = true;
+
+        @Min(1)
+        private int validationWorkers = 2;
+
+        @Min(1)
+        private int maxValidationErrors = 20;
+
+        public int getWorkers() {
+
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getRetentionMinutes() {
+
+            return retentionMinutes;
+        }
+
+        public void setRetentionMinutes(long retentionMinutes) {
+
+            this.retentionMinutes = retentionMinutes;
+        }
+
+        public long getStatusPollSeconds() {
+
+            return statusPollSeconds;
+        }
+
+        public void setStatusPollSeconds(long statusPollSeconds) {
+
+            this.statusPollSeconds = statusPollSeconds;
+        }
+
+        public long getStatusBackoffSeconds() {
+
+            return statusBackoffSeconds;
+        }
+
+        public void setStatusBackoffSeconds(long statusBackoffSeconds) {
+
+            this.statusBackoffSeconds = statusBackoffSeconds;
+        }
+
+        public long getMaxStatusBackoffSeconds() {
+
+            return maxStatusBackoffSeconds;
+        }
+
+        public void setMaxStatusBackoffSeconds(long maxStatusBackoffSeconds) {
+
+            this.maxStatusBackoffSeconds = maxStatusBackoffSeconds;
+        }
+
+        public int getMaxStatusChecks() {
+
+            return maxStatusChecks;
+        }
+
+        public void setMaxStatusChecks(int maxStatusChecks) {
+
+            this.maxStatusChecks = maxStatusChecks;
+        }
+
+        public int getStatusCheckBatchSize() {
+
+            return statusCheckBatchSize;
+        }
+
+        public void setStatusCheckBatchSize(int statusCheckBatchSize) {
+
+            this.statusCheckBatchSize = statusCheckBatchSize;
+        }
+
+        public boolean isSchemaValidation() {
+
+            return schemaValidation;
+        }
+
+        public void setSchemaValidation(boolean schemaValidation) {
+
+            this.schemaValidation = schemaValidation;
+        }
+
+        public int getValidationWorkers() {
+
+            return validationWorkers;
+        }
+
+        public void setValidationWorkers(int validationWorkers) {
+
+            this.validationWorkers = validationWorkers;
+        }
+
+        public int getMaxValidationErrors() {
+
+            return maxValidationErrors;
+        }
+
+        public void setMaxValidationErrors(int maxValidationErrors) {
+
+            this.maxValidationErrors = maxValidationErrors;
+        }
+    }
 }
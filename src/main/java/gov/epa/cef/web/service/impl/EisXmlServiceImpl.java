@@ -19,8 +19,8 @@ package gov.epa.cef.web.service.impl;
 import gov.epa.cef.web.config.CefConfig;
 import gov.epa.cef.web.config.SLTBaseConfig;
 import gov.epa.cef.web.exception.AppValidationException;
-import gov.epa.cef.web.exception.ApplicationErrorCode;
-import gov.epa.cef.web.exception.ApplicationException;
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.repository.EmissionsReportRepository;
 import gov.epa.cef.web.service.dto.EisHeaderDto;
 import gov.epa.cef.web.util.DateUtils;
 import gov.epa.cef.web.util.SLTConfigHelper;
@@ -31,26 +31,52 @@ import net.exchangenetwork.schema.header._2.NameValuePair;
 import net.exchangenetwork.schema.header._2.ObjectFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
 import org.w3c.dom.Document;
 
-import javax.xml.bind.JAXBContext;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.constraints.Min;
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.datatype.XMLGregorianCalendar;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-public class EisXmlServiceImpl {
+public class EisXmlServiceImpl implements DisposableBean {
 
     private static final String DataCategoryPropertyName = "DataCategory";
 
@@ -60,6 +86,12 @@ public class EisXmlServiceImpl {
 
     private static final String DocumentTitle = "EIS";
 
+    private static final String HeaderNamespace = "http://www.exchangenetwork.net/schema/header/2";
+
+    private static final String CersNamespace = "http://www.exchangenetwork.net/schema/cer/1";
+
+    private static final String CersV2Namespace = "http://www.exchangenetwork.net/schema/cer/2";
+
     private static final String SubmissionTypePropertyName = "SubmissionType";
 
     private final CersXmlServiceImpl cersXmlService;
@@ -68,14 +100,47 @@ public class EisXmlServiceImpl {
 
     private final CefConfig cefConfig;
 
+    private final EmissionsReportRepository reportRepository;
+
+    private final JaxbMarshallers marshallers;
+
+    private final EisXmlConfig config;
+
+    private final ExecutorService executor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Autowired
-    EisXmlServiceImpl(CersXmlServiceImpl cersXmlService, SLTConfigHelper sltConfigHelper, CefConfig cefConfig) {
+    EisXmlServiceImpl(CersXmlServiceImpl cersXmlService,
+                      SLTConfigHelper sltConfigHelper,
+                      CefConfig cefConfig,
+                      EmissionsReportRepository reportRepository,
+                      JaxbMarshallers marshallers,
+                      EisXmlConfig config) {
 
         this.cersXmlService = cersXmlService;
         this.sltConfigHelper = sltConfigHelper;
         this.cefConfig = cefConfig;
+        this.reportRepository = reportRepository;
+        this.marshallers = marshallers;
+        this.config = config;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(),
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+            runnable -> new Thread(runnable, "eis-xml-" + threadCount.incrementAndGet()));
+
+        // reports are generated as the user who requested the submission
+        this.executor = new DelegatingSecurityContextExecutorService(workers);
+    }
+
+    @Override
+    public void destroy() {
+
+        this.executor.shutdownNow();
     }
 
     public ExchangeNetworkDocumentType generateEisDocument(EisHeaderDto eisHeader) {
@@ -97,9 +162,9 @@ public class EisXmlServiceImpl {
 
         Set<XMLGregorianCalendar> reportYears = new HashSet<>();
 
-        eisHeader.getEmissionsReports().forEach(reportId -> {
+        generateReports(eisHeader.getEmissionsReports(),
+            reportId -> this.cersXmlService.generateCersData(reportId, eisHeader.getSubmissionStatus()), reportCersData -> {
 
-            net.exchangenetwork.schema.cer._1._2.CERSDataType reportCersData = this.cersXmlService.generateCersData(reportId, eisHeader.getSubmissionStatus());
             cersData.getFacilitySite().addAll(reportCersData.getFacilitySite());
 
             cersData.setEmissionsYear(reportCersData.getEmissionsYear());
@@ -115,43 +180,24 @@ public class EisXmlServiceImpl {
 
         try {
 
-            JAXBContext jaxbContext =
-                JAXBContext.newInstance(net.exchangenetwork.schema.cer._1._2.CERSDataType.class);
-
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-            jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            Marshaller jaxbMarshaller =
+                this.marshallers.marshaller(net.exchangenetwork.schema.cer._1._2.CERSDataType.class);
 
             // create an xml document to marshal CERS xml into so that the CERS namespace declaration will be at the CERS level for EIS
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            dbf.setNamespaceAware(true);
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            Document doc = db.newDocument();
+            Document doc = this.marshallers.newDocument();
 
             jaxbMarshaller.marshal( cersObjectFactory.createCERS(cersData), doc );
 
             return new ExchangeNetworkDocumentType()
                     .withId("_".concat(UUID.randomUUID().toString()))
                     .withHeader(
-                        new DocumentHeaderType()
-                            .withDataFlowName(DataflowName)
-                            .withAuthorName(eisHeader.getAuthorName())
-                            .withOrganizationName(eisHeader.getOrganizationName())
-                            .withDocumentTitle(DocumentTitle)
-                            .withProperty(
-                                new NameValuePair()
-                                    .withPropertyName(SubmissionTypePropertyName)
-                                    .withPropertyValue(eisHeader.getSubmissionStatus().submissionType()),
-                                new NameValuePair()
-                                    .withPropertyName(DataCategoryPropertyName)
-                                    .withPropertyValue(eisHeader.getSubmissionStatus().dataCategory()))
-                            .withCreationDateTime(DateUtils.createGregorianCalendar()))
+                        createHeader(eisHeader, DataflowName))
                     .withPayload(
                         new DocumentPayloadType()
                             .withId("_".concat(UUID.randomUUID().toString()))
                             .withAny(doc.getDocumentElement()));
 
-        } catch (JAXBException | ParserConfigurationException e) {
+        } catch (JAXBException e) {
 
             throw new IllegalStateException(e);
         }
@@ -167,9 +213,9 @@ public class EisXmlServiceImpl {
 
         Set<XMLGregorianCalendar> reportYears = new HashSet<>();
 
-        eisHeader.getEmissionsReports().forEach(reportId -> {
+        generateReports(eisHeader.getEmissionsReports(),
+            reportId -> this.cersXmlService.generateCersV2Data(reportId, eisHeader.getSubmissionStatus()), reportCersData -> {
 
-            net.exchangenetwork.schema.cer._2._0.CERSDataType reportCersData = this.cersXmlService.generateCersV2Data(reportId, eisHeader.getSubmissionStatus());
             cersData.getFacilitySite().addAll(reportCersData.getFacilitySite());
 
             cersData.setEmissionsYear(reportCersData.getEmissionsYear());
@@ -185,53 +231,48 @@ public class EisXmlServiceImpl {
 
         try {
 
-            JAXBContext jaxbContext =
-                JAXBContext.newInstance(net.exchangenetwork.schema.cer._2._0.CERSDataType.class);
-
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-            jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            Marshaller jaxbMarshaller =
+                this.marshallers.marshaller(net.exchangenetwork.schema.cer._2._0.CERSDataType.class);
 
             // create an xml document to marshal CERS xml into so that the CERS namespace declaration will be at the CERS level for EIS
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            dbf.setNamespaceAware(true);
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            Document doc = db.newDocument();
+            Document doc = this.marshallers.newDocument();
 
             jaxbMarshaller.marshal( cersObjectFactory.createCERS(cersData), doc );
 
             return new ExchangeNetworkDocumentType()
                     .withId("_".concat(UUID.randomUUID().toString()))
                     .withHeader(
-                        new DocumentHeaderType()
-                            .withDataFlowName(DataflowNameV2)
-                            .withAuthorName(eisHeader.getAuthorName())
-                            .withOrganizationName(eisHeader.getOrganizationName())
-                            .withDocumentTitle(DocumentTitle)
-                            .withProperty(
-                                new NameValuePair()
-                                    .withPropertyName(SubmissionTypePropertyName)
-                                    .withPropertyValue(eisHeader.getSubmissionStatus().submissionType()),
-                                new NameValuePair()
-                                    .withPropertyName(DataCategoryPropertyName)
-                                    .withPropertyValue(eisHeader.getSubmissionStatus().dataCategory()))
-                            .withCreationDateTime(DateUtils.createGregorianCalendar()))
+                        createHeader(eisHeader, DataflowNameV2))
                     .withPayload(
                         new DocumentPayloadType()
                             .withId("_".concat(UUID.randomUUID().toString()))
                             .withAny(doc.getDocumentElement()));
 
-        } catch (JAXBException | ParserConfigurationException e) {
+        } catch (JAXBException e) {
 
             throw new IllegalStateException(e);
         }
     }
 
-    public void writeEisXmlTo(EisHeaderDto eisHeader, OutputStream outputStream) {
+    /**
+     * Write the EIS document for the reports, when eis-xml.streaming is set the document is written one report
+     * at a time instead of being built in memory first
+     *
+     * @param eisHeader
+     * @param outputStream
+     * @return the id of the document
+     */
+    public String writeEisXmlTo(EisHeaderDto eisHeader, OutputStream outputStream) {
+
+        if (this.config.isStreaming()) {
+            return streamEisXmlTo(eisHeader, outputStream);
+        }
 
         ExchangeNetworkDocumentType result = generateEisDocument(eisHeader);
 
-       writeEisXmlTo(result, outputStream);
+        writeEisXmlTo(result, outputStream);
+
+        return result.getId();
     }
 
     public void writeEisXmlTo(ExchangeNetworkDocumentType eisDoc, OutputStream outputStream) {
@@ -239,11 +280,7 @@ public class EisXmlServiceImpl {
         try {
             ObjectFactory objectFactory = new ObjectFactory();
 
-            JAXBContext jaxbContext =
-                JAXBContext.newInstance(ExchangeNetworkDocumentType.class);
-
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-            jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            Marshaller jaxbMarshaller = this.marshallers.marshaller(ExchangeNetworkDocumentType.class);
 
             jaxbMarshaller.marshal(objectFactory.createDocument(eisDoc), outputStream);
 
@@ -252,4 +289,278 @@ public class EisXmlServiceImpl {
             throw new IllegalStateException(e);
         }
     }
+
+    /**
+     * Write the document envelope and CERS header elements with StAX and marshal each report's facility sites
+     * into it as fragments, so only the reports being generated are held in memory. Each report's entity graph
+     * is cleared from the persistence context once its facility sites are written.
+     * <p>
+     * The report years are checked and the document is only started once the first report is ready, so
+     * a mismatched year or a busy worker pool is reported before anything is written to the response.
+     */
+    private String streamEisXmlTo(EisHeaderDto eisHeader, OutputStream outputStream) {
+
+        if (this.reportRepository.findDistinctYears(eisHeader.getEmissionsReports()).size() > 1) {
+            throw new AppValidationException("All reports for a single submission to EIS must be for the same year.");
+        }
+
+        SLTBaseConfig sltConfig = sltConfigHelper.getCurrentSLTConfig(eisHeader.getProgramSystemCode());
+
+        boolean cersV2 = cefConfig.getFeatureCersV2Enabled();
+        String cersNamespace = cersV2 ? CersV2Namespace : CersNamespace;
+        Class<?> cersType = cersV2
+            ? net.exchangenetwork.schema.cer._2._0.CERSDataType.class
+            : net.exchangenetwork.schema.cer._1._2.CERSDataType.class;
+
+        String documentId = "_".concat(UUID.randomUUID().toString());
+
+        try {
+
+            XMLStreamWriter writer = this.marshallers.createStreamWriter(outputStream);
+
+            Marshaller fragmentMarshaller = this.marshallers.fragmentMarshaller(cersType);
+            QName facilitySiteName = new QName(cersNamespace, "FacilitySite");
+
+            AtomicReference<XMLGregorianCalendar> emissionsYear = new AtomicReference<>();
+
+            generateReports(eisHeader.getEmissionsReports(), reportId -> {
+
+                if (cersV2) {
+                    net.exchangenetwork.schema.cer._2._0.CERSDataType reportCersData = this.cersXmlService.generateCersV2Data(reportId, eisHeader.getSubmissionStatus());
+                    return new CersReport(reportCersData.getEmissionsYear(), reportCersData.getFacilitySite());
+                } else {
+                    net.exchangenetwork.schema.cer._1._2.CERSDataType reportCersData = this.cersXmlService.generateCersData(reportId, eisHeader.getSubmissionStatus());
+                    return new CersReport(reportCersData.getEmissionsYear(), reportCersData.getFacilitySite());
+                }
+
+            }, report -> {
+
+                try {
+
+                    if (emissionsYear.get() == null) {
+                        emissionsYear.set(report.emissionsYear);
+                        startCers(writer, eisHeader, documentId, sltConfig, cersV2);
+                        writeElement(writer, cersNamespace, "EmissionsYear", report.emissionsYear.toXMLFormat());
+                    } else if (!emissionsYear.get().equals(report.emissionsYear)) {
+                        throw new AppValidationException("All reports for a single submission to EIS must be for the same year.");
+                    }
+
+                    for (Object facilitySite : report.facilitySites) {
+                        fragmentMarshaller.marshal(createElement(facilitySiteName, facilitySite), writer);
+                    }
+
+                    writer.flush();
+
+                } catch (JAXBException | XMLStreamException e) {
+
+                    throw new IllegalStateException(e);
+                }
+
+                // check if this exists for unit tests
+                if (this.entityManager != null) {
+                    this.entityManager.clear();
+                }
+            });
+
+            if (emissionsYear.get() == null) {
+                startCers(writer, eisHeader, documentId, sltConfig, cersV2);
+            }
+
+            writer.writeEndElement(); // CERS
+            writer.writeEndElement(); // Payload
+            writer.writeEndElement(); // Document
+            writer.writeEndDocument();
+            writer.close();
+
+        } catch (JAXBException | XMLStreamException e) {
+
+            throw new IllegalStateException(e);
+        }
+
+        return documentId;
+    }
+
+    /**
+     * Write the document envelope and header and open the CERS element, up to where the emissions year goes
+     */
+    private void startCers(XMLStreamWriter writer, EisHeaderDto eisHeader, String documentId,
+                           SLTBaseConfig sltConfig, boolean cersV2) throws JAXBException, XMLStreamException {
+
+        String cersNamespace = cersV2 ? CersV2Namespace : CersNamespace;
+
+        writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        writer.writeStartElement("", "Document", HeaderNamespace);
+        writer.writeDefaultNamespace(HeaderNamespace);
+        writer.writeAttribute("id", documentId);
+
+        this.marshallers.fragmentMarshaller(ExchangeNetworkDocumentType.class).marshal(
+            new JAXBElement<>(new QName(HeaderNamespace, "Header"), DocumentHeaderType.class,
+                createHeader(eisHeader, cersV2 ? DataflowNameV2 : DataflowName)), writer);
+
+        writer.writeStartElement("", "Payload", HeaderNamespace);
+        writer.writeAttribute("id", "_".concat(UUID.randomUUID().toString()));
+
+        writer.writeStartElement("", "CERS", cersNamespace);
+        writer.writeDefaultNamespace(cersNamespace);
+        writeElement(writer, cersNamespace, "UserIdentifier", sltConfig.getSltEisUser());
+        writeElement(writer, cersNamespace, "ProgramSystemCode", sltConfig.getSltEisProgramCode());
+    }
+
+    /**
+     * Generate the CERS data for each report in report id order. When eis-xml.parallel is set the reports are
+     * generated on the eis-xml worker pool, each in its own read-only transaction, and at most eis-xml.workers
+     * reports are generated ahead of the consumer. A full pool is reported as busy until the first report has
+     * been consumed, after that the remaining reports are generated on the calling thread instead so a streamed
+     * document is never left unfinished.
+     */
+    private <T> void generateReports(Collection<Long> reportIds, Function<Long, T> generator, Consumer<T> consumer) {
+
+        List<Long> orderedIds = reportIds.stream().sorted().collect(Collectors.toList());
+
+        if (!this.config.isParallel()) {
+            orderedIds.stream().map(generator).forEach(consumer);
+            return;
+        }
+
+        Deque<Future<T>> pending = new ArrayDeque<>();
+        Iterator<Long> ids = orderedIds.iterator();
+        boolean started = false;
+        try {
+
+            while (ids.hasNext() || !pending.isEmpty()) {
+
+                while (ids.hasNext() && pending.size() < this.config.getWorkers()) {
+                    Long reportId = ids.next();
+                    try {
+                        pending.add(this.executor.submit(() -> generator.apply(reportId)));
+                    } catch (RejectedExecutionException e) {
+                        if (!started) {
+                            throw new ServiceBusyException(
+                                "Too many EIS submissions are being generated right now, please try again in a few minutes.");
+                        }
+                        pending.add(CompletableFuture.completedFuture(generator.apply(reportId)));
+                    }
+                }
+
+                consumer.accept(pending.removeFirst().get());
+                started = true;
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+
+        } catch (ExecutionException e) {
+
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+
+        } finally {
+
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private DocumentHeaderType createHeader(EisHeaderDto eisHeader, String dataflowName) {
+
+        return new DocumentHeaderType()
+            .withDataFlowName(dataflowName)
+            .withAuthorName(eisHeader.getAuthorName())
+            .withOrganizationName(eisHeader.getOrganizationName())
+            .withDocumentTitle(DocumentTitle)
+            .withProperty(
+                new NameValuePair()
+                    .withPropertyName(SubmissionTypePropertyName)
+                    .withPropertyValue(eisHeader.getSubmissionStatus().submissionType()),
+                new NameValuePair()
+                    .withPropertyName(DataCategoryPropertyName)
+                    .withPropertyValue(eisHeader.getSubmissionStatus().dataCategory()))
+            .withCreationDateTime(DateUtils.createGregorianCalendar());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> JAXBElement<T> createElement(QName name, T value) {
+
+        return new JAXBElement<>(name, (Class<T>) value.getClass(), value);
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String namespace, String localName, String value)
+        throws XMLStreamException {
+
+        writer.writeStartElement("", localName, namespace);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private static class CersReport {
+
+        private final XMLGregorianCalendar emissionsYear;
+
+        private final List<?> facilitySites;
+
+        CersReport(XMLGregorianCalendar emissionsYear, List<?> facilitySites) {
+
+            this.emissionsYear = emissionsYear;
+            this.facilitySites = facilitySites;
+        }
+    }
+
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "eis-xml")
+    public static class EisXmlConfig {
+
+        private boolean streaming = false;
+
+        private boolean parallel = false;
+
+        @Min(1)
+        private int workers = 4;
+
+        @Min(1)
+        private int queueCapacity = 64;
+
+        public boolean isStreaming() {
+
+            return streaming;
+        }
+
+        public void setStreaming(boolean streaming) {
+
+            this.streaming = streaming;
+        }
+
+        public boolean isParallel() {
+
+            return parallel;
+        }
+
+        public void setParallel(boolean parallel) {
+
+            this.parallel = parallel;
+        }
+
+        public int getWorkers() {
+
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+
+            this.queueCapacity = queueCapacity;
+        }
+    }
 }
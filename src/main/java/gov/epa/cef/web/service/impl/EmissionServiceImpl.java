@@ -26,6 +26,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -33,6 +35,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import gov.epa.cef.web.domain.EisTriXref;
 import gov.epa.cef.web.domain.Emission;
@@ -123,6 +126,9 @@ public class EmissionServiceImpl implements EmissionService {
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
 
+    @Autowired
+    private ExportQueryStreams exportStreams;
+
     private static final String POINT_EMISSION_RELEASE_POINT = "stack";
     private static final int TWO_DECIMAL_POINTS = 2;
 
@@ -663,26 +669,30 @@ public class EmissionServiceImpl implements EmissionService {
 
 
     /**
-     * Retrieve a list of emissions for the given program system code and emissions report year
+     * Stream the emissions for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */  
-    public List<EmissionBulkUploadDto> retrieveEmissions(String programSystemCode, Short emissionsReportYear) {
-    	List<Emission> emissions = emissionRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.emissionToDtoList(emissions);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamEmissions(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionBulkUploadDto>> consumer) {
+    	try (Stream<Emission> emissions = emissionRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(emissions, bulkUploadMapper::emissionToDto));
+    	}
     }
 
 
     /**
-     * Retrieve a list of emission formula variables for the given program system code and emissions report year
+     * Stream the emission formula variables for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<EmissionFormulaVariableBulkUploadDto> retrieveEmissionFormulaVariables(String programSystemCode, Short emissionsReportYear) {
-    	List<EmissionFormulaVariable> variables = variablesRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.emissionFormulaVariableToDtoList(variables);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamEmissionFormulaVariables(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionFormulaVariableBulkUploadDto>> consumer) {
+    	try (Stream<EmissionFormulaVariable> emissionFormulaVariables = variablesRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(emissionFormulaVariables, bulkUploadMapper::emissionFormulaVariableToDto));
+    	}
     }
     
     public Emission updateEmissionsFactorDescription (Emission emission, EmissionsProcess process) {
@@ -30,10 +30,13 @@ import gov.epa.cef.web.service.mapper.BulkUploadMapper;
 import gov.epa.cef.web.service.mapper.EmissionsProcessMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmissionsProcessServiceImpl implements EmissionsProcessService {
@@ -56,6 +59,9 @@ public class EmissionsProcessServiceImpl implements EmissionsProcessService {
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
 
+    @Autowired
+    private ExportQueryStreams exportStreams;
+
 
     public EmissionsProcessDto create(EmissionsProcessSaveDto dto) {
 
@@ -228,14 +234,16 @@ public class EmissionsProcessServiceImpl implements EmissionsProcessService {
 
 
     /**
-     * Retrieve a list of emissions processes for the given program system code and emissions report year
+     * Stream the emissions processes for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */     
-    public List<EmissionsProcessBulkUploadDto> retrieveEmissionsProcesses(String programSystemCode, Short emissionsReportYear) {
-    	List<EmissionsProcess> processes = processRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.emissionsProcessToDtoList(processes);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamEmissionsProcesses(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionsProcessBulkUploadDto>> consumer) {
+    	try (Stream<EmissionsProcess> emissionsProcesses = processRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(emissionsProcesses, bulkUploadMapper::emissionsProcessToDto));
+    	}
     }
 
 }
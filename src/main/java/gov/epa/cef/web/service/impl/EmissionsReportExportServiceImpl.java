@@ -19,31 +19,43 @@ package gov.epa.cef.web.service.impl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.validation.constraints.Min;
+
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
-import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbookFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
 
 import com.google.common.base.Functions;
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import gov.epa.cef.web.domain.Control;
 import gov.epa.cef.web.domain.ControlAssignment;
@@ -84,6 +96,7 @@ import gov.epa.cef.web.service.dto.bulkUpload.ReleasePointBulkUploadDto;
 import gov.epa.cef.web.service.dto.bulkUpload.ReportingPeriodBulkUploadDto;
 import gov.epa.cef.web.service.dto.bulkUpload.WorksheetName;
 import gov.epa.cef.web.service.mapper.BulkUploadMapper;
+import gov.epa.cef.web.util.ConcurrencyLimiter;
 import gov.epa.cef.web.util.TempFile;
 
 @Service
@@ -92,16 +105,35 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private static final String EXCEL_FILE_PATH = "/excel/CEF_BulkUpload_Template.xlsx";
-    private static final String EXCEL_GENERIC_LOOKUP_TEXT = "INDEX(%s!$A$2:$A$%d,MATCH(\"%s\",%s!$B$2:$B$%d,0))";
-    private static final String EXCEL_GENERIC_LOOKUP_NUMBER = "INDEX(%s!$A$2:$A$%d,MATCH(%s,%s!$B$2:$B$%d,0))";
     private static final int EXCEL_MAPPING_HEADER_ROWS = 23;
 
+    private static final Set<WorksheetName> DATA_WORKSHEETS = EnumSet.complementOf(EnumSet.of(WorksheetName.Version));
+
     @Autowired
     private EmissionsReportService emissionsReportService;
 
     @Autowired
     private BulkUploadMapper uploadMapper;
 
+    @Autowired
+    private ExcelExportConfig exportConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ConcurrencyLimiter exportLimiter;
+
+    private final Supplier<ExcelExportTemplate> streamingTemplate = Suppliers.memoize(this::loadStreamingTemplate);
+
+    @PostConstruct
+    void initExportLimiter() {
+
+        this.exportLimiter = new ConcurrencyLimiter("cef.excel.export", this.exportConfig.getMaxConcurrent(),
+            Duration.ofSeconds(this.exportConfig.getQueueTimeoutSeconds()));
+
+        this.exportLimiter.bindTo(this.meterRegistry);
+    }
+
     /**
      * Testing method for generating upload JSON for a report
      *
@@ -235,11 +267,24 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
      * in the spreadsheet for the code we have.
      * 
      * Currently has commented out debugging code while more sections are added
+     *
+     * Each export works on its own copy of the template, so exports can run concurrently. The number running
+     * at once is bounded by excel-export.max-concurrent since each holds a full workbook in memory.
+     *
+     * With excel-export.streaming the data rows are streamed into a copy of the template without its blank data
+     * rows instead, see writeStreamingExcel, and the workbook is written straight to the output stream.
      * @param reportId
      * @param outputStream
      */
     @Override
-    public synchronized void generateExcel(Long reportId, OutputStream outputStream) {
+    public void generateExcel(Long reportId, OutputStream outputStream) {
+
+        logger.info("Queue generate excel, {} waiting", this.exportLimiter.getQueueDepth());
+
+        this.exportLimiter.run(() -> writeExcel(reportId, outputStream));
+    }
+
+    private void writeExcel(Long reportId, OutputStream outputStream) {
 
         logger.info("Begin generate excel");
 
@@ -247,6 +292,22 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
 
         logger.info("Begin file manipulation");
 
+        if (this.exportConfig.isStreaming()) {
+            writeStreamingExcel(uploadDto, outputStream);
+        } else {
+            writeTemplateExcel(uploadDto, outputStream);
+        }
+
+        logger.info("Finish generate excel");
+    }
+
+    /**
+     * Fill in a full copy of the template in memory
+     * @param uploadDto
+     * @param outputStream
+     */
+    private void writeTemplateExcel(EmissionsReportBulkUploadDto uploadDto, OutputStream outputStream) {
+
         try (InputStream is = this.getClass().getResourceAsStream(EXCEL_FILE_PATH);
              TempFile tempFile = TempFile.from(is, UUID.randomUUID().toString());
              XSSFWorkbook wb = XSSFWorkbookFactory.createWorkbook(tempFile.getFile(), false)) {
@@ -254,92 +315,162 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             // locked cells will return null and cause null pointer exceptions without this
             wb.setMissingCellPolicy(MissingCellPolicy.CREATE_NULL_AS_BLANK);
 
-            XSSFFormulaEvaluator formulaEvaluator = wb.getCreationHelper().createFormulaEvaluator();
+            // dropdown labels are looked up in memory rather than by evaluating a MATCH formula for every cell
+            WorkbookLookupLabels lookupLabels = new WorkbookLookupLabels(wb);
  
 //            facilitySheet.disableLocking();
 
-            Map<Long, ReleasePointBulkUploadDto> rpMap = uploadDto.getReleasePoints()
-                    .stream().collect(Collectors.toMap(ReleasePointBulkUploadDto::getId, Functions.identity()));
-            Map<Long, EmissionsUnitBulkUploadDto> euMap = uploadDto.getEmissionsUnits()
-                    .stream().collect(Collectors.toMap(EmissionsUnitBulkUploadDto::getId, Functions.identity()));
-            Map<Long, EmissionsProcessBulkUploadDto> epMap = uploadDto.getEmissionsProcesses()
-                    .stream().collect(Collectors.toMap(EmissionsProcessBulkUploadDto::getId, Functions.identity()));
-            Map<Long, ControlBulkUploadDto> controlMap = uploadDto.getControls()
-                    .stream().collect(Collectors.toMap(ControlBulkUploadDto::getId, Functions.identity()));
-            Map<Long, ControlPathBulkUploadDto> pathMap = uploadDto.getControlPaths()
-                    .stream().collect(Collectors.toMap(ControlPathBulkUploadDto::getId, Functions.identity()));
-            Map<Long, ReportingPeriodBulkUploadDto> periodMap = uploadDto.getReportingPeriods()
-                    .stream().collect(Collectors.toMap(ReportingPeriodBulkUploadDto::getId, Functions.identity()));
-            Map<Long, EmissionBulkUploadDto> emissionMap = uploadDto.getEmissions()
-                    .stream().collect(Collectors.toMap(EmissionBulkUploadDto::getId, Functions.identity()));
-
-            generateFacilityExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.FacilitySite.sheetName()), uploadDto.getFacilitySites());
-            generateFacilityContactExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.FacilitySiteContact.sheetName()), uploadDto.getFacilityContacts());
-            generateNAICSExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.FacilityNaics.sheetName()), uploadDto.getFacilityNAICS());
-            generateReleasePointsExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.ReleasePoint.sheetName()), uploadDto.getReleasePoints());
-            generateEmissionUnitExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.EmissionsUnit.sheetName()), uploadDto.getEmissionsUnits());
-            generateProcessesExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.EmissionsProcess.sheetName()), uploadDto.getEmissionsProcesses(), euMap);
-            generateControlsExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.Control.sheetName()), uploadDto.getControls());
-            generateControlPathsExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.ControlPath.sheetName()), uploadDto.getControlPaths());
-            generateControlAssignmentsExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.ControlAssignment.sheetName()), uploadDto.getControlAssignments(), controlMap, pathMap);
-            generateControlPollutantExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.ControlPollutant.sheetName()), uploadDto.getControlPollutants(), controlMap);
-            generateControlPathPollutantExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.ControlPathPollutant.sheetName()), uploadDto.getControlPathPollutants(), pathMap);
-            generateApportionmentExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.ReleasePointAppt.sheetName()), uploadDto.getReleasePointAppts(), rpMap, epMap, pathMap);
-            generateReportingPeriodExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.ReportingPeriod.sheetName()), uploadDto.getReportingPeriods(), epMap);
-            generateOperatingDetailExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.OperatingDetail.sheetName()), uploadDto.getOperatingDetails(), periodMap);
-            generateEmissionExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.Emission.sheetName()), uploadDto.getEmissions(), periodMap);
-            generateEmissionFormulaVariableExcelSheet(wb, formulaEvaluator, wb.getSheet(WorksheetName.EmissionFormulaVariable.sheetName()), 
-                    uploadDto.getEmissionFormulaVariables(), emissionMap);
+            generateExcelSheets(wb, lookupLabels, Sheet::getRow, uploadDto);
 
             wb.setForceFormulaRecalculation(true);
             wb.write(outputStream);
             wb.close();
 
-            logger.info("Finish generate excel");
-
         } catch (IOException | EncryptedDocumentException | InvalidFormatException ex) {
 
             logger.error("Unable to generate Excel export ", ex);
             throw new IllegalStateException(ex);
         }
+    }
+
+    /**
+     * Write the data sheets through a streaming workbook which only keeps excel-export.row-window rows of each
+     * sheet in memory and writes the rest to compressed temp files until the workbook is written out. The
+     * streaming workbook is wrapped around the template with its data rows removed, so the lookup sheets and
+     * validation come from the template and each data row is created from the first data row of its sheet.
+     * @param uploadDto
+     * @param outputStream
+     */
+    private void writeStreamingExcel(EmissionsReportBulkUploadDto uploadDto, OutputStream outputStream) {
+
+        ExcelExportTemplate template = this.streamingTemplate.get();
+
+        try (XSSFWorkbook templateWb = template.openWorkbook()) {
+
+            SXSSFWorkbook wb = new SXSSFWorkbook(templateWb, this.exportConfig.getRowWindow());
+            try {
+
+                wb.setCompressTempFiles(true);
+                wb.setMissingCellPolicy(MissingCellPolicy.CREATE_NULL_AS_BLANK);
+
+                // the streaming workbook can't read rows of the template, so labels come from the template workbook
+                WorkbookLookupLabels lookupLabels = new WorkbookLookupLabels(templateWb);
+
+                ExcelExportTemplate.StreamingRows rows = template.rows(templateWb);
+
+                generateExcelSheets(wb, lookupLabels, rows::row, uploadDto);
+
+                for (WorksheetName worksheet : DATA_WORKSHEETS) {
+                    rows.finish(wb.getSheet(worksheet.sheetName()));
+                }
+
+                wb.setForceFormulaRecalculation(true);
+                wb.write(outputStream);
+
+            } finally {
+
+                wb.dispose();
+            }
+
+        } catch (IOException ex) {
+
+            logger.error("Unable to generate Excel export ", ex);
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private ExcelExportTemplate loadStreamingTemplate() {
+
+        logger.info("Load streaming excel template");
+
+        try (InputStream is = this.getClass().getResourceAsStream(EXCEL_FILE_PATH)) {
 
+            return ExcelExportTemplate.load(is, EXCEL_MAPPING_HEADER_ROWS,
+                DATA_WORKSHEETS.stream().map(WorksheetName::sheetName).collect(Collectors.toList()));
+
+        } catch (IOException ex) {
+
+            logger.error("Unable to load Excel export template ", ex);
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Map each part of the report into its sheet, sheets are filled one at a time from the top down
+     * @param wb
+     * @param lookupLabels
+     * @param rows
+     * @param uploadDto
+     */
+    private void generateExcelSheets(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows,
+            EmissionsReportBulkUploadDto uploadDto) {
+
+        Map<Long, ReleasePointBulkUploadDto> rpMap = uploadDto.getReleasePoints()
+                .stream().collect(Collectors.toMap(ReleasePointBulkUploadDto::getId, Functions.identity()));
+        Map<Long, EmissionsUnitBulkUploadDto> euMap = uploadDto.getEmissionsUnits()
+                .stream().collect(Collectors.toMap(EmissionsUnitBulkUploadDto::getId, Functions.identity()));
+        Map<Long, EmissionsProcessBulkUploadDto> epMap = uploadDto.getEmissionsProcesses()
+                .stream().collect(Collectors.toMap(EmissionsProcessBulkUploadDto::getId, Functions.identity()));
+        Map<Long, ControlBulkUploadDto> controlMap = uploadDto.getControls()
+                .stream().collect(Collectors.toMap(ControlBulkUploadDto::getId, Functions.identity()));
+        Map<Long, ControlPathBulkUploadDto> pathMap = uploadDto.getControlPaths()
+                .stream().collect(Collectors.toMap(ControlPathBulkUploadDto::getId, Functions.identity()));
+        Map<Long, ReportingPeriodBulkUploadDto> periodMap = uploadDto.getReportingPeriods()
+                .stream().collect(Collectors.toMap(ReportingPeriodBulkUploadDto::getId, Functions.identity()));
+        Map<Long, EmissionBulkUploadDto> emissionMap = uploadDto.getEmissions()
+                .stream().collect(Collectors.toMap(EmissionBulkUploadDto::getId, Functions.identity()));
+
+        generateFacilityExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.FacilitySite.sheetName()), uploadDto.getFacilitySites());
+        generateFacilityContactExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.FacilitySiteContact.sheetName()), uploadDto.getFacilityContacts());
+        generateNAICSExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.FacilityNaics.sheetName()), uploadDto.getFacilityNAICS());
+        generateReleasePointsExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.ReleasePoint.sheetName()), uploadDto.getReleasePoints());
+        generateEmissionUnitExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.EmissionsUnit.sheetName()), uploadDto.getEmissionsUnits());
+        generateProcessesExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.EmissionsProcess.sheetName()), uploadDto.getEmissionsProcesses(), euMap);
+        generateControlsExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.Control.sheetName()), uploadDto.getControls());
+        generateControlPathsExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.ControlPath.sheetName()), uploadDto.getControlPaths());
+        generateControlAssignmentsExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.ControlAssignment.sheetName()), uploadDto.getControlAssignments(), controlMap, pathMap);
+        generateControlPollutantExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.ControlPollutant.sheetName()), uploadDto.getControlPollutants(), controlMap);
+        generateControlPathPollutantExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.ControlPathPollutant.sheetName()), uploadDto.getControlPathPollutants(), pathMap);
+        generateApportionmentExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.ReleasePointAppt.sheetName()), uploadDto.getReleasePointAppts(), rpMap, epMap, pathMap);
+        generateReportingPeriodExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.ReportingPeriod.sheetName()), uploadDto.getReportingPeriods(), epMap);
+        generateOperatingDetailExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.OperatingDetail.sheetName()), uploadDto.getOperatingDetails(), periodMap);
+        generateEmissionExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.Emission.sheetName()), uploadDto.getEmissions(), periodMap);
+        generateEmissionFormulaVariableExcelSheet(wb, lookupLabels, rows, wb.getSheet(WorksheetName.EmissionFormulaVariable.sheetName()), 
+                uploadDto.getEmissionFormulaVariables(), emissionMap);
     }
 
     /**
      * Map facility site into the facility site excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateFacilityExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, List<FacilitySiteBulkUploadDto> dtos) {
+    private void generateFacilityExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, List<FacilitySiteBulkUploadDto> dtos) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (FacilitySiteBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             row.getCell(2).setCellValue(dto.getAltSiteIdentifier());
             row.getCell(3).setCellValue(dto.getFacilityCategoryCode());
 //                row.getCell(4).setCellValue(dto.getFacilitySourceTypeCode());
             if (dto.getFacilitySourceTypeCode() != null) {
-                // find the display name using the code in an excel lookup similar to how the code is found for the dropdown
-                // generates a lookup formula then evaluates it to get the correct value using evaluateInCell so that the formula is removed afterwards
-                row.getCell(5).setCellFormula(generateLookupFormula(wb, "FacilitySourceTypeCode", dto.getFacilitySourceTypeCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(5));
+                // find the display name for the code in the same lookup sheet the dropdown uses
+                lookupLabels.setLabel(row.getCell(5), "FacilitySourceTypeCode", dto.getFacilitySourceTypeCode(), false);
             }
             row.getCell(6).setCellValue(dto.getName());
             row.getCell(7).setCellValue(dto.getDescription());
 //                row.getCell(8).setCellValue(dto.getOperatingStatusCode());
             if (dto.getOperatingStatusCode() != null) {
-                row.getCell(9).setCellFormula(generateLookupFormula(wb, "OperatingStatusCode", dto.getOperatingStatusCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(9));
+                lookupLabels.setLabel(row.getCell(9), "OperatingStatusCode", dto.getOperatingStatusCode(), true);
             }
             setCellNumberValue(row.getCell(10), dto.getStatusYear());
 //                row.getCell(11).setCellValue(dto.getProgramSystemCode());
             if (dto.getProgramSystemCode() != null) {
-                row.getCell(12).setCellFormula(generateLookupFormula(wb, "ProgramSystemCode", dto.getProgramSystemCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(12));
+                lookupLabels.setLabel(row.getCell(12), "ProgramSystemCode", dto.getProgramSystemCode(), true);
             }
             row.getCell(13).setCellValue(dto.getStreetAddress());
             row.getCell(14).setCellValue(dto.getCity());
@@ -359,8 +490,7 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             row.getCell(28).setCellValue(dto.getEisProgramId());
 //                row.getCell(29).setCellValue(dto.getTribalCode());
             if (dto.getTribalCode() != null) {
-                row.getCell(30).setCellFormula(generateLookupFormula(wb, "TribalCode", dto.getTribalCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(30));
+                lookupLabels.setLabel(row.getCell(30), "TribalCode", dto.getTribalCode(), false);
             }
 
             currentRow++;
@@ -371,20 +501,20 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map facility contacts into the facility contacts excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateFacilityContactExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, List<FacilitySiteContactBulkUploadDto> dtos) {
+    private void generateFacilityContactExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, List<FacilitySiteContactBulkUploadDto> dtos) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for(FacilitySiteContactBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getType() != null) {
-                row.getCell(4).setCellFormula(generateLookupFormula(wb, "ContactTypeCode", dto.getType(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(4));
+                lookupLabels.setLabel(row.getCell(4), "ContactTypeCode", dto.getType(), true);
             }
             row.getCell(5).setCellValue(dto.getPrefix());
             row.getCell(6).setCellValue(dto.getFirstName());
@@ -415,11 +545,12 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map NAICS into the NAICS excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateNAICSExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, List<FacilityNAICSBulkUploadDto> dtos) {
+    private void generateNAICSExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, List<FacilityNAICSBulkUploadDto> dtos) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
@@ -436,14 +567,13 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
         tfStyle.cloneStyleFrom(sheet.getColumnStyle(5));
 
         for (FacilityNAICSBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getCode() != null) {
                 row.getCell(3).setCellValue(dto.getCode());
 
                 row.getCell(4).setCellStyle(unlockedStyle);
-                row.getCell(4).setCellFormula(generateLookupFormula(wb, "NaicsCode", dto.getCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(4));
+                lookupLabels.setLabel(row.getCell(4), "NaicsCode", dto.getCode(), false);
             }
             row.getCell(5).setCellStyle(tfStyle);
             row.getCell(5).setCellValue("" + dto.getNaicsCodeType());
@@ -456,28 +586,27 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map release points into the release points excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateReleasePointsExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, List<ReleasePointBulkUploadDto> dtos) {
+    private void generateReleasePointsExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, List<ReleasePointBulkUploadDto> dtos) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ReleasePointBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             row.getCell(2).setCellValue(dto.getReleasePointIdentifier());
             if (dto.getTypeCode() != null) {
                 row.getCell(4).setCellValue(dto.getTypeCode());
-                row.getCell(5).setCellFormula(generateLookupFormula(wb, "ReleasePointTypeCode", dto.getTypeCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(5));
+                lookupLabels.setLabel(row.getCell(5), "ReleasePointTypeCode", dto.getTypeCode(), false);
             }
             row.getCell(6).setCellValue(dto.getDescription());
             if (dto.getOperatingStatusCode() != null) {
                 row.getCell(7).setCellValue(dto.getOperatingStatusCode());
-                row.getCell(8).setCellFormula(generateLookupFormula(wb, "OperatingStatusCode", dto.getOperatingStatusCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(8));
+                lookupLabels.setLabel(row.getCell(8), "OperatingStatusCode", dto.getOperatingStatusCode(), true);
             }
             setCellNumberValue(row.getCell(9), dto.getStatusYear());
             setCellNumberValue(row.getCell(10), dto.getLatitude());
@@ -519,26 +648,25 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map emissions units into the emissions units excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateEmissionUnitExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, List<EmissionsUnitBulkUploadDto> dtos) {
+    private void generateEmissionUnitExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, List<EmissionsUnitBulkUploadDto> dtos) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (EmissionsUnitBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             row.getCell(2).setCellValue(dto.getUnitIdentifier());
             row.getCell(4).setCellValue(dto.getDescription());
             if (dto.getTypeCode() != null) {
-                row.getCell(6).setCellFormula(generateLookupFormula(wb, "UnitTypeCode", dto.getTypeCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(6));
+                lookupLabels.setLabel(row.getCell(6), "UnitTypeCode", dto.getTypeCode(), false);
             }
             if (dto.getOperatingStatusCodeDescription() != null) {
-                row.getCell(8).setCellFormula(generateLookupFormula(wb, "OperatingStatusCode", dto.getOperatingStatusCodeDescription(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(8));
+                lookupLabels.setLabel(row.getCell(8), "OperatingStatusCode", dto.getOperatingStatusCodeDescription(), true);
             }
             setCellNumberValue(row.getCell(9), dto.getStatusYear());
             setCellNumberValue(row.getCell(10), dto.getDesignCapacity());
@@ -556,33 +684,32 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map emissions processes into the emissions processes excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateProcessesExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, 
+    private void generateProcessesExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, 
             List<EmissionsProcessBulkUploadDto> dtos, Map<Long, EmissionsUnitBulkUploadDto> euMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (EmissionsProcessBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             row.getCell(2).setCellValue(euMap.get(dto.getEmissionsUnitId()).getUnitIdentifier());
             row.getCell(3).setCellValue(dto.getEmissionsProcessIdentifier());
             row.getCell(6).setCellValue(dto.getDescription());
             if (dto.getOperatingStatusCode() != null) {
                 row.getCell(7).setCellValue(dto.getOperatingStatusCode());
-                row.getCell(8).setCellFormula(generateLookupFormula(wb, "OperatingStatusCode", dto.getOperatingStatusCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(8));
+                lookupLabels.setLabel(row.getCell(8), "OperatingStatusCode", dto.getOperatingStatusCode(), true);
             }
             setCellNumberValue(row.getCell(9), dto.getStatusYear());
             // using the double version of setCellValue since the spreadsheet expects this value to display as a number
             setCellNumberValue(row.getCell(11), dto.getSccCode());
             if (dto.getAircraftEngineTypeCode() != null) {
                 row.getCell(12).setCellValue(dto.getAircraftEngineTypeCode());
-                row.getCell(13).setCellFormula(generateLookupFormula(wb, "AircraftEngineTypeCode", dto.getAircraftEngineTypeCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(13));
+                lookupLabels.setLabel(row.getCell(13), "AircraftEngineTypeCode", dto.getAircraftEngineTypeCode(), true);
             }
             row.getCell(14).setCellValue(dto.getComments());
 
@@ -599,30 +726,29 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map controls into the controls excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateControlsExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, List<ControlBulkUploadDto> dtos) {
+    private void generateControlsExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, List<ControlBulkUploadDto> dtos) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ControlBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             row.getCell(2).setCellValue(dto.getIdentifier());
             row.getCell(4).setCellValue(dto.getDescription());
             setCellNumberValue(row.getCell(5), dto.getPercentControl());
             if (dto.getOperatingStatusCode() != null) {
                 row.getCell(6).setCellValue(dto.getOperatingStatusCode());
-                row.getCell(7).setCellFormula(generateLookupFormula(wb, "OperatingStatusCode", dto.getOperatingStatusCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(7));
+                lookupLabels.setLabel(row.getCell(7), "OperatingStatusCode", dto.getOperatingStatusCode(), true);
             }
             setCellNumberValue(row.getCell(8), dto.getStatusYear());
             if (dto.getControlMeasureCode() != null) {
                 row.getCell(9).setCellValue(dto.getControlMeasureCode());
-                row.getCell(10).setCellFormula(generateLookupFormula(wb, "ControlMeasureCode", dto.getControlMeasureCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(10));
+                lookupLabels.setLabel(row.getCell(10), "ControlMeasureCode", dto.getControlMeasureCode(), false);
             }
             setCellNumberValue(row.getCell(11), dto.getNumberOperatingMonths());
             row.getCell(12).setCellValue(dto.getStartDate());
@@ -642,16 +768,17 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map control paths into the control path excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateControlPathsExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet, List<ControlPathBulkUploadDto> dtos) {
+    private void generateControlPathsExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet, List<ControlPathBulkUploadDto> dtos) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ControlPathBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             row.getCell(2).setCellValue(dto.getPathId());
             row.getCell(3).setCellValue(dto.getDescription());
@@ -668,17 +795,18 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map control path pollutants into the control path pollutant excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateControlPathPollutantExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateControlPathPollutantExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<ControlPathPollutantBulkUploadDto> dtos, Map<Long, ControlPathBulkUploadDto> controlMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ControlPathPollutantBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getControlPathId() != null) {
                 row.getCell(2).setCellValue(controlMap.get(dto.getControlPathId()).getRow());
@@ -687,8 +815,7 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             if (dto.getPollutantCode() != null) {
                 row.getCell(4).setCellValue(dto.getPollutantCode());
                 // check if the code is a number or not when looking it up
-                row.getCell(5).setCellFormula(generateLookupFormula(wb, "Pollutant", dto.getPollutantCode(), !NumberUtils.isCreatable(dto.getPollutantCode())));
-                formulaEvaluator.evaluateInCell(row.getCell(5));
+                lookupLabels.setLabel(row.getCell(5), "Pollutant", dto.getPollutantCode(), !NumberUtils.isCreatable(dto.getPollutantCode()));
             }
             setCellNumberValue(row.getCell(6), dto.getPercentReduction());
 
@@ -701,18 +828,19 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map control assignments into the control assignments excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateControlAssignmentsExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateControlAssignmentsExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<ControlAssignmentBulkUploadDto> dtos, Map<Long, ControlBulkUploadDto> controlMap,
             Map<Long, ControlPathBulkUploadDto> pathMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ControlAssignmentBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getControlPathId() != null) {
                 row.getCell(2).setCellValue(pathMap.get(dto.getControlPathId()).getRow());
@@ -738,17 +866,18 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map control pollutants into the control pollutant excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateControlPollutantExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateControlPollutantExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<ControlPollutantBulkUploadDto> dtos, Map<Long, ControlBulkUploadDto> controlMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ControlPollutantBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getControlId() != null) {
                 row.getCell(2).setCellValue(controlMap.get(dto.getControlId()).getRow());
@@ -757,8 +886,7 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             if (dto.getPollutantCode() != null) {
                 row.getCell(4).setCellValue(dto.getPollutantCode());
                 // check if the code is a number or not when looking it up
-                row.getCell(5).setCellFormula(generateLookupFormula(wb, "Pollutant", dto.getPollutantCode(), !NumberUtils.isCreatable(dto.getPollutantCode())));
-                formulaEvaluator.evaluateInCell(row.getCell(5));
+                lookupLabels.setLabel(row.getCell(5), "Pollutant", dto.getPollutantCode(), !NumberUtils.isCreatable(dto.getPollutantCode()));
             }
             setCellNumberValue(row.getCell(6), dto.getPercentReduction());
 
@@ -771,18 +899,19 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map apportionments into the apportionment excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateApportionmentExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateApportionmentExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<ReleasePointApptBulkUploadDto> dtos, Map<Long, ReleasePointBulkUploadDto> rpMap,
             Map<Long, EmissionsProcessBulkUploadDto> epMap, Map<Long, ControlPathBulkUploadDto> pathMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ReleasePointApptBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getReleasePointId() != null) {
                 row.getCell(2).setCellValue(rpMap.get(dto.getReleasePointId()).getRow());
@@ -807,17 +936,18 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map reporting periods into the reporting period excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateReportingPeriodExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateReportingPeriodExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<ReportingPeriodBulkUploadDto> dtos, Map<Long, EmissionsProcessBulkUploadDto> epMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (ReportingPeriodBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getEmissionsProcessId() != null) {
                 row.getCell(1).setCellValue(epMap.get(dto.getEmissionsProcessId()).getRow());
@@ -825,32 +955,27 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             }
             if (dto.getReportingPeriodTypeCode() != null) {
                 row.getCell(5).setCellValue(dto.getReportingPeriodTypeCode());
-                row.getCell(6).setCellFormula(generateLookupFormula(wb, "ReportingPeriodTypeCode", dto.getReportingPeriodTypeCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(6));
+                lookupLabels.setLabel(row.getCell(6), "ReportingPeriodTypeCode", dto.getReportingPeriodTypeCode(), true);
             }
             if (dto.getEmissionsOperatingTypeCode() != null) {
                 row.getCell(7).setCellValue(dto.getEmissionsOperatingTypeCode());
-                row.getCell(8).setCellFormula(generateLookupFormula(wb, "EmissionsOperatingTypeCode", dto.getEmissionsOperatingTypeCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(8));
+                lookupLabels.setLabel(row.getCell(8), "EmissionsOperatingTypeCode", dto.getEmissionsOperatingTypeCode(), true);
             }
             if (dto.getCalculationParameterTypeCode() != null) {
                 row.getCell(9).setCellValue(dto.getCalculationParameterTypeCode());
-                row.getCell(10).setCellFormula(generateLookupFormula(wb, "CalculationParameterTypeCode", dto.getCalculationParameterTypeCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(10));
+                lookupLabels.setLabel(row.getCell(10), "CalculationParameterTypeCode", dto.getCalculationParameterTypeCode(), true);
             }
             row.getCell(11).setCellValue(dto.getCalculationParameterValue());
             row.getCell(12).setCellValue(dto.getCalculationParameterUom());
             if (dto.getCalculationMaterialCode() != null) {
                 row.getCell(13).setCellValue(dto.getCalculationMaterialCode());
-                row.getCell(14).setCellFormula(generateLookupFormula(wb, "CalculationMaterialCode", dto.getCalculationMaterialCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(14));
+                lookupLabels.setLabel(row.getCell(14), "CalculationMaterialCode", dto.getCalculationMaterialCode(), false);
             }
             row.getCell(15).setCellValue(dto.getFuelUseValue());
             row.getCell(16).setCellValue(dto.getFuelUseUom());
             if (dto.getFuelUseMaterialCode() != null) {
                 row.getCell(17).setCellValue(dto.getFuelUseMaterialCode());
-                row.getCell(18).setCellFormula(generateLookupFormula(wb, "CalculationMaterialCode", dto.getFuelUseMaterialCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(18));
+                lookupLabels.setLabel(row.getCell(18), "CalculationMaterialCode", dto.getFuelUseMaterialCode(), false);
             }
             row.getCell(19).setCellValue(dto.getHeatContentValue());
             row.getCell(20).setCellValue(dto.getHeatContentUom());
@@ -869,17 +994,18 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map operating details into the operating details excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateOperatingDetailExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateOperatingDetailExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<OperatingDetailBulkUploadDto> dtos, Map<Long, ReportingPeriodBulkUploadDto> periodMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (OperatingDetailBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getReportingPeriodId() != null) {
                 row.getCell(2).setCellValue(periodMap.get(dto.getReportingPeriodId()).getRow());
@@ -903,17 +1029,18 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map emissions into the emission excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateEmissionExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateEmissionExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<EmissionBulkUploadDto> dtos, Map<Long, ReportingPeriodBulkUploadDto> periodMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (EmissionBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getReportingPeriodId() != null) {
                 row.getCell(1).setCellValue(periodMap.get(dto.getReportingPeriodId()).getRow());
@@ -922,8 +1049,7 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             if (dto.getPollutantCode() != null) {
                 row.getCell(3).setCellValue(dto.getPollutantCode());
                 // check if the code is a number or not when looking it up
-                row.getCell(4).setCellFormula(generateLookupFormula(wb, "Pollutant", dto.getPollutantCode(), !NumberUtils.isCreatable(dto.getPollutantCode())));
-                formulaEvaluator.evaluateInCell(row.getCell(4));
+                lookupLabels.setLabel(row.getCell(4), "Pollutant", dto.getPollutantCode(), !NumberUtils.isCreatable(dto.getPollutantCode()));
             }
             row.getCell(5).setCellValue("" + dto.isTotalManualEntry());
             setCellNumberValue(row.getCell(6), dto.getTotalEmissions());
@@ -938,8 +1064,7 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             row.getCell(13).setCellValue(dto.getEmissionsFactorFormula());
             if (dto.getEmissionsCalcMethodCode() != null) {
                 row.getCell(14).setCellValue(dto.getEmissionsCalcMethodCode());
-                row.getCell(15).setCellFormula(generateLookupFormula(wb, "CalculationMethodCode", dto.getEmissionsCalcMethodCode(), false));
-                formulaEvaluator.evaluateInCell(row.getCell(15));
+                lookupLabels.setLabel(row.getCell(15), "CalculationMethodCode", dto.getEmissionsCalcMethodCode(), false);
             }
             row.getCell(16).setCellValue(dto.getEmissionsNumeratorUom());
             row.getCell(17).setCellValue(dto.getEmissionsDenominatorUom());
@@ -959,17 +1084,18 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
     /**
      * Map emission formula variables into the emission formula variable excel sheet
      * @param wb
-     * @param formulaEvaluator
+     * @param lookupLabels
+     * @param rows
      * @param sheet
      * @param dtos
      */
-    private void generateEmissionFormulaVariableExcelSheet(Workbook wb, FormulaEvaluator formulaEvaluator, Sheet sheet,
+    private void generateEmissionFormulaVariableExcelSheet(Workbook wb, WorkbookLookupLabels lookupLabels, RowSource rows, Sheet sheet,
             List<EmissionFormulaVariableBulkUploadDto> dtos, Map<Long, EmissionBulkUploadDto> emissionMap) {
 
         int currentRow = EXCEL_MAPPING_HEADER_ROWS;
 
         for (EmissionFormulaVariableBulkUploadDto dto : dtos) {
-            Row row = sheet.getRow(currentRow);
+            Row row = rows.row(sheet, currentRow);
 
             if (dto.getEmissionId() != null) {
                 row.getCell(2).setCellValue(emissionMap.get(dto.getEmissionId()).getRow());
@@ -977,8 +1103,7 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
             }
             if (dto.getEmissionFormulaVariableCode() != null) {
                 row.getCell(5).setCellValue(dto.getEmissionFormulaVariableCode());
-                row.getCell(6).setCellFormula(generateLookupFormula(wb, "EmissionFormulaVariable", dto.getEmissionFormulaVariableCode(), true));
-                formulaEvaluator.evaluateInCell(row.getCell(6));
+                lookupLabels.setLabel(row.getCell(6), "EmissionFormulaVariable", dto.getEmissionFormulaVariableCode(), true);
             }
             setCellNumberValue(row.getCell(7), dto.getValue());
 
@@ -1000,35 +1125,74 @@ public class EmissionsReportExportServiceImpl implements EmissionsReportExportSe
         }
     }
 
+    private Double toDouble(String strval) {
+
+        return Strings.isNullOrEmpty(strval) ? null : Double.parseDouble(strval);
+    }
+
     /**
-     * Generate a basic reverse lookup formula for creating excel exports.
-     * The formula will find the dropdown value for a code in a basic lookup sheet in excel
-     * @param workbook
-     * @param sheetName
-     * @param value the code to lookup
-     * @param text if the code is text or number in excel
-     * @return
+     * Where the data rows of a sheet come from, rows are asked for in order from the first data row down
      */
-    private String generateLookupFormula(Workbook workbook, String sheetName, String value, boolean text) {
-
-        int rowCount = workbook.getSheet(sheetName).getLastRowNum() + 1;
-        String result;
-        // if the code is a number in excel we need to make sure it's a number here too so it will match
-        if (text) {
-            String query = String.format(EXCEL_GENERIC_LOOKUP_TEXT, sheetName, rowCount, value, sheetName, rowCount);
-            // leave field blank if invalid value
-            result = String.format("IF(ISNA(%s), \"\", %s)", query, query);
-        } else {
-            String query = String.format(EXCEL_GENERIC_LOOKUP_NUMBER, sheetName, rowCount, value, sheetName, rowCount);
-            // leave field blank if invalid value
-            result = String.format("IF(ISNA(%s), \"\", %s)", query, query);
-        }
-//        logger.info(result);
-        return result;
+    @FunctionalInterface
+    private interface RowSource {
+
+        Row row(Sheet sheet, int rowNum);
     }
 
-    private Double toDouble(String strval) {
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "excel-export")
+    public static class ExcelExportConfig {
 
-        return Strings.isNullOrEmpty(strval) ? null : Double.parseDouble(strval);
+        @Min(1)
+        private int maxConcurrent = 2;
+
+        @Min(1)
+        private long queueTimeoutSeconds = 120;
+
+        private boolean streaming = false;
+
+        @Min(1)
+        private int rowWindow = 100;
+
+        public int getMaxConcurrent() {
+
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public long getQueueTimeoutSeconds() {
+
+            return queueTimeoutSeconds;
+        }
+
+        public void setQueueTimeoutSeconds(long queueTimeoutSeconds) {
+
+            this.queueTimeoutSeconds = queueTimeoutSeconds;
+        }
+
+        public boolean isStreaming() {
+
+            return streaming;
+        }
+
+        public void setStreaming(boolean streaming) {
+
+            this.streaming = streaming;
+        }
+
+        public int getRowWindow() {
+
+            return rowWindow;
+        }
+
+        public void setRowWindow(int rowWindow) {
+
+            this.rowWindow = rowWindow;
+        }
     }
 }
@@ -50,6 +50,9 @@ public class EmissionsReportStatusServiceImpl implements EmissionsReportStatusSe
     @Autowired
     private RepoLocator repoLocator;
 
+    @Autowired
+    private CersXmlArtifactCache cersXmlArtifactCache;
+
 
     /**
      * Begin Advanced QA for the specified reports, move from Submitted to Advanced QA
@@ -148,6 +151,10 @@ public class EmissionsReportStatusServiceImpl implements EmissionsReportStatusSe
                     if (eisStatus != null) {
                         report.setEisLastSubmissionStatus(eisStatus);
                     }
+                    if (ReportStatus.IN_PROGRESS.equals(report.getStatus()) || ReportStatus.RETURNED.equals(report.getStatus())) {
+                        // the report can be edited again so its rendered CERS documents are stale
+                        this.cersXmlArtifactCache.evict(report.getId());
+                    }
                     return this.emissionsReportMapper.toDto(this.erRepo.save(report));
                 }
                 return this.emissionsReportMapper.toDto(report);
@@ -29,10 +29,13 @@ import gov.epa.cef.web.service.mapper.BulkUploadMapper;
 import gov.epa.cef.web.service.mapper.EmissionsUnitMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmissionsUnitServiceImpl implements EmissionsUnitService {
@@ -52,6 +55,9 @@ public class EmissionsUnitServiceImpl implements EmissionsUnitService {
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
 
+    @Autowired
+    private ExportQueryStreams exportStreams;
+
     /**
      * Retrieve Emissions Unit by its id
      * @param unitId
@@ -180,14 +186,16 @@ public class EmissionsUnitServiceImpl implements EmissionsUnitService {
 
 
     /**
-     * Retrieve a list of emissions units for the given program system code and emissions report year
+     * Stream the emissions units for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<EmissionsUnitBulkUploadDto> retrieveEmissionsUnits(String programSystemCode, Short emissionsReportYear) {
-    	List<EmissionsUnit> units = unitRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.emissionsUnitToDtoList(units);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamEmissionsUnits(String programSystemCode, Short emissionsReportYear, Consumer<Stream<EmissionsUnitBulkUploadDto>> consumer) {
+    	try (Stream<EmissionsUnit> emissionsUnits = unitRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(emissionsUnits, bulkUploadMapper::emissionsUnitToDto));
+    	}
     }
 
 }
@@ -0,0 +1,307 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaShifter;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.OperandPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.model.CalculationChain;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCalcCell;
+
+/**
+ * Copy of the excel template with the blank data rows removed from the data sheets, for writing an export
+ * with a streaming workbook which can only append rows after the last row of each sheet. Everything else
+ * in the template is kept as is, including the lookup sheets, data validation and column styles.
+ *
+ * The first data row of each data sheet is kept as a prototype, new rows get its cell styles and formulas
+ * with the relative references moved to the new row. The sheets are padded back out to the length of the
+ * original template with prototype rows so the export can be filled in further like the template.
+ */
+class ExcelExportTemplate {
+
+    private final byte[] template;
+
+    private final Map<String, SheetPrototype> prototypes;
+
+    private ExcelExportTemplate(byte[] template, Map<String, SheetPrototype> prototypes) {
+
+        this.template = template;
+        this.prototypes = prototypes;
+    }
+
+    /**
+     * Read the template and remove the rows from the first data row on from each of the data sheets
+     * @param templateStream
+     * @param firstDataRow
+     * @param dataSheetNames
+     * @return
+     * @throws IOException
+     */
+    static ExcelExportTemplate load(InputStream templateStream, int firstDataRow, Collection<String> dataSheetNames)
+        throws IOException {
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(templateStream);
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+
+            XSSFEvaluationWorkbook evaluationWorkbook = XSSFEvaluationWorkbook.create(wb);
+
+            removeCalculations(wb, firstDataRow, dataSheetNames);
+
+            Map<String, SheetPrototype> prototypes = new HashMap<>();
+            for (String sheetName : dataSheetNames) {
+
+                XSSFSheet sheet = wb.getSheet(sheetName);
+                if (sheet == null) {
+                    throw new IllegalStateException(String.format("Data sheet %s is not in the template.", sheetName));
+                }
+
+                prototypes.put(sheetName,
+                    new SheetPrototype(evaluationWorkbook, sheet, firstDataRow, sheet.getLastRowNum()));
+
+                List<Row> dataRows = new ArrayList<>();
+                for (Row row : sheet) {
+                    if (row.getRowNum() >= firstDataRow) {
+                        dataRows.add(row);
+                    }
+                }
+                for (Row row : dataRows) {
+                    sheet.removeRow(row);
+                }
+            }
+
+            wb.write(out);
+
+            return new ExcelExportTemplate(out.toByteArray(), Collections.unmodifiableMap(prototypes));
+        }
+    }
+
+    /**
+     * Open a new workbook from the trimmed template
+     */
+    XSSFWorkbook openWorkbook() throws IOException {
+
+        return new XSSFWorkbook(new ByteArrayInputStream(this.template));
+    }
+
+    /**
+     * Rows for writing the data sheets of a workbook opened from this template, either directly or
+     * through a streaming workbook wrapped around it
+     * @param workbook the workbook returned by openWorkbook
+     */
+    StreamingRows rows(XSSFWorkbook workbook) {
+
+        return new StreamingRows(XSSFEvaluationWorkbook.create(workbook));
+    }
+
+    /**
+     * Remove the data rows from the calculation chain up front, otherwise every formula removed with a data
+     * row searches the entire chain. Entries only name their sheet when it changes, so the sheet is set on
+     * every entry which is kept.
+     */
+    private static void removeCalculations(XSSFWorkbook wb, int firstDataRow, Collection<String> dataSheetNames) {
+
+        CalculationChain chain = wb.getCalculationChain();
+        if (chain == null) {
+            return;
+        }
+
+        Set<Long> dataSheetIds = new HashSet<>();
+        for (String sheetName : dataSheetNames) {
+            dataSheetIds.add(wb.getCTWorkbook().getSheets().getSheetArray(wb.getSheetIndex(sheetName)).getSheetId());
+        }
+
+        List<CTCalcCell> kept = new ArrayList<>();
+        int sheetId = 0;
+        for (CTCalcCell cell : chain.getCTCalcChain().getCArray()) {
+
+            if (cell.isSetI()) {
+                sheetId = cell.getI();
+            }
+
+            int rowNum = Integer.parseInt(cell.getR().replaceAll("^[A-Z]+", "")) - 1;
+            if (rowNum < firstDataRow || !dataSheetIds.contains((long) sheetId)) {
+
+                CTCalcCell copy = (CTCalcCell) cell.copy();
+                copy.setI(sheetId);
+                kept.add(copy);
+            }
+        }
+
+        chain.getCTCalcChain().setCArray(kept.toArray(new CTCalcCell[0]));
+    }
+
+    /**
+     * Creates the rows of the data sheets from their prototypes and remembers the next row of each sheet
+     */
+    class StreamingRows {
+
+        private final XSSFEvaluationWorkbook evaluationWorkbook;
+
+        private final Map<String, Integer> nextRows = new HashMap<>();
+
+        private StreamingRows(XSSFEvaluationWorkbook evaluationWorkbook) {
+
+            this.evaluationWorkbook = evaluationWorkbook;
+        }
+
+        /**
+         * Create a data row, rows must be created in order within each sheet
+         * @param sheet
+         * @param rowNum
+         * @return
+         */
+        Row row(Sheet sheet, int rowNum) {
+
+            SheetPrototype prototype = prototype(sheet);
+
+            Row row = prototype.createRow(this.evaluationWorkbook, sheet, rowNum);
+
+            this.nextRows.put(sheet.getSheetName(), rowNum + 1);
+
+            return row;
+        }
+
+        /**
+         * Pad a data sheet with blank prototype rows up to the last row of the original template
+         * @param sheet
+         */
+        void finish(Sheet sheet) {
+
+            SheetPrototype prototype = prototype(sheet);
+
+            int rowNum = this.nextRows.getOrDefault(sheet.getSheetName(), prototype.firstRow);
+            for (; rowNum <= prototype.lastRow; rowNum++) {
+                prototype.createRow(this.evaluationWorkbook, sheet, rowNum);
+            }
+
+            this.nextRows.put(sheet.getSheetName(), rowNum);
+        }
+
+        private SheetPrototype prototype(Sheet sheet) {
+
+            SheetPrototype result = ExcelExportTemplate.this.prototypes.get(sheet.getSheetName());
+            if (result == null) {
+                throw new IllegalStateException(String.format("%s is not a data sheet.", sheet.getSheetName()));
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Cell styles and parsed formulas of the first data row of a sheet
+     */
+    private static class SheetPrototype {
+
+        private final int sheetIndex;
+
+        private final String sheetName;
+
+        private final int firstRow;
+
+        private final int lastRow;
+
+        private final Map<Integer, Short> styles = new TreeMap<>();
+
+        private final Map<Integer, Ptg[]> formulas = new HashMap<>();
+
+        SheetPrototype(XSSFEvaluationWorkbook evaluationWorkbook, XSSFSheet sheet, int firstRow, int lastRow) {
+
+            this.sheetIndex = sheet.getWorkbook().getSheetIndex(sheet);
+            this.sheetName = sheet.getSheetName();
+            this.firstRow = firstRow;
+            this.lastRow = Math.max(lastRow, firstRow - 1);
+
+            Row row = sheet.getRow(firstRow);
+            if (row == null) {
+                return;
+            }
+
+            for (Cell cell : row) {
+
+                this.styles.put(cell.getColumnIndex(), cell.getCellStyle().getIndex());
+
+                if (cell.getCellType() == CellType.FORMULA) {
+                    this.formulas.put(cell.getColumnIndex(), FormulaParser.parse(cell.getCellFormula(),
+                        evaluationWorkbook, FormulaType.CELL, this.sheetIndex, firstRow));
+                }
+            }
+        }
+
+        Row createRow(XSSFEvaluationWorkbook evaluationWorkbook, Sheet sheet, int rowNum) {
+
+            Row row = sheet.createRow(rowNum);
+
+            FormulaShifter shifter = FormulaShifter.createForRowCopy(this.sheetIndex, this.sheetName,
+                this.firstRow, this.firstRow, rowNum - this.firstRow, SpreadsheetVersion.EXCEL2007);
+
+            for (Map.Entry<Integer, Short> style : this.styles.entrySet()) {
+
+                Cell cell = row.createCell(style.getKey());
+                cell.setCellStyle(sheet.getWorkbook().getCellStyleAt(style.getValue()));
+
+                Ptg[] formula = this.formulas.get(style.getKey());
+                if (formula != null) {
+
+                    Ptg[] ptgs = copy(formula);
+                    shifter.adjustFormula(ptgs, this.sheetIndex);
+                    cell.setCellFormula(FormulaRenderer.toFormulaString(evaluationWorkbook, ptgs));
+                }
+            }
+
+            return row;
+        }
+
+        /**
+         * Operand tokens are changed in place when a formula is moved, so each row gets its own copy
+         */
+        private static Ptg[] copy(Ptg[] ptgs) {
+
+            Ptg[] result = new Ptg[ptgs.length];
+            for (int i = 0; i < ptgs.length; i++) {
+                result[i] = ptgs[i] instanceof OperandPtg ? ((OperandPtg) ptgs[i]).copy() : ptgs[i];
+            }
+
+            return result;
+        }
+    }
+}
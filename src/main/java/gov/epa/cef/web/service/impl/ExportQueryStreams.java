@@ -0,0 +1,65 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the entities of a streaming repository query for an export one row at a time. The persistence context
+ * is cleared after every batch of rows so the entities behind rows which were already written can be
+ * collected, which keeps a program system wide export from holding the whole year in memory.
+ */
+@Component
+class ExportQueryStreams {
+
+    /**
+     * Matches the fetch size of the streaming queries
+     */
+    static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Map a stream of entities, must be consumed inside the transaction that opened the stream
+     * @param entities
+     * @param mapper
+     * @return
+     */
+    <E, D> Stream<D> map(Stream<E> entities, Function<E, D> mapper) {
+
+        AtomicInteger count = new AtomicInteger();
+
+        return entities.map(entity -> {
+
+            D result = mapper.apply(entity);
+
+            if (count.incrementAndGet() % BATCH_SIZE == 0) {
+                this.entityManager.clear();
+            }
+
+            return result;
+        });
+    }
+}
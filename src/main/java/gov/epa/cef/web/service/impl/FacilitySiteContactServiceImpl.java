@@ -18,9 +18,12 @@ package gov.epa.cef.web.service.impl;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import gov.epa.cef.web.domain.ContactTypeCode;
 import gov.epa.cef.web.domain.FacilitySiteContact;
@@ -48,6 +51,9 @@ public class FacilitySiteContactServiceImpl implements FacilitySiteContactServic
     
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
+
+    @Autowired
+    private ExportQueryStreams exportStreams;
     
     private static final String EMISSIONS_INVENTORY_CONTACT_TYPE_CODE = "EI";
     
@@ -105,14 +111,16 @@ public class FacilitySiteContactServiceImpl implements FacilitySiteContactServic
 
 
     /**
-     * Retrieve a list of facility site contacts for the given program system code and emissions report year
+     * Stream the facility site contacts for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */  
-    public List<FacilitySiteContactBulkUploadDto> retrieveFacilitySiteContacts(String programSystemCode, Short emissionsReportYear) {
-    	List<FacilitySiteContact> facilitySiteContact = contactRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.facilitySiteContactToDtoList(facilitySiteContact);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamFacilitySiteContacts(String programSystemCode, Short emissionsReportYear, Consumer<Stream<FacilitySiteContactBulkUploadDto>> consumer) {
+    	try (Stream<FacilitySiteContact> facilitySiteContacts = contactRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(facilitySiteContacts, bulkUploadMapper::facilitySiteContactToDto));
+    	}
     }
 
 
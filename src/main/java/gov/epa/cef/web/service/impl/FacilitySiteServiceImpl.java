@@ -40,6 +40,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(propagation = Propagation.REQUIRED)
@@ -59,6 +61,8 @@ public class FacilitySiteServiceImpl implements FacilitySiteService {
     
     private BulkUploadMapper bulkUploadMapper;
 
+    private final ExportQueryStreams exportStreams;
+
     @Autowired
     FacilitySiteServiceImpl(FacilitySiteRepository facSiteRepo,
                             FacilitySiteMapper facilitySiteMapper,
@@ -66,7 +70,8 @@ public class FacilitySiteServiceImpl implements FacilitySiteService {
                             NaicsCodeRepository naicsCodeRepo,
                             FacilityNAICSMapper facilityNaicsMapper,
                             EmissionsReportStatusServiceImpl reportStatusService,
-                            BulkUploadMapper bulkUploadMapper) {
+                            BulkUploadMapper bulkUploadMapper,
+                            ExportQueryStreams exportStreams) {
 
         this.facSiteRepo = facSiteRepo;
         this.facilitySiteMapper = facilitySiteMapper;
@@ -75,6 +80,7 @@ public class FacilitySiteServiceImpl implements FacilitySiteService {
         this.facilityNaicsMapper = facilityNaicsMapper;
         this.reportStatusService = reportStatusService;
         this.bulkUploadMapper = bulkUploadMapper;
+        this.exportStreams = exportStreams;
     }
 
     @Override
@@ -219,25 +225,29 @@ public class FacilitySiteServiceImpl implements FacilitySiteService {
 
 
     /**
-     * Retrieve a list of facilities for the given program system code and emissions report year
+     * Stream the facilities for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<FacilitySiteBulkUploadDto> retrieveFacilities(String programSystemCode, Short emissionsReportYear) {
-    	List<FacilitySite> facilities = facSiteRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.facilitySiteToDtoList(facilities);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamFacilities(String programSystemCode, Short emissionsReportYear, Consumer<Stream<FacilitySiteBulkUploadDto>> consumer) {
+    	try (Stream<FacilitySite> facilities = facSiteRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(facilities, bulkUploadMapper::facilitySiteToDto));
+    	}
     }
 
 
     /**
-     * Retrieve a list of facility NAICS codes for the given program system code and emissions report year
+     * Stream the facility NAICS codes for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<FacilityNAICSBulkUploadDto> retrieveFacilityNaics(String programSystemCode, Short emissionsReportYear) {
-    	List<FacilityNAICSXref> naics = facilityNaicsXrefRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.faciliytNAICSToDtoList(naics);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamFacilityNaics(String programSystemCode, Short emissionsReportYear, Consumer<Stream<FacilityNAICSBulkUploadDto>> consumer) {
+    	try (Stream<FacilityNAICSXref> facilityNaics = facilityNaicsXrefRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(facilityNaics, bulkUploadMapper::faciliytNAICSToDto));
+    	}
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import net.exchangenetwork.schema.header._2.ExchangeNetworkDocumentType;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JAXB contexts for the CERS and Exchange Network document types, created once since building a context
+ * introspects the whole generated schema model. Marshallers and document builders aren't thread-safe so
+ * each thread gets its own, they must not be handed to another thread.
+ */
+@Component
+class JaxbMarshallers {
+
+    private final Map<Class<?>, ThreadLocal<Marshaller>> marshallers;
+
+    private final Map<Class<?>, ThreadLocal<Marshaller>> fragmentMarshallers;
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+
+    private final ThreadLocal<DocumentBuilder> documentBuilders;
+
+    private final XMLOutputFactory outputFactory;
+
+    JaxbMarshallers() {
+
+        Map<Class<?>, ThreadLocal<Marshaller>> formatted = new HashMap<>();
+        Map<Class<?>, ThreadLocal<Marshaller>> fragments = new HashMap<>();
+        for (Class<?> rootType : Arrays.asList(net.exchangenetwork.schema.cer._1._2.CERSDataType.class,
+                                               net.exchangenetwork.schema.cer._2._0.CERSDataType.class,
+                                               ExchangeNetworkDocumentType.class)) {
+
+            JAXBContext jaxbContext = createContext(rootType);
+            formatted.put(rootType, ThreadLocal.withInitial(() -> createMarshaller(jaxbContext, Marshaller.JAXB_FORMATTED_OUTPUT)));
+            fragments.put(rootType, ThreadLocal.withInitial(() -> createMarshaller(jaxbContext, Marshaller.JAXB_FRAGMENT)));
+        }
+
+        this.marshallers = Collections.unmodifiableMap(formatted);
+        this.fragmentMarshallers = Collections.unmodifiableMap(fragments);
+
+        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        try {
+            this.documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        this.documentBuilderFactory.setNamespaceAware(true);
+
+        this.documentBuilders = ThreadLocal.withInitial(this::createDocumentBuilder);
+
+        this.outputFactory = XMLOutputFactory.newInstance();
+    }
+
+    /**
+     * Retrieve the current thread's formatted output marshaller for the given root type
+     */
+    Marshaller marshaller(Class<?> rootType) {
+
+        return lookup(this.marshallers, rootType).get();
+    }
+
+    /**
+     * Retrieve the current thread's marshaller for writing elements of the given root type's context
+     * into a document that is already open, no XML declaration is written
+     */
+    Marshaller fragmentMarshaller(Class<?> rootType) {
+
+        return lookup(this.fragmentMarshallers, rootType).get();
+    }
+
+    /**
+     * Create a UTF-8 stream writer over the output stream, closing the writer does not close the output stream
+     */
+    XMLStreamWriter createStreamWriter(OutputStream outputStream) throws XMLStreamException {
+
+        return this.outputFactory.createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Create an empty namespace aware document to marshal into
+     */
+    Document newDocument() {
+
+        return this.documentBuilders.get().newDocument();
+    }
+
+    private static JAXBContext createContext(Class<?> rootType) {
+
+        try {
+            return JAXBContext.newInstance(rootType);
+        } catch (JAXBException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Marshaller createMarshaller(JAXBContext jaxbContext, String booleanProperty) {
+
+        try {
+            Marshaller result = jaxbContext.createMarshaller();
+            result.setProperty(booleanProperty, Boolean.TRUE);
+            return result;
+        } catch (JAXBException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreadLocal<Marshaller> lookup(Map<Class<?>, ThreadLocal<Marshaller>> marshallers, Class<?> rootType) {
+
+        ThreadLocal<Marshaller> result = marshallers.get(rootType);
+        if (result == null) {
+            throw new IllegalArgumentException(String.format("No JAXB context for %s.", rootType.getName()));
+        }
+
+        return result;
+    }
+
+    private DocumentBuilder createDocumentBuilder() {
+
+        // the factory itself isn't thread-safe
+        synchronized (this.documentBuilderFactory) {
+            try {
+                return this.documentBuilderFactory.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
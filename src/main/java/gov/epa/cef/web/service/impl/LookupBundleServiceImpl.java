@@ -0,0 +1,211 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import gov.epa.cef.web.config.CacheInvalidation;
+import gov.epa.cef.web.config.CacheName;
+import gov.epa.cef.web.exception.AppValidationException;
+import gov.epa.cef.web.service.LookupBundleService;
+import gov.epa.cef.web.service.LookupService;
+import gov.epa.cef.web.service.dto.LookupBundleDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Year;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class LookupBundleServiceImpl implements LookupBundleService {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final LookupService lookupService;
+
+    private final ObjectMapper objectMapper;
+
+    private final LookupBundleConfig config;
+
+    // bundles are keyed by generation so one still being built when the reference data changes is never served
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Cache<String, LookupBundleDto> bundles;
+
+    private final ITopic<CacheInvalidation> topic;
+
+    @Autowired
+    LookupBundleServiceImpl(LookupService lookupService,
+                            ObjectMapper objectMapper,
+                            HazelcastInstance hazelcastInstance,
+                            LookupBundleConfig config) {
+
+        this.lookupService = lookupService;
+        this.objectMapper = objectMapper;
+        this.config = config;
+
+        this.bundles = CacheBuilder.newBuilder().maximumSize(config.getMaxYears()).build();
+
+        this.topic = hazelcastInstance.getTopic(CacheInvalidation.Topic);
+        this.topic.addMessageListener(this::onInvalidation);
+    }
+
+    @Override
+    public LookupBundleDto retrieveLookupBundle(int year) {
+
+        // only as many years as the cache holds, so an arbitrary year can't push out the ones in use
+        int lastYear = Year.now().getValue();
+        int firstYear = lastYear - this.config.getMaxYears() + 1;
+        if (year < firstYear || year > lastYear) {
+            throw new AppValidationException(
+                String.format("Lookup bundles are only available for the years %d to %d.", firstYear, lastYear));
+        }
+
+        String key = this.generation.get() + ":" + year;
+        try {
+
+            return this.bundles.get(key, () -> build(year));
+
+        } catch (ExecutionException | UncheckedExecutionException e) {
+
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void invalidate() {
+
+        invalidateLocal();
+
+        // the bundles are built on each node, let the others know to drop theirs
+        this.topic.publish(new CacheInvalidation(CacheName.LookupBundles, null));
+    }
+
+    private void invalidateLocal() {
+
+        this.generation.incrementAndGet();
+        this.bundles.invalidateAll();
+    }
+
+    private void onInvalidation(Message<CacheInvalidation> message) {
+
+        boolean local = message.getPublishingMember() != null && message.getPublishingMember().localMember();
+        if (!local && CacheName.LookupBundles.equals(message.getMessageObject().getCacheName())) {
+
+            logger.debug("Invalidating the lookup bundles built on this node");
+            invalidateLocal();
+        }
+    }
+
+    private LookupBundleDto build(int year) throws IOException {
+
+        long start = System.nanoTime();
+
+        // keys match the LookupApi endpoints the tables are otherwise loaded from
+        Map<String, Object> tables = new LinkedHashMap<>();
+        tables.put("calculationMaterial", this.lookupService.retrieveCalcMaterialCodes());
+        tables.put("fuelUseMaterial", this.lookupService.retrieveFuelUseMaterialCodes());
+        tables.put("calculationMethod", this.lookupService.retrieveCalcMethodCodes());
+        tables.put("calculationParameter", this.lookupService.retrieveCalcParamTypeCodes());
+        tables.put("subFacilityOperatingStatus", this.lookupService.retrieveSubFacilityOperatingStatusCodes());
+        tables.put("facilityOperatingStatus", this.lookupService.retrieveFacilityOperatingStatusCodes());
+        tables.put("emissionsOperatingType", this.lookupService.retrieveEmissionOperatingTypeCodes());
+        tables.put("pollutant", this.lookupService.retrieveCurrentPollutants(year));
+        tables.put("reportingPeriod", this.lookupService.retrieveReportingPeriodCodes());
+        tables.put("unitType", this.lookupService.retrieveUnitTypeCodes());
+        tables.put("fuelUseUom", this.lookupService.retrieveFuelUseUnitMeasureCodes());
+        tables.put("uom", this.lookupService.retrieveCurrentUnitMeasureCodes());
+        tables.put("contactType", this.lookupService.retrieveContactTypeCodes());
+        tables.put("county", this.lookupService.retrieveCurrentCounties(year));
+        tables.put("stateCode", this.lookupService.retrieveStateCodes());
+        tables.put("releaseType", this.lookupService.retrieveReleasePointTypeCodes());
+        tables.put("releasePointType", this.lookupService.retrieveCurrentReleasePointTypeCodes(year));
+        tables.put("programSystemType", this.lookupService.retrieveProgramSystemTypeCodes());
+        tables.put("controlMeasure", this.lookupService.retrieveCurrentControlMeasureCodes(year));
+        tables.put("tribalCode", this.lookupService.retrieveTribalCodes());
+        tables.put("naicsCode", this.lookupService.retrieveCurrentNaicsCodes(year));
+        tables.put("facilityCategory", this.lookupService.retrieveFacilityCategoryCodes());
+        tables.put("facilitySourceType", this.lookupService.retrieveCurrentFacilitySourceTypeCodes(year));
+
+        byte[] json = this.objectMapper.writeValueAsBytes(tables);
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzipped)) {
+            gzipStream.write(json);
+        }
+
+        String eTag = Hashing.sha256().hashBytes(json).toString();
+
+        logger.info("Built lookup bundle for {} in {} ms, {} bytes gzipped to {}.", year,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), json.length, gzipped.size());
+
+        return new LookupBundleDto(year, eTag, gzipped.toByteArray());
+    }
+
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "lookup-bundle")
+    public static class LookupBundleConfig {
+
+        @Min(1)
+        private int maxYears = 5;
+
+        @Min(0)
+        private long maxAgeSeconds = 86400;
+
+        public int getMaxYears() {
+
+            return maxYears;
+        }
+
+        public void setMaxYears(int maxYears) {
+
+            this.maxYears = maxYears;
+        }
+
+        public long getMaxAgeSeconds() {
+
+            return maxAgeSeconds;
+        }
+
+        public void setMaxAgeSeconds(long maxAgeSeconds) {
+
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable word prefix index over a reference table. Every word in the code and descriptions of a row is
+ * indexed, a search matches the rows where each word of the search term is the start of one of the row's
+ * words. Results keep the order the rows were added in.
+ */
+class LookupSearchIndex<T> {
+
+    private static final Pattern WordSeparator = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final List<T> values;
+
+    // null when the row has no last inventory year
+    private final Integer[] lastInventoryYears;
+
+    // sorted so the words starting with a prefix are a contiguous range
+    private final String[] words;
+
+    // rows containing each word, in row order
+    private final int[][] postings;
+
+    private LookupSearchIndex(List<T> values, Integer[] lastInventoryYears, String[] words, int[][] postings) {
+
+        this.values = values;
+        this.lastInventoryYears = lastInventoryYears;
+        this.words = words;
+        this.postings = postings;
+    }
+
+    static <T> Builder<T> builder() {
+
+        return new Builder<>();
+    }
+
+    /**
+     * Find the rows matching every word of the search term that are still current for the year,
+     * returns at most limit rows
+     */
+    List<T> search(String term, int year, int limit) {
+
+        Set<String> prefixes = words(term);
+        if (prefixes.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+
+        BitSet matches = null;
+        for (String prefix : prefixes) {
+
+            BitSet rows = rowsStartingWith(prefix);
+            if (matches == null) {
+                matches = rows;
+            } else {
+                matches.and(rows);
+            }
+
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<T> result = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        for (int row = matches.nextSetBit(0); row >= 0 && result.size() < limit; row = matches.nextSetBit(row + 1)) {
+
+            Integer lastInventoryYear = this.lastInventoryYears[row];
+            if (lastInventoryYear == null || lastInventoryYear >= year) {
+                result.add(this.values.get(row));
+            }
+        }
+
+        return result;
+    }
+
+    int size() {
+
+        return this.values.size();
+    }
+
+    private BitSet rowsStartingWith(String prefix) {
+
+        BitSet result = new BitSet(this.values.size());
+
+        int index = Arrays.binarySearch(this.words, prefix);
+        for (int i = index < 0 ? -index - 1 : index; i < this.words.length && this.words[i].startsWith(prefix); i++) {
+            for (int row : this.postings[i]) {
+                result.set(row);
+            }
+        }
+
+        return result;
+    }
+
+    private static Set<String> words(String text) {
+
+        Set<String> result = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : WordSeparator.split(text.toLowerCase())) {
+                if (!word.isEmpty()) {
+                    result.add(word);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    static class Builder<T> {
+
+        private final List<T> values = new ArrayList<>();
+
+        private final List<Integer> lastInventoryYears = new ArrayList<>();
+
+        private final Map<String, List<Integer>> postings = new TreeMap<>();
+
+        /**
+         * Add a row with the code and descriptions it can be found by, null text is skipped
+         */
+        Builder<T> add(T value, Integer lastInventoryYear, String... text) {
+
+            int row = this.values.size();
+            this.values.add(value);
+            this.lastInventoryYears.add(lastInventoryYear);
+
+            for (String field : text) {
+                for (String word : words(field)) {
+                    List<Integer> rows = this.postings.computeIfAbsent(word, key -> new ArrayList<>());
+                    if (rows.isEmpty() || rows.get(rows.size() - 1) != row) {
+                        rows.add(row);
+                    }
+                }
+            }
+
+            return this;
+        }
+
+        LookupSearchIndex<T> build() {
+
+            return new LookupSearchIndex<>(Collections.unmodifiableList(new ArrayList<>(this.values)),
+                this.lastInventoryYears.toArray(new Integer[0]),
+                this.postings.keySet().toArray(new String[0]),
+                this.postings.values().stream()
+                    .map(rows -> rows.stream().mapToInt(Integer::intValue).toArray())
+                    .toArray(int[][]::new));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.domain.NaicsCode;
+import gov.epa.cef.web.domain.PointSourceSccCode;
+import gov.epa.cef.web.domain.Pollutant;
+import gov.epa.cef.web.repository.NaicsCodeRepository;
+import gov.epa.cef.web.repository.PointSourceSccCodeRepository;
+import gov.epa.cef.web.repository.PollutantRepository;
+import gov.epa.cef.web.service.LookupSearchService;
+import gov.epa.cef.web.service.dto.CodeLookupDto;
+import gov.epa.cef.web.service.dto.PointSourceSccCodeDto;
+import gov.epa.cef.web.service.dto.PollutantDto;
+import gov.epa.cef.web.service.mapper.LookupEntityMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Service
+public class LookupSearchServiceImpl implements LookupSearchService {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final PointSourceSccCodeRepository sccCodeRepo;
+
+    private final NaicsCodeRepository naicsCodeRepo;
+
+    private final PollutantRepository pollutantRepo;
+
+    private final LookupEntityMapper lookupMapper;
+
+    private final LookupSearchConfig config;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // replaced as a whole on rebuild so a search never sees a partly built index
+    private volatile Indexes indexes;
+
+    @Autowired
+    LookupSearchServiceImpl(PointSourceSccCodeRepository sccCodeRepo,
+                            NaicsCodeRepository naicsCodeRepo,
+                            PollutantRepository pollutantRepo,
+                            LookupEntityMapper lookupMapper,
+                            LookupSearchConfig config,
+                            PlatformTransactionManager transactionManager) {
+
+        this.sccCodeRepo = sccCodeRepo;
+        this.naicsCodeRepo = naicsCodeRepo;
+        this.pollutantRepo = pollutantRepo;
+        this.lookupMapper = lookupMapper;
+        this.config = config;
+
+        // the indexes are built outside of a request, the lazy SCC calculation material is mapped in this transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public List<PointSourceSccCodeDto> searchSccCodes(String term, int year, int limit) {
+
+        return indexes().sccCodes.search(term, year, limit(limit));
+    }
+
+    @Override
+    public List<CodeLookupDto> searchNaicsCodes(String term, int year, int limit) {
+
+        return indexes().naicsCodes.search(term, year, limit(limit));
+    }
+
+    @Override
+    public List<PollutantDto> searchPollutants(String term, int year, int limit) {
+
+        return indexes().pollutants.search(term, year, limit(limit));
+    }
+
+    /**
+     * Holds the same lock as the first build in indexes() so an older build can't replace a newer one
+     */
+    @Override
+    public synchronized void rebuild() {
+
+        this.indexes = this.transactionTemplate.execute(status -> build());
+    }
+
+    private Indexes indexes() {
+
+        Indexes result = this.indexes;
+        if (result == null) {
+            synchronized (this) {
+                result = this.indexes;
+                if (result == null) {
+                    result = this.transactionTemplate.execute(status -> build());
+                    this.indexes = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private int limit(int limit) {
+
+        return limit < 1 ? this.config.getDefaultLimit() : Math.min(limit, this.config.getMaxLimit());
+    }
+
+    private Indexes build() {
+
+        long start = System.nanoTime();
+
+        LookupSearchIndex.Builder<PointSourceSccCodeDto> sccCodes = LookupSearchIndex.builder();
+        for (PointSourceSccCode entity : this.sccCodeRepo.findAll(Sort.by(Direction.ASC, "code"))) {
+
+            sccCodes.add(this.lookupMapper.pointSourceSccCodeToDto(entity),
+                entity.getLastInventoryYear() == null ? null : entity.getLastInventoryYear().intValue(),
+                entity.getCode(), entity.getShortName(), entity.getSector(), entity.getSccLevelOne(),
+                entity.getSccLevelTwo(), entity.getSccLevelThree(), entity.getSccLevelFour());
+        }
+
+        // only the six digit codes can be reported, the same as the NAICS lookups
+        LookupSearchIndex.Builder<CodeLookupDto> naicsCodes = LookupSearchIndex.builder();
+        for (NaicsCode entity : this.naicsCodeRepo.findAll(Sort.by(Direction.ASC, "code"))) {
+
+            if (entity.getCode().toString().length() == 6) {
+                naicsCodes.add(this.lookupMapper.naicsCodeToDto(entity), entity.getLastInventoryYear(),
+                    entity.getCode().toString(), entity.getDescription());
+            }
+        }
+
+        List<Pollutant> pollutantEntities = StreamSupport.stream(this.pollutantRepo.findAll().spliterator(), false)
+            .sorted(Comparator.comparing(Pollutant::getPollutantName, Comparator.nullsLast(Comparator.naturalOrder())))
+            .collect(Collectors.toList());
+
+        LookupSearchIndex.Builder<PollutantDto> pollutants = LookupSearchIndex.builder();
+        for (Pollutant entity : pollutantEntities) {
+
+            pollutants.add(this.lookupMapper.pollutantToDto(entity), entity.getLastInventoryYear(),
+                entity.getPollutantCode(), entity.getPollutantName(), entity.getPollutantCasId());
+        }
+
+        Indexes result = new Indexes(sccCodes.build(), naicsCodes.build(), pollutants.build());
+
+        logger.info("Built lookup search indexes for {} SCC codes, {} NAICS codes and {} pollutants in {} ms.",
+            result.sccCodes.size(), result.naicsCodes.size(), result.pollutants.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        return result;
+    }
+
+    private static class Indexes {
+
+        private final LookupSearchIndex<PointSourceSccCodeDto> sccCodes;
+
+        private final LookupSearchIndex<CodeLookupDto> naicsCodes;
+
+        private final LookupSearchIndex<PollutantDto> pollutants;
+
+        Indexes(LookupSearchIndex<PointSourceSccCodeDto> sccCodes,
+                LookupSearchIndex<CodeLookupDto> naicsCodes,
+                LookupSearchIndex<PollutantDto> pollutants) {
+
+            this.sccCodes = sccCodes;
+            this.naicsCodes = naicsCodes;
+            this.pollutants = pollutants;
+        }
+    }
+
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "lookup-search")
+    public static class LookupSearchConfig {
+
+        @Min(1)
+        private int defaultLimit = 25;
+
+        @Min(1)
+        private int maxLimit = 100;
+
+        public int getDefaultLimit() {
+
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+
+            this.defaultLimit = defaultLimit;
+        }
+
+        public int getMaxLimit() {
+
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+
+            this.maxLimit = maxLimit;
+        }
+    }
+}
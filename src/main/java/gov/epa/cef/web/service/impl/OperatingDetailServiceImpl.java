@@ -18,9 +18,12 @@ package gov.epa.cef.web.service.impl;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import gov.epa.cef.web.domain.OperatingDetail;
 import gov.epa.cef.web.repository.OperatingDetailRepository;
@@ -45,6 +48,8 @@ public class OperatingDetailServiceImpl implements OperatingDetailService {
     
     @Autowired BulkUploadMapper bulkUploadMapper;
 
+    @Autowired ExportQueryStreams exportStreams;
+
     /* (non-Javadoc)
      * @see gov.epa.cef.web.service.impl.OperatingDetailService#update(gov.epa.cef.web.service.dto.OperatingDetailDto)
      */
@@ -61,14 +66,16 @@ public class OperatingDetailServiceImpl implements OperatingDetailService {
 
 
     /**
-     * Retrieve a list of operating details for the given program system code and emissions report year
+     * Stream the operating details for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<OperatingDetailBulkUploadDto> retrieveOperatingDetails(String programSystemCode, Short emissionsReportYear) {
-    	List<OperatingDetail> operatingDetails = repo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.operatingDetailToDtoList(operatingDetails);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamOperatingDetails(String programSystemCode, Short emissionsReportYear, Consumer<Stream<OperatingDetailBulkUploadDto>> consumer) {
+    	try (Stream<OperatingDetail> operatingDetails = repo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(operatingDetails, bulkUploadMapper::operatingDetailToDto));
+    	}
     }
 
 }
@@ -0,0 +1,116 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import gov.epa.cef.web.domain.Control;
+import gov.epa.cef.web.domain.EmissionsProcess;
+import gov.epa.cef.web.domain.EmissionsUnit;
+import gov.epa.cef.web.domain.ReleasePoint;
+
+/**
+ * Components of a facility's previous year report keyed by identifier, used to carry operating statuses
+ * forward while a bulk upload is mapped. Each component can be claimed once by a matching row of the
+ * upload; whatever is left unclaimed afterwards was not in the upload and may be copied forward.
+ * Iteration order of unclaimed components follows the order they were loaded in.
+ */
+class PreviousYearInventory {
+
+    private final Map<String, ReleasePoint> releasePoints;
+    private final Map<String, EmissionsUnit> emissionsUnits;
+    private final Map<String, Map<String, EmissionsProcess>> processesByUnit;
+    private final Map<String, Control> controls;
+
+    PreviousYearInventory(List<ReleasePoint> releasePoints, List<EmissionsUnit> emissionsUnits,
+                          List<EmissionsProcess> processes, List<Control> controls) {
+
+        this.releasePoints = byIdentifier(releasePoints, ReleasePoint::getReleasePointIdentifier);
+        this.emissionsUnits = byIdentifier(emissionsUnits, EmissionsUnit::getUnitIdentifier);
+        this.controls = byIdentifier(controls, Control::getIdentifier);
+
+        this.processesByUnit = new HashMap<>();
+        for (EmissionsProcess process : processes) {
+            this.processesByUnit
+                .computeIfAbsent(process.getEmissionsUnit().getUnitIdentifier(), k -> new LinkedHashMap<>())
+                .putIfAbsent(process.getEmissionsProcessIdentifier(), process);
+        }
+    }
+
+    ReleasePoint claimReleasePoint(String identifier) {
+
+        return this.releasePoints.remove(identifier);
+    }
+
+    EmissionsUnit claimEmissionsUnit(String identifier) {
+
+        return this.emissionsUnits.remove(identifier);
+    }
+
+    EmissionsProcess claimEmissionsProcess(String unitIdentifier, String identifier) {
+
+        Map<String, EmissionsProcess> processes = this.processesByUnit.get(unitIdentifier);
+
+        return processes == null ? null : processes.remove(identifier);
+    }
+
+    Control claimControl(String identifier) {
+
+        return this.controls.remove(identifier);
+    }
+
+    List<ReleasePoint> unclaimedReleasePoints() {
+
+        return new ArrayList<>(this.releasePoints.values());
+    }
+
+    List<EmissionsUnit> unclaimedEmissionsUnits() {
+
+        return new ArrayList<>(this.emissionsUnits.values());
+    }
+
+    /**
+     * Remove and return the unclaimed processes of a unit
+     */
+    List<EmissionsProcess> takeUnclaimedEmissionsProcesses(String unitIdentifier) {
+
+        Map<String, EmissionsProcess> processes = this.processesByUnit.remove(unitIdentifier);
+
+        return processes == null ? Collections.emptyList() : new ArrayList<>(processes.values());
+    }
+
+    List<Control> unclaimedControls() {
+
+        return new ArrayList<>(this.controls.values());
+    }
+
+    private static <T> Map<String, T> byIdentifier(List<T> rows, Function<T, String> identifier) {
+
+        Map<String, T> result = new LinkedHashMap<>();
+        for (T row : rows) {
+            result.putIfAbsent(identifier.apply(row), row);
+        }
+
+        return result;
+    }
+}
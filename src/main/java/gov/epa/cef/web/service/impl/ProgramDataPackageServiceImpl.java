@@ -0,0 +1,293 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.service.ControlPathService;
+import gov.epa.cef.web.service.ControlService;
+import gov.epa.cef.web.service.EmissionService;
+import gov.epa.cef.web.service.EmissionsProcessService;
+import gov.epa.cef.web.service.EmissionsUnitService;
+import gov.epa.cef.web.service.FacilitySiteContactService;
+import gov.epa.cef.web.service.FacilitySiteService;
+import gov.epa.cef.web.service.OperatingDetailService;
+import gov.epa.cef.web.service.ProgramDataPackageService;
+import gov.epa.cef.web.service.ReleasePointService;
+import gov.epa.cef.web.service.ReportingPeriodService;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlAssignmentBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPathBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPathPollutantBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlPollutantBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionFormulaVariableBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsProcessBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsUnitBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.FacilityNAICSBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.FacilitySiteBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.FacilitySiteContactBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.OperatingDetailBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReleasePointApptBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReleasePointBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReportingPeriodBulkUploadDto;
+import gov.epa.cef.web.util.CsvBuilder;
+import gov.epa.cef.web.util.TempFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class ProgramDataPackageServiceImpl implements ProgramDataPackageService, DisposableBean {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ExecutorService executor;
+
+    private final List<Worksheet<?>> worksheets;
+
+    @Autowired
+    ProgramDataPackageServiceImpl(DataPackageConfig config,
+                                  FacilitySiteService facilitySiteService,
+                                  FacilitySiteContactService contactService,
+                                  ReleasePointService releasePointService,
+                                  EmissionsUnitService emissionsUnitService,
+                                  EmissionsProcessService emissionsProcessService,
+                                  ControlService controlService,
+                                  ControlPathService controlPathService,
+                                  ReportingPeriodService reportingPeriodService,
+                                  OperatingDetailService operatingDetailService,
+                                  EmissionService emissionService) {
+
+        // same order as the worksheets of the excel template
+        this.worksheets = Arrays.asList(
+            new Worksheet<>(FacilitySiteBulkUploadDto.class, facilitySiteService::streamFacilities),
+            new Worksheet<>(FacilityNAICSBulkUploadDto.class, facilitySiteService::streamFacilityNaics),
+            new Worksheet<>(FacilitySiteContactBulkUploadDto.class, contactService::streamFacilitySiteContacts),
+            new Worksheet<>(ReleasePointBulkUploadDto.class, releasePointService::streamReleasePoints),
+            new Worksheet<>(EmissionsUnitBulkUploadDto.class, emissionsUnitService::streamEmissionsUnits),
+            new Worksheet<>(EmissionsProcessBulkUploadDto.class, emissionsProcessService::streamEmissionsProcesses),
+            new Worksheet<>(ReleasePointApptBulkUploadDto.class, releasePointService::streamReleasePointAppts),
+            new Worksheet<>(ControlBulkUploadDto.class, controlService::streamControls),
+            new Worksheet<>(ControlPathBulkUploadDto.class, controlPathService::streamControlPaths),
+            new Worksheet<>(ControlAssignmentBulkUploadDto.class, controlService::streamControlAssignments),
+            new Worksheet<>(ControlPollutantBulkUploadDto.class, controlService::streamControlPollutants),
+            new Worksheet<>(ControlPathPollutantBulkUploadDto.class, controlPathService::streamControlPathPollutants),
+            new Worksheet<>(ReportingPeriodBulkUploadDto.class, reportingPeriodService::streamReportingPeriods),
+            new Worksheet<>(OperatingDetailBulkUploadDto.class, operatingDetailService::streamOperatingDetails),
+            new Worksheet<>(EmissionBulkUploadDto.class, emissionService::streamEmissions),
+            new Worksheet<>(EmissionFormulaVariableBulkUploadDto.class, emissionService::streamEmissionFormulaVariables));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(),
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+            runnable -> new Thread(runnable, "data-package-" + threadCount.incrementAndGet()));
+
+        // the worksheets are queried as the user who requested the package
+        this.executor = new DelegatingSecurityContextExecutorService(workers);
+    }
+
+    /**
+     * Each worksheet is written to its own temp file by a worker and the temp files are copied into the ZIP file
+     * in worksheet order, so the response is written while the remaining worksheets are still being generated.
+     * Every worksheet is queued before anything is written, so a full queue is reported before the response starts.
+     */
+    @Override
+    public void writeDataPackage(String programSystemCode, Short emissionsReportYear, OutputStream outputStream) {
+
+        List<Future<TempFile>> files = new ArrayList<>(this.worksheets.size());
+        try {
+
+            try {
+                for (Worksheet<?> worksheet : this.worksheets) {
+                    files.add(this.executor.submit(() -> worksheet.write(programSystemCode, emissionsReportYear)));
+                }
+            } catch (RejectedExecutionException e) {
+                throw new ServiceBusyException(
+                    "Too many data packages are being generated right now, please try again in a few minutes.");
+            }
+
+            ZipOutputStream zip = new ZipOutputStream(outputStream);
+            while (!files.isEmpty()) {
+
+                try (TempFile file = files.remove(0).get()) {
+
+                    zip.putNextEntry(new ZipEntry(file.getFileName()));
+                    Files.copy(file.toPath(), zip);
+                    zip.closeEntry();
+                }
+            }
+
+            // the servlet container closes the output stream
+            zip.finish();
+            zip.flush();
+
+        } catch (IOException e) {
+
+            throw new UncheckedIOException(e);
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+
+        } catch (ExecutionException e) {
+
+            logger.error("Unable to generate data package for {} {}", programSystemCode, emissionsReportYear, e.getCause());
+            throw new IllegalStateException(e.getCause());
+
+        } finally {
+
+            files.forEach(this::discard);
+        }
+    }
+
+    @Override
+    public void destroy() {
+
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Cancel a worksheet which is no longer needed, deleting its temp file if it was already written
+     */
+    private void discard(Future<TempFile> file) {
+
+        if (!file.cancel(true) && !file.isCancelled()) {
+            try {
+                file.get().close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // nothing was left behind
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface WorksheetSource<T> {
+
+        void stream(String programSystemCode, Short emissionsReportYear, Consumer<Stream<T>> consumer);
+    }
+
+    private static class Worksheet<T> {
+
+        private final Class<T> type;
+
+        private final String fileName;
+
+        private final WorksheetSource<T> source;
+
+        Worksheet(Class<T> type, WorksheetSource<T> source) {
+
+            this.type = type;
+            this.fileName = new CsvBuilder<>(type, new ArrayList<T>()).fileName();
+            this.source = source;
+        }
+
+        /**
+         * Write the worksheet to a temp file named after its entry in the ZIP file
+         */
+        TempFile write(String programSystemCode, Short emissionsReportYear) {
+
+            TempFile file = TempFile.create(this.fileName, ".csv");
+            try {
+
+                this.source.stream(programSystemCode, emissionsReportYear, csvRows -> {
+                    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                        new CsvBuilder<>(this.type, csvRows).write(writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                // nobody will pick up the file if the package was abandoned while it was being written
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+
+                return file;
+
+            } catch (RuntimeException e) {
+
+                file.close();
+                throw e;
+            }
+        }
+    }
+
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "data-package")
+    public static class DataPackageConfig {
+
+        @Min(1)
+        private int workers = 4;
+
+        @Min(1)
+        private int queueCapacity = 64;
+
+        public int getWorkers() {
+
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.service.LookupBundleService;
+import gov.epa.cef.web.service.LookupSearchService;
+import gov.epa.cef.web.service.LookupService;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.validation.constraints.Min;
+import java.time.Instant;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the reference lookup tables into the Hibernate second-level cache and runs the common
+ * lookup list queries so the query cache holds their sorted results, then rebuilds the lookup
+ * search indexes. The warm-up runs in the background once the application is ready and again
+ * after the SCC codes are updated, the application reports OUT_OF_SERVICE through the health
+ * endpoint until the first one finishes.
+ */
+@Component
+public class ReferenceDataWarmup implements HealthIndicator, DisposableBean {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final LookupService lookupService;
+
+    private final LookupSearchService lookupSearchService;
+
+    private final LookupBundleService lookupBundleService;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ReferenceDataConfig config;
+
+    private final ExecutorService executor;
+
+    private volatile Health health;
+
+    @Autowired
+    ReferenceDataWarmup(LookupService lookupService,
+                        LookupSearchService lookupSearchService,
+                        LookupBundleService lookupBundleService,
+                        EntityManagerFactory entityManagerFactory,
+                        ReferenceDataConfig config) {
+
+        this.lookupService = lookupService;
+        this.lookupSearchService = lookupSearchService;
+        this.lookupBundleService = lookupBundleService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.config = config;
+
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reference-data-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.health = config.isWarmup()
+            ? Health.outOfService().withDetail("warmup", "pending").build()
+            : Health.up().withDetail("warmup", "disabled").build();
+    }
+
+    @Override
+    public Health health() {
+
+        return this.health;
+    }
+
+    @Override
+    public void destroy() {
+
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Start the warm-up in the background once the application is ready, anything left in the
+     * cache by a previous deploy is evicted first since the regions no longer expire
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+
+        if (this.config.isWarmup()) {
+
+            this.health = Health.outOfService().withDetail("warmup", "running").build();
+
+            this.executor.execute(() -> warmUp(true));
+        }
+    }
+
+    /**
+     * Prime the caches again after lookup tables were updated through Hibernate, such as the SCC codes
+     * saved by SccServiceImpl. Nothing is evicted so changes made outside of Hibernate are not picked up.
+     * The search indexes and the lookup bundles on every node are rebuilt even when the warm-up is turned off.
+     */
+    public void refresh() {
+
+        if (this.config.isWarmup()) {
+
+            warmUp(false);
+
+        } else {
+
+            this.lookupSearchService.rebuild();
+        }
+
+        this.lookupBundleService.invalidate();
+    }
+
+    synchronized void warmUp(boolean evict) {
+
+        long start = System.nanoTime();
+
+        List<Class<?>> entities = cachedEntities();
+
+        if (evict) {
+            evict(entities);
+        }
+
+        int rows = 0;
+        List<String> failures = new ArrayList<>();
+
+        for (Class<?> entity : entities) {
+            try {
+                rows += load(entity);
+            } catch (RuntimeException e) {
+                logger.warn("Unable to load {} into the cache.", entity.getSimpleName(), e);
+                failures.add(entity.getSimpleName());
+            }
+        }
+
+        Map<String, Supplier<List<?>>> queries = lookupQueries();
+        for (Map.Entry<String, Supplier<List<?>>> query : queries.entrySet()) {
+            try {
+                query.getValue().get();
+            } catch (RuntimeException e) {
+                logger.warn("Unable to run lookup query {}.", query.getKey(), e);
+                failures.add(query.getKey());
+            }
+        }
+
+        try {
+            this.lookupSearchService.rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to rebuild the lookup search indexes.", e);
+            failures.add("searchIndexes");
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info("Reference data warm-up loaded {} rows from {} tables and ran {} lookup queries in {} ms, {} failed.",
+            rows, entities.size(), queries.size(), elapsed, failures.size());
+
+        // a failed table is still loaded lazily so it doesn't keep the application out of service
+        this.health = Health.up()
+            .withDetail("warmup", "complete")
+            .withDetail("tables", entities.size())
+            .withDetail("rows", rows)
+            .withDetail("queries", queries.size())
+            .withDetail("failures", failures)
+            .withDetail("durationMs", elapsed)
+            .withDetail("completedAt", Instant.now().toString())
+            .build();
+    }
+
+    /**
+     * The lookup list queries used by the reporting screens, each is run for the configured inventory years
+     */
+    private Map<String, Supplier<List<?>>> lookupQueries() {
+
+        Map<String, Supplier<List<?>>> result = new LinkedHashMap<>();
+
+        result.put("calculationMaterialCodes", this.lookupService::retrieveCalcMaterialCodes);
+        result.put("fuelUseMaterialCodes", this.lookupService::retrieveFuelUseMaterialCodes);
+        result.put("calculationMethodCodes", this.lookupService::retrieveCalcMethodCodes);
+        result.put("calculationParameterTypeCodes", this.lookupService::retrieveCalcParamTypeCodes);
+        result.put("subFacilityOperatingStatusCodes", this.lookupService::retrieveSubFacilityOperatingStatusCodes);
+        result.put("facilityOperatingStatusCodes", this.lookupService::retrieveFacilityOperatingStatusCodes);
+        result.put("pollutants", this.lookupService::retrievePollutants);
+        result.put("reportingPeriodCodes", this.lookupService::retrieveReportingPeriodCodes);
+        result.put("unitMeasureCodes", this.lookupService::retrieveUnitMeasureCodes);
+        result.put("currentUnitMeasureCodes", this.lookupService::retrieveCurrentUnitMeasureCodes);
+        result.put("fuelUseUnitMeasureCodes", this.lookupService::retrieveFuelUseUnitMeasureCodes);
+        result.put("emissionOperatingTypeCodes", this.lookupService::retrieveEmissionOperatingTypeCodes);
+        result.put("contactTypeCodes", this.lookupService::retrieveContactTypeCodes);
+        result.put("unitTypeCodes", this.lookupService::retrieveUnitTypeCodes);
+        result.put("countyCodes", this.lookupService::retrieveCountyCodes);
+        result.put("stateCodes", this.lookupService::retrieveStateCodes);
+        result.put("releasePointTypeCodes", this.lookupService::retrieveReleasePointTypeCodes);
+        result.put("programSystemTypeCodes", this.lookupService::retrieveProgramSystemTypeCodes);
+        result.put("controlMeasureCodes", this.lookupService::retrieveControlMeasureCodes);
+        result.put("tribalCodes", this.lookupService::retrieveTribalCodes);
+        result.put("naicsCodes", this.lookupService::retrieveNaicsCode);
+        result.put("facilityCategoryCodes", this.lookupService::retrieveFacilityCategoryCodes);
+        result.put("facilitySourceTypeCodes", this.lookupService::retrieveFacilitySourceTypeCodes);
+
+        for (Integer year : inventoryYears()) {
+            result.put("currentPollutants/" + year, () -> this.lookupService.retrieveCurrentPollutants(year));
+            result.put("currentCounties/" + year, () -> this.lookupService.retrieveCurrentCounties(year));
+            result.put("currentReleasePointTypeCodes/" + year, () -> this.lookupService.retrieveCurrentReleasePointTypeCodes(year));
+            result.put("currentControlMeasureCodes/" + year, () -> this.lookupService.retrieveCurrentControlMeasureCodes(year));
+            result.put("currentNaicsCodes/" + year, () -> this.lookupService.retrieveCurrentNaicsCodes(year));
+            result.put("currentFacilitySourceTypeCodes/" + year, () -> this.lookupService.retrieveCurrentFacilitySourceTypeCodes(year));
+        }
+
+        return result;
+    }
+
+    /**
+     * The years reports are usually being prepared for, counting back from last year
+     */
+    List<Integer> inventoryYears() {
+
+        int lastYear = Year.now().getValue() - 1;
+
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < this.config.getWarmupYears(); i++) {
+            result.add(lastYear - i);
+        }
+
+        return result;
+    }
+
+    /**
+     * Entities mapped to a second-level cache region, these are the lookup tables
+     */
+    private List<Class<?>> cachedEntities() {
+
+        return this.entityManagerFactory.getMetamodel().getEntities().stream()
+            .<Class<?>>map(EntityType::getJavaType)
+            .filter(type -> type != null && type.isAnnotationPresent(Cache.class))
+            .sorted(Comparator.comparing((Class<?> type) -> type.getSimpleName()))
+            .collect(Collectors.toList());
+    }
+
+    private void evict(List<Class<?>> entities) {
+
+        javax.persistence.Cache cache = this.entityManagerFactory.getCache();
+        for (Class<?> entity : entities) {
+            cache.evict(entity);
+        }
+
+        this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+
+    private int load(Class<?> entity) {
+
+        EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+        try {
+
+            entityManager.getTransaction().begin();
+            try {
+
+                return entityManager.createQuery("select e from " + entity.getName() + " e", entity)
+                    .setHint("org.hibernate.readOnly", true)
+                    .getResultList()
+                    .size();
+
+            } finally {
+                entityManager.getTransaction().rollback();
+            }
+
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Component
+    @Validated
+    @ConfigurationProperties(prefix = "reference-data")
+    public static class ReferenceDataConfig {
+
+        private boolean warmup = true;
+
+        @Min(0)
+        private int warmupYears = 2;
+
+        public boolean isWarmup() {
+
+            return warmup;
+        }
+
+        public void setWarmup(boolean warmup) {
+
+            this.warmup = warmup;
+        }
+
+        public int getWarmupYears() {
+
+            return warmupYears;
+        }
+
+        public void setWarmupYears(int warmupYears) {
+
+            this.warmupYears = warmupYears;
+        }
+    }
+}
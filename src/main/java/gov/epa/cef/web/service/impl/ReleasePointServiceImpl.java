@@ -19,9 +19,12 @@ package gov.epa.cef.web.service.impl;
 import java.util.Collections;  
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 import gov.epa.cef.web.domain.ControlPath;
@@ -72,6 +75,9 @@ public class ReleasePointServiceImpl implements ReleasePointService {
     
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
+
+    @Autowired
+    private ExportQueryStreams exportStreams;
     
     /**
      * Create a new Release Point from a DTO object
@@ -232,26 +238,30 @@ public class ReleasePointServiceImpl implements ReleasePointService {
 
 
     /**
-     * Retrieve a list of release points for the given program system code and emissions report year
+     * Stream the release points for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<ReleasePointBulkUploadDto> retrieveReleasePoints(String programSystemCode, Short emissionsReportYear) {
-    	List<ReleasePoint> releasePoints = releasePointRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.releasePointToDtoList(releasePoints);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamReleasePoints(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ReleasePointBulkUploadDto>> consumer) {
+    	try (Stream<ReleasePoint> releasePoints = releasePointRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(releasePoints, bulkUploadMapper::releasePointToDto));
+    	}
     }
 
 
     /**
-     * Retrieve a list of release point apportionments for the given program system code and emissions report year
+     * Stream the release point apportionments for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<ReleasePointApptBulkUploadDto> retrieveReleasePointAppts(String programSystemCode, Short emissionsReportYear) {
-    	List<ReleasePointAppt> releasePointAppts = releasePointApptRepo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.releasePointApptToDtoList(releasePointAppts);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamReleasePointAppts(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ReleasePointApptBulkUploadDto>> consumer) {
+    	try (Stream<ReleasePointAppt> releasePointAppts = releasePointApptRepo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(releasePointAppts, bulkUploadMapper::releasePointApptToDto));
+    	}
     }
     
 }
@@ -41,12 +41,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 @Service
 public class ReportingPeriodServiceImpl implements ReportingPeriodService {
@@ -74,6 +77,9 @@ public class ReportingPeriodServiceImpl implements ReportingPeriodService {
     @Autowired
     private BulkUploadMapper bulkUploadMapper;
 
+    @Autowired
+    private ExportQueryStreams exportStreams;
+
     public ReportingPeriodDto create(ReportingPeriodDto dto) {
 
         ReportingPeriod period = mapper.fromDto(dto);
@@ -290,14 +296,16 @@ public class ReportingPeriodServiceImpl implements ReportingPeriodService {
 
 
     /**
-     * Retrieve a list of reporting periods for the given program system code and emissions report year
+     * Stream the reporting periods for the given program system code and emissions report year
      * @param programSystemCode
      * @param emissionsReportYear
-     * @return
-     */ 
-    public List<ReportingPeriodBulkUploadDto>retrieveReportingPeriods(String programSystemCode, Short emissionsReportYear) {
-    	List<ReportingPeriod> reportingPeriods = repo.findByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear);
-    	return bulkUploadMapper.reportingPeriodToDtoList(reportingPeriods);
+     * @param consumer receives the rows, which are read from a database cursor while it runs
+     */
+    @Transactional(readOnly = true)
+    public void streamReportingPeriods(String programSystemCode, Short emissionsReportYear, Consumer<Stream<ReportingPeriodBulkUploadDto>> consumer) {
+    	try (Stream<ReportingPeriod> reportingPeriods = repo.streamByPscAndEmissionsReportYear(programSystemCode, emissionsReportYear)) {
+    		consumer.accept(exportStreams.map(reportingPeriods, bulkUploadMapper::reportingPeriodToDto));
+    	}
     }
 
 }
@@ -0,0 +1,144 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * Code to dropdown label maps for the lookup sheets of the excel template. Each lookup sheet lists the
+ * dropdown label in column A and its code in column B and is read once, the first time a code from it is
+ * looked up. Matching follows an exact excel MATCH: text codes ignore case and only match text cells,
+ * numeric codes only match number cells, and the first matching row wins.
+ */
+class WorkbookLookupLabels {
+
+    private final Workbook workbook;
+
+    private final Map<String, LookupSheet> sheets = new HashMap<>();
+
+    WorkbookLookupLabels(Workbook workbook) {
+
+        this.workbook = workbook;
+    }
+
+    /**
+     * Write the dropdown label for a code into a cell, the cell is left blank if the code is not in the lookup sheet
+     * @param cell
+     * @param sheetName
+     * @param code
+     * @param text if the code is text or number in excel
+     */
+    void setLabel(Cell cell, String sheetName, String code, boolean text) {
+
+        Object label = label(sheetName, code, text);
+
+        if (label instanceof Double) {
+            cell.setCellValue((Double) label);
+        } else {
+            cell.setCellValue(label == null ? "" : label.toString());
+        }
+    }
+
+    /**
+     * Find the dropdown label for a code, returns null if the code is not in the lookup sheet
+     */
+    Object label(String sheetName, String code, boolean text) {
+
+        if (code == null) {
+            return null;
+        }
+
+        LookupSheet sheet = this.sheets.computeIfAbsent(sheetName, this::readSheet);
+
+        if (text) {
+            return sheet.textCodes.get(textKey(code));
+        }
+
+        String key = numberKey(code);
+
+        return key == null ? null : sheet.numberCodes.get(key);
+    }
+
+    private LookupSheet readSheet(String sheetName) {
+
+        Sheet sheet = this.workbook.getSheet(sheetName);
+        if (sheet == null) {
+            throw new IllegalStateException(String.format("Lookup sheet %s is not in the template.", sheetName));
+        }
+
+        LookupSheet result = new LookupSheet();
+
+        // the first row holds the column headers
+        for (Row row : sheet) {
+
+            Cell labelCell = row.getRowNum() > 0 ? row.getCell(0) : null;
+            Cell codeCell = labelCell != null ? row.getCell(1) : null;
+            if (codeCell == null) {
+                continue;
+            }
+
+            Object label = labelCell.getCellType() == CellType.NUMERIC
+                ? (Object) labelCell.getNumericCellValue() : labelCell.getStringCellValue();
+
+            if (codeCell.getCellType() == CellType.NUMERIC) {
+                result.numberCodes.putIfAbsent(numberKey(codeCell.getNumericCellValue()), label);
+            } else if (codeCell.getCellType() == CellType.STRING) {
+                result.textCodes.putIfAbsent(textKey(codeCell.getStringCellValue()), label);
+            }
+        }
+
+        return result;
+    }
+
+    private static String textKey(String code) {
+
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    private static String numberKey(double code) {
+
+        return BigDecimal.valueOf(code).stripTrailingZeros().toPlainString();
+    }
+
+    private static String numberKey(String code) {
+
+        try {
+
+            return new BigDecimal(code.trim()).stripTrailingZeros().toPlainString();
+
+        } catch (NumberFormatException e) {
+
+            return null;
+        }
+    }
+
+    private static class LookupSheet {
+
+        private final Map<String, Object> numberCodes = new HashMap<>();
+
+        private final Map<String, Object> textCodes = new HashMap<>();
+    }
+}
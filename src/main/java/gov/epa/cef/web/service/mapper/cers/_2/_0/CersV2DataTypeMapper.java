@@ -35,6 +35,14 @@ public interface CersV2DataTypeMapper {
     @Mapping(source="facilitySites", target="facilitySite")
     @Mapping(source="programSystemCode.code", target="programSystemCode")
     CERSDataType fromEmissionsReport(EmissionsReport source);
+
+    /**
+     * Map the emissions report without its facility sites, those are added by the caller
+     */
+    @Mapping(source="year", target="emissionsYear")
+    @Mapping(source="programSystemCode.code", target="programSystemCode")
+    @Mapping(target="facilitySite", ignore = true)
+    CERSDataType headerFromEmissionsReport(EmissionsReport source);
     
     @BeanMapping(ignoreByDefault = true)
     @Mapping(source="operatingStatusCode", target="operatingStatusCode")
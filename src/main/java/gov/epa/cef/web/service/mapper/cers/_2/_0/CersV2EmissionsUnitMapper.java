@@ -32,9 +32,11 @@ import net.exchangenetwork.schema.cer._2._0.ReleasePointApportionmentDataType;
 import net.exchangenetwork.schema.cer._2._0.ReportingPeriodDataType;
 
 import org.mapstruct.BeanMapping;
+import org.mapstruct.InheritConfiguration;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -55,6 +57,14 @@ public interface CersV2EmissionsUnitMapper {
     @Mapping(source="emissionsProcesses", target="unitEmissionsProcess")
     EmissionsUnitDataType fromEmissionsUnit(EmissionsUnit source);
 
+    /**
+     * Map the emissions unit without its processes, those are added by the caller
+     */
+    @Named("unitWithoutProcesses")
+    @InheritConfiguration(name = "fromEmissionsUnit")
+    @Mapping(target="unitEmissionsProcess", ignore = true)
+    EmissionsUnitDataType unitWithoutProcesses(EmissionsUnit source);
+
     @Mapping(source="sccCode", target="sourceClassificationCode")
     @Mapping(source="aircraftEngineTypeCode.code", target="aircraftEngineTypeCode")
     @Mapping(source="description", target="processDescription")
@@ -66,6 +76,24 @@ public interface CersV2EmissionsUnitMapper {
     @Mapping(source="releasePointAppts", target="releasePointApportionment")
     ProcessDataType processFromEmissionsProcess(EmissionsProcess source);
 
+    /**
+     * Map the emissions process and its release point apportionments without its reporting periods
+     */
+    @Named("processWithoutReportingPeriods")
+    @InheritConfiguration(name = "processFromEmissionsProcess")
+    @Mapping(target="reportingPeriod", ignore = true)
+    ProcessDataType processWithoutReportingPeriods(EmissionsProcess source);
+
+    /**
+     * Map the emissions process without its reporting periods and release point apportionments,
+     * the reporting periods are added by the caller
+     */
+    @Named("processWithoutChildren")
+    @InheritConfiguration(name = "processFromEmissionsProcess")
+    @Mapping(target="reportingPeriod", ignore = true)
+    @Mapping(target="releasePointApportionment", ignore = true)
+    ProcessDataType processWithoutChildren(EmissionsProcess source);
+
     @Mapping(source="percent", target="averagePercentEmissions")
     @Mapping(source="releasePoint", target="releasePointApportionmentIdentification")
     @Mapping(target="releasePointApportionmentIsUncontrolled", expression = "java( Boolean.valueOf(source.getControlPath() == null).toString() )")
@@ -25,9 +25,11 @@ import net.exchangenetwork.schema.cer._2._0.FacilitySiteDataType;
 import net.exchangenetwork.schema.cer._2._0.GeographicCoordinatesDataType;
 
 import org.mapstruct.BeanMapping;
+import org.mapstruct.InheritConfiguration;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 import java.util.Collections;
 import java.util.List;
@@ -53,6 +55,26 @@ public interface CersV2FacilitySiteMapper {
     @Mapping(source="releasePoints", target="releasePoint")
     FacilitySiteDataType fromFacilitySite(FacilitySite source);
 
+    /**
+     * Map the facility site without its emissions units and release points, those are added by the caller
+     */
+    @Named("facilitySiteWithoutUnits")
+    @InheritConfiguration(name = "fromFacilitySite")
+    @Mapping(target="emissionsUnit", ignore = true)
+    @Mapping(target="releasePoint", ignore = true)
+    FacilitySiteDataType facilitySiteWithoutUnits(FacilitySite source);
+
+    /**
+     * Map the facility site without any of its child collections, those are added by the caller
+     */
+    @Named("facilitySiteWithoutChildren")
+    @InheritConfiguration(name = "fromFacilitySite")
+    @Mapping(target="facilitySitePath", ignore = true)
+    @Mapping(target="facilitySiteControl", ignore = true)
+    @Mapping(target="emissionsUnit", ignore = true)
+    @Mapping(target="releasePoint", ignore = true)
+    FacilitySiteDataType facilitySiteWithoutChildren(FacilitySite source);
+
     @Mapping(source="naicsCode.code", target="NAICSCode")
     @Mapping(source="naicsCodeType", target="NAICSType")
     FacilityNAICSDataType cersNaicsFromFacilityNAICSXref(FacilityNAICSXref source);
@@ -0,0 +1,64 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.task;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ILock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import gov.epa.cef.web.service.impl.EisTransmissionServiceImpl;
+
+public class EisTransactionStatusTask implements Runnable {
+
+    static final String LockName = "eis-transaction-status";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    private EisTransmissionServiceImpl eisTransmissionService;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    /**
+     * Run task to retrieve the node status of the EIS transactions which are due to be checked
+     * and record it in the transaction history. The task is scheduled on every node, the cluster
+     * lock makes sure only one of them checks the transactions at a time.
+     */
+    public void run() {
+
+        ILock lock = this.hazelcastInstance.getLock(LockName);
+        if (!lock.tryLock()) {
+            logger.debug("EIS Transaction Status Task is already running on another node");
+            return;
+        }
+
+        try {
+            int checked = this.eisTransmissionService.checkTransactionStatuses();
+            if (checked > 0) {
+                logger.info("EIS Transaction Status Task checked {} transactions", checked);
+            }
+        } catch (Exception e) {
+            logger.error("Exception thrown while checking EIS transaction statuses", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import gov.epa.cef.web.config.AppPropertyName;
 import gov.epa.cef.web.provider.system.AdminPropertyProvider;
 import gov.epa.cef.web.service.NotificationService;
 import gov.epa.cef.web.service.SccService;
+import gov.epa.cef.web.service.impl.ReferenceDataWarmup;
 
 public class SccUpdateTask implements Runnable {
 
@@ -41,6 +42,9 @@ public class SccUpdateTask implements Runnable {
     @Autowired
     private AdminPropertyProvider propertyProvider;
 
+    @Autowired
+    private ReferenceDataWarmup referenceDataWarmup;
+
     /**
      * Run task to retrieve SCC codes from the webservice that have been updated since this was
      * last run and then update the database with the information from them.
@@ -53,6 +57,7 @@ public class SccUpdateTask implements Runnable {
                 this.sccService.updatePointSourceSccCodes(this.propertyProvider.getLocalDate(AppPropertyName.LastSccUpdateDate));
                 this.propertyProvider.update(AppPropertyName.LastSccUpdateDate, LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
                 logger.info("SCC Update Task finish");
+                this.referenceDataWarmup.refresh();
             } catch (Exception e) {
                 logger.error("Exception thrown while updating SCC Codes", e);
                 this.notificationService.sendSccUpdateFailedNotification(e);
@@ -0,0 +1,122 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.util;
+
+import gov.epa.cef.web.exception.ApplicationErrorCode;
+import gov.epa.cef.web.exception.ApplicationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounds how many callers may run a resource heavy task at once. Callers over the limit wait in a fair
+ * queue for up to the configured timeout. The number running and the number waiting are published as
+ * {name}.active and {name}.queued gauges.
+ */
+public class ConcurrencyLimiter implements MeterBinder {
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final String name;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Duration timeout;
+
+    public ConcurrencyLimiter(String name, int maxConcurrent, Duration timeout) {
+
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.timeout = timeout;
+    }
+
+    public <T> T call(Supplier<T> task) {
+
+        acquire();
+        try {
+
+            this.active.incrementAndGet();
+
+            return task.get();
+
+        } finally {
+
+            this.active.decrementAndGet();
+            this.permits.release();
+        }
+    }
+
+    public void run(Runnable task) {
+
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public int getActiveCount() {
+
+        return this.active.get();
+    }
+
+    public int getQueueDepth() {
+
+        return this.queued.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder(this.name.concat(".active"), this.active, AtomicInteger::get)
+            .description("Tasks currently running")
+            .register(registry);
+
+        Gauge.builder(this.name.concat(".queued"), this.queued, AtomicInteger::get)
+            .description("Tasks waiting for a free slot")
+            .register(registry);
+    }
+
+    private void acquire() {
+
+        this.queued.incrementAndGet();
+        try {
+
+            if (!this.permits.tryAcquire(this.timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+
+                throw new ApplicationException(ApplicationErrorCode.E_INTERNAL_ERROR,
+                    "The server is busy, please try again in a few minutes.");
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+
+        } finally {
+
+            this.queued.decrementAndGet();
+        }
+    }
+}
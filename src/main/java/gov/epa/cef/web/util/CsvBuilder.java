@@ -16,12 +16,19 @@
 */
 package gov.epa.cef.web.util;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.output.StringBuilderWriter;
 
 import gov.epa.cef.web.annotation.CsvColumn;
 import gov.epa.cef.web.annotation.CsvFileName;
@@ -29,18 +36,36 @@ import gov.epa.cef.web.annotation.CsvFileName;
 /**
  * Encapsulation of CSV builder logic to create a CSV formatted string based on a generic type
  *
+ * The CsvColumn getters of each class are looked up once and kept as method handles, so writing a file
+ * only calls the getters and rows can be written straight to a response as they are formatted.
+ *
  * @param <T> Type of data being used to generate the data in the CSV
  */
 public class CsvBuilder<T> {	
 	
+	private static final ClassValue<List<Column>> COLUMNS = new ClassValue<List<Column>>() {
+		@Override
+		protected List<Column> computeValue(Class<?> type) {
+			return createColumns(type);
+		}
+	};
+	
 	private Class<T> klass;
-	private List<T> csvRows;
+	private Iterable<T> csvRows;
 	
 	public CsvBuilder(Class<T> klass, List<T> csvRows) {
 		this.klass = klass;
 		this.csvRows = csvRows;
 	}
 	
+	/**
+	 * Create a builder over a stream of rows, the stream can only be read once so the file can only be built once
+	 */
+	public CsvBuilder(Class<T> klass, Stream<T> csvRows) {
+		this.klass = klass;
+		this.csvRows = csvRows::iterator;
+	}
+	
 	
 	/**
 	 * Create a StringBuilder that is formatted as a CSV file with a header row based on methods with the CsvColumn annotation
@@ -48,14 +73,28 @@ public class CsvBuilder<T> {
 	 * @return StringBuilder representing a CSV file
 	 */
 	public StringBuilder build() {
-		StringBuilder sb = new StringBuilder();
-		List<Method> csvColList = getMethodsWithAnnotation(CsvColumn.class);
-		csvColList.sort((Method m1, Method m2) -> m1.getAnnotation(CsvColumn.class).order()-m2.getAnnotation(CsvColumn.class).order());
-		
-		createCsvHeaders(sb, csvColList);
-		createCsvDataRows(sb, csvColList);
+		StringBuilderWriter writer = new StringBuilderWriter();
+		try {
+			write(writer);
+		} catch (IOException e) {
+			// a StringBuilderWriter does not throw
+			throw new UncheckedIOException(e);
+		}
+		return writer.getBuilder();
+	}
+	
+	
+	/**
+	 * Write the CSV file with a header row to the writer one row at a time
+	 * 
+	 * @param writer
+	 * @throws IOException
+	 */
+	public void write(Writer writer) throws IOException {
+		List<Column> csvColList = COLUMNS.get(this.klass);
 		
-		return sb;
+		createCsvHeaders(writer, csvColList);
+		createCsvDataRows(writer, csvColList);
 	}
 	
 	
@@ -76,82 +115,109 @@ public class CsvBuilder<T> {
 	
 	
 	/**
-	 * Iterate though the list of methods declared in the class represented by klass variable, and add those annotated with the specified annotation
+	 * Find the methods declared in the class with the CsvColumn annotation in column order
 	 * 
-	 * @param annotation The type of annotation being searched for within the class's methods
-	 * @return A list of methods that have the specified annotation
+	 * @param type The class whose methods are used as columns
+	 * @return A column for each method that has the CsvColumn annotation
 	 */
-	private List<Method> getMethodsWithAnnotation(Class<? extends Annotation> annotation) {
-	    final List<Method> methods = new ArrayList<Method>();
-	    final List<Method> allMethods = new ArrayList<Method>(Arrays.asList(this.klass.getDeclaredMethods()));
-	    for (final Method method : allMethods) {
-	        if (method.isAnnotationPresent(annotation)) {
-        		methods.add(method);
+	private static List<Column> createColumns(Class<?> type) {
+	    final List<Column> columns = new ArrayList<Column>();
+	    for (final Method method : type.getDeclaredMethods()) {
+	        if (method.isAnnotationPresent(CsvColumn.class)) {
+	        	columns.add(new Column(method));
 	        }
 	    }
-	    return methods;
+	    columns.sort(Comparator.comparingInt(column -> column.order));
+	    return Collections.unmodifiableList(columns);
 	}
 	
 	
 	/**
-	 * Add comma delimited headers to the StringBuilder for each method in the csvColList
+	 * Write the comma delimited headers for each column
 	 */
-	private void createCsvHeaders(StringBuilder sb, List<Method> csvColList) {
+	private void createCsvHeaders(Writer writer, List<Column> csvColList) throws IOException {
 		//add headers for CSV
-		for (Method csvCol : csvColList) {
-			try {
-				CsvColumn colAnnotation = csvCol.getAnnotation(CsvColumn.class);			
-				sb.append("\"").append(escape(colAnnotation.name())).append("\",");
-			} catch (NullPointerException npe) {
-				sb.append("\"").append(escape(npe.getMessage())).append("\",");
-			}
+		for (int i = 0; i < csvColList.size(); i++) {
+			writeCell(writer, i, csvColList.get(i).name);
 		}
-		if (sb.length() > 0) {
-			sb.replace(sb.length()-1, sb.length(), "").append("\n");
+		if (!csvColList.isEmpty()) {
+			writer.write('\n');
 		}
 	}
 	
 	
 	/**
-	 * Add comma delimited values to the StringBuilder for each method in the csvColList for each T in csvRows
+	 * Write the comma delimited values for each column for each T in csvRows
 	 */
-	private void createCsvDataRows(StringBuilder sb, List<Method> csvColList) {
+	private void createCsvDataRows(Writer writer, List<Column> csvColList) throws IOException {
 		for (T row : this.csvRows) {
-			for (Method csvCol : csvColList) {	
-				try {
-					sb.append("\"").append(escape(csvCol.invoke(row))).append("\",");
-				}
-				catch (IllegalAccessException iae) {
-					sb.append("\"IllegalAccessException: ").append(escape(iae.getMessage())).append("\",");
-				}
-				catch (IllegalArgumentException argEx) {
-					sb.append("\"IllegalArgumentException: ").append(escape(argEx.getMessage())).append("\",");
-				}
-				catch (InvocationTargetException ite) {
-					sb.append("\"InvocationTargetException: ").append(escape(ite.getMessage())).append("\",");
-				}
-				catch (NullPointerException npe) {
-					sb.append("\"NullPointerException: ").append(escape(npe.getMessage())).append("\",");
-				}
-				catch (ExceptionInInitializerError eiie) {
-					sb.append("\"ExceptionInIntializerError: ").append(escape(eiie.getMessage())).append("\",");
-				}
+			for (int i = 0; i < csvColList.size(); i++) {
+				writeCell(writer, i, csvColList.get(i).value(row));
 			}
-			if (sb.length() > 0) {
-				sb.replace(sb.length()-1, sb.length(), "").append("\n");
+			if (!csvColList.isEmpty()) {
+				writer.write('\n');
 			}
 		}
 	}
 	
+	
+	private void writeCell(Writer writer, int index, String value) throws IOException {
+		if (index > 0) {
+			writer.write(',');
+		}
+		writer.write('"');
+		writer.write(value);
+		writer.write('"');
+	}
+	
 
 	/**
 	 * Add escape characters for double quotes contained in the string value of the Object passed to the method
 	 */
-	private String escape(final Object o) {
+	private static String escape(final Object o) {
 		if (o == null) {
 			return "";
 		} else {
-			return o.toString().replaceAll("\"", "\"\"");
+			return o.toString().replace("\"", "\"\"");
+		}
+	}
+	
+	
+	/**
+	 * A CsvColumn getter, errors from the getter are written into the cell like the original reflective calls
+	 */
+	private static class Column {
+		
+		private final int order;
+		private final String name;
+		private final MethodHandle getter;
+		
+		Column(Method method) {
+			CsvColumn colAnnotation = method.getAnnotation(CsvColumn.class);
+			this.order = colAnnotation.order();
+			this.name = escape(colAnnotation.name());
+			
+			try {
+				method.setAccessible(true);
+				this.getter = MethodHandles.lookup().unreflect(method);
+			} catch (IllegalAccessException iae) {
+				throw new IllegalStateException(String.format("CsvColumn %s is not accessible.", method), iae);
+			}
+		}
+		
+		String value(Object row) {
+			try {
+				return escape(this.getter.invoke(row));
+			}
+			catch (ClassCastException | NullPointerException ex) {
+				return String.format("%s: %s", ex.getClass().getSimpleName(), escape(ex.getMessage()));
+			}
+			catch (VirtualMachineError vme) {
+				throw vme;
+			}
+			catch (Throwable t) {
+				return String.format("InvocationTargetException: %s", escape(t.getMessage()));
+			}
 		}
 	}
 }
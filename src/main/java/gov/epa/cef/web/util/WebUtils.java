@@ -16,35 +16,34 @@
 */
 package gov.epa.cef.web.util;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.io.IOUtils;
 import org.springframework.http.MediaType;
 
 public class WebUtils {
 
-	protected static final long  GIGABYTE = 1024L * 1024L *1024L;
+	private static final int CSV_BUFFER_SIZE = 64 * 1024;
 	
 	/**
-	 * Use the data in the csvBuilder to create a CSV file and copy it to the HTTP response
+	 * Write the CSV file for the csvBuilder to the HTTP response as its rows are formatted
+	 * 
+	 * The length isn't known up front so no Content-Length is set and the response is sent chunked.
 	 * @param response
 	 * @param csvBuilder
 	 */
 	public static void WriteCsv(HttpServletResponse response, CsvBuilder<?> csvBuilder) {
 
-    	try (InputStream inputStream = new ByteArrayInputStream(csvBuilder.build().toString().getBytes()); OutputStream outputStream = response.getOutputStream()) {
-			response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
-			response.setHeader("Content-Disposition", String.format("attachment; filename=%s", csvBuilder.fileName()));
-			response.setHeader("Content-Length", String.valueOf(csvBuilder.build().toString().length()));
-			if(csvBuilder.build().toString().length() > GIGABYTE*2) {
-				IOUtils.copyLarge(inputStream, outputStream);
-			}else {
-				IOUtils.copy(inputStream, outputStream);
-			}
+		response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+		response.setHeader("Content-Disposition", String.format("attachment; filename=%s", csvBuilder.fileName()));
+
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), CSV_BUFFER_SIZE)) {
+			csvBuilder.write(writer);
 		} catch (Exception ex) {
 			throw new RuntimeException("There is an error writing the CSV:\n\n", ex);
 		}
@@ -0,0 +1,23 @@
+-- Report tree ids are allocated by Hibernate in blocks of 50 from each table's serial sequence so that inserts can
+-- be batched. Sequences are renamed to {table}_id_seq where a table was renamed after it was created and are
+-- stepped by the allocation size so that ids taken by the column default never overlap an allocated block.
+DO $$
+DECLARE
+    tbl text;
+    seq text;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY[
+        'emissions_report', 'facility_site', 'facility_site_contact', 'facility_naics_xref',
+        'emissions_unit', 'emissions_process', 'reporting_period', 'operating_detail',
+        'emission', 'emission_formula_variable', 'release_point', 'release_point_appt',
+        'control', 'control_path', 'control_assignment', 'control_pollutant', 'control_path_pollutant']
+    LOOP
+        seq := pg_get_serial_sequence(tbl, 'id');
+
+        IF to_regclass(tbl || '_id_seq') IS DISTINCT FROM seq::regclass THEN
+            EXECUTE format('ALTER SEQUENCE %s RENAME TO %I', seq, tbl || '_id_seq');
+        END IF;
+
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', tbl || '_id_seq');
+    END LOOP;
+END $$;
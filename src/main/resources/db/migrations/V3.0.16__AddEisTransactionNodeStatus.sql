@@ -0,0 +1,8 @@
+-- Status of each EIS transaction as reported by the node, polled on a schedule with backoff until the
+-- transaction finishes or the maximum number of checks is reached.
+ALTER TABLE eis_transaction_history ADD COLUMN node_status varchar(32);
+ALTER TABLE eis_transaction_history ADD COLUMN node_status_detail text;
+ALTER TABLE eis_transaction_history ADD COLUMN status_check_count integer NOT NULL DEFAULT 0;
+ALTER TABLE eis_transaction_history ADD COLUMN next_status_check timestamp without time zone;
+
+CREATE INDEX i_eis_transaction_history_next_status_check ON eis_transaction_history (next_status_check);
@@ -0,0 +1,108 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.api.rest;
+
+import gov.epa.cef.web.service.LookupBundleService;
+import gov.epa.cef.web.service.dto.LookupBundleDto;
+import gov.epa.cef.web.service.impl.LookupBundleServiceImpl.LookupBundleConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class LookupApiTest extends BaseApiTest {
+
+    @Mock
+    private LookupBundleService lookupBundleService;
+
+    @Spy
+    private LookupBundleConfig lookupBundleConfig = new LookupBundleConfig();
+
+    @InjectMocks
+    private LookupApi lookupApi;
+
+    private final byte[] json = "{\"pollutant\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    private LookupBundleDto bundle;
+
+    @Before
+    public void init() throws IOException {
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzipped)) {
+            gzipStream.write(this.json);
+        }
+
+        this.bundle = new LookupBundleDto(2019, "abc", gzipped.toByteArray());
+        when(this.lookupBundleService.retrieveLookupBundle(2019)).thenReturn(this.bundle);
+    }
+
+    @Test
+    public void retrieveLookupBundle_Should_SendGzip_When_ClientAcceptsIt() {
+
+        ResponseEntity<byte[]> result = this.lookupApi.retrieveLookupBundle(2019, "gzip, deflate, br");
+
+        assertEquals("gzip", result.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"abc-gz\"", result.getHeaders().getETag());
+        assertArrayEquals(this.bundle.getGzippedJson(), result.getBody());
+    }
+
+    @Test
+    public void retrieveLookupBundle_Should_SendPlainJson_When_ClientRefusesGzip() {
+
+        ResponseEntity<byte[]> result = this.lookupApi.retrieveLookupBundle(2019, "gzip;q=0, identity");
+
+        assertNull(result.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"abc\"", result.getHeaders().getETag());
+        assertArrayEquals(this.json, result.getBody());
+    }
+
+    @Test
+    public void acceptsGzip_Should_HonourQualityValues() {
+
+        assertTrue(LookupApi.acceptsGzip("gzip"));
+        assertTrue(LookupApi.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(LookupApi.acceptsGzip("*"));
+        assertTrue(LookupApi.acceptsGzip("gzip ; q=1.0"));
+
+        assertFalse(LookupApi.acceptsGzip(null));
+        assertFalse(LookupApi.acceptsGzip("identity"));
+        assertFalse(LookupApi.acceptsGzip("gzip;q=0"));
+        assertFalse(LookupApi.acceptsGzip("gzip;q=0.000"));
+        assertFalse(LookupApi.acceptsGzip("*;q=0"));
+        assertFalse(LookupApi.acceptsGzip("gzip;q=0, *"));
+        assertFalse(LookupApi.acceptsGzip("x-gzip-like"));
+    }
+}
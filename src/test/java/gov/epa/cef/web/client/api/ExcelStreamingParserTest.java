@@ -0,0 +1,213 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.client.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.service.dto.bulkUpload.ControlBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsUnitBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.FacilitySiteBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.VersionBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.WorksheetName;
+import gov.epa.cef.web.util.TempFile;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@Category(TestCategories.FastTest.class)
+public class ExcelStreamingParserTest {
+
+    private static final String TemplatePath = "/excel/CEF_BulkUpload_Template.xlsx";
+
+    private static final int FirstDataRow = 23;
+
+    private ExcelStreamingParser parser;
+
+    private TempFile workbook;
+
+    @Before
+    public void init() throws Exception {
+
+        this.parser = new ExcelStreamingParser(new ObjectMapper());
+
+        try (InputStream is = getClass().getResourceAsStream(TemplatePath);
+             XSSFWorkbook wb = new XSSFWorkbook(is)) {
+
+            fillFacility(wb.getSheet(WorksheetName.FacilitySite.sheetName()));
+            fillEmissionsUnits(wb.getSheet(WorksheetName.EmissionsUnit.sheetName()));
+            fillControls(wb.getSheet(WorksheetName.Control.sheetName()));
+            fillEmissions(wb.getSheet(WorksheetName.Emission.sheetName()));
+
+            this.workbook = TempFile.create("bulk-upload", ".xlsx");
+            try (OutputStream out = new FileOutputStream(this.workbook.getFile())) {
+                wb.write(out);
+            }
+        }
+    }
+
+    @After
+    public void cleanup() {
+
+        if (this.workbook != null) {
+            this.workbook.close();
+        }
+    }
+
+    @Test
+    public void parseWorkbook_Should_MapEachFilledRowToItsDto() {
+
+        EmissionsReportBulkUploadDto result = this.parser.parseWorkbook(this.workbook);
+
+        assertEquals(1, result.getFacilitySites().size());
+        FacilitySiteBulkUploadDto facility = result.getFacilitySites().get(0);
+        assertEquals(FirstDataRow + 1, facility.getRow());
+        assertEquals("ALT-1", facility.getAltSiteIdentifier());
+        assertEquals("Inline Facility", facility.getName());
+        assertEquals("2019", facility.getStatusYear());
+        assertEquals("33.7490123", facility.getLatitude());
+        assertNull(facility.getDescription());
+
+        // the blank row between the units is skipped and the note in the header rows is never read
+        assertEquals(2, result.getEmissionsUnits().size());
+        EmissionsUnitBulkUploadDto boiler = result.getEmissionsUnits().get(0);
+        assertEquals(FirstDataRow + 1, boiler.getRow());
+        assertEquals("EU-1", boiler.getUnitIdentifier());
+        assertEquals("Boiler", boiler.getDescription());
+        assertEquals("2010", boiler.getStatusYear());
+        assertEquals("1500.25", boiler.getDesignCapacity());
+
+        EmissionsUnitBulkUploadDto dryer = result.getEmissionsUnits().get(1);
+        assertEquals(FirstDataRow + 3, dryer.getRow());
+        assertEquals("EU-2", dryer.getUnitIdentifier());
+        assertEquals("Inline Dryer", dryer.getDescription());
+        assertNull(dryer.getDesignCapacity());
+
+        assertEquals(1, result.getControls().size());
+        ControlBulkUploadDto control = result.getControls().get(0);
+        assertEquals(FirstDataRow + 1, control.getRow());
+        assertEquals("CD-1", control.getIdentifier());
+        assertEquals("95.5", control.getPercentControl());
+        assertEquals("2020-01-15", control.getStartDate());
+
+        assertEquals(2, result.getEmissions().size());
+        EmissionBulkUploadDto lead = result.getEmissions().get(0);
+        assertEquals("7439921", lead.getPollutantCode());
+        assertTrue(lead.isTotalManualEntry());
+        EmissionBulkUploadDto benzene = result.getEmissions().get(1);
+        assertEquals("71432", benzene.getPollutantCode());
+        assertFalse(benzene.isTotalManualEntry());
+
+        // the version row is filled in on the template itself
+        assertEquals(1, result.getVersions().size());
+        VersionBulkUploadDto version = result.getVersions().get(0);
+        assertEquals(FirstDataRow + 1, version.getRow());
+        assertEquals("2.4", version.getVersion());
+
+        assertTrue(result.getReleasePoints().isEmpty());
+        assertTrue(result.getEmissionsProcesses().isEmpty());
+        assertTrue(result.getReportingPeriods().isEmpty());
+    }
+
+    private void fillFacility(Sheet sheet) {
+
+        Row row = row(sheet, FirstDataRow);
+        cell(row, 2).setCellValue("ALT-1");
+        inlineString(cell(row, 6), "Inline Facility");
+        cell(row, 10).setCellValue(2019);
+        cell(row, 21).setCellValue(33.7490123);
+    }
+
+    private void fillEmissionsUnits(Sheet sheet) {
+
+        // below the json keys but above the data, like the instructions on the template
+        cell(row(sheet, FirstDataRow - 3), 2).setCellValue("Not a unit");
+
+        Row boiler = row(sheet, FirstDataRow);
+        cell(boiler, 2).setCellValue("EU-1");
+        cell(boiler, 4).setCellValue("Boiler");
+        cell(boiler, 9).setCellValue(2010);
+        cell(boiler, 10).setCellValue(1500.25);
+
+        Row dryer = row(sheet, FirstDataRow + 2);
+        cell(dryer, 2).setCellValue("EU-2");
+        inlineString(cell(dryer, 4), "Inline Dryer");
+    }
+
+    private void fillControls(Sheet sheet) {
+
+        Row row = row(sheet, FirstDataRow);
+        cell(row, 2).setCellValue("CD-1");
+        cell(row, 5).setCellValue(95.5);
+
+        // the start date column keeps its yyyy-mm-dd format from the template
+        cell(row, 12).setCellValue(new GregorianCalendar(2020, Calendar.JANUARY, 15).getTime());
+    }
+
+    private void fillEmissions(Sheet sheet) {
+
+        Row lead = row(sheet, FirstDataRow);
+        cell(lead, 3).setCellValue("7439921");
+        cell(lead, 5).setCellValue(true);
+
+        Row benzene = row(sheet, FirstDataRow + 1);
+        cell(benzene, 3).setCellValue("71432");
+        cell(benzene, 5).setCellValue(false);
+    }
+
+    private Row row(Sheet sheet, int rowNum) {
+
+        Row result = sheet.getRow(rowNum);
+        return result != null ? result : sheet.createRow(rowNum);
+    }
+
+    private Cell cell(Row row, int column) {
+
+        return row.getCell(column, MissingCellPolicy.CREATE_NULL_AS_BLANK);
+    }
+
+    /**
+     * Workbooks saved by other tools can hold text inline rather than in the shared strings table
+     */
+    private void inlineString(Cell cell, String value) {
+
+        CTCell ctCell = ((XSSFCell) cell).getCTCell();
+        ctCell.setT(STCellType.INLINE_STR);
+        ctCell.addNewIs().setT(value);
+    }
+}
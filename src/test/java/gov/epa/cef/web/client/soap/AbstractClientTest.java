@@ -0,0 +1,108 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.client.soap;
+
+import gov.epa.cef.web.config.TestCategories;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.jws.WebService;
+import javax.xml.ws.BindingProvider;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@Category(TestCategories.FastTest.class)
+public class AbstractClientTest {
+
+    // nothing listens here, the proxies are only created and never called
+    private static final String Address = "http://localhost:9/echo";
+
+    private AbstractClient client;
+
+    private ExecutorService executor;
+
+    @Before
+    public void init() {
+
+        this.client = new AbstractClient() {};
+        this.executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void shutdown() {
+
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void getClient_Should_ShareOneProxy_Between_Threads() throws Exception {
+
+        // both threads ask for the client at the same time
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        Future<EchoService> first = this.executor.submit(() -> {
+            barrier.await(5, TimeUnit.SECONDS);
+            return this.client.getClient(Address, EchoService.class, false, true);
+        });
+        Future<EchoService> second = this.executor.submit(() -> {
+            barrier.await(5, TimeUnit.SECONDS);
+            return this.client.getClient(Address, EchoService.class, false, true);
+        });
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+
+        // a different configuration gets its own proxy
+        assertNotSame(first.get(), this.client.getClient(Address, EchoService.class, true, true));
+    }
+
+    @Test
+    public void getClient_Should_KeepRequestContext_On_CallingThread() throws Exception {
+
+        EchoService echo = this.client.getClient(Address, EchoService.class, false, true);
+        ((BindingProvider) echo).getRequestContext().put("cef.test", "main");
+
+        Future<Object> other = this.executor.submit(() -> {
+
+            EchoService shared = this.client.getClient(Address, EchoService.class, false, true);
+            assertSame(echo, shared);
+
+            ((BindingProvider) shared).getRequestContext().put("cef.test.other", "other");
+            return ((BindingProvider) shared).getRequestContext().get("cef.test");
+        });
+
+        assertNull(other.get(5, TimeUnit.SECONDS));
+
+        assertEquals("main", ((BindingProvider) echo).getRequestContext().get("cef.test"));
+        assertNull(((BindingProvider) echo).getRequestContext().get("cef.test.other"));
+    }
+
+    @WebService
+    public interface EchoService {
+
+        String echo(String value);
+    }
+}
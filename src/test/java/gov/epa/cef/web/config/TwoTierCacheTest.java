@@ -0,0 +1,179 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.config;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@Category(TestCategories.FastTest.class)
+public class TwoTierCacheTest {
+
+    private static final String UserId = "user";
+
+    private ConcurrentMapCache remote;
+
+    private List<Map.Entry<String, Object>> invalidations;
+
+    private TwoTierCache cache;
+
+    @Before
+    public void init() {
+
+        this.remote = new ConcurrentMapCache(CacheName.EmissionMasterIds);
+        this.invalidations = new ArrayList<>();
+        this.cache = new TwoTierCache(this.remote, 100, 300,
+            (name, key) -> this.invalidations.add(new SimpleEntry<>(name, key)));
+    }
+
+    @Test
+    public void get_Should_ServeLocalCopy_When_EntryWasRead() {
+
+        this.remote.put(1L, 10L);
+
+        assertEquals(10L, this.cache.get(1L).get());
+        assertEquals(1, this.cache.localSize());
+
+        // the local copy is used until another node says the entry changed
+        this.remote.put(1L, 20L);
+        assertEquals(10L, this.cache.get(1L, Long.class).longValue());
+
+        this.cache.invalidateLocal(1L);
+        assertEquals(20L, this.cache.get(1L, Long.class).longValue());
+
+        assertEquals(0, this.invalidations.size());
+    }
+
+    @Test
+    public void get_Should_CacheNullValues() {
+
+        assertNull(this.cache.get(2L));
+
+        assertNull(this.cache.get(2L, () -> null));
+
+        Cache.ValueWrapper result = this.cache.get(2L);
+        assertNotNull(result);
+        assertNull(result.get());
+    }
+
+    @Test
+    public void put_Should_NotifyOtherNodes_When_EntryChanges() {
+
+        this.cache.put(1L, 10L);
+        this.cache.evict(1L);
+        this.cache.clear();
+
+        assertNull(this.remote.get(1L));
+        assertEquals(0, this.cache.localSize());
+
+        assertEquals(3, this.invalidations.size());
+        assertEquals(new SimpleEntry<>(CacheName.EmissionMasterIds, 1L), this.invalidations.get(0));
+        assertEquals(new SimpleEntry<>(CacheName.EmissionMasterIds, 1L), this.invalidations.get(1));
+        assertEquals(new SimpleEntry<>(CacheName.EmissionMasterIds, null), this.invalidations.get(2));
+    }
+
+    @Test
+    public void get_Should_NotKeepLocalCopy_When_EvictedDuringRead() {
+
+        this.remote.put(UserId, 10L);
+
+        // another request revokes access after the value was read from the shared cache but before it's copied locally
+        TwoTierCache cache = new TwoTierCache(new EvictingCache(this.remote, () -> this.cache.evict(UserId)),
+            100, 300, (name, key) -> {});
+        this.cache = cache;
+
+        assertEquals(10L, cache.get(UserId).get());
+        assertEquals(0, cache.localSize());
+
+        assertNull(cache.get(UserId));
+    }
+
+    @Test
+    public void get_Should_NotKeepLocalCopy_When_InvalidatedByOtherNodeDuringRead() {
+
+        this.remote.put(UserId, 10L);
+
+        TwoTierCache cache = new TwoTierCache(new EvictingCache(this.remote, () -> {
+            this.remote.evict(UserId);
+            this.cache.invalidateLocal(UserId);
+        }), 100, 300, (name, key) -> {});
+        this.cache = cache;
+
+        assertEquals(10L, cache.get(UserId, () -> 20L).longValue());
+        assertEquals(0, cache.localSize());
+
+        assertEquals(30L, cache.get(UserId, () -> 30L).longValue());
+        assertEquals(1, cache.localSize());
+    }
+
+    /**
+     * Shared cache that runs an action once, right after the first read returns
+     */
+    private static class EvictingCache extends ConcurrentMapCache {
+
+        private final ConcurrentMapCache delegate;
+
+        private Runnable afterRead;
+
+        EvictingCache(ConcurrentMapCache delegate, Runnable afterRead) {
+
+            super(delegate.getName(), delegate.getNativeCache(), true);
+
+            this.delegate = delegate;
+            this.afterRead = afterRead;
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+
+            ValueWrapper result = this.delegate.get(key);
+            afterRead();
+
+            return result;
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+
+            T result = this.delegate.get(key, valueLoader);
+            afterRead();
+
+            return result;
+        }
+
+        private void afterRead() {
+
+            if (this.afterRead != null) {
+                Runnable action = this.afterRead;
+                this.afterRead = null;
+                action.run();
+            }
+        }
+    }
+}
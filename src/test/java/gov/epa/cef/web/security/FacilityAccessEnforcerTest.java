@@ -35,10 +35,16 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -53,8 +59,8 @@ public class FacilityAccessEnforcerTest extends BaseSecurityTest {
     @Test(expected = Test.None.class /* no exception expected */)
     public void enforceEntities_Authorized() {
 
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(2L)).thenReturn(Optional.of(2L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(4L)).thenReturn(Optional.of(4L));
+        when(programIdRetriever.retrieveMasterFacilityRecordIdsByIds(any()))
+            .thenReturn(Arrays.asList(masterFacilityRecordId(2L, 2L), masterFacilityRecordId(4L, 4L)));
 
         Set<Long> authorized = Sets.newHashSet(1L, 2L, 3L, 4L);
 
@@ -64,9 +70,8 @@ public class FacilityAccessEnforcerTest extends BaseSecurityTest {
     @Test(expected = FacilityAccessException.class)
     public void enforceEntities_NotAuthorized() {
 
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(2L)).thenReturn(Optional.of(2L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(4L)).thenReturn(Optional.of(4L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(5L)).thenReturn(Optional.of(5L));
+        when(programIdRetriever.retrieveMasterFacilityRecordIdsByIds(any()))
+            .thenReturn(Arrays.asList(masterFacilityRecordId(2L, 2L), masterFacilityRecordId(4L, 4L), masterFacilityRecordId(5L, 5L)));
 
         Set<Long> authorized = Sets.newHashSet(1L, 2L, 3L, 4L);
 
@@ -76,15 +81,33 @@ public class FacilityAccessEnforcerTest extends BaseSecurityTest {
     @Test(expected = NotExistException.class)
     public void enforceEntities_NotExist() {
 
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(2L)).thenReturn(Optional.of(2L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(4L)).thenReturn(Optional.of(4L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(6L)).thenReturn(Optional.empty());
+        when(programIdRetriever.retrieveMasterFacilityRecordIdsByIds(any()))
+            .thenReturn(Arrays.asList(masterFacilityRecordId(2L, 2L), masterFacilityRecordId(4L, 4L)));
 
         Set<Long> authorized = Sets.newHashSet(1L, 2L, 3L, 4L);
 
         createEnforcer(authorized).enforceEntities(Arrays.asList(2L, 4L, 6L), EmissionRepository.class);
     }
 
+    @Test(expected = Test.None.class)
+    public void enforceEntities_LargeSet_Batched() {
+
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().collect(Collectors.toList());
+
+        when(programIdRetriever.retrieveMasterFacilityRecordIdsByIds(any())).thenAnswer(invocation -> {
+
+            Collection<Long> batch = invocation.getArgument(0);
+            return batch.stream().map(id -> masterFacilityRecordId(id, id % 4 + 1)).collect(Collectors.toList());
+        });
+
+        Set<Long> authorized = Sets.newHashSet(1L, 2L, 3L, 4L);
+
+        createEnforcer(authorized).enforceFacilitySites(ids);
+
+        verify(programIdRetriever, times(3)).retrieveMasterFacilityRecordIdsByIds(any());
+        verify(programIdRetriever, never()).retrieveMasterFacilityRecordIdById(any());
+    }
+
     @Test(expected = Test.None.class)
     public void enforceEntity_Authorized() {
 
@@ -149,8 +172,8 @@ public class FacilityAccessEnforcerTest extends BaseSecurityTest {
     @Test(expected = Test.None.class)
     public void enforceFacilitySites_Authorized() {
 
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(2L)).thenReturn(Optional.of(2L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(4L)).thenReturn(Optional.of(4L));
+        when(programIdRetriever.retrieveMasterFacilityRecordIdsByIds(any()))
+            .thenReturn(Arrays.asList(masterFacilityRecordId(2L, 2L), masterFacilityRecordId(4L, 4L)));
 
         Set<Long> authorized = Sets.newHashSet(1L, 2L, 3L, 4L);
 
@@ -160,9 +183,8 @@ public class FacilityAccessEnforcerTest extends BaseSecurityTest {
     @Test(expected = FacilityAccessException.class)
     public void enforceFacilitySites_NotAuthorized() {
 
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(2L)).thenReturn(Optional.of(2L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(4L)).thenReturn(Optional.of(4L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(5L)).thenReturn(Optional.of(5L));
+        when(programIdRetriever.retrieveMasterFacilityRecordIdsByIds(any()))
+            .thenReturn(Arrays.asList(masterFacilityRecordId(2L, 2L), masterFacilityRecordId(4L, 4L), masterFacilityRecordId(5L, 5L)));
 
         Set<Long> authorized = Sets.newHashSet(1L, 2L, 3L, 4L);
 
@@ -172,9 +194,8 @@ public class FacilityAccessEnforcerTest extends BaseSecurityTest {
     @Test(expected = NotExistException.class)
     public void enforceFacilitySites_NotExist() {
 
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(2L)).thenReturn(Optional.of(2L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(4L)).thenReturn(Optional.of(4L));
-        when(programIdRetriever.retrieveMasterFacilityRecordIdById(6L)).thenReturn(Optional.empty());
+        when(programIdRetriever.retrieveMasterFacilityRecordIdsByIds(any()))
+            .thenReturn(Arrays.asList(masterFacilityRecordId(2L, 2L), masterFacilityRecordId(4L, 4L)));
 
         Set<Long> authorized = Sets.newHashSet(1L, 2L, 3L, 4L);
 
@@ -222,4 +243,22 @@ public class FacilityAccessEnforcerTest extends BaseSecurityTest {
 
         return new FacilityAccessEnforcerImpl(this.programIdRepoLocator, masterIds);
     }
+
+    private static ProgramIdRetriever.MasterFacilityRecordId masterFacilityRecordId(Long id, Long masterFacilityRecordId) {
+
+        return new ProgramIdRetriever.MasterFacilityRecordId() {
+
+            @Override
+            public Long getId() {
+
+                return id;
+            }
+
+            @Override
+            public Long getMasterFacilityRecordId() {
+
+                return masterFacilityRecordId;
+            }
+        };
+    }
 }
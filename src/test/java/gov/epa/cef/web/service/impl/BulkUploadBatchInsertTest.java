@@ -0,0 +1,143 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.Resources;
+import gov.epa.cef.web.config.CommonInitializers;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the number of JDBC statements prepared while saving a large bulk upload against the number of
+ * rows inserted. Without batching every inserted row is its own statement.
+ */
+@SqlGroup(value = {@Sql("classpath:db/test/emptyTestData.sql")})
+@ContextConfiguration(initializers = {
+    CommonInitializers.NoCacheInitializer.class
+})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BulkUploadBatchInsertTest extends BaseServiceDatabaseTest {
+
+    private static final int UNIT_COPIES = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper jsonMapper;
+
+    @Autowired
+    private BulkUploadServiceImpl uploadService;
+
+    @Test
+    public void saveLargeReportInBatchesTest() throws Exception {
+
+        EmissionsReportBulkUploadDto dto = this.jsonMapper.treeToValue(createLargeReport(),
+            EmissionsReportBulkUploadDto.class);
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.currentTimeMillis();
+
+        this.uploadService.saveBulkEmissionsReport(dto);
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        long inserted = statistics.getEntityInsertCount();
+        long prepared = statistics.getPrepareStatementCount();
+
+        logger.info("Saved {} units: {} rows inserted with {} statements prepared in {} ms",
+            dto.getEmissionsUnits().size(), inserted, prepared, elapsed);
+
+        // unbatched, every row inserted is a statement of its own
+        assertTrue(String.format("%d statements for %d rows", prepared, inserted), prepared < inserted / 2);
+    }
+
+    /**
+     * Copy every emissions unit of the sample upload, along with its processes, periods, details and emissions
+     */
+    private ObjectNode createLargeReport() throws Exception {
+
+        ObjectNode report = (ObjectNode) this.jsonMapper.readTree(
+            Resources.getResource("json/bulkUploadServiceImplTest/saveBulkEmissionsReport.json"));
+
+        ObjectNode original = report.deepCopy();
+
+        for (int copy = 1; copy <= UNIT_COPIES; copy++) {
+
+            long offset = copy * 100L;
+
+            for (ObjectNode unit : copyRows(original, report, "emissionsUnits", offset)) {
+                unit.put("unitIdentifier", String.format("%s-%d", unit.path("unitIdentifier").asText(), copy));
+            }
+
+            copyRows(original, report, "emissionsProcesses", offset, "emissionsUnitId");
+            copyRows(original, report, "reportingPeriods", offset, "emissionsProcessId");
+            copyRows(original, report, "operatingDetails", offset, "reportingPeriodId");
+            copyRows(original, report, "emissions", offset, "reportingPeriodId");
+            copyRows(original, report, "releasePointAppts", offset, "emissionProcessId");
+        }
+
+        return report;
+    }
+
+    /**
+     * Append a copy of the original rows of a worksheet with the row id and the given parent ids offset
+     */
+    private List<ObjectNode> copyRows(ObjectNode original, ObjectNode report, String worksheet, long offset,
+                                      String... parentIds) {
+
+        List<ObjectNode> result = new ArrayList<>();
+
+        for (JsonNode row : original.path(worksheet)) {
+
+            ObjectNode copy = row.deepCopy();
+            copy.put("id", row.path("id").asLong() + offset);
+            for (String parentId : parentIds) {
+                copy.put(parentId, row.path(parentId).asLong() + offset);
+            }
+
+            result.add(copy);
+        }
+
+        ((ArrayNode) report.path(worksheet)).addAll(result);
+
+        return result;
+    }
+}
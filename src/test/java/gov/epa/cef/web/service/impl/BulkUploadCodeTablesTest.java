@@ -0,0 +1,79 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.domain.FipsCounty;
+import gov.epa.cef.web.domain.FipsStateCode;
+import gov.epa.cef.web.domain.UnitMeasureCode;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@Category(TestCategories.FastTest.class)
+public class BulkUploadCodeTablesTest {
+
+    @Test
+    public void testResolveCountsHitsAndMisses() {
+
+        UnitMeasureCode ton = new UnitMeasureCode();
+        ton.setCode("TON");
+        UnitMeasureCode lb = new UnitMeasureCode();
+        lb.setCode("LB");
+
+        FipsStateCode georgia = new FipsStateCode();
+        georgia.setCode("13");
+        georgia.setUspsCode("GA");
+
+        FipsCounty fulton = new FipsCounty();
+        fulton.setCode("13121");
+        fulton.setCountyCode("121");
+        fulton.setFipsStateCode(georgia);
+
+        BulkUploadCodeTables codes = BulkUploadCodeTables.builder()
+            .table(UnitMeasureCode.class, Arrays.asList(ton, lb), UnitMeasureCode::getCode)
+            .table(FipsStateCode.class, Collections.singletonList(georgia), FipsStateCode::getUspsCode)
+            .counties(Collections.singletonList(fulton))
+            .build();
+
+        assertSame(ton, codes.resolve(UnitMeasureCode.class, "TON"));
+        assertSame(ton, codes.resolve(UnitMeasureCode.class, "TON"));
+        assertSame(georgia, codes.resolve(FipsStateCode.class, "GA"));
+        assertSame(fulton, codes.resolveCounty("13", "121"));
+
+        assertNull(codes.resolve(UnitMeasureCode.class, "XYZ"));
+        assertNull(codes.resolveCounty("13", "999"));
+
+        // null codes are not lookups
+        assertNull(codes.resolve(UnitMeasureCode.class, null));
+
+        assertEquals(4, codes.getHitCount());
+        assertEquals(2, codes.getMissCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testResolveFromMissingTable() {
+
+        BulkUploadCodeTables.builder().build().resolve(UnitMeasureCode.class, "TON");
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionFormulaVariableBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsProcessBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsUnitBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.ReportingPeriodBulkUploadDto;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(TestCategories.FastTest.class)
+public class BulkUploadIndexTest {
+
+    private static final int UNITS = 500;
+    private static final int PROCESSES_PER_UNIT = 10;
+    private static final int EMISSIONS_PER_PERIOD = 10;
+
+    @Test
+    public void testChildrenGroupedByParent() {
+
+        EmissionsReportBulkUploadDto report = createWorkbook(2, 2, 3);
+
+        BulkUploadIndex index = new BulkUploadIndex(report);
+
+        assertEquals(2, index.emissionsUnits(1L).size());
+        assertEquals(2, index.emissionsProcesses(1L).size());
+        assertEquals(1, index.reportingPeriods(1L).size());
+        assertEquals(3, index.emissions(1L).size());
+        assertEquals(1, index.emissionFormulaVariables(1L).size());
+
+        // worksheet order is kept within a group
+        List<EmissionBulkUploadDto> emissions = index.emissions(2L);
+        assertEquals(Long.valueOf(4L), emissions.get(0).getId());
+        assertEquals(Long.valueOf(6L), emissions.get(2).getId());
+
+        // unknown and null parents have no children
+        assertTrue(index.emissionsUnits(2L).isEmpty());
+        assertTrue(index.emissions(null).isEmpty());
+        assertTrue(index.controls(1L).isEmpty());
+    }
+
+    @Test
+    public void testLargeWorkbookIndexedInBoundedTime() {
+
+        EmissionsReportBulkUploadDto report = createWorkbook(UNITS, PROCESSES_PER_UNIT, EMISSIONS_PER_PERIOD);
+        assertEquals(50000, report.getEmissions().size());
+
+        long start = System.nanoTime();
+
+        BulkUploadIndex index = new BulkUploadIndex(report);
+
+        int emissions = 0;
+        int variables = 0;
+        for (EmissionsUnitBulkUploadDto unit : index.emissionsUnits(1L)) {
+            for (EmissionsProcessBulkUploadDto process : index.emissionsProcesses(unit.getId())) {
+                for (ReportingPeriodBulkUploadDto period : index.reportingPeriods(process.getId())) {
+                    for (EmissionBulkUploadDto emission : index.emissions(period.getId())) {
+                        emissions++;
+                        variables += index.emissionFormulaVariables(emission.getId()).size();
+                    }
+                }
+            }
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(50000, emissions);
+        assertEquals(50000, variables);
+
+        // a per-parent scan of the child lists takes minutes at this size
+        assertTrue(String.format("Indexing took %d ms", elapsed), elapsed < 5000);
+    }
+
+    /**
+     * Build a synthetic workbook for a single facility with one reporting period per process
+     * and one formula variable per emission.
+     */
+    private EmissionsReportBulkUploadDto createWorkbook(int units, int processesPerUnit, int emissionsPerPeriod) {
+
+        EmissionsReportBulkUploadDto report = new EmissionsReportBulkUploadDto();
+
+        long processId = 0;
+        long emissionId = 0;
+        for (long unitId = 1; unitId <= units; unitId++) {
+
+            EmissionsUnitBulkUploadDto unit = new EmissionsUnitBulkUploadDto();
+            unit.setId(unitId);
+            unit.setFacilitySiteId(1L);
+            report.getEmissionsUnits().add(unit);
+
+            for (int p = 0; p < processesPerUnit; p++) {
+
+                processId++;
+
+                EmissionsProcessBulkUploadDto process = new EmissionsProcessBulkUploadDto();
+                process.setId(processId);
+                process.setEmissionsUnitId(unitId);
+                report.getEmissionsProcesses().add(process);
+
+                ReportingPeriodBulkUploadDto period = new ReportingPeriodBulkUploadDto();
+                period.setId(processId);
+                period.setEmissionsProcessId(processId);
+                report.getReportingPeriods().add(period);
+
+                for (int e = 0; e < emissionsPerPeriod; e++) {
+
+                    emissionId++;
+
+                    EmissionBulkUploadDto emission = new EmissionBulkUploadDto();
+                    emission.setId(emissionId);
+                    emission.setReportingPeriodId(processId);
+                    report.getEmissions().add(emission);
+
+                    EmissionFormulaVariableBulkUploadDto variable = new EmissionFormulaVariableBulkUploadDto();
+                    variable.setId(emissionId);
+                    variable.setEmissionId(emissionId);
+                    report.getEmissionFormulaVariables().add(variable);
+                }
+            }
+        }
+
+        return report;
+    }
+}
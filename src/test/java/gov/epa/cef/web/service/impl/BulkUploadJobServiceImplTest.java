@@ -0,0 +1,244 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import gov.epa.cef.web.client.soap.VirusScanClient;
+import gov.epa.cef.web.exception.BulkReportValidationException;
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.service.BulkUploadService;
+import gov.epa.cef.web.service.dto.EmissionsReportDto;
+import gov.epa.cef.web.service.dto.EmissionsReportStarterDto;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadJobDto;
+import gov.epa.cef.web.service.dto.bulkUpload.BulkUploadStage;
+import gov.epa.cef.web.service.dto.bulkUpload.WorksheetError;
+import gov.epa.cef.web.util.TempFile;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BulkUploadJobServiceImplTest {
+
+    @Mock
+    private BulkUploadService uploadService;
+
+    @Mock
+    private VirusScanClient virusScanClient;
+
+    @Mock
+    private HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private IMap<String, BulkUploadJobDto> jobMap;
+
+    /**
+     * Stands in for the cluster, holds serialized copies like Hazelcast does
+     */
+    private final Map<String, byte[]> storedJobs = new ConcurrentHashMap<>();
+
+    private BulkUploadJobServiceImpl jobService;
+
+    private EmissionsReportStarterDto metadata;
+
+    @Before
+    public void init() {
+
+        when(this.hazelcastInstance.<String, BulkUploadJobDto>getMap(BulkUploadJobServiceImpl.JobMap))
+            .thenReturn(this.jobMap);
+
+        doAnswer(invocation -> {
+            this.storedJobs.put(invocation.getArgument(0), SerializationUtils.serialize(invocation.getArgument(1)));
+            return null;
+        }).when(this.jobMap).set(anyString(), any(), anyLong(), eq(TimeUnit.MINUTES));
+
+        doAnswer(invocation -> {
+            this.storedJobs.remove(invocation.getArgument(0));
+            return null;
+        }).when(this.jobMap).delete(any());
+
+        when(this.jobMap.get(any())).thenAnswer(invocation -> {
+            byte[] stored = this.storedJobs.get(invocation.getArgument(0));
+            return stored == null ? null : SerializationUtils.deserialize(stored);
+        });
+
+        this.jobService = newJobService(new BulkUploadJobServiceImpl.BulkUploadJobConfig());
+
+        this.metadata = new EmissionsReportStarterDto();
+        this.metadata.setMasterFacilityRecordId(1L);
+    }
+
+    @After
+    public void shutdown() {
+
+        this.jobService.destroy();
+    }
+
+    @Test
+    public void submit_Should_CompleteJob_When_WorkbookIsSaved() throws Exception {
+
+        EmissionsReportDto report = new EmissionsReportDto();
+        when(this.uploadService.saveBulkWorkbook(any(), any(), any())).thenReturn(report);
+
+        BulkUploadJobDto job = this.jobService.submit(this.metadata, TempFile.create("workbook", ".xlsx"));
+        assertEquals(Long.valueOf(1L), job.getMasterFacilityRecordId());
+
+        awaitFinished(job);
+
+        assertEquals(BulkUploadStage.Complete, job.getStage());
+        assertEquals(100, job.getPercentComplete());
+        assertSame(report, job.getReport());
+
+        BulkUploadJobDto stored = this.jobService.retrieveJob(job.getJobId()).orElse(null);
+        assertNotSame(job, stored);
+        assertEquals(BulkUploadStage.Complete, stored.getStage());
+        assertEquals(job.getFinishedAt(), stored.getFinishedAt());
+    }
+
+    @Test
+    public void submit_Should_StoreProgress_When_StageChanges() throws Exception {
+
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(this.uploadService.saveBulkWorkbook(any(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<BulkUploadStage>>getArgument(2).accept(BulkUploadStage.Saving);
+            saving.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new EmissionsReportDto();
+        });
+
+        BulkUploadJobDto job = this.jobService.submit(this.metadata, TempFile.create("workbook", ".xlsx"));
+
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        assertEquals(BulkUploadStage.Saving, this.jobService.retrieveJob(job.getJobId()).get().getStage());
+
+        release.countDown();
+        awaitFinished(job);
+
+        assertEquals(BulkUploadStage.Complete, this.jobService.retrieveJob(job.getJobId()).get().getStage());
+    }
+
+    @Test
+    public void submit_Should_FailJob_With_WorksheetErrors_When_WorkbookIsInvalid() throws Exception {
+
+        WorksheetError error = new WorksheetError("Emissions", 24, "Invalid pollutant.");
+        when(this.uploadService.saveBulkWorkbook(any(), any(), any()))
+            .thenThrow(new BulkReportValidationException(Collections.singletonList(error)));
+
+        BulkUploadJobDto job = this.jobService.submit(this.metadata, TempFile.create("workbook", ".xlsx"));
+
+        awaitFinished(job);
+
+        assertTrue(job.isFailed());
+        assertEquals(Collections.singletonList(error), job.getErrors());
+    }
+
+    @Test
+    public void submit_Should_FailJob_With_ExceptionName_When_ExceptionHasNoMessage() throws Exception {
+
+        when(this.uploadService.saveBulkWorkbook(any(), any(), any())).thenThrow(new NullPointerException());
+
+        BulkUploadJobDto job = this.jobService.submit(this.metadata, TempFile.create("workbook", ".xlsx"));
+
+        awaitFinished(job);
+
+        BulkUploadJobDto stored = this.jobService.retrieveJob(job.getJobId()).orElse(null);
+        assertTrue(stored.isFailed());
+        assertTrue(stored.getErrors().get(0).isSystemError());
+        assertEquals("An unexpected error occurred (NullPointerException).", stored.getErrors().get(0).getMessage());
+    }
+
+    @Test(expected = ServiceBusyException.class)
+    public void submit_Should_RejectAsBusy_When_QueueIsFull() throws Exception {
+
+        this.jobService.destroy();
+
+        BulkUploadJobServiceImpl.BulkUploadJobConfig config = new BulkUploadJobServiceImpl.BulkUploadJobConfig();
+        config.setWorkers(1);
+        config.setQueueCapacity(1);
+        this.jobService = newJobService(config);
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.uploadService.saveBulkWorkbook(any(), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new EmissionsReportDto();
+        });
+
+        try {
+
+            // one running and one queued
+            this.jobService.submit(this.metadata, TempFile.create("workbook", ".xlsx"));
+            this.jobService.submit(this.metadata, TempFile.create("workbook", ".xlsx"));
+
+            this.jobService.submit(this.metadata, TempFile.create("workbook", ".xlsx"));
+
+        } finally {
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void retrieveJob_Should_ReturnEmpty_When_JobDoesNotExist() {
+
+        assertFalse(this.jobService.retrieveJob("missing").isPresent());
+    }
+
+    private BulkUploadJobServiceImpl newJobService(BulkUploadJobServiceImpl.BulkUploadJobConfig config) {
+
+        return new BulkUploadJobServiceImpl(config, this.uploadService, this.virusScanClient, this.hazelcastInstance);
+    }
+
+    private void awaitFinished(BulkUploadJobDto job) throws InterruptedException {
+
+        for (int i = 0; i < 100 && !isStoredFinished(job); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private boolean isStoredFinished(BulkUploadJobDto job) {
+
+        return this.jobService.retrieveJob(job.getJobId())
+            .map(stored -> stored.getStage().isFinished())
+            .orElse(false);
+    }
+}
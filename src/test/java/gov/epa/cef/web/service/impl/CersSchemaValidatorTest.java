@@ -0,0 +1,127 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.exception.AppValidationException;
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.service.impl.EisTransmissionServiceImpl.EisTransmissionConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(TestCategories.FastTest.class)
+public class CersSchemaValidatorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CersSchemaValidator validator;
+
+    @Before
+    public void init() {
+
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.validator = new CersSchemaValidator(new EisTransmissionConfig(), this.meterRegistry);
+    }
+
+    @After
+    public void shutdown() {
+
+        this.validator.destroy();
+    }
+
+    @Test
+    public void validate_Should_PassDocumentThrough_When_DocumentIsValid() throws IOException {
+
+        // larger than the pipe so the writer has to wait for the validator
+        String document = createDocument("2", StringUtils.repeat("padding ", 100000), "2019");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (CersSchemaValidator.Validation validation = this.validator.validate(true, output)) {
+
+            validation.getOutputStream().write(document.getBytes(StandardCharsets.UTF_8));
+            validation.complete();
+        }
+
+        assertEquals(document, new String(output.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(1, this.meterRegistry.get("cef.eis.validation")
+            .tag("schemaVersion", "2.0").tag("outcome", "valid").timer().count());
+    }
+
+    @Test
+    public void validate_Should_ReportErrors_When_DocumentDoesNotMatchSchema() throws IOException {
+
+        String document = createDocument("1", StringUtils.repeat("padding ", 100000), "not a year");
+
+        try (CersSchemaValidator.Validation validation = this.validator.validate(false, new ByteArrayOutputStream())) {
+
+            validation.getOutputStream().write(document.getBytes(StandardCharsets.UTF_8));
+            validation.complete();
+
+            fail("Expected the document to be rejected");
+
+        } catch (AppValidationException e) {
+
+            assertTrue(e.getMessage(), e.getMessage().contains("CERS 1.2"));
+            assertTrue(e.getMessage(), e.getMessage().contains("EmissionsYear"));
+        }
+
+        assertEquals(1, this.meterRegistry.get("cef.eis.validation")
+            .tag("schemaVersion", "1.2").tag("outcome", "invalid").timer().count());
+    }
+
+    @Test(expected = ServiceBusyException.class)
+    public void validate_Should_RejectAsBusy_When_QueueIsFull() {
+
+        this.validator.destroy();
+
+        EisTransmissionConfig config = new EisTransmissionConfig();
+        config.setValidationWorkers(1);
+        config.setQueueCapacity(1);
+        this.validator = new CersSchemaValidator(config, this.meterRegistry);
+
+        // one validating and one queued, both waiting on documents that are never written
+        try (CersSchemaValidator.Validation running = this.validator.validate(true, new ByteArrayOutputStream());
+             CersSchemaValidator.Validation queued = this.validator.validate(true, new ByteArrayOutputStream())) {
+
+            this.validator.validate(true, new ByteArrayOutputStream());
+        }
+    }
+
+    private static String createDocument(String cersVersion, String comment, String emissionsYear) {
+
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<Document xmlns=\"http://www.exchangenetwork.net/schema/header/2\" id=\"_1\">"
+            + "<Header><AuthorName>Author</AuthorName><OrganizationName>Agency</OrganizationName>"
+            + "<DocumentTitle>EIS</DocumentTitle><CreationDateTime>2020-01-01T00:00:00</CreationDateTime></Header>"
+            + "<!-- " + comment + " -->"
+            + "<Payload id=\"_2\"><CERS xmlns=\"http://www.exchangenetwork.net/schema/cer/" + cersVersion + "\">"
+            + "<UserIdentifier>user</UserIdentifier><ProgramSystemCode>GADNR</ProgramSystemCode>"
+            + "<EmissionsYear>" + emissionsYear + "</EmissionsYear></CERS></Payload></Document>";
+    }
+}
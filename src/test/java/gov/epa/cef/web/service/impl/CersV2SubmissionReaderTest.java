@@ -0,0 +1,196 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.domain.EmissionsProcess;
+import gov.epa.cef.web.domain.EmissionsReport;
+import gov.epa.cef.web.domain.EmissionsUnit;
+import gov.epa.cef.web.domain.FacilitySite;
+import gov.epa.cef.web.domain.OperatingStatusCode;
+import gov.epa.cef.web.domain.ReleasePoint;
+import gov.epa.cef.web.domain.ReportingPeriod;
+import gov.epa.cef.web.repository.EmissionsProcessRepository;
+import gov.epa.cef.web.repository.ReportingPeriodRepository;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2ControlMapperImpl;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2DataTypeMapperImpl;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2EmissionsUnitMapper;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2EmissionsUnitMapperImpl;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2FacilitySiteMapper;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2FacilitySiteMapperImpl;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2ReleasePointMapper;
+import gov.epa.cef.web.service.mapper.cers._2._0.CersV2ReleasePointMapperImpl;
+import gov.epa.cef.web.util.ConstantUtils;
+import net.exchangenetwork.schema.cer._2._0.CERSDataType;
+import net.exchangenetwork.schema.cer._2._0.EmissionsUnitDataType;
+import net.exchangenetwork.schema.cer._2._0.FacilitySiteDataType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Category(TestCategories.FastTest.class)
+public class CersV2SubmissionReaderTest {
+
+    private ReportingPeriodRepository periodRepo;
+
+    private EmissionsProcessRepository processRepo;
+
+    private CersV2SubmissionReader reader;
+
+    private EmissionsReport report;
+
+    private FacilitySite facilitySite;
+
+    @Before
+    public void init() {
+
+        this.periodRepo = mock(ReportingPeriodRepository.class);
+        this.processRepo = mock(EmissionsProcessRepository.class);
+
+        CersV2ReleasePointMapper rpMapper = new CersV2ReleasePointMapperImpl();
+        CersV2EmissionsUnitMapper euMapper = new CersV2EmissionsUnitMapperImpl(rpMapper);
+        CersV2FacilitySiteMapper facilitySiteMapper =
+            new CersV2FacilitySiteMapperImpl(new CersV2ControlMapperImpl(), euMapper, rpMapper);
+
+        this.reader = new CersV2SubmissionReader(this.periodRepo, this.processRepo,
+            new CersV2DataTypeMapperImpl(facilitySiteMapper), facilitySiteMapper, euMapper, rpMapper);
+
+        this.report = new EmissionsReport();
+        this.report.setId(1L);
+        this.report.setYear((short) 2020);
+
+        this.facilitySite = new FacilitySite();
+        this.facilitySite.setId(10L);
+        this.facilitySite.setEmissionsReport(this.report);
+        this.report.getFacilitySites().add(this.facilitySite);
+    }
+
+    @Test
+    public void readPointEmissionsTest() {
+
+        EmissionsUnit unit = createUnit(100L, ConstantUtils.STATUS_OPERATING);
+        EmissionsProcess process = createProcess(1000L, unit, ConstantUtils.STATUS_OPERATING);
+
+        ReportingPeriod first = new ReportingPeriod();
+        first.setId(10000L);
+        first.setEmissionsProcess(process);
+
+        ReportingPeriod second = new ReportingPeriod();
+        second.setId(10001L);
+        second.setEmissionsProcess(process);
+
+        this.facilitySite.getReleasePoints().add(createReleasePoint(ConstantUtils.STATUS_OPERATING));
+
+        when(this.periodRepo.retrievePointEmissionsByReportId(1L, ConstantUtils.STATUS_OPERATING))
+            .thenReturn(Arrays.asList(first, second));
+
+        CERSDataType cers = this.reader.readPointEmissions(this.report);
+
+        assertEquals(1, cers.getFacilitySite().size());
+
+        FacilitySiteDataType site = cers.getFacilitySite().get(0);
+        assertTrue(site.getReleasePoint().isEmpty());
+        assertEquals(1, site.getEmissionsUnit().size());
+
+        EmissionsUnitDataType cersUnit = site.getEmissionsUnit().get(0);
+        assertEquals(1, cersUnit.getUnitEmissionsProcess().size());
+        assertEquals(2, cersUnit.getUnitEmissionsProcess().get(0).getReportingPeriod().size());
+
+        // the source entities are left as they were
+        assertEquals(1, this.facilitySite.getReleasePoints().size());
+    }
+
+    @Test
+    public void readFacilityInventoryTest() {
+
+        EmissionsUnit operating = createUnit(100L, ConstantUtils.STATUS_OPERATING);
+        EmissionsProcess process = createProcess(1000L, operating, ConstantUtils.STATUS_OPERATING);
+        process.getReportingPeriods().add(new ReportingPeriod());
+
+        EmissionsUnit shutdown = createUnit(101L, ConstantUtils.STATUS_PERMANENTLY_SHUTDOWN);
+        shutdown.setDescription("Boiler");
+
+        this.facilitySite.getEmissionsUnits().add(operating);
+        this.facilitySite.getEmissionsUnits().add(shutdown);
+        this.facilitySite.getReleasePoints().add(createReleasePoint(ConstantUtils.STATUS_PERMANENTLY_SHUTDOWN));
+
+        when(this.processRepo.retrieveByReportIdAndUnitStatus(1L, ConstantUtils.STATUS_OPERATING))
+            .thenReturn(Collections.singletonList(process));
+
+        CERSDataType cers = this.reader.readFacilityInventory(this.report);
+
+        FacilitySiteDataType site = cers.getFacilitySite().get(0);
+        assertEquals(2, site.getEmissionsUnit().size());
+        assertEquals(1, site.getReleasePoint().size());
+
+        EmissionsUnitDataType cersOperating = site.getEmissionsUnit().get(0);
+        assertEquals(1, cersOperating.getUnitEmissionsProcess().size());
+        assertTrue(cersOperating.getUnitEmissionsProcess().get(0).getReportingPeriod().isEmpty());
+
+        EmissionsUnitDataType cersShutdown = site.getEmissionsUnit().get(1);
+        assertNull(cersShutdown.getUnitDescription());
+
+        // the source entities are left as they were
+        assertEquals(1, process.getReportingPeriods().size());
+        assertEquals("Boiler", shutdown.getDescription());
+    }
+
+    private EmissionsUnit createUnit(Long id, String statusCode) {
+
+        EmissionsUnit result = new EmissionsUnit();
+        result.setId(id);
+        result.setUnitIdentifier("EU" + id);
+        result.setFacilitySite(this.facilitySite);
+        result.setOperatingStatusCode(createStatus(statusCode));
+        return result;
+    }
+
+    private EmissionsProcess createProcess(Long id, EmissionsUnit unit, String statusCode) {
+
+        EmissionsProcess result = new EmissionsProcess();
+        result.setId(id);
+        result.setEmissionsProcessIdentifier("EP" + id);
+        result.setEmissionsUnit(unit);
+        result.setOperatingStatusCode(createStatus(statusCode));
+        return result;
+    }
+
+    private ReleasePoint createReleasePoint(String statusCode) {
+
+        ReleasePoint result = new ReleasePoint();
+        result.setReleasePointIdentifier("RP1");
+        result.setFacilitySite(this.facilitySite);
+        result.setOperatingStatusCode(createStatus(statusCode));
+        return result;
+    }
+
+    private OperatingStatusCode createStatus(String code) {
+
+        OperatingStatusCode result = new OperatingStatusCode();
+        result.setCode(code);
+        return result;
+    }
+}
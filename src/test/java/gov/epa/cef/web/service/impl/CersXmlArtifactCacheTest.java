@@ -0,0 +1,126 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(TestCategories.FastTest.class)
+public class CersXmlArtifactCacheTest {
+
+    private static final String Xml = "<CERS><EmissionsYear>2020</EmissionsYear></CERS>";
+
+    private CersXmlArtifactCache cache;
+
+    @Before
+    public void init() {
+
+        this.cache = new CersXmlArtifactCache(new ConcurrentMapCacheManager());
+    }
+
+    @Test
+    public void copyToTest() throws IOException {
+
+        this.cache.put(1L, 100L, "2.0:QaFacility", gzip(Xml));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertTrue(this.cache.copyTo(1L, 100L, "2.0:QaFacility", outputStream));
+        assertEquals(Xml, outputStream.toString(StandardCharsets.UTF_8.name()));
+
+        assertFalse(this.cache.copyTo(1L, 100L, "2.0:QaEmissions", new ByteArrayOutputStream()));
+        assertFalse(this.cache.copyTo(2L, 100L, "2.0:QaFacility", new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void staleVersionTest() throws IOException {
+
+        this.cache.put(1L, 100L, "2.0:QaFacility", gzip(Xml));
+
+        // the report changed since the document was rendered
+        assertFalse(this.cache.copyTo(1L, 200L, "2.0:QaFacility", new ByteArrayOutputStream()));
+
+        this.cache.put(1L, 200L, "2.0:QaEmissions", gzip(Xml));
+        assertFalse(this.cache.copyTo(1L, 200L, "2.0:QaFacility", new ByteArrayOutputStream()));
+        assertTrue(this.cache.copyTo(1L, 200L, "2.0:QaEmissions", new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void concurrentPutTest() throws Exception {
+
+        byte[] gzipped = gzip(Xml);
+
+        // renders of different documents for the same report finishing together each keep their document
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> puts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String key = "2.0:QaFacility:user" + i;
+                puts.add(executor.submit(() -> this.cache.put(1L, 100L, key, gzipped)));
+            }
+            for (Future<?> put : puts) {
+                put.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(this.cache.copyTo(1L, 100L, "2.0:QaFacility:user" + i, new ByteArrayOutputStream()));
+        }
+    }
+
+    @Test
+    public void evictTest() throws IOException {
+
+        this.cache.put(1L, 100L, "2.0:QaFacility", gzip(Xml));
+        this.cache.put(1L, 100L, "2.0:QaEmissions", gzip(Xml));
+        this.cache.put(2L, 100L, "2.0:QaFacility", gzip(Xml));
+        this.cache.evict(1L);
+
+        assertFalse(this.cache.copyTo(1L, 100L, "2.0:QaFacility", new ByteArrayOutputStream()));
+        assertFalse(this.cache.copyTo(1L, 100L, "2.0:QaEmissions", new ByteArrayOutputStream()));
+
+        // other reports are kept
+        assertTrue(this.cache.copyTo(2L, 100L, "2.0:QaFacility", new ByteArrayOutputStream()));
+    }
+
+    private byte[] gzip(String xml) throws IOException {
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(result)) {
+            gzipStream.write(xml.getBytes(StandardCharsets.UTF_8));
+        }
+        return result.toByteArray();
+    }
+}
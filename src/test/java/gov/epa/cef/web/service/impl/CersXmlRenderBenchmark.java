@@ -0,0 +1,106 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.google.common.io.Resources;
+import net.exchangenetwork.schema.cer._1._2.CERSDataType;
+import net.exchangenetwork.schema.cer._1._2.ObjectFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering a single report's CERS XML with a new JAXB context per request against the cached
+ * contexts in {@link JaxbMarshallers}. Not run with the tests, run it from the IDE or with the main method
+ * after test-compile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CersXmlRenderBenchmark {
+
+    private JAXBElement<CERSDataType> cers;
+
+    private JaxbMarshallers marshallers;
+
+    @Setup
+    public void setup() throws IOException, JAXBException {
+
+        try (InputStream inputStream = Resources.getResource("xml/cers-data-eis-test.xml").openStream()) {
+
+            CERSDataType cersData = JAXBContext.newInstance(CERSDataType.class).createUnmarshaller()
+                .unmarshal(new StreamSource(inputStream), CERSDataType.class).getValue();
+
+            this.cers = new ObjectFactory().createCERS(cersData);
+        }
+
+        this.marshallers = new JaxbMarshallers();
+    }
+
+    @Benchmark
+    public byte[] newContextPerRender() throws JAXBException {
+
+        Marshaller jaxbMarshaller = JAXBContext.newInstance(CERSDataType.class).createMarshaller();
+        jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+
+        return render(jaxbMarshaller);
+    }
+
+    @Benchmark
+    public byte[] cachedMarshaller() throws JAXBException {
+
+        return render(this.marshallers.marshaller(CERSDataType.class));
+    }
+
+    private byte[] render(Marshaller jaxbMarshaller) throws JAXBException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        jaxbMarshaller.marshal(this.cers, outputStream);
+
+        return outputStream.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder()
+            .include(CersXmlRenderBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
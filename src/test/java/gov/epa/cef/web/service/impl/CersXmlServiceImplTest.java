@@ -248,7 +248,8 @@ public class CersXmlServiceImplTest {
         CersV2FacilitySiteMapper facilitySiteV2Mapper = new CersV2FacilitySiteMapperImpl(controlV2mapper, emissionsUnitV2Mapper, releasePointV2Mapper);
         CersV2DataTypeMapper cersV2Mapper = new CersV2DataTypeMapperImpl(facilitySiteV2Mapper);
 
-        CersXmlService cersXmlService = new CersXmlServiceImpl(userService, reportRepo, cersMapper, emissionsUnitMapper, releasePointMapper, cersV2Mapper);
+        CersXmlService cersXmlService = new CersXmlServiceImpl(userService, reportRepo, cersMapper, emissionsUnitMapper, releasePointMapper, cersV2Mapper,
+            mock(CersV2SubmissionReader.class), mock(CersXmlArtifactCache.class), new JaxbMarshallers());
 
         return cersXmlService.generateCersData(1l, null);
     }
@@ -0,0 +1,221 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import gov.epa.cef.web.exception.ApplicationErrorCode;
+import gov.epa.cef.web.exception.ApplicationException;
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.service.dto.EisDataListDto;
+import gov.epa.cef.web.service.dto.EisHeaderDto;
+import gov.epa.cef.web.service.dto.EisSubmissionStatus;
+import gov.epa.cef.web.service.dto.EisTransmissionJobDto;
+import gov.epa.cef.web.service.dto.EisTransmissionStage;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class EisTransmissionJobServiceImplTest {
+
+    @Mock
+    private EisTransmissionServiceImpl transmissionService;
+
+    @Mock
+    private HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private IMap<String, EisTransmissionJobDto> jobMap;
+
+    /**
+     * Stands in for the cluster, holds serialized copies like Hazelcast does
+     */
+    private final Map<String, byte[]> storedJobs = new ConcurrentHashMap<>();
+
+    private EisTransmissionJobServiceImpl jobService;
+
+    private EisHeaderDto eisHeader;
+
+    @Before
+    public void init() {
+
+        when(this.hazelcastInstance.<String, EisTransmissionJobDto>getMap(EisTransmissionJobServiceImpl.JobMap))
+            .thenReturn(this.jobMap);
+
+        doAnswer(invocation -> {
+            this.storedJobs.put(invocation.getArgument(0), SerializationUtils.serialize(invocation.getArgument(1)));
+            return null;
+        }).when(this.jobMap).set(anyString(), any(), anyLong(), eq(TimeUnit.MINUTES));
+
+        doAnswer(invocation -> {
+            this.storedJobs.remove(invocation.getArgument(0));
+            return null;
+        }).when(this.jobMap).delete(any());
+
+        when(this.jobMap.get(any())).thenAnswer(invocation -> {
+            byte[] stored = this.storedJobs.get(invocation.getArgument(0));
+            return stored == null ? null : SerializationUtils.deserialize(stored);
+        });
+
+        this.jobService = newJobService(new EisTransmissionServiceImpl.EisTransmissionConfig());
+
+        this.eisHeader = new EisHeaderDto()
+            .withProgramSystemCode("GADNR")
+            .withSubmissionStatus(EisSubmissionStatus.QaFacility)
+            .withEmissionsReports(new HashSet<>(Arrays.asList(1L, 2L)));
+    }
+
+    @After
+    public void shutdown() {
+
+        this.jobService.destroy();
+    }
+
+    @Test
+    public void submit_Should_CompleteJob_When_ReportsAreTransmitted() throws Exception {
+
+        EisDataListDto result = new EisDataListDto();
+        when(this.transmissionService.submitReports(any())).thenReturn(result);
+
+        EisTransmissionJobDto job = this.jobService.submit(this.eisHeader);
+        assertEquals("GADNR", job.getProgramSystemCode());
+        assertEquals(2, job.getEmissionsReports().size());
+
+        awaitFinished(job);
+
+        assertEquals(EisTransmissionStage.Complete, job.getStage());
+        assertSame(result, job.getResult());
+
+        EisTransmissionJobDto stored = this.jobService.retrieveJob(job.getJobId()).orElse(null);
+        assertNotSame(job, stored);
+        assertEquals(EisTransmissionStage.Complete, stored.getStage());
+        assertEquals(job.getFinishedAt(), stored.getFinishedAt());
+        assertNotNull(stored.getResult());
+    }
+
+    @Test
+    public void submit_Should_FailJob_When_NodeRejectsSubmission() throws Exception {
+
+        when(this.transmissionService.submitReports(any()))
+            .thenThrow(new ApplicationException(ApplicationErrorCode.E_REMOTE_SERVICE_ERROR, "Node unavailable."));
+
+        EisTransmissionJobDto job = this.jobService.submit(this.eisHeader);
+
+        awaitFinished(job);
+
+        assertTrue(job.isFailed());
+        assertEquals("Node unavailable.", job.getErrorMessage());
+
+        EisTransmissionJobDto stored = this.jobService.retrieveJob(job.getJobId()).orElse(null);
+        assertTrue(stored.isFailed());
+        assertEquals("Node unavailable.", stored.getErrorMessage());
+    }
+
+    @Test
+    public void submit_Should_FailJob_With_ExceptionName_When_ExceptionHasNoMessage() throws Exception {
+
+        when(this.transmissionService.submitReports(any())).thenThrow(new NullPointerException());
+
+        EisTransmissionJobDto job = this.jobService.submit(this.eisHeader);
+
+        awaitFinished(job);
+
+        EisTransmissionJobDto stored = this.jobService.retrieveJob(job.getJobId()).orElse(null);
+        assertTrue(stored.isFailed());
+        assertEquals("An unexpected error occurred (NullPointerException).", stored.getErrorMessage());
+    }
+
+    @Test(expected = ServiceBusyException.class)
+    public void submit_Should_RejectAsBusy_When_QueueIsFull() throws Exception {
+
+        this.jobService.destroy();
+
+        EisTransmissionServiceImpl.EisTransmissionConfig config = new EisTransmissionServiceImpl.EisTransmissionConfig();
+        config.setWorkers(1);
+        config.setQueueCapacity(1);
+        this.jobService = newJobService(config);
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.transmissionService.submitReports(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new EisDataListDto();
+        });
+
+        try {
+
+            // one running and one queued
+            this.jobService.submit(this.eisHeader);
+            this.jobService.submit(this.eisHeader);
+
+            this.jobService.submit(this.eisHeader);
+
+        } finally {
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void retrieveJob_Should_ReturnEmpty_When_JobDoesNotExist() {
+
+        assertFalse(this.jobService.retrieveJob("missing").isPresent());
+    }
+
+    private EisTransmissionJobServiceImpl newJobService(EisTransmissionServiceImpl.EisTransmissionConfig config) {
+
+        return new EisTransmissionJobServiceImpl(config, this.transmissionService, this.hazelcastInstance);
+    }
+
+    private void awaitFinished(EisTransmissionJobDto job) throws InterruptedException {
+
+        for (int i = 0; i < 100 && !isStoredFinished(job); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private boolean isStoredFinished(EisTransmissionJobDto job) {
+
+        return this.jobService.retrieveJob(job.getJobId())
+            .map(stored -> stored.getStage().isFinished())
+            .orElse(false);
+    }
+}
@@ -22,6 +22,8 @@ import gov.epa.cef.web.config.CefConfig;
 import gov.epa.cef.web.config.SLTBaseConfig;
 import gov.epa.cef.web.config.TestCategories;
 import gov.epa.cef.web.config.mock.MockSLTConfig;
+import gov.epa.cef.web.exception.AppValidationException;
+import gov.epa.cef.web.repository.EmissionsReportRepository;
 import gov.epa.cef.web.service.dto.EisHeaderDto;
 import gov.epa.cef.web.service.dto.EisSubmissionStatus;
 import gov.epa.cef.web.util.SLTConfigHelper;
@@ -30,6 +32,7 @@ import net.exchangenetwork.schema.header._2.DocumentHeaderType;
 import net.exchangenetwork.schema.header._2.DocumentPayloadType;
 import net.exchangenetwork.schema.header._2.ExchangeNetworkDocumentType;
 import net.exchangenetwork.schema.header._2.NameValuePair;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -54,12 +57,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -72,6 +78,10 @@ public class EisXmlServiceImplTest {
 
     private EisXmlServiceImpl eisXmlService;
 
+    private EisXmlServiceImpl.EisXmlConfig eisXmlConfig;
+
+    private EmissionsReportRepository reportRepository;
+
     @Before
     public void _onJunitBeginTest() {
 
@@ -112,7 +122,13 @@ public class EisXmlServiceImplTest {
         CefConfig cefConfig = mock(CefConfig.class);
         when(cefConfig.getFeatureCersV2Enabled()).thenReturn(false);
 
-        this.eisXmlService = new EisXmlServiceImpl(cersXmlService, sltConfigHelper, cefConfig);
+        this.reportRepository = mock(EmissionsReportRepository.class);
+        when(this.reportRepository.findDistinctYears(any())).thenReturn(Collections.singletonList((short) 2019));
+
+        this.eisXmlConfig = new EisXmlServiceImpl.EisXmlConfig();
+
+        this.eisXmlService = new EisXmlServiceImpl(cersXmlService, sltConfigHelper, cefConfig,
+            this.reportRepository, new JaxbMarshallers(), this.eisXmlConfig);
     }
 
     @Test
@@ -136,6 +152,36 @@ public class EisXmlServiceImplTest {
 
     }
 
+    @After
+    public void _onJunitEndTest() {
+
+        this.eisXmlService.destroy();
+    }
+
+    @Test
+    public void generateEisDataParallelTest() throws Exception {
+
+        this.eisXmlConfig.setParallel(true);
+
+        EisHeaderDto eisHeader = new EisHeaderDto()
+            .withProgramSystemCode("GADNR")
+            .withAuthorName("Jim Horner")
+            .withOrganizationName("Slate Rock and Gravel")
+            .withSubmissionStatus(EisSubmissionStatus.ProdEmissions)
+            .withEmissionsReports(Arrays.asList(3L, 1L, 2L));
+
+        ExchangeNetworkDocumentType document = this.eisXmlService.generateEisDocument(eisHeader);
+
+        Element cersElement = ((Element) document.getPayload().get(0).getAny());
+        CERSDataType cersData = cersDataFromSource(new DOMSource(cersElement));
+
+        // merged in report order regardless of which report finished first
+        assertEquals(3, cersData.getFacilitySite().size());
+        assertEquals("FacilitySite-1", cersData.getFacilitySite().get(0).getFacilitySiteName());
+        assertEquals("FacilitySite-2", cersData.getFacilitySite().get(1).getFacilitySiteName());
+        assertEquals("FacilitySite-3", cersData.getFacilitySite().get(2).getFacilitySiteName());
+    }
+
     @Test
     public void writeEisXmlToTest() throws Exception {
 
@@ -175,6 +221,73 @@ public class EisXmlServiceImplTest {
         assertEquals(3, cersData.getFacilitySite().size());
     }
 
+    @Test
+    public void writeEisXmlToStreamingTest() throws Exception {
+
+        this.eisXmlConfig.setStreaming(true);
+
+        EisHeaderDto eisHeader = new EisHeaderDto()
+            .withProgramSystemCode("GADNR")
+            .withAuthorName("Jim Horner")
+            .withOrganizationName("Slate Rock and Gravel")
+            .withSubmissionStatus(EisSubmissionStatus.ProdEmissions)
+            .withEmissionsReports(Arrays.asList(1L, 2L, 3L));
+
+        String documentId;
+        ExchangeNetworkDocumentType momento;
+
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+
+            documentId = this.eisXmlService.writeEisXmlTo(eisHeader, outputStream);
+
+            try (InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray())) {
+
+                momento = eisDatafromInputStream(inputStream);
+            }
+        }
+
+        assertEquals(documentId, momento.getId());
+
+        DocumentHeaderType header = momento.getHeader();
+        assertEquals("Jim Horner", header.getAuthorName());
+        assertEquals("EIS_v1_0", header.getDataFlowName());
+
+        List<DocumentPayloadType> payloads = momento.getPayload();
+        assertEquals(1, payloads.size());
+
+        Node cersNode = (Node) payloads.get(0).getAny();
+        CERSDataType cersData = cersDataFromSource(new DOMSource(cersNode));
+
+        assertEquals("test", cersData.getUserIdentifier());
+        assertEquals("GADNR", cersData.getProgramSystemCode());
+        assertEquals(3, cersData.getFacilitySite().size());
+        assertEquals("FacilitySite-1", cersData.getFacilitySite().get(0).getFacilitySiteName());
+        assertEquals("FacilitySite-3", cersData.getFacilitySite().get(2).getFacilitySiteName());
+
+        this.cersSchema.newValidator().validate(new DOMSource(cersNode));
+    }
+
+    @Test
+    public void writeEisXmlToStreamingTest_Should_WriteNothing_When_YearsDiffer() throws Exception {
+
+        this.eisXmlConfig.setStreaming(true);
+
+        when(this.reportRepository.findDistinctYears(any())).thenReturn(Arrays.asList((short) 2018, (short) 2019));
+
+        EisHeaderDto eisHeader = new EisHeaderDto()
+            .withProgramSystemCode("GADNR")
+            .withSubmissionStatus(EisSubmissionStatus.ProdEmissions)
+            .withEmissionsReports(Arrays.asList(1L, 2L, 3L));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            this.eisXmlService.writeEisXmlTo(eisHeader, outputStream);
+            fail("Expected the reports to be rejected");
+        } catch (AppValidationException e) {
+            assertEquals(0, outputStream.size());
+        }
+    }
+
     private CERSDataType cersDataFromSource(Source source) {
 
         CERSDataType result;
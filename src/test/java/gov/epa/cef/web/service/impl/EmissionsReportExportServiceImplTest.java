@@ -0,0 +1,216 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.service.EmissionsReportService;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsProcessBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsReportBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionsUnitBulkUploadDto;
+import gov.epa.cef.web.service.dto.bulkUpload.WorksheetName;
+import gov.epa.cef.web.service.impl.EmissionsReportExportServiceImpl.ExcelExportConfig;
+import gov.epa.cef.web.service.mapper.BulkUploadMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.model.CalculationChain;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCalcCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+
+@Category(TestCategories.FastTest.class)
+public class EmissionsReportExportServiceImplTest {
+
+    private static final int FirstDataRow = 23;
+
+    @Mock
+    private EmissionsReportService emissionsReportService;
+
+    @Mock
+    private BulkUploadMapper uploadMapper;
+
+    @Spy
+    private ExcelExportConfig exportConfig = new ExcelExportConfig();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    @InjectMocks
+    private EmissionsReportExportServiceImpl exportService;
+
+    @Before
+    public void init() {
+
+        MockitoAnnotations.initMocks(this);
+
+        // a small window so most of the padded rows are flushed to the temp files
+        this.exportConfig.setStreaming(true);
+        this.exportConfig.setRowWindow(10);
+
+        this.exportService.initExportLimiter();
+
+        EmissionsUnitBulkUploadDto boiler = new EmissionsUnitBulkUploadDto();
+        boiler.setId(1L);
+        boiler.setUnitIdentifier("EU-1");
+        boiler.setDescription("Boiler");
+
+        EmissionsUnitBulkUploadDto dryer = new EmissionsUnitBulkUploadDto();
+        dryer.setId(2L);
+        dryer.setUnitIdentifier("EU-2");
+        dryer.setDescription("Dryer");
+
+        EmissionsProcessBulkUploadDto process = new EmissionsProcessBulkUploadDto();
+        process.setId(3L);
+        process.setEmissionsUnitId(2L);
+        process.setEmissionsProcessIdentifier("PR-1");
+        process.setDescription("Drying");
+
+        EmissionsReportBulkUploadDto report = new EmissionsReportBulkUploadDto();
+        report.setEmissionsUnits(Arrays.asList(boiler, dryer));
+        report.setEmissionsProcesses(Arrays.asList(process));
+
+        doReturn(report).when(this.exportService).generateBulkUploadDto(1L);
+    }
+
+    @Test
+    public void generateExcel_Should_WriteDataRowsFromPrototype_When_Streaming() throws Exception {
+
+        try (XSSFWorkbook wb = export()) {
+
+            Sheet units = wb.getSheet(WorksheetName.EmissionsUnit.sheetName());
+
+            assertEquals("EU-1", units.getRow(FirstDataRow).getCell(2).getStringCellValue());
+            assertEquals("Boiler", units.getRow(FirstDataRow).getCell(4).getStringCellValue());
+            assertEquals("EU-2", units.getRow(FirstDataRow + 1).getCell(2).getStringCellValue());
+            assertEquals("Dryer", units.getRow(FirstDataRow + 1).getCell(4).getStringCellValue());
+
+            // relative references follow the row, absolute references stay on the facility row
+            assertEquals("IF(ISBLANK(C24),\"\",Facility!$B$24)", units.getRow(FirstDataRow).getCell(1).getCellFormula());
+            assertEquals("IF(ISBLANK(C25),\"\",Facility!$B$24)", units.getRow(FirstDataRow + 1).getCell(1).getCellFormula());
+            assertEquals("IF(ISBLANK(C25),\"\",ROW())", units.getRow(FirstDataRow + 1).getCell(3).getCellFormula());
+
+            Sheet processes = wb.getSheet(WorksheetName.EmissionsProcess.sheetName());
+            Row process = processes.getRow(FirstDataRow);
+
+            assertEquals("EU-2", process.getCell(2).getStringCellValue());
+            assertEquals("PR-1", process.getCell(3).getStringCellValue());
+            assertEquals("IF(ISBLANK(D24),\"\",CONCATENATE(C24,\"-\",D24))", process.getCell(4).getCellFormula());
+            assertEquals("IF(ISBLANK(D24),\"\",ROW())", process.getCell(5).getCellFormula());
+            assertTrue(process.getCell(1).getCellFormula(),
+                process.getCell(1).getCellFormula().contains("VLOOKUP(C24,'Emission Units'!$C$24:$D$2024,2,FALSE)"));
+        }
+    }
+
+    @Test
+    public void generateExcel_Should_PadDataSheetsToTemplateLength_When_Streaming() throws Exception {
+
+        try (XSSFWorkbook wb = export()) {
+
+            Sheet units = wb.getSheet(WorksheetName.EmissionsUnit.sheetName());
+
+            // the template's unit rows end at row 2024
+            assertEquals(2023, units.getLastRowNum());
+
+            Row prototype = units.getRow(FirstDataRow);
+            for (int rowNum : new int[] {FirstDataRow + 2, 1000, 2023}) {
+
+                Row row = units.getRow(rowNum);
+                assertNotNull("Row " + rowNum, row);
+
+                assertEquals(String.format("IF(ISBLANK(C%d),\"\",Facility!$B$24)", rowNum + 1),
+                    row.getCell(1).getCellFormula());
+                assertEquals(prototype.getCell(4).getCellStyle().getIndex(), row.getCell(4).getCellStyle().getIndex());
+            }
+
+            // a sheet without any data is still padded out with its first data row
+            Sheet facility = wb.getSheet(WorksheetName.FacilitySite.sheetName());
+            assertEquals(FirstDataRow, facility.getLastRowNum());
+            assertEquals("ROW()", facility.getRow(FirstDataRow).getCell(1).getCellFormula());
+
+            // rows above the data are left as they are in the template
+            assertNotNull(units.getRow(FirstDataRow - 1));
+        }
+    }
+
+    @Test
+    public void generateExcel_Should_KeepCalculationChainConsistent_When_Streaming() throws Exception {
+
+        try (XSSFWorkbook wb = export()) {
+
+            CalculationChain chain = wb.getCalculationChain();
+            assertNotNull(chain);
+
+            Map<Long, String> sheetNames = new HashMap<>();
+            for (CTSheet sheet : wb.getCTWorkbook().getSheets().getSheetArray()) {
+                sheetNames.put(sheet.getSheetId(), sheet.getName());
+            }
+
+            // entries only name their sheet when it changes
+            long sheetId = 0;
+            for (CTCalcCell entry : chain.getCTCalcChain().getCArray()) {
+
+                if (entry.isSetI()) {
+                    sheetId = entry.getI();
+                }
+
+                String location = String.format("%s!%s", sheetNames.get(sheetId), entry.getR());
+
+                Sheet sheet = wb.getSheet(sheetNames.get(sheetId));
+                assertNotNull(location, sheet);
+
+                CellReference reference = new CellReference(entry.getR());
+                Row row = sheet.getRow(reference.getRow());
+                assertNotNull(location, row);
+
+                Cell cell = row.getCell(reference.getCol());
+                assertNotNull(location, cell);
+                assertEquals(location, CellType.FORMULA, cell.getCellType());
+            }
+        }
+    }
+
+    private XSSFWorkbook export() throws Exception {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        this.exportService.generateExcel(1L, out);
+
+        return new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
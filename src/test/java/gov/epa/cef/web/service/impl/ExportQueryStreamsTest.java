@@ -0,0 +1,60 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Category(TestCategories.FastTest.class)
+@RunWith(MockitoJUnitRunner.class)
+public class ExportQueryStreamsTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ExportQueryStreams exportStreams;
+
+    @Test
+    public void testPersistenceContextClearedPerBatch() {
+
+        int rows = ExportQueryStreams.BATCH_SIZE * 2 + 10;
+
+        List<String> result = this.exportStreams.map(IntStream.range(0, rows).boxed(), String::valueOf)
+            .collect(Collectors.toList());
+
+        assertEquals(rows, result.size());
+        assertEquals("0", result.get(0));
+        assertEquals(String.valueOf(rows - 1), result.get(rows - 1));
+
+        verify(this.entityManager, times(2)).clear();
+    }
+}
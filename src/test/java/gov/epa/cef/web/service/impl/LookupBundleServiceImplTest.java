@@ -0,0 +1,195 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import gov.epa.cef.web.config.CacheInvalidation;
+import gov.epa.cef.web.config.CacheName;
+import gov.epa.cef.web.exception.AppValidationException;
+import gov.epa.cef.web.service.LookupService;
+import gov.epa.cef.web.service.dto.CodeLookupDto;
+import gov.epa.cef.web.service.dto.LookupBundleDto;
+import gov.epa.cef.web.service.dto.PollutantDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Year;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class LookupBundleServiceImplTest {
+
+    @Mock
+    private LookupService lookupService;
+
+    @Mock
+    private HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private ITopic<CacheInvalidation> topic;
+
+    private MessageListener<CacheInvalidation> listener;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // last year is the inventory year usually being reported
+    private final int year = Year.now().getValue() - 1;
+
+    private LookupBundleServiceImpl bundleService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void init() {
+
+        PollutantDto pollutant = new PollutantDto();
+        pollutant.setPollutantCode("NOX");
+        when(this.lookupService.retrieveCurrentPollutants(this.year)).thenReturn(Collections.singletonList(pollutant));
+
+        CodeLookupDto contactType = new CodeLookupDto();
+        contactType.setCode("EMIS");
+        when(this.lookupService.retrieveContactTypeCodes()).thenReturn(Collections.singletonList(contactType));
+
+        when(this.hazelcastInstance.<CacheInvalidation>getTopic(CacheInvalidation.Topic)).thenReturn(this.topic);
+
+        this.bundleService = new LookupBundleServiceImpl(this.lookupService, this.objectMapper,
+            this.hazelcastInstance, new LookupBundleServiceImpl.LookupBundleConfig());
+
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(this.topic).addMessageListener(captor.capture());
+        this.listener = captor.getValue();
+    }
+
+    @Test
+    public void retrieveLookupBundle_BuiltOnce() throws IOException {
+
+        LookupBundleDto bundle = this.bundleService.retrieveLookupBundle(this.year);
+
+        assertEquals(this.year, bundle.getYear());
+        assertSame(bundle, this.bundleService.retrieveLookupBundle(this.year));
+        verify(this.lookupService, times(1)).retrieveCurrentPollutants(this.year);
+
+        JsonNode json = readJson(bundle);
+        assertEquals("NOX", json.path("pollutant").path(0).path("pollutantCode").asText());
+        assertEquals("EMIS", json.path("contactType").path(0).path("code").asText());
+        assertEquals(0, json.path("county").size());
+    }
+
+    @Test
+    public void retrieveLookupBundle_RebuiltAfterInvalidate() {
+
+        LookupBundleDto bundle = this.bundleService.retrieveLookupBundle(this.year);
+
+        this.bundleService.invalidate();
+
+        LookupBundleDto rebuilt = this.bundleService.retrieveLookupBundle(this.year);
+        verify(this.lookupService, times(2)).retrieveCurrentPollutants(this.year);
+
+        // same reference data hashes to the same ETag so clients keep their copy
+        assertEquals(bundle.getETag(), rebuilt.getETag());
+
+        when(this.lookupService.retrieveCurrentPollutants(this.year)).thenReturn(Collections.emptyList());
+        this.bundleService.invalidate();
+
+        assertNotEquals(bundle.getETag(), this.bundleService.retrieveLookupBundle(this.year).getETag());
+    }
+
+    @Test
+    public void invalidate_BroadcastToOtherNodes() {
+
+        this.bundleService.retrieveLookupBundle(this.year);
+
+        this.bundleService.invalidate();
+
+        verify(this.topic).publish(argThat(invalidation ->
+            CacheName.LookupBundles.equals(invalidation.getCacheName()) && invalidation.getKey() == null));
+
+        this.bundleService.retrieveLookupBundle(this.year);
+        verify(this.lookupService, times(2)).retrieveCurrentPollutants(this.year);
+
+        // another node's invalidation drops the bundles built here, other caches' messages don't
+        this.listener.onMessage(message(CacheName.UserMasterFacilityIds, "user"));
+        this.bundleService.retrieveLookupBundle(this.year);
+        verify(this.lookupService, times(2)).retrieveCurrentPollutants(this.year);
+
+        this.listener.onMessage(message(CacheName.LookupBundles, null));
+        this.bundleService.retrieveLookupBundle(this.year);
+        verify(this.lookupService, times(3)).retrieveCurrentPollutants(this.year);
+    }
+
+    @Test
+    public void retrieveLookupBundle_RejectsUnsupportedYears() {
+
+        int currentYear = Year.now().getValue();
+
+        // the default config keeps five years, ending with the current one
+        this.bundleService.retrieveLookupBundle(currentYear);
+        this.bundleService.retrieveLookupBundle(currentYear - 4);
+
+        for (int year : new int[] {currentYear + 1, currentYear - 5, 0}) {
+            try {
+                this.bundleService.retrieveLookupBundle(year);
+                fail("Expected " + year + " to be rejected");
+            } catch (AppValidationException e) {
+                // expected
+            }
+        }
+
+        verify(this.lookupService, never()).retrieveCurrentPollutants(currentYear + 1);
+        verify(this.lookupService, times(2)).retrieveCurrentPollutants(anyInt());
+    }
+
+    private Message<CacheInvalidation> message(String cacheName, Object key) {
+
+        Member member = mock(Member.class);
+        when(member.localMember()).thenReturn(false);
+
+        return new Message<>(CacheInvalidation.Topic, new CacheInvalidation(cacheName, key), System.currentTimeMillis(), member);
+    }
+
+    private JsonNode readJson(LookupBundleDto bundle) throws IOException {
+
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bundle.getGzippedJson()))) {
+            return this.objectMapper.readTree(inputStream);
+        }
+    }
+}
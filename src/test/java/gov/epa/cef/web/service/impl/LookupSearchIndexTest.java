@@ -0,0 +1,94 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(TestCategories.FastTest.class)
+public class LookupSearchIndexTest {
+
+    private final LookupSearchIndex<String> index = LookupSearchIndex.<String>builder()
+        .add("10100101", null, "10100101", "External Combustion Boilers", "Electric Generation", "Anthracite Coal")
+        .add("10100202", 2017, "10100202", "External Combustion Boilers", "Electric Generation", "Bituminous Coal")
+        .add("20100101", null, "20100101", "Internal Combustion Engines", "Electric Generation", "Distillate Oil")
+        .add("NOX", null, "NOX", "Nitrogen Oxides", null)
+        .build();
+
+    @Test
+    public void testWordPrefixesMatched() {
+
+        assertEquals(Arrays.asList("10100101", "10100202", "20100101"), this.index.search("elec", 2017, 10));
+        assertEquals(Arrays.asList("10100101", "10100202"), this.index.search("101", 2017, 10));
+        assertEquals(Collections.singletonList("NOX"), this.index.search("nitrogen", 2017, 10));
+
+        // every word of the term has to match, in any field and any order
+        assertEquals(Collections.singletonList("20100101"), this.index.search("oil  COMBUSTION", 2017, 10));
+        assertTrue(this.index.search("coal engines", 2017, 10).isEmpty());
+
+        // words are matched from the start only
+        assertTrue(this.index.search("lectric", 2017, 10).isEmpty());
+    }
+
+    @Test
+    public void testYearAndLimit() {
+
+        // retired after 2017
+        assertEquals(Collections.singletonList("10100101"), this.index.search("coal", 2018, 10));
+        assertEquals(Arrays.asList("10100101", "10100202"), this.index.search("coal", 2017, 10));
+
+        assertEquals(Collections.singletonList("10100101"), this.index.search("combustion", 2017, 1));
+        assertTrue(this.index.search("combustion", 2017, 0).isEmpty());
+        assertTrue(this.index.search(" - ", 2017, 10).isEmpty());
+        assertTrue(this.index.search(null, 2017, 10).isEmpty());
+    }
+
+    @Test
+    public void testLargeTableSearchedInBoundedTime() {
+
+        LookupSearchIndex.Builder<Integer> builder = LookupSearchIndex.builder();
+        for (int i = 0; i < 50000; i++) {
+            builder.add(i, i % 2 == 0 ? null : 2015, String.valueOf(10000000 + i),
+                "Industrial Processes", "Sector " + (i % 100), "Level Three " + (i % 1000), "Detail " + i);
+        }
+        LookupSearchIndex<Integer> large = builder.build();
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 100; i++) {
+            List<Integer> result = large.search("i", 2019, 25);
+            assertEquals(25, result.size());
+            assertEquals(Integer.valueOf(48), result.get(24));
+        }
+
+        assertEquals(Collections.singletonList(12345), large.search("detail 12345", 2010, 25));
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // a scan of every row's descriptions per keystroke is what the index replaces
+        assertTrue(String.format("Searching took %d ms", elapsed), elapsed < 5000);
+    }
+}
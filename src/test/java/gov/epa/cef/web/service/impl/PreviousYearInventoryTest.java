@@ -0,0 +1,96 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.domain.EmissionsProcess;
+import gov.epa.cef.web.domain.EmissionsUnit;
+import gov.epa.cef.web.domain.ReleasePoint;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Category(TestCategories.FastTest.class)
+public class PreviousYearInventoryTest {
+
+    @Test
+    public void testClaimedComponentsAreNotCarriedForward() {
+
+        ReleasePoint rp1 = new ReleasePoint();
+        rp1.setReleasePointIdentifier("RP1");
+        ReleasePoint rp2 = new ReleasePoint();
+        rp2.setReleasePointIdentifier("RP2");
+
+        EmissionsUnit unit1 = createUnit("EU1");
+        EmissionsUnit unit2 = createUnit("EU2");
+
+        EmissionsProcess proc1 = createProcess(unit1, "P1");
+        EmissionsProcess proc2 = createProcess(unit1, "P2");
+        EmissionsProcess proc3 = createProcess(unit2, "P1");
+
+        PreviousYearInventory inventory = new PreviousYearInventory(Arrays.asList(rp1, rp2),
+            Arrays.asList(unit1, unit2), Arrays.asList(proc1, proc2, proc3), Collections.emptyList());
+
+        assertSame(rp2, inventory.claimReleasePoint("RP2"));
+        assertNull(inventory.claimReleasePoint("RP2"));
+        assertEquals(Collections.singletonList(rp1), inventory.unclaimedReleasePoints());
+
+        assertSame(unit1, inventory.claimEmissionsUnit("EU1"));
+        assertEquals(Collections.singletonList(unit2), inventory.unclaimedEmissionsUnits());
+
+        // process identifiers are only unique within their unit
+        assertSame(proc3, inventory.claimEmissionsProcess("EU2", "P1"));
+        assertSame(proc1, inventory.claimEmissionsProcess("EU1", "P1"));
+        assertNull(inventory.claimEmissionsProcess("EU3", "P1"));
+
+        assertEquals(Collections.singletonList(proc2), inventory.takeUnclaimedEmissionsProcesses("EU1"));
+        assertTrue(inventory.takeUnclaimedEmissionsProcesses("EU1").isEmpty());
+
+        assertNull(inventory.claimControl("C1"));
+        assertTrue(inventory.unclaimedControls().isEmpty());
+    }
+
+    private EmissionsUnit createUnit(String identifier) {
+
+        EmissionsUnit result = new EmissionsUnit();
+        result.setUnitIdentifier(identifier);
+        result.setEmissionsProcesses(new ArrayList<>());
+
+        return result;
+    }
+
+    private EmissionsProcess createProcess(EmissionsUnit unit, String identifier) {
+
+        EmissionsProcess result = new EmissionsProcess();
+        result.setEmissionsProcessIdentifier(identifier);
+        result.setEmissionsUnit(unit);
+
+        List<EmissionsProcess> processes = unit.getEmissionsProcesses();
+        processes.add(result);
+
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.exception.ServiceBusyException;
+import gov.epa.cef.web.service.ControlPathService;
+import gov.epa.cef.web.service.ControlService;
+import gov.epa.cef.web.service.EmissionService;
+import gov.epa.cef.web.service.EmissionsProcessService;
+import gov.epa.cef.web.service.EmissionsUnitService;
+import gov.epa.cef.web.service.FacilitySiteContactService;
+import gov.epa.cef.web.service.FacilitySiteService;
+import gov.epa.cef.web.service.OperatingDetailService;
+import gov.epa.cef.web.service.ReleasePointService;
+import gov.epa.cef.web.service.ReportingPeriodService;
+import gov.epa.cef.web.service.dto.bulkUpload.EmissionFormulaVariableBulkUploadDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ProgramDataPackageServiceImplTest {
+
+    @Mock
+    private FacilitySiteService facilitySiteService;
+
+    @Mock
+    private FacilitySiteContactService contactService;
+
+    @Mock
+    private ReleasePointService releasePointService;
+
+    @Mock
+    private EmissionsUnitService emissionsUnitService;
+
+    @Mock
+    private EmissionsProcessService emissionsProcessService;
+
+    @Mock
+    private ControlService controlService;
+
+    @Mock
+    private ControlPathService controlPathService;
+
+    @Mock
+    private ReportingPeriodService reportingPeriodService;
+
+    @Mock
+    private OperatingDetailService operatingDetailService;
+
+    @Mock
+    private EmissionService emissionService;
+
+    private ProgramDataPackageServiceImpl packageService;
+
+    @Before
+    public void init() {
+
+        this.packageService = newPackageService(new ProgramDataPackageServiceImpl.DataPackageConfig());
+    }
+
+    @After
+    public void shutdown() {
+
+        this.packageService.destroy();
+    }
+
+    @Test
+    public void writeDataPackage_Should_ZipEveryWorksheetInOrder() throws IOException {
+
+        EmissionFormulaVariableBulkUploadDto variable = new EmissionFormulaVariableBulkUploadDto();
+        variable.setId(1L);
+        variable.setEmissionId(2L);
+        variable.setEmissionFormulaVariableCode("A");
+        variable.setValue("3.5");
+
+        doAnswer(invocation -> {
+            Consumer<Stream<EmissionFormulaVariableBulkUploadDto>> consumer = invocation.getArgument(2);
+            consumer.accept(Stream.of(variable));
+            return null;
+        }).when(this.emissionService).streamEmissionFormulaVariables(eq("GADNR"), eq((short) 2019), any());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.packageService.writeDataPackage("GADNR", (short) 2019, outputStream);
+
+        List<String> entries = new ArrayList<>();
+        String variables = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+                if (entry.getName().equals("emission_formula_variables.csv")) {
+                    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[1024];
+                    for (int read = zip.read(buffer); read > 0; read = zip.read(buffer)) {
+                        csv.write(buffer, 0, read);
+                    }
+                    variables = new String(csv.toByteArray(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        assertEquals(16, entries.size());
+        assertEquals("facility_sites.csv", entries.get(0));
+        assertEquals("emission_formula_variables.csv", entries.get(15));
+        assertTrue(variables, variables.contains("\"1\",\"2\",\"A\",\"3.5\""));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writeDataPackage_Should_Fail_When_WorksheetFails() {
+
+        doThrow(new IllegalArgumentException("query failed"))
+            .when(this.emissionService).streamEmissions(any(), any(), any());
+
+        this.packageService.writeDataPackage("GADNR", (short) 2019, new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void writeDataPackage_Should_RejectAsBusy_Before_WritingAnything() {
+
+        this.packageService.destroy();
+
+        ProgramDataPackageServiceImpl.DataPackageConfig config = new ProgramDataPackageServiceImpl.DataPackageConfig();
+        config.setWorkers(1);
+        config.setQueueCapacity(1);
+        this.packageService = newPackageService(config);
+
+        // the first worksheet holds the only worker so the queue stays full
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(this.facilitySiteService).streamFacilities(any(), any(), any());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            this.packageService.writeDataPackage("GADNR", (short) 2019, outputStream);
+            fail("Expected the package to be rejected");
+        } catch (ServiceBusyException e) {
+            assertEquals(0, outputStream.size());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private ProgramDataPackageServiceImpl newPackageService(ProgramDataPackageServiceImpl.DataPackageConfig config) {
+
+        return new ProgramDataPackageServiceImpl(config,
+            this.facilitySiteService, this.contactService, this.releasePointService, this.emissionsUnitService,
+            this.emissionsProcessService, this.controlService, this.controlPathService, this.reportingPeriodService,
+            this.operatingDetailService, this.emissionService);
+    }
+}
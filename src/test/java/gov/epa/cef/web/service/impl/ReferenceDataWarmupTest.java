@@ -0,0 +1,162 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.domain.EmissionsReport;
+import gov.epa.cef.web.domain.Pollutant;
+import gov.epa.cef.web.service.LookupBundleService;
+import gov.epa.cef.web.service.LookupSearchService;
+import gov.epa.cef.web.service.LookupService;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+import java.time.Year;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ReferenceDataWarmupTest {
+
+    @Mock
+    private LookupService lookupService;
+
+    @Mock
+    private LookupSearchService lookupSearchService;
+
+    @Mock
+    private LookupBundleService lookupBundleService;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionFactory sessionFactory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManager entityManager;
+
+    @Mock
+    private TypedQuery<Object> query;
+
+    @Before
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void init() {
+
+        EntityType pollutant = mock(EntityType.class);
+        when(pollutant.getJavaType()).thenReturn(Pollutant.class);
+        EntityType report = mock(EntityType.class);
+        when(report.getJavaType()).thenReturn(EmissionsReport.class);
+
+        Set<EntityType<?>> entities = new HashSet<>(Arrays.<EntityType<?>>asList(pollutant, report));
+        when(this.entityManagerFactory.getMetamodel().getEntities()).thenReturn(entities);
+        when(this.entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(this.sessionFactory);
+        when(this.entityManagerFactory.createEntityManager()).thenReturn(this.entityManager);
+
+        when(this.entityManager.createQuery(anyString(), any(Class.class))).thenReturn(this.query);
+        when(this.query.setHint(anyString(), any())).thenReturn(this.query);
+        when(this.query.getResultList()).thenReturn(Arrays.<Object>asList(new Pollutant(), new Pollutant(), new Pollutant()));
+    }
+
+    @Test
+    public void warmUp_LoadsCachedEntitiesAndQueries() {
+
+        ReferenceDataWarmup warmup = new ReferenceDataWarmup(this.lookupService, this.lookupSearchService,
+            this.lookupBundleService, this.entityManagerFactory, new ReferenceDataWarmup.ReferenceDataConfig());
+
+        assertEquals(Status.OUT_OF_SERVICE, warmup.health().getStatus());
+
+        warmup.warmUp(true);
+
+        Health health = warmup.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(1, health.getDetails().get("tables"));
+        assertEquals(3, health.getDetails().get("rows"));
+        assertEquals(Collections.emptyList(), health.getDetails().get("failures"));
+
+        // only the entities with a cache region are loaded
+        verify(this.entityManagerFactory.getCache()).evict(Pollutant.class);
+        verify(this.entityManagerFactory.getCache(), never()).evict(EmissionsReport.class);
+        verify(this.entityManager).createQuery("select e from " + Pollutant.class.getName() + " e", Pollutant.class);
+        verify(this.sessionFactory.getCache()).evictDefaultQueryRegion();
+
+        int lastYear = Year.now().getValue() - 1;
+        verify(this.lookupService).retrievePollutants();
+        verify(this.lookupService).retrieveCurrentPollutants(lastYear);
+        verify(this.lookupService).retrieveCurrentPollutants(lastYear - 1);
+        verify(this.lookupSearchService).rebuild();
+    }
+
+    @Test
+    public void warmUp_FailedQueryStillReady() {
+
+        when(this.lookupService.retrieveNaicsCode()).thenThrow(new IllegalStateException("connection refused"));
+
+        ReferenceDataWarmup warmup = new ReferenceDataWarmup(this.lookupService, this.lookupSearchService,
+            this.lookupBundleService, this.entityManagerFactory, new ReferenceDataWarmup.ReferenceDataConfig());
+
+        warmup.warmUp(false);
+
+        Health health = warmup.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(Collections.singletonList("naicsCodes"), health.getDetails().get("failures"));
+
+        verify(this.sessionFactory.getCache(), never()).evictDefaultQueryRegion();
+    }
+
+    @Test
+    public void refresh_Disabled() {
+
+        ReferenceDataWarmup.ReferenceDataConfig config = new ReferenceDataWarmup.ReferenceDataConfig();
+        config.setWarmup(false);
+
+        ReferenceDataWarmup warmup = new ReferenceDataWarmup(this.lookupService, this.lookupSearchService,
+            this.lookupBundleService, this.entityManagerFactory, config);
+
+        assertEquals(Status.UP, warmup.health().getStatus());
+
+        warmup.refresh();
+
+        verifyZeroInteractions(this.lookupService);
+        verify(this.entityManagerFactory, never()).createEntityManager();
+
+        // SCC updates still reach the search indexes and bundles
+        verify(this.lookupSearchService).rebuild();
+        verify(this.lookupBundleService).invalidate();
+    }
+}
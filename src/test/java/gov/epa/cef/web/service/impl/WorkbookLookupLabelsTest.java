@@ -0,0 +1,78 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.service.impl;
+
+import gov.epa.cef.web.config.TestCategories;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@Category(TestCategories.FastTest.class)
+public class WorkbookLookupLabelsTest {
+
+    @Test
+    public void label_Should_MatchLikeExcel() throws Exception {
+
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+
+            Sheet status = wb.createSheet("OperatingStatusCode");
+            addRow(status, 0, "description", "code");
+            addRow(status, 1, "Operating", "OP");
+            addRow(status, 2, "Permanently Shutdown", "PS");
+            addRow(status, 3, "Duplicate", "OP");
+
+            Sheet naics = wb.createSheet("NaicsCode");
+            addRow(naics, 0, "description", "code");
+            Row row = naics.createRow(1);
+            row.createCell(0).setCellValue("Accounting (5412)");
+            row.createCell(1).setCellValue(5412);
+
+            WorkbookLookupLabels labels = new WorkbookLookupLabels(wb);
+
+            // first match wins and text matches ignore case
+            assertEquals("Operating", labels.label("OperatingStatusCode", "OP", true));
+            assertEquals("Permanently Shutdown", labels.label("OperatingStatusCode", "ps", true));
+            assertNull(labels.label("OperatingStatusCode", "XX", true));
+            assertNull(labels.label("OperatingStatusCode", null, true));
+
+            // numbers only match number cells
+            assertEquals("Accounting (5412)", labels.label("NaicsCode", "5412", false));
+            assertEquals("Accounting (5412)", labels.label("NaicsCode", "5412.0", false));
+            assertNull(labels.label("NaicsCode", "5412", true));
+            assertNull(labels.label("NaicsCode", "abc", false));
+
+            Cell cell = wb.createSheet("Facility").createRow(0).createCell(0);
+            labels.setLabel(cell, "NaicsCode", "9999", false);
+            assertEquals(CellType.STRING, cell.getCellType());
+            assertEquals("", cell.getStringCellValue());
+        }
+    }
+
+    private void addRow(Sheet sheet, int rowNum, String label, String code) {
+
+        Row row = sheet.createRow(rowNum);
+        row.createCell(0).setCellValue(label);
+        row.createCell(1).setCellValue(code);
+    }
+}
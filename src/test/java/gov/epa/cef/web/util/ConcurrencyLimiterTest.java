@@ -0,0 +1,99 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.util;
+
+import gov.epa.cef.web.config.TestCategories;
+import gov.epa.cef.web.exception.ApplicationException;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Category(TestCategories.FastTest.class)
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void call_Should_QueueCallers_When_LimitReached() throws Exception {
+
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1, Duration.ofSeconds(10));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread first = new Thread(() -> limiter.run(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        }));
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread second = new Thread(() -> limiter.run(() -> {}));
+        second.start();
+
+        for (int i = 0; i < 100 && limiter.getQueueDepth() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, limiter.getActiveCount());
+        assertEquals(1, limiter.getQueueDepth());
+
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        assertEquals(0, limiter.getActiveCount());
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals("done", limiter.call(() -> "done"));
+    }
+
+    @Test(expected = ApplicationException.class)
+    public void call_Should_Fail_When_QueueTimeoutExpires() throws Exception {
+
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1, Duration.ofMillis(50));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread first = new Thread(() -> limiter.run(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        }));
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            limiter.run(() -> {});
+        } finally {
+            release.countDown();
+            first.join(5000);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * © Copyright 2019 EPA CAERS Project Team
+ *
+ * This file is part of the Common Air Emissions Reporting System (CAERS).
+ *
+ * CAERS is free software: you can redistribute it and/or modify it under the 
+ * terms of the GNU General Public License as published by the Free Software Foundation, 
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * CAERS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without 
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with CAERS.  If 
+ * not, see <https://www.gnu.org/licenses/>.
+*/
+package gov.epa.cef.web.util;
+
+import gov.epa.cef.web.annotation.CsvColumn;
+import gov.epa.cef.web.annotation.CsvFileName;
+import gov.epa.cef.web.config.TestCategories;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(TestCategories.FastTest.class)
+public class CsvBuilderTest {
+
+    @Test
+    public void testBuildWritesColumnsInOrder() {
+
+        CsvBuilder<Row> builder = new CsvBuilder<>(Row.class,
+            Arrays.asList(new Row(1L, "Unit \"A\""), new Row(2L, null)));
+
+        assertEquals("\"Id\",\"Name\"\n\"1\",\"Unit \"\"A\"\"\"\n\"2\",\"\"\n", builder.build().toString());
+        assertEquals("rows.csv", builder.fileName());
+    }
+
+    @Test
+    public void testWriteMatchesBuild() throws IOException {
+
+        CsvBuilder<Row> builder = new CsvBuilder<>(Row.class, Collections.singletonList(new Row(3L, "B")));
+
+        StringWriter writer = new StringWriter();
+        builder.write(writer);
+
+        assertEquals(builder.build().toString(), writer.toString());
+    }
+
+    @Test
+    public void testGetterErrorWrittenToCell() {
+
+        CsvBuilder<FailingRow> builder = new CsvBuilder<>(FailingRow.class, Collections.singletonList(new FailingRow()));
+
+        assertEquals("\"Value\"\n\"InvocationTargetException: bad value\"\n", builder.build().toString());
+        assertEquals("file.csv", builder.fileName());
+    }
+
+    @CsvFileName(name = "rows.csv")
+    public static class Row {
+
+        private final Long id;
+
+        private final String name;
+
+        Row(Long id, String name) {
+
+            this.id = id;
+            this.name = name;
+        }
+
+        @CsvColumn(name = "Name", order = 2)
+        public String getName() {
+
+            return name;
+        }
+
+        @CsvColumn(name = "Id", order = 1)
+        public Long getId() {
+
+            return id;
+        }
+    }
+
+    public static class FailingRow {
+
+        @CsvColumn(name = "Value", order = 1)
+        public String getValue() {
+
+            throw new IllegalStateException("bad value");
+        }
+    }
+}